@@ -17,5 +17,18 @@ REM command below (using 2G as an example):
 REM
 REM     -Xmx2G
 
+REM To reduce startup time when invoking the importer many times (Java 13+),
+REM you can record the classes it loads in a class data sharing archive and
+REM reuse them on subsequent runs. Record the archive once, importing a
+REM representative document, by adding the following to the java command:
+REM
+REM     -XX:ArchiveClassesAtExit=importer.jsa
+REM
+REM Then replace it with the following for all other runs:
+REM
+REM     -XX:SharedArchiveFile=importer.jsa
+REM
+REM Record the archive again whenever you upgrade the importer or Java.
+
 
 java -Dlog4j2.configurationFile="file:///%IMPORTER_ROOT_DIR%log4j.properties" -Dfile.encoding=UTF8 -cp "./lib/*;./classes" com.norconex.importer.Importer %*
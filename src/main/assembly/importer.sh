@@ -18,4 +18,17 @@ export IMPORTER_ROOT_DIR=$(realpath $(dirname $0))
 #
 #     -Xmx2G
 
+# To reduce startup time when invoking the importer many times (Java 13+),
+# you can record the classes it loads in a class data sharing archive and
+# reuse them on subsequent runs. Record the archive once, importing a
+# representative document, by adding the following to the java command:
+#
+#     -XX:ArchiveClassesAtExit=importer.jsa
+#
+# Then replace it with the following for all other runs:
+#
+#     -XX:SharedArchiveFile=importer.jsa
+#
+# Record the archive again whenever you upgrade the importer or Java.
+
 java -Dlog4j2.configurationFile="file:${IMPORTER_ROOT_DIR}/log4j.properties" -Dfile.encoding=UTF8 -cp "./lib/*:./classes" com.norconex.importer.Importer "$@"
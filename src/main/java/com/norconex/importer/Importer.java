@@ -19,7 +19,6 @@ import static com.norconex.importer.ImporterEvent.IMPORTER_PARSER_END;
 import static com.norconex.importer.ImporterEvent.IMPORTER_PARSER_ERROR;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStreamWriter;
@@ -32,10 +31,14 @@ import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
 import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,6 +56,7 @@ import com.norconex.importer.doc.Doc;
 import com.norconex.importer.doc.DocInfo;
 import com.norconex.importer.doc.DocMetadata;
 import com.norconex.importer.handler.HandlerContext;
+import com.norconex.importer.handler.HandlerProfiler;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.parser.DocumentParserException;
 import com.norconex.importer.parser.IDocumentParser;
@@ -63,6 +67,8 @@ import com.norconex.importer.response.ImporterResponse;
 import com.norconex.importer.response.ImporterStatus;
 import com.norconex.importer.response.ImporterStatus.Status;
 import com.norconex.importer.util.CharsetUtil;
+import com.norconex.importer.util.MemoryBudget;
+import com.norconex.importer.util.MemoryBudget.Reservation;
 
 /**
  * Principal class responsible for importing documents.
@@ -80,10 +86,21 @@ public class Importer {
 	// Only used when using command-line or invoking
 	// importDocument(ImporterRequest). The "doc" version has its own.
 	private CachedStreamFactory requestStreamFactory;
+	// Disk-only, for documents not fitting in the memory budget.
+	private CachedStreamFactory spillStreamFactory;
+	private final MemoryBudget memoryBudget;
+    // Null when profiling is disabled
+    private final HandlerProfiler handlerProfiler;
 
 	private final EventManager eventManager;
-    private static final InheritableThreadLocal<Importer> INSTANCE =
-            new InheritableThreadLocal<>();
+    private static final ThreadLocal<Importer> INSTANCE =
+            new ThreadLocal<>();
+    // Report file -> profiler of the last importer created with it,
+    // written by a single shutdown hook.
+    private static final Map<Path, HandlerProfiler> PROFILING_REPORTS =
+            new ConcurrentHashMap<>();
+    private static final AtomicBoolean PROFILING_HOOK_ADDED =
+            new AtomicBoolean();
 
     /**
      * Creates a new importer with default configuration.
@@ -111,6 +128,9 @@ public class Importer {
             this.importerConfig = new ImporterConfig();
         }
         this.eventManager = new EventManager(eventManager);
+        this.memoryBudget = new MemoryBudget(
+                this.importerConfig.getMaxMemoryBudget());
+        this.handlerProfiler = createHandlerProfiler(this.importerConfig);
 
         INSTANCE.set(this);
     }
@@ -119,6 +139,36 @@ public class Importer {
         return INSTANCE.get();
     }
 
+    private static HandlerProfiler createHandlerProfiler(
+            ImporterConfig config) {
+        if (config.getProfilingSampleRate() <= 0) {
+            return null;
+        }
+        HandlerProfiler profiler =
+                new HandlerProfiler(config.getProfilingSampleRate());
+        Path reportFile = config.getProfilingReportFile();
+        if (reportFile != null) {
+            PROFILING_REPORTS.put(
+                    reportFile.toAbsolutePath().normalize(), profiler);
+            if (PROFILING_HOOK_ADDED.compareAndSet(false, true)) {
+                Runtime.getRuntime().addShutdownHook(new Thread(
+                        Importer::writeProfilingReports,
+                        "importer-profiling-report"));
+            }
+        }
+        return profiler;
+    }
+    private static void writeProfilingReports() {
+        PROFILING_REPORTS.forEach((reportFile, profiler) -> {
+            try {
+                profiler.writeReport(reportFile);
+            } catch (IOException e) {
+                LOG.error("Could not write handler profiling report: {}",
+                        reportFile, e);
+            }
+        });
+    }
+
     /**
      * Invokes the importer from the command line.
      * @param args Invoke it once without any arguments to get a
@@ -146,6 +196,29 @@ public class Importer {
         return eventManager;
     }
 
+    /**
+     * Gets the memory budget shared by all documents imported concurrently
+     * by this importer. Useful to monitor memory usage.
+     * @return memory budget
+     * @since 3.1.0
+     * @see ImporterConfig#getMaxMemoryBudget()
+     */
+    public MemoryBudget getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Gets the profiler recording handler execution statistics on
+     * a sample of documents, to obtain a report on demand.
+     * @return handler profiler, or <code>null</code> if profiling
+     *     is disabled
+     * @since 3.1.0
+     * @see ImporterConfig#setProfilingSampleRate(double)
+     */
+    public HandlerProfiler getHandlerProfiler() {
+        return handlerProfiler;
+    }
+
     /**
      * Imports a document according to the importer configuration.
      * @param req request instructions for importing
@@ -153,13 +226,25 @@ public class Importer {
      * @since 3.0.0
      */
     public ImporterResponse importDocument(ImporterRequest req) {
+        // Nested documents are imported with the budget already bound.
+        MemoryBudget parentBudget = MemoryBudget.bind(memoryBudget);
+        Reservation reservation = null;
         try {
-            return importDocument(toDocument(req));
+            reservation = admitDocument(req.getReference(),
+                    getRequestLength(req), parentBudget == memoryBudget);
+            // Without budget, content is cached on disk as it is read
+            return importAdmittedDocument(toDocument(req, reservation == null
+                    ? spillStreamFactory() : requestStreamFactory()));
         } catch (ImporterException e) {
             LOG.warn("Importer request failed: {}", req, e);
             return new ImporterResponse(req.getReference(),
                     new ImporterStatus(new ImporterException(
                             "Importer request failed: " + req, e)));
+        } finally {
+            if (reservation != null) {
+                reservation.close();
+            }
+            MemoryBudget.bind(parentBudget);
         }
     }
     /**
@@ -169,6 +254,31 @@ public class Importer {
      * @since 3.0.0
      */
     public ImporterResponse importDocument(Doc document) {
+        // Nested documents are imported with the budget already bound.
+        MemoryBudget parentBudget = MemoryBudget.bind(memoryBudget);
+        Reservation reservation = null;
+        try {
+            reservation = admitDocument(document.getReference(),
+                    document.getInputStream().length(),
+                    parentBudget == memoryBudget);
+            if (reservation == null) {
+                spillToDisk(document);
+            }
+            return importAdmittedDocument(document);
+        } catch (ImporterException e) {
+            LOG.warn("Could not import document: {}", document, e);
+            return new ImporterResponse(document.getReference(),
+                    new ImporterStatus(new ImporterException(
+                            "Could not import document: " + document, e)));
+        } finally {
+            if (reservation != null) {
+                reservation.close();
+            }
+            MemoryBudget.bind(parentBudget);
+        }
+    }
+
+    private ImporterResponse importAdmittedDocument(Doc document) {
         // Note: Doc reference, InputStream and metadata are all null-safe.
 
         prepareDocumentForImporting(document);
@@ -176,7 +286,13 @@ public class Importer {
         //--- Document Handling ---
         try {
             List<Doc> nestedDocs = new ArrayList<>();
-            ImporterStatus filterStatus = doImportDocument(document, nestedDocs);
+            // Pre and post-parse handlers are profiled for the same
+            // documents.
+            HandlerProfiler profiler =
+                    handlerProfiler != null && handlerProfiler.sample()
+                            ? handlerProfiler : null;
+            ImporterStatus filterStatus =
+                    doImportDocument(document, nestedDocs, profiler);
             ImporterResponse response = null;
             if (filterStatus.isRejected()) {
                 response = new ImporterResponse(
@@ -184,11 +300,24 @@ public class Importer {
             } else {
                 response = new ImporterResponse(document);
             }
-            for (Doc childDoc : nestedDocs) {
-                ImporterResponse nestedResponse = importDocument(childDoc);
-                if (nestedResponse != null) {
-                    response.addNestedResponse(nestedResponse);
+            // Child documents hold on to their content until imported
+            List<Reservation> pending = new ArrayList<>(nestedDocs.size());
+            try {
+                for (Doc childDoc : nestedDocs) {
+                    pending.add(memoryBudget.acquire(Math.min(
+                            childDoc.getInputStream().length(),
+                            importerConfig.getMaxMemoryInstance())));
+                }
+                for (int i = 0; i < nestedDocs.size(); i++) {
+                    ImporterResponse nestedResponse =
+                            importDocument(nestedDocs.get(i));
+                    pending.get(i).close();
+                    if (nestedResponse != null) {
+                        response.addNestedResponse(nestedResponse);
+                    }
                 }
+            } finally {
+                pending.forEach(Reservation::close);
             }
 
             //--- Response Processor ---
@@ -205,6 +334,72 @@ public class Importer {
         }
     }
 
+    // Top-level documents wait for enough budget to hold their content
+    // in memory (up to maxMemoryInstance). If still not available after
+    // waiting, null is returned and their content must be cached on disk
+    // instead. Nested documents are already accounted for by their parent.
+    private Reservation admitDocument(
+            String reference, long length, boolean nested)
+                    throws ImporterException {
+        if (nested || memoryBudget.isUnlimited()) {
+            return memoryBudget.acquire(0);
+        }
+        long size = importerConfig.getMaxMemoryInstance();
+        if (length >= 0) {
+            size = Math.min(length, size);
+        }
+        Reservation reservation;
+        try {
+            reservation = memoryBudget.reserve(
+                    size, importerConfig.getMemoryBudgetWait());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ImporterException(
+                    "Interrupted while waiting for memory budget.", e);
+        }
+        if (reservation == null) {
+            LOG.debug("Memory budget exhausted, caching content on disk "
+                    + "for: {}", reference);
+        }
+        return reservation;
+    }
+
+    // Content length when known before reading it, else -1
+    private static long getRequestLength(ImporterRequest req) {
+        if (req.getFile() != null && req.getFile().toFile().isFile()) {
+            return req.getFile().toFile().length();
+        }
+        if (req.getInputStream() == null && req.getFile() == null) {
+            return 0;
+        }
+        return -1;
+    }
+
+    // For documents already created, whose content may already be
+    // in memory: moves it to disk and releases the memory one.
+    private void spillToDisk(Doc document) throws ImporterException {
+        CachedInputStream memoryContent = document.getInputStream();
+        if (!memoryContent.isInMemory()) {
+            // already cached on disk
+            return;
+        }
+        try (CachedOutputStream out =
+                spillStreamFactory().newOuputStream()) {
+            IOUtils.copy(memoryContent, out);
+            document.setInputStream(out.getInputStream());
+        } catch (IOException e) {
+            throw new ImporterException(
+                    "Could not cache document content on disk: "
+                            + document.getReference(), e);
+        }
+        try {
+            memoryContent.dispose();
+        } catch (IOException e) {
+            LOG.debug("Could not dispose of document content: {}",
+                    document.getReference(), e);
+        }
+    }
+
     private void prepareDocumentForImporting(Doc document) {
         DocInfo docInfo = document.getDocInfo();
 
@@ -248,15 +443,15 @@ public class Importer {
 
     // We deal with stream, but since only one of stream or file can be set,
     // convert file to stream only if set.
-    private Doc toDocument(ImporterRequest req) throws ImporterException {
-        ensureRequestStreamFactory();
-
+    private Doc toDocument(
+            ImporterRequest req, CachedStreamFactory streamFactory)
+                    throws ImporterException {
         CachedInputStream is;
         String ref = StringUtils.trimToEmpty(req.getReference());
         if (req.getInputStream() != null) {
             // From input stream
             is = CachedInputStream.cache(
-                    req.getInputStream(), requestStreamFactory);
+                    req.getInputStream(), streamFactory);
         } else if (req.getFile() != null) {
             // From file
             if (!req.getFile().toFile().isFile()) {
@@ -265,8 +460,8 @@ public class Importer {
                                 + req.getFile().toAbsolutePath());
             }
             try {
-                is = requestStreamFactory.newInputStream(
-                        new FileInputStream(req.getFile().toFile()));
+                is = streamFactory.newInputStream(
+                        Files.newInputStream(req.getFile()));
             } catch (IOException e) {
                 throw new ImporterException("Could not import file: "
                         + req.getFile().toAbsolutePath(), e);
@@ -275,7 +470,7 @@ public class Importer {
                 ref = req.getFile().toFile().getAbsolutePath();
             }
         } else {
-            is = requestStreamFactory.newInputStream();
+            is = streamFactory.newInputStream();
         }
 
         DocInfo info = new DocInfo(ref);
@@ -285,6 +480,15 @@ public class Importer {
         return new Doc(info, is, req.getMetadata());
     }
 
+    private CachedStreamFactory requestStreamFactory() {
+        ensureRequestStreamFactory();
+        return requestStreamFactory;
+    }
+    private CachedStreamFactory spillStreamFactory() {
+        ensureRequestStreamFactory();
+        return spillStreamFactory;
+    }
+
     private synchronized void ensureRequestStreamFactory() {
         if (requestStreamFactory != null) {
             return;
@@ -307,10 +511,11 @@ public class Importer {
                 (int) this.importerConfig.getMaxMemoryPool(),
                 (int) this.importerConfig.getMaxMemoryInstance(),
                 this.importerConfig.getTempDir());
+        this.spillStreamFactory = new CachedStreamFactory(0, 0, tempDir);
     }
 
     private ImporterStatus doImportDocument(
-            Doc document, List<Doc> nestedDocs)
+            Doc document, List<Doc> nestedDocs, HandlerProfiler profiler)
                     throws ImporterException, IOException {
         ImporterStatus filterStatus = null;
 
@@ -319,7 +524,8 @@ public class Importer {
                 document,
                 nestedDocs,
                 importerConfig.getPreParseConsumer(),
-                ParseState.PRE);
+                ParseState.PRE,
+                profiler);
         if (!filterStatus.isSuccess()) {
             return filterStatus;
         }
@@ -332,7 +538,8 @@ public class Importer {
                 document,
                 nestedDocs,
                 importerConfig.getPostParseConsumer(),
-                ParseState.POST);
+                ParseState.POST,
+                profiler);
         if (!filterStatus.isSuccess()) {
             return filterStatus;
         }
@@ -351,12 +558,14 @@ public class Importer {
             Doc doc,
             List<Doc> childDocsHolder,
             Consumer<HandlerContext> consumer,
-            ParseState parseState) throws ImporterException {
+            ParseState parseState,
+            HandlerProfiler profiler) throws ImporterException {
 
         if (consumer == null) {
             return PASSING_FILTER_STATUS;
         }
-        HandlerContext ctx = new HandlerContext(doc, eventManager, parseState);
+        HandlerContext ctx = new HandlerContext(
+                doc, eventManager, parseState, profiler);
         try {
             consumer.accept(ctx);
         } catch (UndeclaredThrowableException e) {
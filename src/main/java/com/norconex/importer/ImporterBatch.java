@@ -0,0 +1,377 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.norconex.importer.response.ImporterResponse;
+
+/**
+ * <p>
+ * Imports many files in a single JVM, sharing the same {@link Importer}
+ * between a number of parallel workers. Used by {@link ImporterLauncher}
+ * in batch mode.
+ * </p>
+ * <p>
+ * Files to import are obtained from one of:
+ * </p>
+ * <ul>
+ *   <li>A directory, walked recursively.</li>
+ *   <li>A glob pattern (e.g., <code>/data/**&#47;*.pdf</code>), matched
+ *       against files under the deepest directory without wildcards.</li>
+ *   <li>A file listing one file path per line (blank lines and lines
+ *       starting with "#" are ignored).</li>
+ * </ul>
+ * <p>
+ * Files are walked lazily and handed over to workers as they free up,
+ * so very large batches are not held in memory. Each imported document
+ * is written under the output directory, mirroring its relative path,
+ * or next to the input file when no output directory is set.
+ * Files walked that are batch outputs (named like
+ * <code>*-imported.txt</code>, when not written elsewhere) and the
+ * checkpoint file are not imported. Files or directories that cannot
+ * be read are reported as errors without stopping the batch.
+ * </p>
+ * <p>
+ * When a checkpoint file is set, the path of every file imported
+ * or rejected is appended to it. Files found in the checkpoint file
+ * are skipped, so an interrupted batch can be resumed by running it
+ * again. Files that failed are not recorded and are attempted again.
+ * </p>
+ * @author Pascal Essiembre
+ * @since 3.1.0
+ */
+final class ImporterBatch {
+
+    private static final String GLOB_CHARS = "*?[{";
+    private static final String OUTPUT_SUFFIX = "-imported.txt";
+    // Output files, with nested document and metadata file suffixes
+    private static final Pattern OUTPUT_NAME = Pattern.compile(
+            ".*-imported(_\\d+-\\d+)?\\.txt(\\.[^.]+)?");
+
+    private final Importer importer;
+    private Path outputDir;
+    private String outputFormat;
+    private int workers = Runtime.getRuntime().availableProcessors();
+    private Path checkpointFile;
+
+    private final LongAdder imported = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private long elapsedMillis;
+
+    private Set<String> checkpoints = Collections.emptySet();
+    private BufferedWriter checkpointWriter;
+    private Path baseDir;
+
+    ImporterBatch(Importer importer) {
+        super();
+        this.importer = importer;
+    }
+
+    ImporterBatch setOutputDir(Path outputDir) {
+        this.outputDir = outputDir;
+        return this;
+    }
+    ImporterBatch setOutputFormat(String outputFormat) {
+        this.outputFormat = outputFormat;
+        return this;
+    }
+    ImporterBatch setWorkers(int workers) {
+        this.workers = Math.max(1, workers);
+        return this;
+    }
+    ImporterBatch setCheckpointFile(Path checkpointFile) {
+        this.checkpointFile = checkpointFile;
+        return this;
+    }
+
+    long getImported() {
+        return imported.sum();
+    }
+    long getRejected() {
+        return rejected.sum();
+    }
+    long getErrors() {
+        return errors.sum();
+    }
+    long getSkipped() {
+        return skipped.sum();
+    }
+
+    /**
+     * Imports all files obtained from the given input, returning when
+     * they have all been processed.
+     * @param input directory, glob pattern, or file listing files
+     * @throws IOException could not read input or checkpoint file
+     * @throws InterruptedException interrupted while waiting for workers
+     */
+    void run(String input) throws IOException, InterruptedException {
+        long start = System.currentTimeMillis();
+        loadCheckpoints();
+        AtomicInteger threadCount = new AtomicInteger();
+        // Bounded queue: the caller imports files itself when it is full
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workers * 2),
+                r -> new Thread(r,
+                        "importer-batch-" + threadCount.incrementAndGet()),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        try {
+            forEachFile(input, file -> {
+                if (checkpoints.contains(checkpointKey(file))) {
+                    skipped.increment();
+                } else {
+                    executor.execute(() -> importFile(file));
+                }
+            });
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            closeCheckpoints();
+            elapsedMillis = System.currentTimeMillis() - start;
+        }
+    }
+
+    /**
+     * Gets a summary of the last run, with throughput and error counts.
+     * @return summary
+     */
+    String getSummary() {
+        long processed = getImported() + getRejected() + getErrors();
+        double seconds = Math.max(elapsedMillis, 1) / 1000d;
+        return String.format("Processed %d file(s) in %.1f seconds "
+                + "(%.1f files/s, %.2f MB/s): %d imported, %d rejected, "
+                + "%d error(s), %d skipped from checkpoint.",
+                processed, seconds, processed / seconds,
+                bytes.sum() / 1048576d / seconds,
+                getImported(), getRejected(), getErrors(), getSkipped());
+    }
+
+    private void importFile(Path file) {
+        boolean success;
+        try {
+            bytes.add(Files.size(file));
+            ImporterResponse response =
+                    importer.importDocument(new ImporterRequest(file));
+            Path output = outputFile(file);
+            if (output.getParent() != null) {
+                Files.createDirectories(output.getParent());
+            }
+            boolean written = ImporterLauncher.writeResponse(
+                    response, output.toString(), outputFormat, 0, 0);
+            if (!written || response.getImporterStatus().isError()) {
+                errors.increment();
+                return;
+            }
+            success = response.isSuccess();
+        } catch (Exception e) {
+            fileError("importing", file, e);
+            return;
+        }
+        // counted once checkpointed, so it is never also an error
+        try {
+            checkpoint(file);
+        } catch (IOException e) {
+            fileError("writing checkpoint for", file, e);
+            return;
+        }
+        if (success) {
+            imported.increment();
+        } else {
+            rejected.increment();
+        }
+    }
+
+    private void fileError(String action, Path file, Exception e) {
+        errors.increment();
+        System.err.println(
+                "A problem occured while " + action + " " + file);
+        e.printStackTrace(System.err);
+    }
+
+    private Path outputFile(Path file) {
+        if (outputDir == null) {
+            return Paths.get(file + OUTPUT_SUFFIX);
+        }
+        Path absFile = file.toAbsolutePath().normalize();
+        Path rel;
+        if (absFile.startsWith(baseDir)) {
+            rel = baseDir.relativize(absFile);
+        } else if (absFile.getRoot() != null) {
+            rel = absFile.getRoot().relativize(absFile);
+        } else {
+            rel = absFile;
+        }
+        return outputDir.resolve(rel + OUTPUT_SUFFIX);
+    }
+
+    private void forEachFile(String input, Consumer<Path> action)
+            throws IOException {
+        if (StringUtils.containsAny(input, GLOB_CHARS)) {
+            forEachGlobFile(input, action);
+            return;
+        }
+        Path path = Paths.get(input);
+        if (Files.isDirectory(path)) {
+            baseDir = path.toAbsolutePath().normalize();
+            walk(path, p -> true, action);
+            return;
+        }
+        if (Files.isRegularFile(path)) {
+            baseDir = Paths.get("").toAbsolutePath();
+            try (Stream<String> lines =
+                    Files.lines(path, StandardCharsets.UTF_8)) {
+                lines.map(String::trim)
+                        .filter(line -> !line.isEmpty()
+                                && !line.startsWith("#"))
+                        .map(Paths::get)
+                        .forEach(action);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            return;
+        }
+        throw new IOException("Batch input is not a directory, "
+                + "a file list or a glob pattern: " + input);
+    }
+
+    private void forEachGlobFile(String glob, Consumer<Path> action)
+            throws IOException {
+        // Walk from the deepest directory without wildcards
+        String dir = StringUtils.substring(
+                glob, 0, StringUtils.indexOfAny(glob, GLOB_CHARS));
+        int sep = Math.max(dir.lastIndexOf('/'), dir.lastIndexOf('\\'));
+        if (sep < 0) {
+            dir = "";
+        } else {
+            // keep the separator when it is the file system root
+            dir = dir.substring(0, sep == 0 ? 1 : sep);
+        }
+        Path root = Paths.get(dir);
+        if (!Files.isDirectory(root)) {
+            throw new IOException("Batch glob pattern does not start "
+                    + "with an existing directory: " + glob);
+        }
+        baseDir = root.toAbsolutePath().normalize();
+        walk(root, FileSystems.getDefault().getPathMatcher("glob:" + glob),
+                action);
+    }
+
+    // Unlike Files#walk, does not stop on the first file or directory
+    // that cannot be read.
+    private void walk(Path root, PathMatcher matcher, Consumer<Path> action)
+            throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(
+                    Path file, BasicFileAttributes attrs) {
+                if (matcher.matches(file) && Files.isRegularFile(file)
+                        && !isOwnFile(file)) {
+                    action.accept(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                fileError("reading", file, e);
+                return FileVisitResult.CONTINUE;
+            }
+            @Override
+            public FileVisitResult postVisitDirectory(
+                    Path dir, IOException e) {
+                if (e != null) {
+                    fileError("reading", dir, e);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    // Whether a file walked was written by this batch (or a previous run)
+    private boolean isOwnFile(Path file) {
+        Path absFile = file.toAbsolutePath().normalize();
+        if (checkpointFile != null && absFile.equals(
+                checkpointFile.toAbsolutePath().normalize())) {
+            return true;
+        }
+        return OUTPUT_NAME.matcher(absFile.getFileName().toString()).matches()
+                && (outputDir == null || absFile.startsWith(
+                        outputDir.toAbsolutePath().normalize()));
+    }
+
+    private void loadCheckpoints() throws IOException {
+        if (checkpointFile == null) {
+            return;
+        }
+        checkpoints = ConcurrentHashMap.newKeySet();
+        if (Files.isRegularFile(checkpointFile)) {
+            try (Stream<String> lines =
+                    Files.lines(checkpointFile, StandardCharsets.UTF_8)) {
+                lines.forEach(checkpoints::add);
+            }
+        }
+        checkpointWriter = Files.newBufferedWriter(
+                checkpointFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private synchronized void checkpoint(Path file) throws IOException {
+        if (checkpointWriter == null) {
+            return;
+        }
+        checkpointWriter.write(checkpointKey(file));
+        checkpointWriter.newLine();
+        checkpointWriter.flush();
+    }
+
+    private synchronized void closeCheckpoints() throws IOException {
+        if (checkpointWriter != null) {
+            checkpointWriter.close();
+            checkpointWriter = null;
+        }
+    }
+
+    private static String checkpointKey(Path file) {
+        return file.toAbsolutePath().normalize().toString();
+    }
+}
@@ -35,9 +35,11 @@ import com.norconex.commons.lang.xml.IXMLConfigurable;
 import com.norconex.commons.lang.xml.XML;
 import com.norconex.commons.lang.xml.flow.XMLFlow;
 import com.norconex.importer.doc.Doc;
+import com.norconex.importer.handler.FlowOptimizer;
 import com.norconex.importer.handler.HandlerConsumer;
 import com.norconex.importer.handler.HandlerContext;
 import com.norconex.importer.handler.HandlerPredicate;
+import com.norconex.importer.handler.HandlerProfiler;
 import com.norconex.importer.handler.IImporterHandler;
 import com.norconex.importer.parser.GenericDocumentParserFactory;
 import com.norconex.importer.parser.IDocumentParserFactory;
@@ -57,6 +59,16 @@ public class ImporterConfig implements IXMLConfigurable {
     /** 1 GB. */
     public static final long DEFAULT_MAX_MEM_POOL =
             DataUnit.GB.toBytes(1).intValue();
+    /**
+     * Default memory budget: unlimited.
+     * @since 3.1.0
+     */
+    public static final long DEFAULT_MAX_MEM_BUDGET = 0;
+    /**
+     * 30 seconds.
+     * @since 3.1.0
+     */
+    public static final long DEFAULT_MEM_BUDGET_WAIT = 30_000;
 
     private IDocumentParserFactory documentParserFactory =
             new GenericDocumentParserFactory();
@@ -73,7 +85,12 @@ public class ImporterConfig implements IXMLConfigurable {
     private Path tempDir = Paths.get(DEFAULT_TEMP_DIR_PATH);
     private long maxMemoryInstance = DEFAULT_MAX_MEM_INSTANCE;
     private long maxMemoryPool = DEFAULT_MAX_MEM_POOL;
+    private long maxMemoryBudget = DEFAULT_MAX_MEM_BUDGET;
+    private long memoryBudgetWait = DEFAULT_MEM_BUDGET_WAIT;
     private Path parseErrorsSaveDir;
+    private boolean optimizeFlow;
+    private double profilingSampleRate;
+    private Path profilingReportFile;
 
     public IDocumentParserFactory getParserFactory() {
         return documentParserFactory;
@@ -331,6 +348,128 @@ public class ImporterConfig implements IXMLConfigurable {
         this.maxMemoryPool = maxMemoryPool;
     }
 
+    /**
+     * <p>
+     * Gets the maximum number of bytes of memory all documents concurrently
+     * imported are expected to use together. This covers more than stream
+     * caching: DOM trees, text sections, pending child documents, etc.
+     * Zero or less means unlimited (default).
+     * </p>
+     * <p>
+     * New documents wait for memory to be available before being
+     * imported. Each document reserves up to {@link #getMaxMemoryInstance()}
+     * bytes for its content. The current usage is obtained with
+     * {@link Importer#getMemoryBudget()}.
+     * </p>
+     * @return max memory budget
+     * @since 3.1.0
+     */
+    public long getMaxMemoryBudget() {
+        return maxMemoryBudget;
+    }
+    /**
+     * Sets the maximum number of bytes of memory all documents concurrently
+     * imported are expected to use together. Zero or less means unlimited.
+     * @param maxMemoryBudget max memory budget
+     * @since 3.1.0
+     */
+    public void setMaxMemoryBudget(long maxMemoryBudget) {
+        this.maxMemoryBudget = maxMemoryBudget;
+    }
+
+    /**
+     * Gets the maximum number of milliseconds a new document waits for
+     * enough memory budget to be available. When the wait is over, the
+     * document content is cached to disk only and the import proceeds.
+     * Default is {@link #DEFAULT_MEM_BUDGET_WAIT}. Has no effect when
+     * the memory budget is unlimited.
+     * @return milliseconds to wait
+     * @since 3.1.0
+     */
+    public long getMemoryBudgetWait() {
+        return memoryBudgetWait;
+    }
+    /**
+     * Sets the maximum number of milliseconds a new document waits for
+     * enough memory budget to be available. Zero spills documents to disk
+     * right away when the budget is exhausted.
+     * @param memoryBudgetWait milliseconds to wait
+     * @since 3.1.0
+     */
+    public void setMemoryBudgetWait(long memoryBudgetWait) {
+        this.memoryBudgetWait = memoryBudgetWait;
+    }
+
+    /**
+     * Gets whether XML flows of handlers are optimized when loaded
+     * from XML. Default is <code>false</code>.
+     * @return <code>true</code> if optimizing
+     * @since 3.1.0
+     * @see FlowOptimizer
+     */
+    public boolean isOptimizeFlow() {
+        return optimizeFlow;
+    }
+    /**
+     * Sets whether XML flows of handlers are optimized when loaded
+     * from XML, so that cheap filters rejecting documents run
+     * before expensive handlers when it does not change the outcome.
+     * Has no effect on consumers set programmatically.
+     * @param optimizeFlow <code>true</code> to optimize
+     * @since 3.1.0
+     * @see FlowOptimizer
+     */
+    public void setOptimizeFlow(boolean optimizeFlow) {
+        this.optimizeFlow = optimizeFlow;
+    }
+
+    /**
+     * Gets the fraction of documents for which handler execution
+     * statistics are recorded. Default is zero (profiling disabled).
+     * @return sample rate, between 0 and 1
+     * @since 3.1.0
+     * @see HandlerProfiler
+     */
+    public double getProfilingSampleRate() {
+        return profilingSampleRate;
+    }
+    /**
+     * Sets the fraction of documents for which handler execution
+     * statistics (time spent, bytes read, rejections, etc.) are recorded.
+     * For instance, 0.01 profiles about one document out of a hundred.
+     * Statistics can be obtained from {@link Importer#getHandlerProfiler()}.
+     * @param profilingSampleRate sample rate, between 0 (disabled) and 1
+     * @since 3.1.0
+     * @see HandlerProfiler
+     */
+    public void setProfilingSampleRate(double profilingSampleRate) {
+        this.profilingSampleRate = profilingSampleRate;
+    }
+
+    /**
+     * Gets the file where the handler profiling report is written
+     * when the JVM shuts down. Default is <code>null</code> (no report
+     * written).
+     * @return report file
+     * @since 3.1.0
+     */
+    public Path getProfilingReportFile() {
+        return profilingReportFile;
+    }
+    /**
+     * Sets the file where the handler profiling report is written
+     * when the JVM shuts down. The report is written as CSV if
+     * the file extension is "csv", JSON otherwise. Only applicable when
+     * profiling is enabled. When several importers are created with the
+     * same report file, the last one created is reported.
+     * @param profilingReportFile report file
+     * @since 3.1.0
+     * @see #setProfilingSampleRate(double)
+     */
+    public void setProfilingReportFile(Path profilingReportFile) {
+        this.profilingReportFile = profilingReportFile;
+    }
+
     /**
      * @deprecated Since 3.0.0, use {@link #getMaxMemoryInstance()}.
      * @return byte amount
@@ -375,11 +514,27 @@ public class ImporterConfig implements IXMLConfigurable {
 
         xml.checkDeprecated("maxFilePoolCacheSize", "maxMemoryPool", true);
         setMaxMemoryPool(xml.getDataSize("maxMemoryPool", getMaxMemoryPool()));
+        setMaxMemoryBudget(
+                xml.getDataSize("maxMemoryBudget", getMaxMemoryBudget()));
+        setMemoryBudgetWait(xml.getDurationMillis(
+                "memoryBudgetWait", getMemoryBudgetWait()));
 
-        setPreParseConsumer(xmlFlow.parse(xml.getXML("preParseHandlers")));
+        setOptimizeFlow(xml.getBoolean("optimizeFlow", optimizeFlow));
+        setProfilingSampleRate(xml.getDouble(
+                "profiling/@sampleRate", profilingSampleRate));
+        setProfilingReportFile(xml.getPath(
+                "profiling/@reportFile", profilingReportFile));
+        XML preParseXML = xml.getXML("preParseHandlers");
+        XML postParseXML = xml.getXML("postParseHandlers");
+        if (optimizeFlow) {
+            FlowOptimizer optimizer = new FlowOptimizer();
+            optimizer.optimize(preParseXML);
+            optimizer.optimize(postParseXML);
+        }
+        setPreParseConsumer(xmlFlow.parse(preParseXML));
         setParserFactory(xml.getObjectImpl(IDocumentParserFactory.class,
                 "documentParserFactory", documentParserFactory));
-        setPostParseConsumer(xmlFlow.parse(xml.getXML("postParseHandlers")));
+        setPostParseConsumer(xmlFlow.parse(postParseXML));
         setResponseProcessors(xml.getObjectListImpl(
                 IImporterResponseProcessor.class,
                 "responseProcessors/responseProcessor", responseProcessors));
@@ -391,6 +546,12 @@ public class ImporterConfig implements IXMLConfigurable {
         xml.addElement("parseErrorsSaveDir", parseErrorsSaveDir);
         xml.addElement("maxMemoryInstance", maxMemoryInstance);
         xml.addElement("maxMemoryPool", maxMemoryPool);
+        xml.addElement("maxMemoryBudget", maxMemoryBudget);
+        xml.addElement("memoryBudgetWait", memoryBudgetWait);
+        xml.addElement("optimizeFlow", optimizeFlow);
+        xml.addElement("profiling")
+                .setAttribute("sampleRate", profilingSampleRate)
+                .setAttribute("reportFile", profilingReportFile);
 
         xmlFlow.write(xml.addElement("preParseHandlers"), preParseConsumer);
         xml.addElement("documentParserFactory", documentParserFactory);
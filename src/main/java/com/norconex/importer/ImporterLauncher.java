@@ -18,28 +18,34 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.PrintStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.UUID;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.DefaultParser;
 import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.function.FailableBiConsumer;
+import org.apache.commons.lang3.math.NumberUtils;
 
 import com.norconex.commons.lang.config.ConfigurationLoader;
 import com.norconex.commons.lang.file.ContentType;
 import com.norconex.commons.lang.io.CachedInputStream;
 import com.norconex.commons.lang.map.Properties;
+import com.norconex.commons.lang.xml.XML;
 import com.norconex.commons.lang.xml.XMLValidationException;
 import com.norconex.importer.doc.Doc;
+import com.norconex.importer.handler.FlowOptimizer;
 import com.norconex.importer.response.ImporterResponse;
 
 /**
@@ -60,6 +66,14 @@ public final class ImporterLauncher {
     public static final String ARG_VARIABLES = "variables";
     public static final String ARG_CHECKCFG = "checkcfg";
     public static final String ARG_IGNOREERRORS = "ignoreErrors";
+    private static final String ARG_BATCH = "batch";
+    private static final String ARG_OUTPUTDIR = "outputDir";
+    private static final String ARG_WORKERS = "workers";
+    private static final String ARG_CHECKPOINT = "checkpoint";
+    private static final String ARG_SERVER = "server";
+    private static final String ARG_PORT = "port";
+    // Server mode connection token, generated when not set
+    private static final String ENV_SERVER_TOKEN = "IMPORTER_SERVER_TOKEN";
 
     /**
      * Constructor.
@@ -98,6 +112,16 @@ public final class ImporterLauncher {
             return;
         }
 
+        if (cmd.hasOption(ARG_SERVER)) {
+            launchServer(cmd, configFile, varFile);
+            return;
+        }
+
+        if (cmd.hasOption(ARG_BATCH)) {
+            launchBatch(cmd, loadCommandLineConfig(cmd, configFile, varFile));
+            return;
+        }
+
 
         // Proceed
         ContentType contentType =
@@ -129,6 +153,92 @@ public final class ImporterLauncher {
         }
     }
 
+    private static void launchBatch(CommandLine cmd, ImporterConfig config) {
+        ImporterBatch batch = new ImporterBatch(new Importer(config))
+                .setOutputFormat(cmd.getOptionValue(ARG_OUTMETAFORMAT));
+        if (cmd.hasOption(ARG_OUTPUTDIR)) {
+            batch.setOutputDir(Paths.get(cmd.getOptionValue(ARG_OUTPUTDIR)));
+        }
+        if (cmd.hasOption(ARG_CHECKPOINT)) {
+            batch.setCheckpointFile(
+                    Paths.get(cmd.getOptionValue(ARG_CHECKPOINT)));
+        }
+        batch.setWorkers(getWorkers(cmd));
+        try {
+            batch.run(cmd.getOptionValue(ARG_BATCH));
+            System.out.println(batch.getSummary());
+        } catch (IOException e) {
+            System.err.println("A problem occured while importing batch.");
+            e.printStackTrace(System.err);
+            System.exit(-1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Batch import interrupted.");
+            System.out.println(batch.getSummary());
+            System.exit(-1);
+        }
+    }
+
+    private static void launchServer(
+            CommandLine cmd, Path configFile, Path varFile) {
+        boolean stdio = !cmd.hasOption(ARG_PORT);
+        PrintStream out = System.out;
+        if (stdio) {
+            // Standard output is reserved to responses
+            System.setOut(System.err);
+        }
+        ImporterConfig config =
+                loadCommandLineConfig(cmd, configFile, varFile);
+        try (ImporterServer server = new ImporterServer(
+                new Importer(config), getWorkers(cmd))) {
+            if (stdio) {
+                server.serve(System.in, out);
+            } else {
+                int port = NumberUtils.toInt(
+                        cmd.getOptionValue(ARG_PORT), -1);
+                if (port < 0) {
+                    System.err.println("Invalid port: "
+                            + cmd.getOptionValue(ARG_PORT));
+                    System.exit(-1);
+                }
+                String token = System.getenv(ENV_SERVER_TOKEN);
+                boolean generated = StringUtils.isBlank(token);
+                if (generated) {
+                    token = UUID.randomUUID().toString();
+                }
+                port = server.bind(port, token);
+                System.out.println(
+                        "Importer server listening on port " + port);
+                if (generated) {
+                    System.out.println("Connection token: " + token);
+                }
+                server.acceptConnections();
+            }
+        } catch (IOException e) {
+            System.err.println("A problem occured while serving requests.");
+            e.printStackTrace(System.err);
+            System.exit(-1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Importer server interrupted.");
+            System.exit(-1);
+        }
+    }
+
+    // Number of parallel imports for batch and server modes
+    private static int getWorkers(CommandLine cmd) {
+        if (!cmd.hasOption(ARG_WORKERS)) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+        int workers = NumberUtils.toInt(cmd.getOptionValue(ARG_WORKERS));
+        if (workers < 1) {
+            System.err.println("Invalid number of workers: "
+                    + cmd.getOptionValue(ARG_WORKERS));
+            System.exit(-1);
+        }
+        return workers;
+    }
+
     private static ImporterConfig loadCommandLineConfig(
             CommandLine cmd, Path configFile, Path varFile) {
         if (configFile == null) {
@@ -150,10 +260,11 @@ public final class ImporterLauncher {
 
     private static void checkConfig(Path configFile, Path varFile) {
         try {
-            new ConfigurationLoader()
-                    .setVariablesFile(varFile)
-                    .loadFromXML(configFile, ImporterConfig.class);
+            ConfigurationLoader loader =
+                    new ConfigurationLoader().setVariablesFile(varFile);
+            loader.loadFromXML(configFile, ImporterConfig.class);
             System.out.println("No XML configuration errors.");
+            printFlowOptimization(loader.loadXML(configFile));
         } catch (XMLValidationException e) {
             System.err.println("There were " + e.getErrors().size()
                     + " XML configuration error(s).");
@@ -161,8 +272,25 @@ public final class ImporterLauncher {
         }
     }
 
-    private static void writeResponse(ImporterResponse response,
+    // Reports what optimizing handler flows would change
+    private static void printFlowOptimization(XML xml) {
+        FlowOptimizer optimizer = new FlowOptimizer();
+        optimizer.optimize(xml.getXML("preParseHandlers"));
+        optimizer.optimize(xml.getXML("postParseHandlers"));
+        System.out.println(optimizer.getSummary());
+        if ((optimizer.getMovedFilters() > 0
+                || optimizer.getRemovedElements() > 0)
+                && !xml.getBoolean("optimizeFlow", false)) {
+            System.out.println("Set \"optimizeFlow\" to \"true\" "
+                    + "to apply these changes.");
+        }
+    }
+
+    // Returns false if the document or one of its embedded documents
+    // could not be written.
+    static boolean writeResponse(ImporterResponse response,
             String outputPath, String outputFormat, int depth, int index) {
+        boolean written = true;
         if (!response.isSuccess()) {
             String statusLabel = "REJECTED: ";
             if (response.getImporterStatus().isError()) {
@@ -198,21 +326,26 @@ public final class ImporterLauncher {
                 e.printStackTrace(System.err);
                 System.err.println();
                 System.err.flush();
+                written = false;
             }
         }
 
         ImporterResponse[] nextedResponses = response.getNestedResponses();
         for (int i = 0; i < nextedResponses.length; i++) {
             ImporterResponse nextedResponse = nextedResponses[i];
-            writeResponse(nextedResponse, outputPath,
-                    outputFormat, depth + 1, i + 1);
+            if (!writeResponse(nextedResponse, outputPath,
+                    outputFormat, depth + 1, i + 1)) {
+                written = false;
+            }
         }
+        return written;
     }
 
     private static CommandLine parseCommandLineArguments(String[] args) {
         Options options = new Options();
         options.addOption("i", ARG_INPUTFILE, true,
-                "File to be imported (required unless \"checkcfg\" is used).");
+                "File to be imported (required unless \"batch\" or "
+              + "\"checkcfg\" is used).");
         options.addOption("o", ARG_OUTPUTFILE, true,
                 "Optional: File where the imported content will be stored.");
         options.addOption("f", ARG_OUTMETAFORMAT, true,
@@ -229,8 +362,40 @@ public final class ImporterLauncher {
                 "Optional: Importer XML configuration file.");
         options.addOption("v", ARG_VARIABLES, true,
                 "Optional: variable file.");
+        options.addOption("b", ARG_BATCH, true,
+                "Imports many files instead of \"inputFile\": a directory "
+              + "(walked recursively), a quoted glob pattern "
+              + "(e.g. \"/data/**/*.pdf\"), or a file listing one file "
+              + "path per line.");
+        options.addOption("d", ARG_OUTPUTDIR, true,
+                "Optional: Batch mode directory where imported files are "
+              + "stored, mirroring input paths. Default is next to "
+              + "input files.");
+        options.addOption("w", ARG_WORKERS, true,
+                "Optional: Batch and server modes number of files imported "
+              + "in parallel. Default is the number of processors.");
+        options.addOption(Option.builder().longOpt(ARG_CHECKPOINT).hasArg()
+                .desc("Optional: Batch mode file recording processed files. "
+                    + "Files it lists are skipped, to resume an interrupted "
+                    + "batch.")
+                .build());
+        options.addOption("S", ARG_SERVER, false,
+                "Runs as a server, loading the configuration once and "
+              + "importing files on request. Requests are read from "
+              + "standard input unless \"port\" is used, one per line: "
+              + "reference, file path, content type and metadata JSON, "
+              + "separated by tabs (only the path is required). "
+              + "Responses are written one JSON object per line.");
+        options.addOption("P", ARG_PORT, true,
+                "Optional: Server mode local TCP port to accept requests "
+              + "on instead of standard input/output (0 for any). "
+              + "Any local user can connect, so each connection must "
+              + "first send a token line: the value of the "
+              + ENV_SERVER_TOKEN + " environment variable, or the "
+              + "token printed on startup when not set.");
         options.addOption("k", ARG_CHECKCFG, false,
-                "Validates XML configuration without executing the Importer.");
+                "Validates XML configuration without executing the Importer "
+                + "and reports possible handler flow optimizations.");
         options.addOption("s", ARG_IGNOREERRORS, false,
                 "Optional: Skip/ignore configuration validation errors "
               + "(if possible).");
@@ -239,7 +404,8 @@ public final class ImporterLauncher {
         CommandLine cmd = null;
         try {
             cmd = parser.parse(options, args);
-            if(!cmd.hasOption(ARG_INPUTFILE)
+            if(!cmd.hasOption(ARG_INPUTFILE) && !cmd.hasOption(ARG_BATCH)
+                    && !cmd.hasOption(ARG_SERVER)
                     && !(cmd.hasOption(ARG_CHECKCFG)
                             && cmd.hasOption(ARG_CONFIG))) {
                 HelpFormatter formatter = new HelpFormatter();
@@ -0,0 +1,448 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.ObjectUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.text.StringEscapeUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.norconex.commons.lang.file.ContentType;
+import com.norconex.commons.lang.io.CachedInputStream;
+import com.norconex.commons.lang.io.CachedOutputStream;
+import com.norconex.commons.lang.io.CachedStreamFactory;
+import com.norconex.commons.lang.io.IOUtil;
+import com.norconex.commons.lang.map.Properties;
+import com.norconex.importer.doc.Doc;
+import com.norconex.importer.response.ImporterResponse;
+import com.norconex.importer.response.ImporterStatus;
+
+/**
+ * <p>
+ * Long-running importer, loading its configuration once and importing
+ * files on request. Used by {@link ImporterLauncher} in server mode.
+ * Requests are read either from an input stream (e.g., standard input),
+ * or from connections made to a local (loopback) TCP port.
+ * </p>
+ * <p>
+ * A TCP port can be connected to by any local user or process, and
+ * imports any file the server can read. To limit this exposure,
+ * the first line sent on every connection must be a token shared
+ * with the server. Connections sending a different token are answered
+ * with an error and closed.
+ * </p>
+ * <p>
+ * Each request is one line made of the following tab-separated values,
+ * where only the file path is required (trailing values can be omitted):
+ * </p>
+ * <pre>
+ * reference&lt;TAB&gt;file path&lt;TAB&gt;content type&lt;TAB&gt;metadata JSON
+ * </pre>
+ * <p>
+ * Each response is one line of JSON, with the document reference,
+ * status ("SUCCESS", "REJECTED" or "ERROR"), status description,
+ * and on success, the imported metadata and content:
+ * </p>
+ * <pre>
+ * {"reference":"...","status":"SUCCESS","description":"...",
+ *  "metadata":{"field":["value",...],...},"content":"...",
+ *  "nested":[(embedded document responses)]}
+ * </pre>
+ * <p>
+ * Up to a maximum number of requests are imported concurrently,
+ * shared by all connections. Responses on a stream are written as
+ * imports complete, so they may not be in the same order as requests
+ * when more than one import can run at once. Each response is fully
+ * built before being written, so a response that fails midway is
+ * replaced with an error response rather than left partially written.
+ * </p>
+ * @author Pascal Essiembre
+ * @since 3.1.0
+ */
+final class ImporterServer implements Closeable {
+
+    private static final Logger LOG =
+            LoggerFactory.getLogger(ImporterServer.class);
+
+    private final Importer importer;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    // Holds responses until fully built
+    private final CachedStreamFactory streamFactory;
+    private ServerSocket serverSocket;
+    private byte[] token;
+
+    ImporterServer(Importer importer, int maxConcurrency) {
+        super();
+        this.importer = importer;
+        int max = Math.max(1, maxConcurrency);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(max, r -> {
+            Thread t = new Thread(r,
+                    "importer-server-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.permits = new Semaphore(max);
+        ImporterConfig config = importer.getImporterConfig();
+        this.streamFactory = new CachedStreamFactory(
+                (int) config.getMaxMemoryPool(),
+                (int) config.getMaxMemoryInstance(),
+                config.getTempDir());
+    }
+
+    /**
+     * Imports requests read from the input, writing responses to
+     * the output, until the end of the input is reached and all
+     * requests were answered.
+     * @param input where to read requests
+     * @param output where to write responses
+     * @throws IOException could not read requests or write responses
+     * @throws InterruptedException interrupted while waiting for imports
+     */
+    void serve(InputStream input, OutputStream output)
+            throws IOException, InterruptedException {
+        serve(new BufferedReader(
+                new InputStreamReader(input, StandardCharsets.UTF_8)),
+                output);
+    }
+    private void serve(BufferedReader reader, OutputStream output)
+            throws IOException, InterruptedException {
+        OutputStream out = new BufferedOutputStream(output);
+        Phaser pending = new Phaser(1);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (StringUtils.isBlank(line)) {
+                continue;
+            }
+            String request = line;
+            // Waits here when the maximum concurrency is reached
+            permits.acquire();
+            pending.register();
+            try {
+                executor.execute(() -> {
+                    try {
+                        respond(request, out);
+                    } finally {
+                        permits.release();
+                        pending.arriveAndDeregister();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                pending.arriveAndDeregister();
+                throw new IOException("Server is closed.", e);
+            }
+        }
+        pending.arriveAndAwaitAdvance();
+        synchronized (out) {
+            out.flush();
+        }
+    }
+
+    /**
+     * Listens for connections on a loopback TCP port. Connections are
+     * not accepted until {@link #acceptConnections()} is invoked.
+     * @param port TCP port, or zero for any free port
+     * @param token token connections must send first
+     * @return the port listened to
+     * @throws IOException could not listen to port
+     */
+    int bind(int port, String token) throws IOException {
+        if (StringUtils.isBlank(token)) {
+            throw new IllegalArgumentException("Token must not be blank.");
+        }
+        this.token = token.getBytes(StandardCharsets.UTF_8);
+        serverSocket = new ServerSocket(
+                port, 50, InetAddress.getLoopbackAddress());
+        LOG.warn("Importer server accepts local connections on port {}. "
+                + "Clients sending the token can import any file this "
+                + "process can read.", serverSocket.getLocalPort());
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts connections until this server is closed, serving each
+     * connection on its own thread.
+     */
+    void acceptConnections() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread t = new Thread(() -> serveConnection(socket),
+                        "importer-server-connection");
+                t.setDaemon(true);
+                t.start();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    LOG.error("Could not accept connection.", e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (serverSocket != null) {
+            serverSocket.close();
+        }
+        executor.shutdown();
+    }
+
+    private void serveConnection(Socket socket) {
+        try (Socket s = socket) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    s.getInputStream(), StandardCharsets.UTF_8));
+            String line = reader.readLine();
+            if (line == null || !MessageDigest.isEqual(
+                    token, line.getBytes(StandardCharsets.UTF_8))) {
+                LOG.warn("Rejected connection from {}: invalid token.",
+                        s.getRemoteSocketAddress());
+                OutputStream out = s.getOutputStream();
+                out.write(("{\"reference\":null,\"status\":\"ERROR\","
+                        + "\"description\":\"Invalid token.\"}\n")
+                                .getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                return;
+            }
+            serve(reader, s.getOutputStream());
+        } catch (IOException e) {
+            LOG.error("Problem serving connection.", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void respond(String line, OutputStream output) {
+        String[] values = StringUtils.splitPreserveAllTokens(line, '\t');
+        ImporterResponse response = null;
+        Exception error = null;
+        try {
+            response = importer.importDocument(toRequest(values));
+        } catch (Exception e) {
+            LOG.error("Could not import: {}", line, e);
+            error = e;
+        }
+        CachedInputStream json = null;
+        try {
+            if (response != null) {
+                try {
+                    json = toJSON(response, null, null);
+                } catch (IOException | RuntimeException e) {
+                    LOG.error("Could not write response for: {}", line, e);
+                    error = e;
+                }
+            }
+            if (json == null) {
+                // Referenced like the importer does when not specified
+                json = toJSON(null, ObjectUtils.firstNonNull(
+                        value(values, 0), value(values, 1)), error);
+            }
+            synchronized (output) {
+                IOUtils.copy(json, output);
+                output.write('\n');
+                output.flush();
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Could not write response for: {}", line, e);
+        } finally {
+            if (json != null) {
+                dispose(json, line);
+            }
+            if (response != null) {
+                dispose(response);
+            }
+        }
+    }
+
+    // Writes a response, or an error if the response is null
+    private CachedInputStream toJSON(ImporterResponse response,
+            String reference, Exception error) throws IOException {
+        CachedOutputStream out = streamFactory.newOuputStream();
+        try {
+            Writer w = new BufferedWriter(
+                    new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            if (response != null) {
+                writeResponse(response, w);
+            } else {
+                writeError(reference, error, w);
+            }
+            w.flush();
+            return out.getInputStream();
+        } catch (IOException | RuntimeException e) {
+            IOUtil.closeQuietly(out);
+            throw e;
+        }
+    }
+
+    private static ImporterRequest toRequest(String[] values)
+            throws IOException {
+        String path = value(values, 1);
+        if (path == null) {
+            throw new IllegalArgumentException("Missing file path.");
+        }
+        ImporterRequest request = new ImporterRequest(Paths.get(path));
+        String reference = value(values, 0);
+        if (reference != null) {
+            request.setReference(reference);
+        }
+        String contentType = value(values, 2);
+        if (contentType != null) {
+            request.setContentType(ContentType.valueOf(contentType));
+        }
+        String json = value(values, 3);
+        if (json != null) {
+            Properties metadata = new Properties();
+            metadata.loadFromJSON(new StringReader(json));
+            request.setMetadata(metadata);
+        }
+        return request;
+    }
+
+    private static String value(String[] values, int index) {
+        return index < values.length
+                ? StringUtils.trimToNull(values[index]) : null;
+    }
+
+    private static void writeResponse(
+            ImporterResponse response, Writer w) throws IOException {
+        ImporterStatus status = response.getImporterStatus();
+        w.write("{\"reference\":");
+        writeString(response.getReference(), w);
+        w.write(",\"status\":");
+        writeString(status.getStatus().name(), w);
+        if (status.getDescription() != null) {
+            w.write(",\"description\":");
+            writeString(status.getDescription(), w);
+        }
+        Doc doc = response.getDocument();
+        if (response.isSuccess() && doc != null) {
+            w.write(",\"metadata\":{");
+            boolean first = true;
+            for (Entry<String, List<String>> en
+                    : doc.getMetadata().entrySet()) {
+                if (!first) {
+                    w.write(',');
+                }
+                first = false;
+                writeString(en.getKey(), w);
+                w.write(":[");
+                for (int i = 0; i < en.getValue().size(); i++) {
+                    if (i > 0) {
+                        w.write(',');
+                    }
+                    writeString(en.getValue().get(i), w);
+                }
+                w.write(']');
+            }
+            w.write("},\"content\":\"");
+            // Streamed in chunks to avoid holding it all in memory
+            try (Reader r = new InputStreamReader(
+                    doc.getInputStream(), StandardCharsets.UTF_8)) {
+                char[] buf = new char[8192];
+                int n;
+                while ((n = r.read(buf)) != -1) {
+                    StringEscapeUtils.ESCAPE_JSON.translate(
+                            CharBuffer.wrap(buf, 0, n), w);
+                }
+            }
+            w.write('"');
+        }
+        ImporterResponse[] nested = response.getNestedResponses();
+        if (nested.length > 0) {
+            w.write(",\"nested\":[");
+            for (int i = 0; i < nested.length; i++) {
+                if (i > 0) {
+                    w.write(',');
+                }
+                writeResponse(nested[i], w);
+            }
+            w.write(']');
+        }
+        w.write('}');
+    }
+
+    private static void writeError(
+            String reference, Exception e, Writer w) throws IOException {
+        w.write("{\"reference\":");
+        writeString(reference, w);
+        w.write(",\"status\":\"ERROR\",\"description\":");
+        writeString(e.toString(), w);
+        w.write('}');
+    }
+
+    private static void writeString(String value, Writer w)
+            throws IOException {
+        if (value == null) {
+            w.write("null");
+        } else {
+            w.write('"');
+            StringEscapeUtils.ESCAPE_JSON.translate(value, w);
+            w.write('"');
+        }
+    }
+
+    private static void dispose(CachedInputStream json, String line) {
+        try {
+            json.dispose();
+        } catch (IOException e) {
+            LOG.debug("Could not dispose of response for: {}", line, e);
+        }
+    }
+    private static void dispose(ImporterResponse response) {
+        Doc doc = response.getDocument();
+        if (doc != null) {
+            try {
+                doc.dispose();
+            } catch (IOException e) {
+                LOG.debug("Could not dispose of: {}",
+                        response.getReference(), e);
+            }
+        }
+        for (ImporterResponse nested : response.getNestedResponses()) {
+            dispose(nested);
+        }
+    }
+}
@@ -14,8 +14,11 @@
  */
 package com.norconex.importer.doc;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 import org.apache.commons.io.IOUtils;
@@ -48,6 +51,10 @@ public class Doc {
     private final Properties metadata;
     @ToStringExclude
     private CachedInputStream content;
+    @ToStringExclude
+    private transient TypedMetadata typedMetadata;
+    @ToStringExclude
+    private final transient List<Closeable> disposables = new ArrayList<>();
 
     public Doc(String reference, CachedInputStream content) {
         this(reference, content, null);
@@ -98,7 +105,31 @@ public class Doc {
      */
     //TODO implement "closeable" instead?
     public synchronized void dispose() throws IOException {
+        IOException error = null;
+        for (Closeable disposable : disposables) {
+            try {
+                disposable.close();
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+        disposables.clear();
         content.dispose();
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Adds a resource to be closed when this document is disposed,
+     * for resources tied to this document that outlive the handler
+     * creating them.
+     * @param disposable resource to close on dispose
+     * @since 3.1.0
+     */
+    public synchronized void addDisposable(Closeable disposable) {
+        disposables.add(Objects.requireNonNull(
+                disposable, "'disposable' must not be null."));
     }
 
     /**
@@ -160,6 +191,20 @@ public class Doc {
         return metadata;
     }
 
+    /**
+     * Gets typed access to this document metadata, for reading or writing
+     * numbers, dates, or booleans without converting them to or from
+     * strings every time.
+     * @return typed metadata
+     * @since 3.1.0
+     */
+    public TypedMetadata getTypedMetadata() {
+        if (typedMetadata == null) {
+            typedMetadata = new TypedMetadata(metadata);
+        }
+        return typedMetadata;
+    }
+
     /**
      * Gets the document reference. Same as
      * invoking {@link DocInfo#getReference()}.
@@ -0,0 +1,157 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.doc;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>
+ * Global dictionary of metadata field names. Each distinct field name
+ * gets a small integer id and a canonical {@link String} instance,
+ * shared by all documents. Interning field names as they are created
+ * (e.g., by parsers or splitters) avoids keeping a copy of the same
+ * names in memory for every document, and allows to index data
+ * per field (e.g., field matching results) by id.
+ * </p>
+ * <p>
+ * To protect against an unbounded number of distinct field names
+ * (e.g., generated from content), the dictionary stops growing after
+ * {@value #MAX_SIZE} names. Names not in the dictionary at that point
+ * are returned as is by {@link #intern(String)} and have no id
+ * ({@link #NO_ID}).
+ * </p>
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ * @author Pascal Essiembre
+ * @since 3.1.0
+ */
+public final class FieldNames {
+
+    /** Maximum number of field names in the dictionary. */
+    public static final int MAX_SIZE = 65_536;
+    /** Id of field names not in the dictionary. */
+    public static final int NO_ID = -1;
+
+    private static final Map<String, Integer> IDS = new ConcurrentHashMap<>();
+    // id -> name, grown under lock
+    private static volatile String[] names = new String[256];
+    private static int size;
+
+    static {
+        for (String name : new String[] {
+                DocMetadata.REFERENCE,
+                DocMetadata.CONTENT_TYPE,
+                DocMetadata.CONTENT_ENCODING,
+                DocMetadata.CONTENT_FAMILY,
+                DocMetadata.LANGUAGE,
+                DocMetadata.TRANSLATED_FROM,
+                DocMetadata.GENERATED_TITLE,
+                DocMetadata.IMPORTED_DATE,
+                DocMetadata.EMBEDDED_PARENT_REFERENCES,
+                DocMetadata.EMBEDDED_REFERENCE,
+                DocMetadata.EMBEDDED_TYPE,
+                DocMetadata.EMBEDDED_INDEX }) {
+            id(name);
+        }
+    }
+
+    private FieldNames() {
+        super();
+    }
+
+    /**
+     * Gets the canonical instance of a field name, adding it to the
+     * dictionary if not already present (and the dictionary is not full).
+     * @param name field name
+     * @return canonical field name, or the name as is if it could not
+     *     be added to the dictionary
+     */
+    public static String intern(String name) {
+        int id = id(name);
+        return id == NO_ID ? name : names[id];
+    }
+
+    /**
+     * Gets the id of a field name, adding it to the
+     * dictionary if not already present (and the dictionary is not full).
+     * @param name field name
+     * @return field name id, or {@link #NO_ID} if the name is
+     *     <code>null</code> or could not be added to the dictionary
+     */
+    public static int id(String name) {
+        if (name == null) {
+            return NO_ID;
+        }
+        Integer id = IDS.get(name);
+        if (id != null) {
+            return id;
+        }
+        return add(name);
+    }
+
+    /**
+     * Gets the id of a field name, without adding it to the dictionary.
+     * @param name field name
+     * @return field name id, or {@link #NO_ID} if not in the dictionary
+     */
+    public static int existingId(String name) {
+        if (name == null) {
+            return NO_ID;
+        }
+        Integer id = IDS.get(name);
+        return id != null ? id : NO_ID;
+    }
+
+    /**
+     * Gets the field name having the given id.
+     * @param id field name id
+     * @return field name, or <code>null</code> if there are no names
+     *     with that id
+     */
+    public static String name(int id) {
+        String[] n = names;
+        return id >= 0 && id < n.length ? n[id] : null;
+    }
+
+    /**
+     * Gets the number of field names in the dictionary.
+     * @return dictionary size
+     */
+    public static synchronized int size() {
+        return size;
+    }
+
+    private static synchronized int add(String name) {
+        Integer id = IDS.get(name);
+        if (id != null) {
+            return id;
+        }
+        if (size >= MAX_SIZE) {
+            return NO_ID;
+        }
+        String[] n = names;
+        if (size == n.length) {
+            n = Arrays.copyOf(n, Math.min(n.length * 2, MAX_SIZE));
+        }
+        n[size] = name;
+        // Publish the name before its id
+        names = n;
+        IDS.put(name, size);
+        return size++;
+    }
+}
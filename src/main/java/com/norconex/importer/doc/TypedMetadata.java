@@ -0,0 +1,333 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.doc;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+
+import com.norconex.commons.lang.map.Properties;
+
+/**
+ * <p>
+ * Typed access to document metadata. Numeric, date and boolean values
+ * are parsed once per field and kept as primitive arrays until
+ * the field values change, so handlers reading them repeatedly
+ * do not convert strings over and over.
+ * </p>
+ * <p>
+ * Metadata {@link Properties} remain the reference: values written
+ * with typed setters are also stored as strings in the properties,
+ * and values modified directly in the properties are detected and
+ * parsed again on next typed read. Modifications are detected by
+ * identity of the stored string values, which makes checking for
+ * them cheap.
+ * </p>
+ * <p>
+ * Only values that can be parsed to the requested type are returned,
+ * in their original order. Numbers are parsed the same way as
+ * {@link NumberUtils#createNumber(String)} and dates are expected
+ * to be in EPOCH format (milliseconds).
+ * </p>
+ * <p>
+ * Returned arrays are shared and must not be modified.
+ * Like {@link Properties}, this class is not thread-safe.
+ * </p>
+ * @author Pascal Essiembre
+ * @since 3.1.0
+ * @see Doc#getTypedMetadata()
+ */
+public class TypedMetadata {
+
+    private static final long[] EMPTY_LONGS = new long[0];
+    private static final double[] EMPTY_DOUBLES = new double[0];
+    private static final boolean[] EMPTY_BOOLEANS = new boolean[0];
+
+    private final Properties metadata;
+    private final Map<String, Column> columns = new HashMap<>();
+
+    /**
+     * Creates typed access to the given metadata.
+     * @param metadata document metadata
+     */
+    public TypedMetadata(Properties metadata) {
+        super();
+        this.metadata = Objects.requireNonNull(
+                metadata, "'metadata' must not be null.");
+    }
+
+    /**
+     * Gets the metadata properties this typed access is a view of.
+     * @return metadata
+     */
+    public Properties getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * Gets the field values that are whole numbers.
+     * @param field field name
+     * @return long values (never <code>null</code>)
+     */
+    public long[] getLongs(String field) {
+        Column col = column(field);
+        if (col == null) {
+            return EMPTY_LONGS;
+        }
+        if (col.longs == null) {
+            long[] values = new long[col.values.length];
+            int count = 0;
+            for (String value : col.values) {
+                if (isLong(value)) {
+                    values[count++] = Long.parseLong(value);
+                }
+            }
+            col.longs = count == values.length
+                    ? values : Arrays.copyOf(values, count);
+        }
+        return col.longs;
+    }
+    /**
+     * Gets the first field value that is a whole number.
+     * @param field field name
+     * @return long value or <code>null</code>
+     */
+    public Long getLong(String field) {
+        long[] values = getLongs(field);
+        return values.length > 0 ? values[0] : null;
+    }
+
+    /**
+     * Gets the field values that are numbers.
+     * @param field field name
+     * @return double values (never <code>null</code>)
+     */
+    public double[] getDoubles(String field) {
+        Column col = column(field);
+        if (col == null) {
+            return EMPTY_DOUBLES;
+        }
+        if (col.doubles == null) {
+            double[] values = new double[col.values.length];
+            int count = 0;
+            for (String value : col.values) {
+                if (NumberUtils.isCreatable(value)) {
+                    values[count++] = NumberUtils.toDouble(value);
+                }
+            }
+            col.doubles = count == values.length
+                    ? values : Arrays.copyOf(values, count);
+        }
+        return col.doubles;
+    }
+    /**
+     * Gets the first field value that is a number.
+     * @param field field name
+     * @return double value or <code>null</code>
+     */
+    public Double getDouble(String field) {
+        double[] values = getDoubles(field);
+        return values.length > 0 ? values[0] : null;
+    }
+
+    /**
+     * Gets the field values that are dates in EPOCH format.
+     * @param field field name
+     * @return instants (never <code>null</code>)
+     */
+    public Instant[] getInstants(String field) {
+        long[] millis = getLongs(field);
+        Instant[] values = new Instant[millis.length];
+        for (int i = 0; i < millis.length; i++) {
+            values[i] = Instant.ofEpochMilli(millis[i]);
+        }
+        return values;
+    }
+    /**
+     * Gets the first field value that is a date in EPOCH format.
+     * @param field field name
+     * @return instant or <code>null</code>
+     */
+    public Instant getInstant(String field) {
+        Long millis = getLong(field);
+        return millis != null ? Instant.ofEpochMilli(millis) : null;
+    }
+
+    /**
+     * Gets the field values that are booleans ("true" or "false",
+     * case insensitive).
+     * @param field field name
+     * @return boolean values (never <code>null</code>)
+     */
+    public boolean[] getBooleans(String field) {
+        Column col = column(field);
+        if (col == null) {
+            return EMPTY_BOOLEANS;
+        }
+        if (col.booleans == null) {
+            boolean[] values = new boolean[col.values.length];
+            int count = 0;
+            for (String value : col.values) {
+                if ("true".equalsIgnoreCase(value)) {
+                    values[count++] = true;
+                } else if ("false".equalsIgnoreCase(value)) {
+                    values[count++] = false;
+                }
+            }
+            col.booleans = count == values.length
+                    ? values : Arrays.copyOf(values, count);
+        }
+        return col.booleans;
+    }
+    /**
+     * Gets the first field value that is a boolean.
+     * @param field field name
+     * @return boolean value or <code>null</code>
+     */
+    public Boolean getBoolean(String field) {
+        boolean[] values = getBooleans(field);
+        return values.length > 0 ? values[0] : null;
+    }
+
+    /**
+     * Sets whole number values on a field, replacing existing ones.
+     * @param field field name
+     * @param values long values
+     */
+    public void setLong(String field, long... values) {
+        long[] vals = ArrayUtils.nullToEmpty(values);
+        String[] strings = new String[vals.length];
+        for (int i = 0; i < vals.length; i++) {
+            strings[i] = Long.toString(vals[i]);
+        }
+        store(field, strings).longs = vals.clone();
+    }
+    /**
+     * Sets number values on a field, replacing existing ones.
+     * @param field field name
+     * @param values double values
+     */
+    public void setDouble(String field, double... values) {
+        double[] vals = ArrayUtils.nullToEmpty(values);
+        String[] strings = new String[vals.length];
+        for (int i = 0; i < vals.length; i++) {
+            strings[i] = Double.toString(vals[i]);
+        }
+        store(field, strings).doubles = vals.clone();
+    }
+    /**
+     * Sets date values on a field, in EPOCH format, replacing
+     * existing ones.
+     * @param field field name
+     * @param values instants
+     */
+    public void setInstant(String field, Instant... values) {
+        Instant[] vals = ArrayUtils.nullToEmpty(values, Instant[].class);
+        long[] millis = new long[vals.length];
+        for (int i = 0; i < vals.length; i++) {
+            millis[i] = vals[i].toEpochMilli();
+        }
+        setLong(field, millis);
+    }
+    /**
+     * Sets boolean values on a field, replacing existing ones.
+     * @param field field name
+     * @param values boolean values
+     */
+    public void setBoolean(String field, boolean... values) {
+        boolean[] vals = ArrayUtils.nullToEmpty(values);
+        String[] strings = new String[vals.length];
+        for (int i = 0; i < vals.length; i++) {
+            strings[i] = Boolean.toString(vals[i]);
+        }
+        store(field, strings).booleans = vals.clone();
+    }
+
+    // Gets the column matching current property values, null if no values
+    private Column column(String field) {
+        List<String> values = metadata.get(field);
+        if (values == null || values.isEmpty()) {
+            columns.remove(field);
+            return null;
+        }
+        Column col = columns.get(field);
+        if (col == null || !col.isSame(values)) {
+            col = new Column(values.toArray(new String[values.size()]));
+            columns.put(FieldNames.intern(field), col);
+        }
+        return col;
+    }
+
+    private Column store(String field, String[] strings) {
+        if (strings.length == 0) {
+            metadata.remove(field);
+            columns.remove(field);
+            return new Column(strings);
+        }
+        List<String> values = new ArrayList<>(Arrays.asList(strings));
+        metadata.put(field, values);
+        // Store the exact instances kept by properties to detect changes
+        List<String> stored = metadata.get(field);
+        Column col = new Column(stored == null
+                ? strings : stored.toArray(new String[stored.size()]));
+        columns.put(FieldNames.intern(field), col);
+        return col;
+    }
+
+    private static boolean isLong(String value) {
+        String digits = StringUtils.removeStart(value, "-");
+        // 18 digits always fit in a long, 19 digits may not.
+        if (!NumberUtils.isDigits(digits) || digits.length() > 19) {
+            return false;
+        }
+        if (digits.length() < 19) {
+            return true;
+        }
+        // Compare as strings to avoid overflow without exceptions
+        String limit = value.startsWith("-")
+                ? "9223372036854775808" : "9223372036854775807";
+        return digits.compareTo(limit) <= 0;
+    }
+
+    // Typed values of a field, for a given set of string values.
+    private static final class Column {
+        private final String[] values;
+        private long[] longs;
+        private double[] doubles;
+        private boolean[] booleans;
+        private Column(String[] values) {
+            this.values = values;
+        }
+        private boolean isSame(List<String> current) {
+            if (current.size() != values.length) {
+                return false;
+            }
+            for (int i = 0; i < values.length; i++) {
+                if (current.get(i) != values[i]) { //NOSONAR identity check
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -98,6 +98,7 @@ public abstract class AbstractImporterHandler implements IXMLConfigurable {
             LoggerFactory.getLogger(AbstractImporterHandler.class);
 
     private final PropertyMatchers restrictions = new PropertyMatchers();
+    private transient volatile PropertyMatchers restrictionsCopy;
 
     public AbstractImporterHandler() {
         super();
@@ -116,6 +117,7 @@ public abstract class AbstractImporterHandler implements IXMLConfigurable {
         restrictions.add(new PropertyMatcher(
                 TextMatcher.basic(field),
                 TextMatcher.regex(regex).setIgnoreCase(!caseSensitive)));
+        restrictionsCopy = null;
     }
 
     /**
@@ -125,6 +127,7 @@ public abstract class AbstractImporterHandler implements IXMLConfigurable {
      */
     public synchronized void addRestriction(PropertyMatcher... restrictions) {
         this.restrictions.addAll(restrictions);
+        restrictionsCopy = null;
     }
     /**
      * Adds restrictions this handler should be restricted to.
@@ -135,6 +138,7 @@ public abstract class AbstractImporterHandler implements IXMLConfigurable {
             List<PropertyMatcher> restrictions) {
         if (restrictions != null) {
             this.restrictions.addAll(restrictions);
+            restrictionsCopy = null;
         }
     }
 
@@ -145,6 +149,7 @@ public abstract class AbstractImporterHandler implements IXMLConfigurable {
      * @since 2.4.0
      */
     public synchronized  int removeRestriction(String field) {
+        restrictionsCopy = null;
         return restrictions.remove(field);
     }
 
@@ -155,6 +160,7 @@ public abstract class AbstractImporterHandler implements IXMLConfigurable {
      * @since 2.4.0
      */
     public synchronized boolean removeRestriction(PropertyMatcher restriction) {
+        restrictionsCopy = null;
         return restrictions.remove(restriction);
     }
 
@@ -164,10 +170,14 @@ public abstract class AbstractImporterHandler implements IXMLConfigurable {
      */
     public synchronized void clearRestrictions() {
         restrictions.clear();
+        restrictionsCopy = null;
     }
 
     /**
-     * Gets all restrictions
+     * Gets all restrictions. Use this class methods to modify them
+     * (e.g., {@link #addRestriction(PropertyMatcher...)}), as changes made
+     * directly to the returned restrictions may not be detected once
+     * the handler is in use.
      * @return the restrictions
      * @since 2.4.0
      */
@@ -175,6 +185,46 @@ public abstract class AbstractImporterHandler implements IXMLConfigurable {
         return restrictions;
     }
 
+    /**
+     * Gets a copy of this handler restrictions, made once until they
+     * are modified. Allows to evaluate restrictions without copying
+     * or locking them for every document.
+     * @return restrictions copy (never <code>null</code>)
+     */
+    final PropertyMatchers getRestrictionsCopy() {
+        PropertyMatchers copy = restrictionsCopy;
+        if (copy == null) {
+            copy = copyRestrictions();
+        }
+        return copy;
+    }
+    private synchronized PropertyMatchers copyRestrictions() {
+        if (restrictionsCopy == null) {
+            PropertyMatchers copy = new PropertyMatchers();
+            copy.addAll(restrictions);
+            restrictionsCopy = copy;
+        }
+        return restrictionsCopy;
+    }
+
+    /**
+     * Gets whether any restriction of this handler applies to the given
+     * metadata field (i.e., the field is read to find out if this handler
+     * is applicable).
+     * @param field field name
+     * @return <code>true</code> if a restriction applies to the field
+     * @since 3.1.0
+     */
+    protected final boolean isRestrictedOn(String field) {
+        for (PropertyMatcher restriction : restrictions) {
+            TextMatcher fieldMatcher = restriction.getFieldMatcher();
+            if (fieldMatcher == null || fieldMatcher.matches(field)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Class to invoke by subclasses to find out if this handler should be
      * rejected or not based on the metadata restriction provided.
@@ -184,7 +234,8 @@ public abstract class AbstractImporterHandler implements IXMLConfigurable {
      */
     protected final boolean isApplicable(
             HandlerDoc doc, ParseState parseState) {
-        if (restrictions.isEmpty()) {
+        // Already checked when invoked from an importer handler flow
+        if (restrictions.isEmpty() || doc.isRestrictionsChecked()) {
             return true;
         }
         if (restrictions.matches(doc.getMetadata())) {
@@ -251,6 +302,7 @@ public abstract class AbstractImporterHandler implements IXMLConfigurable {
                 node.checkDeprecated("@field", "fieldMatcher", true);
                 restrictions.add(PropertyMatcher.loadFromXML(node));
             }
+            restrictionsCopy = null;
         }
     }
     /**
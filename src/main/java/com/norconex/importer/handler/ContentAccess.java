@@ -0,0 +1,59 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.handler;
+
+import com.norconex.importer.handler.condition.IImporterCondition;
+import com.norconex.importer.handler.splitter.IDocumentSplitter;
+import com.norconex.importer.handler.transformer.IDocumentTransformer;
+
+/**
+ * How a handler or condition accesses a document content.
+ * @author Pascal Essiembre
+ * @since 3.1.0
+ * @see IContentAccessAware
+ */
+public enum ContentAccess {
+    /** Content is neither read nor written (metadata only). */
+    NONE,
+    /** Content may be read, but is never written. */
+    READ,
+    /** Content may be read and written. */
+    WRITE;
+
+    /**
+     * Gets the content access of an importer handler or condition.
+     * Handlers or conditions implementing {@link IContentAccessAware}
+     * declare it. Otherwise, transformers and splitters are assumed
+     * to write content and other ones to read it.
+     * @param handler an importer handler or condition
+     * @return content access (never <code>null</code>)
+     * @see IImporterHandler
+     * @see IImporterCondition
+     */
+    public static ContentAccess of(Object handler) {
+        if (handler instanceof IContentAccessAware) {
+            ContentAccess access =
+                    ((IContentAccessAware) handler).getContentAccess();
+            if (access != null) {
+                return access;
+            }
+        }
+        if (handler instanceof IDocumentTransformer
+                || handler instanceof IDocumentSplitter) {
+            return WRITE;
+        }
+        return READ;
+    }
+}
@@ -14,11 +14,16 @@
  */
 package com.norconex.importer.handler;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -32,6 +37,7 @@ import java.util.Map.Entry;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.NullInputStream;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.builder.EqualsBuilder;
@@ -44,6 +50,7 @@ import org.slf4j.LoggerFactory;
 import com.norconex.commons.lang.EqualsUtil;
 import com.norconex.commons.lang.exec.SystemCommand;
 import com.norconex.commons.lang.exec.SystemCommandException;
+import com.norconex.commons.lang.io.CachedInputStream;
 import com.norconex.commons.lang.io.ICachedStream;
 import com.norconex.commons.lang.io.InputStreamLineListener;
 import com.norconex.commons.lang.map.Properties;
@@ -55,6 +62,8 @@ import com.norconex.importer.ImporterRuntimeException;
 import com.norconex.importer.handler.tagger.impl.ExternalTagger;
 import com.norconex.importer.handler.transformer.impl.ExternalTransformer;
 import com.norconex.importer.parser.impl.ExternalParser;
+import com.norconex.importer.util.ContentAddressedStore;
+import com.norconex.importer.util.ContentAddressedStore.StoredFile;
 
 /**
  * <p>
@@ -110,6 +119,69 @@ import com.norconex.importer.parser.impl.ExternalParser;
  *
  * </dl>
  *
+ * <h3>Sharing input files:</h3>
+ * <p>
+ * When "deduplicateInput" is <code>true</code>, <code>${INPUT}</code>
+ * files are named after a digest of their content, in a "dedup"
+ * sub-directory of the temporary directory. Documents with identical
+ * content processed at the same time then share the same input file,
+ * which is written to disk only once and is deleted when no longer
+ * used by any of them. An input file is kept until its document is
+ * disposed, so it is also shared by other handlers processing the same
+ * content of that document. Only enable it if the external application
+ * does not modify or delete its input file.
+ * </p>
+ *
+ * <h3>Named pipes:</h3>
+ * <p>
+ * When "namedPipes" is <code>true</code> and the operating system
+ * supports them (Unix-like systems with <code>mkfifo</code>),
+ * the <code>${INPUT}</code>, <code>${OUTPUT}</code> and
+ * <code>${OUTPUT_META}</code> paths are named pipes (FIFOs) instead of
+ * temporary files. Content is then streamed directly between the
+ * document and the external application, without being copied to
+ * and from disk. Only enable it if the external application reads
+ * and writes those files once, from start to end (no seeking).
+ * It has no effect on <code>${INPUT}</code> when "deduplicateInput"
+ * is <code>true</code>. Pipes are reused across documents and a
+ * temporary file is used instead whenever one cannot be created.
+ * </p>
+ *
+ * <h3>Persistent workers:</h3>
+ * <p>
+ * Starting a new process for every document can take longer than
+ * handling the document itself (e.g., scripts loading large models).
+ * When a worker pool size greater than zero is set, the command is
+ * instead started once per worker, up to the pool size, and each worker
+ * process handles many documents, one at a time, over its standard
+ * input and output. Command tokens are not supported in that mode.
+ * </p>
+ * <p>
+ * For each document, the worker reads from its standard input a header
+ * line, followed by the metadata (in the metadata input format) and
+ * the content, of the byte lengths given in the header:
+ * </p>
+ * <pre>
+ * (content length) (metadata length) (reference)\n
+ * (metadata bytes)(content bytes)
+ * </pre>
+ * <p>
+ * The worker then writes to its standard output a header line with
+ * a status ("OK" or "ERROR"), followed by the new metadata (parsed
+ * according to the metadata output format or extraction patterns)
+ * and the new content (or error message):
+ * </p>
+ * <pre>
+ * (OK|ERROR) (content length) (metadata length)\n
+ * (metadata bytes)(content bytes)
+ * </pre>
+ * <p>
+ * Anything a worker writes to its standard error is logged (debug level).
+ * Workers that exit, exceed the timeout (1 minute by default) or break
+ * the protocol are replaced. Workers can also be restarted after
+ * handling a maximum number of documents.
+ * </p>
+ *
  * <h3>Metadata file format:</h3>
  *
  * <p>
@@ -243,6 +315,13 @@ import com.norconex.importer.parser.impl.ExternalParser;
  *   (Optional directory where to store temporary files used
  *    by this class.)
  * </tempDir>
+ *
+ * <namedPipes>[false|true]</namedPipes>
+ *
+ * <workerPool
+ *     size="(number of persistent worker processes, default 0 = disabled)"
+ *     maxRequests="(documents handled before restarting a worker)"
+ *     timeout="(maximum time to handle one document, default 1 minute)"/>
  * }
  * <p>Consuming classes implementing {@link IXMLConfigurable} can use
  * the XML save/load methods of this class to inherit the above
@@ -270,8 +349,17 @@ public class ExternalHandler {
     public static final String META_FORMAT_XML = "xml";
     public static final String META_FORMAT_PROPERTIES = "properties";
 
+    /**
+     * Default maximum milliseconds a persistent worker can take to handle
+     * a document.
+     * @since 3.1.0
+     */
+    public static final long DEFAULT_WORKER_TIMEOUT = 60_000;
+
     private String command;
     private final List<RegexFieldValueExtractor> patterns = new ArrayList<>();
+    // compiled on first use after patterns are modified
+    private transient volatile ExtractionPatterns extractionPatterns;
 
     // Null means inherit from those of java process
     private Map<String, String> environmentVariables = null;
@@ -279,7 +367,13 @@ public class ExternalHandler {
     private String metadataInputFormat = META_FORMAT_JSON;
     private String metadataOutputFormat = META_FORMAT_JSON;
     private Path tempDir;
+    private boolean deduplicateInput;
+    private boolean namedPipes;
     private PropertySetter onSet;
+    private int workerPoolSize;
+    private int workerMaxRequests;
+    private long workerTimeout = DEFAULT_WORKER_TIMEOUT;
+    private transient ExternalWorkerPool workerPool;
 
     /**
      * Gets the command to execute.
@@ -296,6 +390,7 @@ public class ExternalHandler {
      */
     public void setCommand(String command) {
         this.command = command;
+        closeWorkerPool();
     }
 
     /**
@@ -315,6 +410,46 @@ public class ExternalHandler {
         this.tempDir = tempDir;
     }
 
+    /**
+     * Gets whether <code>${INPUT}</code> files are shared between documents
+     * having identical content. See class documentation.
+     * @return <code>true</code> if sharing input files
+     * @since 3.1.0
+     */
+    public boolean isDeduplicateInput() {
+        return deduplicateInput;
+    }
+    /**
+     * Sets whether <code>${INPUT}</code> files are shared between documents
+     * having identical content. See class documentation.
+     * @param deduplicateInput <code>true</code> to share input files
+     * @since 3.1.0
+     */
+    public void setDeduplicateInput(boolean deduplicateInput) {
+        this.deduplicateInput = deduplicateInput;
+    }
+
+    /**
+     * Gets whether <code>${INPUT}</code>, <code>${OUTPUT}</code> and
+     * <code>${OUTPUT_META}</code> are named pipes instead of temporary
+     * files, when supported. See class documentation.
+     * @return <code>true</code> if using named pipes
+     * @since 3.1.0
+     */
+    public boolean isNamedPipes() {
+        return namedPipes;
+    }
+    /**
+     * Sets whether <code>${INPUT}</code>, <code>${OUTPUT}</code> and
+     * <code>${OUTPUT_META}</code> are named pipes instead of temporary
+     * files, when supported. See class documentation.
+     * @param namedPipes <code>true</code> to use named pipes
+     * @since 3.1.0
+     */
+    public void setNamedPipes(boolean namedPipes) {
+        this.namedPipes = namedPipes;
+    }
+
     /**
      * Gets metadata extraction patterns. See class documentation.
      * @return map of patterns and field names
@@ -359,6 +494,7 @@ public class ExternalHandler {
             RegexFieldValueExtractor... patterns) {
         if (ArrayUtils.isNotEmpty(patterns)) {
             this.patterns.addAll(Arrays.asList(patterns));
+            extractionPatterns = null;
         }
     }
     /**
@@ -368,6 +504,7 @@ public class ExternalHandler {
      */
     public void setMetadataExtractionPatterns(RegexFieldValueExtractor... patterns) {
         this.patterns.clear();
+        extractionPatterns = null;
         addMetadataExtractionPatterns(patterns);
     }
 
@@ -388,6 +525,7 @@ public class ExternalHandler {
     public void setEnvironmentVariables(
             Map<String, String> environmentVariables) {
         this.environmentVariables = environmentVariables;
+        closeWorkerPool();
     }
     /**
      * Adds the environment variables, keeping environment variables previously
@@ -484,6 +622,68 @@ public class ExternalHandler {
         this.onSet = onSet;
     }
 
+    /**
+     * Gets the number of persistent worker processes. Zero (default)
+     * starts a new process for every document. See class documentation.
+     * @return worker pool size
+     * @since 3.1.0
+     */
+    public int getWorkerPoolSize() {
+        return workerPoolSize;
+    }
+    /**
+     * Sets the number of persistent worker processes. Zero (default)
+     * starts a new process for every document. See class documentation.
+     * @param workerPoolSize worker pool size
+     * @since 3.1.0
+     */
+    public void setWorkerPoolSize(int workerPoolSize) {
+        this.workerPoolSize = workerPoolSize;
+        closeWorkerPool();
+    }
+    /**
+     * Gets the number of documents a persistent worker handles before
+     * it is restarted. Zero or less (default) never restarts workers
+     * that behave.
+     * @return maximum documents per worker
+     * @since 3.1.0
+     */
+    public int getWorkerMaxRequests() {
+        return workerMaxRequests;
+    }
+    /**
+     * Sets the number of documents a persistent worker handles before
+     * it is restarted. Zero or less (default) never restarts workers
+     * that behave.
+     * @param workerMaxRequests maximum documents per worker
+     * @since 3.1.0
+     */
+    public void setWorkerMaxRequests(int workerMaxRequests) {
+        this.workerMaxRequests = workerMaxRequests;
+        closeWorkerPool();
+    }
+    /**
+     * Gets the maximum milliseconds a persistent worker can take to handle
+     * a document before it is stopped and the document fails.
+     * Zero or less for no limit.
+     * @return worker timeout
+     * @since 3.1.0
+     */
+    public long getWorkerTimeout() {
+        return workerTimeout;
+    }
+    /**
+     * Sets the maximum milliseconds a persistent worker can take to handle
+     * a document before it is stopped and the document fails.
+     * Zero or less for no limit.
+     * @param workerTimeout worker timeout
+     * @since 3.1.0
+     */
+    public void setWorkerTimeout(long workerTimeout) {
+        this.workerTimeout = workerTimeout;
+        closeWorkerPool();
+    }
+
     /**
      * Invoke the external application on a document.
      * @param doc document
@@ -499,6 +699,10 @@ public class ExternalHandler {
         //TODO eliminate output an set it back on doc???
 
         validate();
+        if (workerPoolSize > 0) {
+            handleWithWorker(doc, input, output);
+            return;
+        }
         String cmd = command;
         final ArgFiles files = new ArgFiles();
         Properties externalMeta = new Properties();
@@ -506,7 +710,7 @@ public class ExternalHandler {
         //--- Resolve command tokens ---
         LOG.debug("Command before token replacement: {}", cmd);
         try {
-            cmd = resolveInputToken(cmd, files, input);
+            cmd = resolveInputToken(cmd, files, doc, input);
             cmd = resolveInputMetaToken(cmd, files, input, doc.getMetadata());
             cmd = resolveOutputToken(cmd, files, output);
             cmd = resolveOutputMetaToken(cmd, files, output);
@@ -517,23 +721,20 @@ public class ExternalHandler {
             //--- Execute Command ---
             executeCommand(cmd, files, externalMeta, input, output);
             try {
+                files.finishPipes();
                 if (files.hasOutputFile() && output != null) {
-                    FileUtils.copyFile(files.outputFile.toFile(), output);
+                    if (files.outputPipe == null) {
+                        FileUtils.copyFile(files.outputFile.toFile(), output);
+                    }
                     output.flush();
                 }
                 if (files.hasOutputMetaFile()) {
-                    try (Reader outputMetaReader = Files.newBufferedReader(
-                            files.outputMetaFile)) {
-                        String format = getMetadataOutputFormat();
-                        if (META_FORMAT_PROPERTIES.equalsIgnoreCase(format)) {
-                            externalMeta.loadFromProperties(outputMetaReader);
-                        } else if (META_FORMAT_XML.equals(format)) {
-                            externalMeta.loadFromXML(outputMetaReader);
-                        } else if (META_FORMAT_JSON.equals(format)) {
-                            externalMeta.loadFromJSON(outputMetaReader);
-                        } else {
-                            extractMetaFromFile(outputMetaReader, externalMeta);
-                        }
+                    try (Reader outputMetaReader = files.outputMetaPipe != null
+                            ? new InputStreamReader(new ByteArrayInputStream(
+                                    files.outputMeta.toByteArray()),
+                                    StandardCharsets.UTF_8)
+                            : Files.newBufferedReader(files.outputMetaFile)) {
+                        readMeta(outputMetaReader, externalMeta);
                     }
                 }
             } catch (IOException e) {
@@ -550,6 +751,96 @@ public class ExternalHandler {
         }
     }
 
+    private void handleWithWorker(
+            HandlerDoc doc, InputStream input, OutputStream output)
+                    throws ImporterHandlerException {
+        try {
+            ByteArrayOutputStream meta = new ByteArrayOutputStream();
+            try (Writer w = new OutputStreamWriter(
+                    meta, StandardCharsets.UTF_8)) {
+                writeMeta(w, doc.getMetadata());
+            }
+            InputStream content = input;
+            long length;
+            if (input == null) {
+                content = new NullInputStream(0);
+                length = 0;
+            } else if (input instanceof CachedInputStream) {
+                length = ((CachedInputStream) input).length();
+            } else {
+                byte[] bytes = IOUtils.toByteArray(input);
+                content = new ByteArrayInputStream(bytes);
+                length = bytes.length;
+            }
+            ExternalWorkerPool.Response response = workerPool().process(
+                    doc.getReference(), meta.toByteArray(),
+                    content, length, output);
+            Properties externalMeta = new Properties();
+            readMeta(new InputStreamReader(new ByteArrayInputStream(
+                    response.getMetadata()), StandardCharsets.UTF_8),
+                    externalMeta);
+            externalMeta.forEach((k, v) -> {
+                PropertySetter.orAppend(onSet).apply(doc.getMetadata(), k, v);
+            });
+        } catch (IOException e) {
+            throw new ImporterHandlerException(
+                    "External worker failed. Command: " + command, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ImporterHandlerException(
+                    "Interrupted while waiting for external worker.", e);
+        }
+    }
+
+    private synchronized ExternalWorkerPool workerPool()
+            throws ImporterHandlerException {
+        if (workerPool == null) {
+            for (String token : Arrays.asList(TOKEN_INPUT, TOKEN_INPUT_META,
+                    TOKEN_OUTPUT, TOKEN_OUTPUT_META, TOKEN_REFERENCE)) {
+                if (command.contains(token)) {
+                    throw new ImporterHandlerException("Command tokens are "
+                            + "not supported with persistent workers: "
+                            + token);
+                }
+            }
+            workerPool = new ExternalWorkerPool(command, environmentVariables,
+                    workerPoolSize, workerMaxRequests, workerTimeout);
+        }
+        return workerPool;
+    }
+    private synchronized void closeWorkerPool() {
+        if (workerPool != null) {
+            workerPool.close();
+            workerPool = null;
+        }
+    }
+
+    private void readMeta(Reader reader, Properties metadata)
+            throws IOException {
+        String format = getMetadataOutputFormat();
+        if (META_FORMAT_PROPERTIES.equalsIgnoreCase(format)) {
+            metadata.loadFromProperties(reader);
+        } else if (META_FORMAT_XML.equals(format)) {
+            metadata.loadFromXML(reader);
+        } else if (META_FORMAT_JSON.equals(format)) {
+            metadata.loadFromJSON(reader);
+        } else {
+            extractMetaFromFile(reader, metadata);
+        }
+    }
+    private void writeMeta(Writer writer, Properties metadata)
+            throws IOException {
+        String format = getMetadataInputFormat();
+        if (META_FORMAT_PROPERTIES.equalsIgnoreCase(format)) {
+            metadata.storeToProperties(writer);
+        } else if (META_FORMAT_XML.equals(format)) {
+            metadata.storeToXML(writer);
+        } else {
+            metadata.storeToJSON(writer);
+        }
+        writer.flush();
+    }
+
     private int executeCommand(
             final String cmd,
             final ArgFiles files,
@@ -558,25 +849,31 @@ public class ExternalHandler {
             final OutputStream output) throws ImporterHandlerException {
         SystemCommand systemCommand = new SystemCommand(cmd);
         systemCommand.setEnvironmentVariables(environmentVariables);
+        // STDOUT and STDERR are read by different threads, each
+        // extracting to its own buffer, merged once the command ends.
+        ExtractionPatterns extractors = extractionPatterns();
+        boolean extract = !files.hasOutputMetaFile() && !extractors.isEmpty();
+        Properties stdoutMeta = new Properties();
+        Properties stderrMeta = new Properties();
         systemCommand.addOutputListener(new InputStreamLineListener() {
             @Override
             protected void lineStreamed(String type, String line) {
                 if (!files.hasOutputFile() && output != null) {
                     writeLine(line, output);
                 }
-                if (!files.hasOutputMetaFile()) {
-                    extractMetaFromLine(line, metadata);
+                if (extract) {
+                    extractors.extract(stdoutMeta, line);
                 }
             }
         });
-        systemCommand.addErrorListener(new InputStreamLineListener() {
-            @Override
-            protected void lineStreamed(String type, String line) {
-                if (!files.hasOutputMetaFile()) {
-                    extractMetaFromLine(line, metadata);
+        if (extract) {
+            systemCommand.addErrorListener(new InputStreamLineListener() {
+                @Override
+                protected void lineStreamed(String type, String line) {
+                    extractors.extract(stderrMeta, line);
                 }
-            }
-        });
+            });
+        }
 
         try {
             int exitValue;
@@ -585,6 +882,8 @@ public class ExternalHandler {
             } else {
                 exitValue = systemCommand.execute(input);
             }
+            mergeMeta(stdoutMeta, metadata);
+            mergeMeta(stderrMeta, metadata);
             if (exitValue != 0) {
                 LOG.error("Bad command exit value: {}", exitValue);
             }
@@ -606,31 +905,70 @@ public class ExternalHandler {
         }
     }
 
-    private synchronized void extractMetaFromFile(
-            Reader reader, Properties metadata) {
+    private void extractMetaFromFile(Reader reader, Properties metadata) {
+        ExtractionPatterns extractors = extractionPatterns();
+        if (extractors.isEmpty()) {
+            return;
+        }
         Iterator<String> it = IOUtils.lineIterator(reader);
         while (it.hasNext()) {
-            extractMetaFromLine(it.next(), metadata);
+            extractors.extract(metadata, it.next());
+        }
+    }
+
+    private ExtractionPatterns extractionPatterns() {
+        ExtractionPatterns ep = extractionPatterns;
+        if (ep == null) {
+            ep = new ExtractionPatterns(new ArrayList<>(patterns));
+            extractionPatterns = ep;
+        }
+        return ep;
+    }
+
+    private static void mergeMeta(Properties source, Properties target) {
+        for (Entry<String, List<String>> en : source.entrySet()) {
+            for (String value : en.getValue()) {
+                target.add(en.getKey(), value);
+            }
         }
     }
 
-    private synchronized void extractMetaFromLine(
-            String line, Properties metadata) {
-        RegexFieldValueExtractor.extractFieldValues(metadata, line,
-                patterns.toArray(RegexFieldValueExtractor.EMPTY_ARRAY));
+    private Path resolveTempDir(Object stream) {
+        if (tempDir != null) {
+            return tempDir;
+        }
+        if (stream instanceof ICachedStream) {
+            return ((ICachedStream) stream).getCacheDirectory();
+        }
+        return FileUtils.getTempDirectory().toPath();
+    }
+
+    private boolean useNamedPipes() {
+        return namedPipes && NamedPipe.isSupported();
+    }
+    // Returns null if the pipe could not be created, for the caller
+    // to fall back to a temporary file.
+    private NamedPipe acquireNamedPipe(Object stream, String name) {
+        if (!useNamedPipes()) {
+            return null;
+        }
+        Path tempDirectory = resolveTempDir(stream);
+        try {
+            if (!tempDirectory.toFile().exists()) {
+                Files.createDirectories(tempDirectory);
+            }
+            return NamedPipe.acquire(tempDirectory, name);
+        } catch (IOException e) {
+            LOG.warn("Could not create named pipe. Using a temporary "
+                    + "file instead.", e);
+            return null;
+        }
     }
 
     private Path createTempFile(
             Object stream, String name, String suffix)
                     throws ImporterHandlerException {
-        Path tempDirectory;
-        if (tempDir != null) {
-            tempDirectory = tempDir;
-        } else if (stream instanceof ICachedStream) {
-            tempDirectory = ((ICachedStream) stream).getCacheDirectory();
-        } else {
-            tempDirectory = FileUtils.getTempDirectory().toPath();
-        }
+        Path tempDirectory = resolveTempDir(stream);
         Path file = null;
         try {
             if (!tempDirectory.toFile().exists()) {
@@ -645,11 +983,21 @@ public class ExternalHandler {
         }
     }
 
-    private String resolveInputToken(String cmd, ArgFiles files, InputStream is)
-            throws ImporterHandlerException {
+    private String resolveInputToken(String cmd, ArgFiles files,
+            HandlerDoc doc, InputStream is) throws ImporterHandlerException {
         if (!cmd.contains(TOKEN_INPUT) || is == null) {
             return cmd;
         }
+        if (deduplicateInput) {
+            return resolveSharedInputToken(cmd, files, doc, is);
+        }
+        files.inputPipe = acquireNamedPipe(is, "input");
+        if (files.inputPipe != null) {
+            files.inputFile = files.inputPipe.getPath();
+            files.inputPipe.writeFrom(is);
+            return StringUtils.replace(cmd, TOKEN_INPUT,
+                    files.inputFile.toAbsolutePath().toString());
+        }
         String newCmd = cmd;
         files.inputFile = createTempFile(is, "input", ".tmp");
         newCmd = StringUtils.replace(newCmd, TOKEN_INPUT,
@@ -663,6 +1011,24 @@ public class ExternalHandler {
                     "Could not create temporary input file.", e);
         }
     }
+    private String resolveSharedInputToken(
+            String cmd, ArgFiles files, HandlerDoc doc, InputStream is)
+                    throws ImporterHandlerException {
+        ContentAddressedStore store = ContentAddressedStore.of(
+                resolveTempDir(is).resolve("dedup"));
+        try {
+            files.sharedInputFile = store.store(is);
+        } catch (IOException e) {
+            throw new ImporterHandlerException(
+                    "Could not create shared input file.", e);
+        }
+        // released once the document is disposed, for other handlers
+        // processing the same content to reuse it
+        doc.addDisposable(files.sharedInputFile);
+        files.inputFile = files.sharedInputFile.getPath();
+        return StringUtils.replace(cmd, TOKEN_INPUT,
+                files.inputFile.toAbsolutePath().toString());
+    }
     private String resolveInputMetaToken(
             String cmd, ArgFiles files, InputStream is, Properties meta)
                     throws ImporterHandlerException {
@@ -676,15 +1042,7 @@ public class ExternalHandler {
         newCmd = StringUtils.replace(newCmd, TOKEN_INPUT_META,
                 files.inputMetaFile.toAbsolutePath().toString());
         try (Writer fw = Files.newBufferedWriter(files.inputMetaFile)) {
-            String format = getMetadataInputFormat();
-            if (META_FORMAT_PROPERTIES.equalsIgnoreCase(format)) {
-                meta.storeToProperties(fw);
-            } else if (META_FORMAT_XML.equals(format)) {
-                meta.storeToXML(fw);
-            } else {
-                meta.storeToJSON(fw);
-            }
-            fw.flush();
+            writeMeta(fw, meta);
             return newCmd;
         } catch (IOException e) {
             ArgFiles.delete(files.inputMetaFile);
@@ -700,7 +1058,13 @@ public class ExternalHandler {
             return cmd;
         }
         String newCmd = cmd;
-        files.outputFile = createTempFile(os, "output", ".tmp");
+        files.outputPipe = acquireNamedPipe(os, "output");
+        if (files.outputPipe != null) {
+            files.outputFile = files.outputPipe.getPath();
+            files.outputPipe.readTo(os);
+        } else {
+            files.outputFile = createTempFile(os, "output", ".tmp");
+        }
         newCmd = StringUtils.replace(newCmd, TOKEN_OUTPUT,
                 files.outputFile.toAbsolutePath().toString());
         return newCmd;
@@ -713,9 +1077,16 @@ public class ExternalHandler {
             return cmd;
         }
         String newCmd = cmd;
-        files.outputMetaFile = createTempFile(
-                os, "output-meta", "." + StringUtils.defaultIfBlank(
-                        getMetadataOutputFormat(), ".tmp"));
+        files.outputMetaPipe = acquireNamedPipe(os, "output-meta");
+        if (files.outputMetaPipe != null) {
+            files.outputMetaFile = files.outputMetaPipe.getPath();
+            files.outputMeta = new ByteArrayOutputStream();
+            files.outputMetaPipe.readTo(files.outputMeta);
+        } else {
+            files.outputMetaFile = createTempFile(
+                    os, "output-meta", "." + StringUtils.defaultIfBlank(
+                            getMetadataOutputFormat(), ".tmp"));
+        }
         newCmd = StringUtils.replace(newCmd, TOKEN_OUTPUT_META,
                 files.outputMetaFile.toAbsolutePath().toString());
         return newCmd;
@@ -739,11 +1110,19 @@ public class ExternalHandler {
 
         setCommand(xml.getString("command", command));
         setTempDir(xml.getPath("tempDir", tempDir));
+        setDeduplicateInput(
+                xml.getBoolean("deduplicateInput", deduplicateInput));
+        setNamedPipes(xml.getBoolean("namedPipes", namedPipes));
         setMetadataInputFormat(xml.getString(
                 "metadata/@inputFormat", metadataInputFormat));
         setMetadataOutputFormat(xml.getString(
                 "metadata/@outputFormat", metadataOutputFormat));
         setOnSet(xml.getEnum("metadata/@onSet", PropertySetter.class, onSet));
+        setWorkerPoolSize(xml.getInteger("workerPool/@size", workerPoolSize));
+        setWorkerMaxRequests(xml.getInteger(
+                "workerPool/@maxRequests", workerMaxRequests));
+        setWorkerTimeout(xml.getDurationMillis(
+                "workerPool/@timeout", workerTimeout));
 
         List<XML> nodes = xml.getXMLList("metadata/pattern");
         for (XML node : nodes) {
@@ -765,6 +1144,12 @@ public class ExternalHandler {
     public void saveHandlerToXML(XML xml) {
         xml.addElement("command", command);
         xml.addElement("tempDir", tempDir);
+        xml.addElement("deduplicateInput", deduplicateInput);
+        xml.addElement("namedPipes", namedPipes);
+        xml.addElement("workerPool")
+                .setAttribute("size", workerPoolSize)
+                .setAttribute("maxRequests", workerMaxRequests)
+                .setAttribute("timeout", workerTimeout);
         if (!getMetadataExtractionPatterns().isEmpty()) {
             XML metaXML = xml.addElement("metadata")
                     .setAttribute("inputFormat", metadataInputFormat)
@@ -811,6 +1196,11 @@ public class ExternalHandler {
         Path inputMetaFile;
         Path outputFile;
         Path outputMetaFile;
+        StoredFile sharedInputFile;
+        NamedPipe inputPipe;
+        NamedPipe outputPipe;
+        NamedPipe outputMetaPipe;
+        ByteArrayOutputStream outputMeta;
         boolean hasInputFile() {
             return inputFile != null;
         }
@@ -823,11 +1213,36 @@ public class ExternalHandler {
         boolean hasOutputMetaFile() {
             return outputMetaFile != null;
         }
+        // Waits for named pipe transfers, once the command has ended
+        void finishPipes() throws IOException {
+            for (NamedPipe pipe : Arrays.asList(
+                    inputPipe, outputPipe, outputMetaPipe)) {
+                if (pipe != null) {
+                    pipe.finish();
+                }
+            }
+        }
         void deleteAll() {
-            delete(inputFile);
+            // shared input file is released with the document
+            if (sharedInputFile == null) {
+                release(inputPipe, inputFile);
+            }
             delete(inputMetaFile);
-            delete(outputFile);
-            delete(outputMetaFile);
+            release(outputPipe, outputFile);
+            release(outputMetaPipe, outputMetaFile);
+        }
+        // Named pipes are kept for reuse instead of being deleted
+        static void release(NamedPipe pipe, Path file) {
+            if (pipe == null) {
+                delete(file);
+                return;
+            }
+            try {
+                pipe.finish();
+            } catch (IOException e) {
+                LOG.debug("Named pipe transfer failed.", e);
+            }
+            pipe.release();
         }
         static void delete(Path file) {
             if (file != null) {
@@ -0,0 +1,402 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.handler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.SystemUtils;
+import org.apache.commons.text.StringTokenizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Pool of long-lived external processes, each handling one document
+ * at a time, exchanged over the process standard input and output.
+ * Used by {@link ExternalHandler} when a worker pool size is set,
+ * to avoid starting a new process for every document.
+ * </p>
+ * <p>
+ * Processes are started when first needed, up to the pool size.
+ * A process that exited, did not answer within the timeout or sent
+ * a malformed response is discarded and a new one is started on
+ * the next request. Processes are also restarted after handling
+ * a maximum number of documents, if set.
+ * </p>
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ * @author Pascal Essiembre
+ * @since 3.1.0
+ * @see ExternalHandler
+ */
+final class ExternalWorkerPool implements Closeable {
+
+    private static final Logger LOG =
+            LoggerFactory.getLogger(ExternalWorkerPool.class);
+
+    private static final String STATUS_OK = "OK";
+    private static final String STATUS_ERROR = "ERROR";
+    private static final int MAX_HEADER_LENGTH = 8192;
+    // How long to wait for a request to be fully written once
+    // its response was read
+    private static final long WRITE_GRACE_MILLIS = 10_000;
+
+    private static final ExecutorService IO_EXECUTOR =
+            Executors.newCachedThreadPool(daemon("external-worker-io"));
+    private static final ScheduledExecutorService TIMER =
+            Executors.newSingleThreadScheduledExecutor(
+                    daemon("external-worker-timer"));
+    // Processes to stop when the JVM exits
+    private static final Set<Worker> RUNNING = ConcurrentHashMap.newKeySet();
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            for (Worker worker : RUNNING) {
+                worker.destroy();
+            }
+        }, "external-worker-shutdown"));
+    }
+
+    private final List<String> command;
+    private final Map<String, String> environmentVariables;
+    private final int maxRequests;
+    private final long timeout;
+    private final Semaphore available;
+    private final BlockingQueue<Worker> idle = new LinkedBlockingQueue<>();
+    private volatile boolean closed;
+
+    /**
+     * Creates a worker pool.
+     * @param command command starting a worker process
+     * @param environmentVariables process environment variables, or
+     *     <code>null</code> to inherit those of the current process
+     * @param size maximum number of worker processes
+     * @param maxRequests documents handled by a process before it is
+     *     restarted (zero or less for no limit)
+     * @param timeout maximum milliseconds to handle one document
+     *     (zero or less for no limit)
+     */
+    ExternalWorkerPool(String command, Map<String, String> environmentVariables,
+            int size, int maxRequests, long timeout) {
+        super();
+        this.command = parseCommand(command);
+        this.environmentVariables = environmentVariables;
+        this.maxRequests = maxRequests;
+        this.timeout = timeout;
+        this.available = new Semaphore(Math.max(1, size));
+    }
+
+    /**
+     * Response from a worker process.
+     */
+    static final class Response {
+        private final byte[] metadata;
+        private Response(byte[] metadata) {
+            this.metadata = metadata;
+        }
+        /**
+         * Gets the metadata returned by the worker.
+         * @return metadata bytes (never <code>null</code>)
+         */
+        byte[] getMetadata() {
+            return metadata;
+        }
+    }
+
+    /**
+     * Sends a document to a worker process and reads back its response,
+     * writing the response content to the given output.
+     * @param reference document reference
+     * @param metadata document metadata, already serialized
+     * @param content document content
+     * @param contentLength exact number of bytes in the content
+     * @param output where to write the response content, or
+     *     <code>null</code> to ignore it
+     * @return worker response
+     * @throws IOException problem exchanging with the worker or worker
+     *     reported an error
+     * @throws InterruptedException interrupted while waiting for a worker
+     */
+    Response process(String reference, byte[] metadata, InputStream content,
+            long contentLength, OutputStream output)
+                    throws IOException, InterruptedException {
+        Worker worker = acquire();
+        boolean healthy = false;
+        ScheduledFuture<?> timer = timeout > 0 ? TIMER.schedule(
+                worker::expire, timeout, TimeUnit.MILLISECONDS) : null;
+        try {
+            // Written on another thread so a worker writing its response
+            // before reading all of its input does not block us.
+            Future<?> writing = IO_EXECUTOR.submit(() -> {
+                worker.writeRequest(
+                        reference, metadata, content, contentLength);
+                return null;
+            });
+            Response response = null;
+            WorkerException error = null;
+            try {
+                response = worker.readResponse(output);
+            } catch (WorkerException e) {
+                // The worker reported an error but remains usable
+                // once it has read the whole request.
+                error = e;
+            }
+            try {
+                writing.get(WRITE_GRACE_MILLIS, TimeUnit.MILLISECONDS);
+                healthy = true;
+            } catch (TimeoutException e) {
+                // Answered without reading all of its input: the worker
+                // is destroyed on release, which ends the writing.
+                writing.cancel(true);
+                LOG.warn("External worker did not read the whole request "
+                        + "for \"{}\". Stopping it.", reference);
+            }
+            if (error != null) {
+                throw error;
+            }
+            return response;
+        } catch (WorkerException e) {
+            throw e;
+        } catch (IOException | ExecutionException e) {
+            if (worker.expired) {
+                throw new IOException("External worker did not answer within "
+                        + timeout + " milliseconds.", e);
+            }
+            throw e instanceof IOException
+                    ? (IOException) e
+                    : new IOException("Could not write to external worker.",
+                            e.getCause());
+        } finally {
+            if (timer != null) {
+                timer.cancel(false);
+            }
+            release(worker, healthy && !worker.expired);
+        }
+    }
+
+    /**
+     * Stops all worker processes. Documents being processed fail.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Worker worker;
+        while ((worker = idle.poll()) != null) {
+            worker.destroy();
+        }
+    }
+
+    private Worker acquire() throws IOException, InterruptedException {
+        if (closed) {
+            throw new IOException("External worker pool is closed.");
+        }
+        available.acquire();
+        try {
+            Worker worker;
+            while ((worker = idle.poll()) != null) {
+                if (worker.process.isAlive()) {
+                    return worker;
+                }
+                LOG.warn("External worker exited unexpectedly "
+                        + "(exit value: {}). Starting a new one.",
+                        worker.process.exitValue());
+                worker.destroy();
+            }
+            return new Worker();
+        } catch (IOException | RuntimeException e) {
+            available.release();
+            throw e;
+        }
+    }
+
+    private void release(Worker worker, boolean healthy) {
+        worker.requests++;
+        if (healthy && !closed
+                && (maxRequests <= 0 || worker.requests < maxRequests)) {
+            idle.add(worker);
+        } else {
+            worker.destroy();
+        }
+        available.release();
+    }
+
+    private static List<String> parseCommand(String command) {
+        List<String> args = new ArrayList<>();
+        if (SystemUtils.IS_OS_WINDOWS) {
+            args.add("cmd.exe");
+            args.add("/C");
+        }
+        args.addAll(new StringTokenizer(command, ' ', '"').getTokenList());
+        return args;
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    // Reads a line of US-ASCII characters, without the line feed
+    private static String readHeader(InputStream is) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = is.read()) != '\n') {
+            if (b == -1) {
+                throw new EOFException("External worker closed its output.");
+            }
+            if (line.size() >= MAX_HEADER_LENGTH) {
+                throw new IOException("Invalid external worker response.");
+            }
+            line.write(b);
+        }
+        return StringUtils.removeEnd(
+                line.toString(StandardCharsets.US_ASCII.name()), "\r");
+    }
+
+    // Error reported by a worker, which remains usable.
+    static class WorkerException extends IOException {
+        private static final long serialVersionUID = 1L;
+        WorkerException(String message) {
+            super(message);
+        }
+    }
+
+    private final class Worker {
+        private final Process process;
+        private final OutputStream stdin;
+        private final InputStream stdout;
+        private int requests;
+        private volatile boolean expired;
+
+        private Worker() throws IOException {
+            ProcessBuilder builder = new ProcessBuilder(command);
+            if (environmentVariables != null) {
+                builder.environment().clear();
+                builder.environment().putAll(environmentVariables);
+            }
+            process = builder.start();
+            RUNNING.add(this);
+            stdin = new BufferedOutputStream(process.getOutputStream());
+            stdout = new BufferedInputStream(process.getInputStream());
+            IO_EXECUTOR.execute(this::logErrors);
+            LOG.debug("Started external worker: {}", command);
+        }
+
+        private void writeRequest(String reference, byte[] metadata,
+                InputStream content, long contentLength) throws IOException {
+            String header = contentLength + " " + metadata.length + " "
+                    + StringUtils.defaultString(reference).replaceAll(
+                            "[\\r\\n]", " ") + "\n";
+            stdin.write(header.getBytes(StandardCharsets.UTF_8));
+            stdin.write(metadata);
+            if (contentLength > 0
+                    && IOUtils.copyLarge(content, stdin, 0, contentLength)
+                            != contentLength) {
+                throw new EOFException(
+                        "Content is shorter than " + contentLength);
+            }
+            stdin.flush();
+        }
+
+        private Response readResponse(OutputStream output)
+                throws IOException {
+            String[] header = StringUtils.split(readHeader(stdout), ' ');
+            if (header.length != 3 || !StringUtils.isNumeric(header[1])
+                    || !StringUtils.isNumeric(header[2])) {
+                throw new IOException("Invalid external worker response "
+                        + "header: " + StringUtils.join(header, ' '));
+            }
+            long contentLength = Long.parseLong(header[1]);
+            int metaLength = Integer.parseInt(header[2]);
+            byte[] metadata = IOUtils.readFully(stdout, metaLength);
+            BoundedInputStream content =
+                    new BoundedInputStream(stdout, contentLength);
+            content.setPropagateClose(false);
+            if (STATUS_ERROR.equals(header[0])) {
+                throw new WorkerException("External worker error: "
+                        + IOUtils.toString(content, StandardCharsets.UTF_8));
+            }
+            if (!STATUS_OK.equals(header[0])) {
+                throw new IOException(
+                        "Invalid external worker status: " + header[0]);
+            }
+            long copied = output != null
+                    ? IOUtils.copyLarge(content, output)
+                    : IOUtils.skip(content, contentLength);
+            if (copied != contentLength) {
+                throw new EOFException("External worker closed its output.");
+            }
+            if (output != null) {
+                output.flush();
+            }
+            return new Response(metadata);
+        }
+
+        private void logErrors() {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getErrorStream(),
+                            StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    LOG.debug("External worker: {}", line);
+                }
+            } catch (IOException e) {
+                LOG.trace("External worker error stream closed.", e);
+            }
+        }
+
+        private void expire() {
+            expired = true;
+            destroy();
+        }
+
+        private void destroy() {
+            RUNNING.remove(this);
+            process.destroyForcibly();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.handler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.norconex.commons.lang.map.Properties;
+import com.norconex.commons.lang.text.Regex;
+import com.norconex.commons.lang.text.RegexFieldValueExtractor;
+
+/**
+ * <p>
+ * Immutable snapshot of metadata extraction patterns, compiled once,
+ * for applying them on many lines (e.g., an external application
+ * standard output). Lines are first matched against all patterns
+ * combined in a single regular expression, and extractors are only
+ * invoked for lines their pattern is found in. Most lines usually
+ * match none of them and are skipped with a single evaluation.
+ * </p>
+ * <p>
+ * Patterns that cannot be safely combined (e.g., with back references,
+ * named groups or ignoring diacritics) disable the combined evaluation
+ * and are always given to their extractor.
+ * </p>
+ * <p>
+ * This class is thread-safe. Changes made to extractors after
+ * creating an instance are not reflected.
+ * </p>
+ * @author Pascal Essiembre
+ * @since 3.1.0
+ * @see ExternalHandler
+ */
+final class ExtractionPatterns {
+
+    // Patterns not safe to wrap in an alternation group
+    private static final Pattern NOT_COMBINABLE = Pattern.compile(
+            "\\\\(\\d|k<|Q)|\\(\\?<[a-zA-Z]");
+    // Flags having an embedded equivalent, except for COMMENTS
+    private static final int EMBEDDABLE_FLAGS = Pattern.CASE_INSENSITIVE
+            | Pattern.UNICODE_CASE | Pattern.DOTALL | Pattern.MULTILINE
+            | Pattern.UNIX_LINES | Pattern.UNICODE_CHARACTER_CLASS;
+
+    private final RegexFieldValueExtractor[][] extractors;
+    // null entries are always given to their extractor
+    private final Pattern[] patterns;
+    // null when patterns are not all combinable
+    private final Pattern combined;
+
+    ExtractionPatterns(List<RegexFieldValueExtractor> extractors) {
+        super();
+        int size = extractors.size();
+        this.extractors = new RegexFieldValueExtractor[size][];
+        this.patterns = new Pattern[size];
+        List<String> alternatives = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            RegexFieldValueExtractor extractor = extractors.get(i);
+            this.extractors[i] = new RegexFieldValueExtractor[] { extractor };
+            patterns[i] = compile(extractor.getRegex());
+            if (patterns[i] != null && alternatives != null) {
+                alternatives.add(toAlternative(patterns[i]));
+            } else {
+                alternatives = null;
+            }
+        }
+        combined = combine(alternatives);
+    }
+
+    boolean isEmpty() {
+        return extractors.length == 0;
+    }
+
+    /**
+     * Extracts field values from a line of text into the given metadata.
+     * @param metadata where to store extracted values
+     * @param line text to extract from
+     */
+    void extract(Properties metadata, String line) {
+        if (line == null || isEmpty()
+                || (combined != null && !combined.matcher(line).find())) {
+            return;
+        }
+        for (int i = 0; i < extractors.length; i++) {
+            if (patterns[i] == null || patterns[i].matcher(line).find()) {
+                RegexFieldValueExtractor.extractFieldValues(
+                        metadata, line, extractors[i]);
+            }
+        }
+    }
+
+    private static Pattern compile(Regex regex) {
+        if (regex == null || StringUtils.isEmpty(regex.getPattern())
+                || regex.isIgnoreDiacritic()) {
+            return null;
+        }
+        try {
+            return regex.compile();
+        } catch (PatternSyntaxException e) {
+            // let the extractor report it
+            return null;
+        }
+    }
+
+    private static String toAlternative(Pattern pattern) {
+        int flags = pattern.flags();
+        if ((flags & ~EMBEDDABLE_FLAGS) != 0
+                || NOT_COMBINABLE.matcher(pattern.pattern()).find()) {
+            return null;
+        }
+        StringBuilder b = new StringBuilder("(?");
+        appendFlag(b, flags, Pattern.CASE_INSENSITIVE, 'i');
+        appendFlag(b, flags, Pattern.UNICODE_CASE, 'u');
+        appendFlag(b, flags, Pattern.DOTALL, 's');
+        appendFlag(b, flags, Pattern.MULTILINE, 'm');
+        appendFlag(b, flags, Pattern.UNIX_LINES, 'd');
+        appendFlag(b, flags, Pattern.UNICODE_CHARACTER_CLASS, 'U');
+        return b.append(':').append(pattern.pattern()).append(')').toString();
+    }
+    private static void appendFlag(
+            StringBuilder b, int flags, int flag, char c) {
+        if ((flags & flag) != 0) {
+            b.append(c);
+        }
+    }
+
+    private static Pattern combine(List<String> alternatives) {
+        if (alternatives == null || alternatives.isEmpty()
+                || alternatives.contains(null)) {
+            return null;
+        }
+        try {
+            return Pattern.compile(String.join("|", alternatives));
+        } catch (PatternSyntaxException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.handler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Node;
+
+import com.norconex.commons.lang.xml.XML;
+import com.norconex.importer.ImporterConfig;
+import com.norconex.importer.handler.filter.IDocumentFilter;
+import com.norconex.importer.handler.filter.IOnMatchFilter;
+import com.norconex.importer.handler.filter.OnMatch;
+import com.norconex.importer.handler.filter.impl.RejectFilter;
+import com.norconex.importer.handler.tagger.IDocumentTagger;
+
+/**
+ * <p>
+ * Rewrites an XML flow of importer handlers (e.g.,
+ * <code>preParseHandlers</code>) before it is parsed, so documents
+ * that end up being rejected go through fewer handlers. Handlers
+ * otherwise run in declaration order, which often has expensive taggers
+ * executed before a cheap filter rejecting the document anyway.
+ * </p>
+ * <p>
+ * The following changes are made, within each block of handlers
+ * (top-level, "then" and "else"):
+ * </p>
+ * <ul>
+ *   <li>
+ *     Excluding filters that do not read content are moved before
+ *     the taggers preceding them, as long as those taggers do not
+ *     write any metadata field the filter reads.
+ *   </li>
+ *   <li>
+ *     Handlers following a "reject" in the same block are removed,
+ *     as well as "if" and "ifNot" having no handlers.
+ *   </li>
+ * </ul>
+ * <p>
+ * Only handlers declaring which fields they read and write
+ * ({@link IFieldAccessAware}) and how they access content
+ * ({@link IContentAccessAware}) are considered. Other handlers,
+ * conditional blocks and filters are never moved past, so filters keep
+ * the same relative order and the same filter is reported as having
+ * rejected a document.
+ * Because taggers moved after a filter no longer run on documents
+ * that filter rejects, rejected documents may have fewer metadata fields.
+ * </p>
+ * <p>
+ * Each optimizer instance keeps statistics about the changes it made,
+ * to estimate the savings. This class is not thread-safe.
+ * </p>
+ * @author Pascal Essiembre
+ * @since 3.1.0
+ * @see ImporterConfig#setOptimizeFlow(boolean)
+ */
+public class FlowOptimizer {
+
+    private static final Logger LOG =
+            LoggerFactory.getLogger(FlowOptimizer.class);
+
+    private int movedFilters;
+    private int skippedHandlers;
+    private int skippedContentHandlers;
+    private int removedElements;
+
+    /**
+     * Optimizes the given XML flow. The XML is modified directly.
+     * @param flow XML flow (can be <code>null</code>)
+     */
+    public void optimize(XML flow) {
+        if (flow != null) {
+            optimizeBlock(flow);
+        }
+    }
+
+    /**
+     * Gets the number of filters moved before other handlers.
+     * @return number of filters
+     */
+    public int getMovedFilters() {
+        return movedFilters;
+    }
+    /**
+     * Gets the number of handler executions no longer performed on
+     * a document rejected by one of the moved filters, summed for
+     * all moved filters.
+     * @return number of handler executions
+     */
+    public int getSkippedHandlers() {
+        return skippedHandlers;
+    }
+    /**
+     * Gets how many of the skipped handler executions read the document
+     * content, which usually makes them the most expensive ones.
+     * @return number of handler executions
+     * @see #getSkippedHandlers()
+     */
+    public int getSkippedContentHandlers() {
+        return skippedContentHandlers;
+    }
+    /**
+     * Gets the number of flow elements removed for never having
+     * any effect.
+     * @return number of flow elements
+     */
+    public int getRemovedElements() {
+        return removedElements;
+    }
+
+    /**
+     * Gets a human-readable summary of the changes made and
+     * estimated savings.
+     * @return summary
+     */
+    public String getSummary() {
+        if (movedFilters == 0 && removedElements == 0) {
+            return "Flow optimization: no changes.";
+        }
+        return "Flow optimization: " + movedFilters + " filter(s) moved, "
+                + removedElements + " dead flow element(s) removed. "
+                + "Documents rejected by moved filters skip up to "
+                + skippedHandlers + " handler execution(s), "
+                + skippedContentHandlers + " of which reading content.";
+    }
+
+    private void optimizeBlock(XML block) {
+        List<Step> steps = new ArrayList<>();
+        for (XML xml : block.getXMLList("*")) {
+            Step step = new Step(xml);
+            if (step.isConditional() && !optimizeConditional(xml)) {
+                remove(step, "conditional block without handlers");
+            } else {
+                steps.add(step);
+            }
+        }
+        for (int i = 0; i < steps.size(); i++) {
+            hoist(steps, i);
+        }
+        removeAfterReject(steps);
+    }
+
+    // Returns false if the conditional block has no handlers.
+    private boolean optimizeConditional(XML xml) {
+        boolean hasHandlers = false;
+        for (String branch : new String[] { "then", "else" }) {
+            XML block = xml.getXML(branch);
+            if (block != null) {
+                optimizeBlock(block);
+                hasHandlers |= !block.getXMLList("*").isEmpty();
+            }
+        }
+        return hasHandlers;
+    }
+
+    private void hoist(List<Step> steps, int index) {
+        Step filter = steps.get(index);
+        if (!filter.isHoistable()) {
+            return;
+        }
+        int target = index;
+        while (target > 0 && filter.canMoveBefore(steps.get(target - 1))) {
+            target--;
+        }
+        if (target == index) {
+            return;
+        }
+        Node node = filter.xml.getNode();
+        node.getParentNode().insertBefore(
+                node, steps.get(target).xml.getNode());
+        for (int i = target; i < index; i++) {
+            skippedHandlers++;
+            if (ContentAccess.of(steps.get(i).handler) != ContentAccess.NONE) {
+                skippedContentHandlers++;
+            }
+        }
+        movedFilters++;
+        steps.add(target, steps.remove(index));
+        LOG.debug("Moved filter {} before {} handler(s).",
+                filter.handler, index - target);
+    }
+
+    private void removeAfterReject(List<Step> steps) {
+        for (int i = 0; i < steps.size(); i++) {
+            if (steps.get(i).handler instanceof RejectFilter) {
+                for (Step dead : steps.subList(i + 1, steps.size())) {
+                    remove(dead, "flow element following a rejection");
+                }
+                steps.subList(i + 1, steps.size()).clear();
+                return;
+            }
+        }
+    }
+
+    private void remove(Step step, String reason) {
+        Node node = step.xml.getNode();
+        node.getParentNode().removeChild(node);
+        removedElements++;
+        LOG.debug("Removed {}: {}", reason, step.xml);
+    }
+
+    private static final class Step {
+        private final XML xml;
+        // null if not a handler or it could not be resolved
+        private final IImporterHandler handler;
+        private Step(XML xml) {
+            this.xml = xml;
+            this.handler = toHandler(xml);
+        }
+        private boolean isConditional() {
+            return "if".equals(xml.getName()) || "ifNot".equals(xml.getName());
+        }
+        // Cheap filter that can reject a document on its own
+        private boolean isHoistable() {
+            if (!(handler instanceof IDocumentFilter)
+                    || !(handler instanceof IFieldAccessAware)
+                    || ContentAccess.of(handler) != ContentAccess.NONE) {
+                return false;
+            }
+            return !(handler instanceof IOnMatchFilter)
+                    || ((IOnMatchFilter) handler).getOnMatch()
+                            == OnMatch.EXCLUDE;
+        }
+        private boolean canMoveBefore(Step previous) {
+            IImporterHandler prev = previous.handler;
+            if (!(prev instanceof IDocumentTagger)
+                    || !(prev instanceof IFieldAccessAware)
+                    || ContentAccess.of(prev) == ContentAccess.WRITE) {
+                return false;
+            }
+            Set<String> written = ((IFieldAccessAware) prev).getWrittenFields();
+            if (written == null) {
+                return false;
+            }
+            IFieldAccessAware filter = (IFieldAccessAware) handler;
+            for (String field : written) {
+                if (filter.isReadingField(field)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        private static IImporterHandler toHandler(XML xml) {
+            if ("reject".equals(xml.getName())) {
+                return RejectFilter.INSTANCE;
+            }
+            if (!"handler".equals(xml.getName())) {
+                return null;
+            }
+            try {
+                return xml.toObjectImpl(IImporterHandler.class);
+            } catch (RuntimeException e) {
+                LOG.debug("Handler will not be optimized: {}", xml, e);
+                return null;
+            }
+        }
+    }
+}
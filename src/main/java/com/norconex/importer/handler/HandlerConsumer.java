@@ -23,6 +23,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -46,6 +47,7 @@ import com.norconex.commons.lang.xml.flow.XMLFlow;
 import com.norconex.importer.ImporterEvent;
 import com.norconex.importer.doc.Doc;
 import com.norconex.importer.doc.DocMetadata;
+import com.norconex.importer.handler.HandlerProfiler.HandlerStats;
 import com.norconex.importer.handler.filter.IDocumentFilter;
 import com.norconex.importer.handler.filter.IOnMatchFilter;
 import com.norconex.importer.handler.filter.OnMatch;
@@ -103,6 +105,35 @@ public class HandlerConsumer
             return;
         }
 
+        HandlerStats stats = ctx.getHandlerStats(handler);
+        // Restrictions are checked here to spare events and wrappers
+        // when not applicable
+        if (handler instanceof AbstractImporterHandler
+                && !ctx.isApplicable((AbstractImporterHandler) handler)) {
+            LOG.debug("{} handler does not apply to: {} (parsed={}).",
+                    handler.getClass(), ctx.getDoc().getReference(),
+                    ctx.getParseState());
+            if (stats != null) {
+                stats.record(0, 0, false, false, false);
+            }
+            // Not applicable filters accept documents, which for include
+            // filters counts as a match
+            if (handler instanceof IDocumentFilter
+                    && isMatchIncludeFilter((IDocumentFilter) handler)) {
+                ctx.getIncludeResolver().setHasIncludes(true);
+                ctx.getIncludeResolver().setAtLeastOneIncludeMatch(true);
+            }
+            return;
+        }
+        long bytes = 0;
+        if (stats != null
+                && ContentAccess.of(handler) != ContentAccess.NONE) {
+            bytes = ctx.getDoc().getInputStream().length();
+        }
+        long start = stats != null ? System.nanoTime() : 0;
+        boolean rejected = false;
+        boolean failed = true;
+
         fireEvent(ctx, IMPORTER_HANDLER_BEGIN);
         try {
             if (handler instanceof IDocumentTagger) {
@@ -112,12 +143,13 @@ public class HandlerConsumer
             } else if (handler instanceof IDocumentSplitter) {
                 splitDocument(ctx, (IDocumentSplitter) handler);
             } else if (handler instanceof IDocumentFilter) {
-                acceptDocument(ctx, (IDocumentFilter) handler);
+                rejected = !acceptDocument(ctx, (IDocumentFilter) handler);
             } else {
                 //TODO instead check if implementing right consumer
                 // and invoke if so?
                 LOG.error("Unsupported Import Handler: {}", handler);
             }
+            failed = false;
         } catch (ImporterHandlerException e) {
             fireEvent(ctx, IMPORTER_HANDLER_ERROR, e);
             ExceptionUtils.wrapAndThrow(e);
@@ -125,37 +157,57 @@ public class HandlerConsumer
             fireEvent(ctx, IMPORTER_HANDLER_ERROR, e);
             ExceptionUtils.wrapAndThrow(new ImporterHandlerException(
                     "Importer failure for handler: " + handler, e));
+        } finally {
+            if (stats != null) {
+                stats.record(System.nanoTime() - start, bytes,
+                        rejected, true, failed);
+            }
+            if (mayWriteMetadata()) {
+                ctx.resetApplicability();
+            }
         }
         fireEvent(ctx, IMPORTER_HANDLER_END);
     }
 
+    private boolean mayWriteMetadata() {
+        if (handler instanceof IFieldAccessAware) {
+            Set<String> fields =
+                    ((IFieldAccessAware) handler).getWrittenFields();
+            return fields == null || !fields.isEmpty();
+        }
+        return true;
+    }
+
     private void tagDocument(HandlerContext ctx, IDocumentTagger tagger)
             throws ImporterHandlerException {
         tagger.tagDocument(
-                new HandlerDoc(ctx.getDoc()),
-                ctx.getDoc().getInputStream(),
+                new HandlerDoc(ctx.getDoc(), true),
+                ctx.getInputStream(tagger),
                 ctx.getParseState());
     }
 
-    private void acceptDocument(
+    // Returns whether the filter accepted the document. Include filters
+    // not matching only reject it once all include filters were tried.
+    private boolean acceptDocument(
             HandlerContext ctx, IDocumentFilter filter)
                     throws ImporterHandlerException {
         boolean accepted = filter.acceptDocument(
-                new HandlerDoc(ctx.getDoc()),
-                ctx.getDoc().getInputStream(),
+                new HandlerDoc(ctx.getDoc(), true),
+                ctx.getInputStream(filter),
                 ctx.getParseState());
         if (isMatchIncludeFilter(filter)) {
             ctx.getIncludeResolver().setHasIncludes(true);
             if (accepted) {
                 ctx.getIncludeResolver().setAtLeastOneIncludeMatch(true);
             }
-            return;
+            return accepted;
         }
         // Deal with exclude and non-OnMatch filters
         if (!accepted){
             ctx.setRejectedBy(filter);
             LOG.debug("Document import rejected. Filter: {}", filter);
         }
+        return accepted;
     }
 
     private void transformDocument(
@@ -165,7 +217,8 @@ public class HandlerConsumer
         try (CachedOutputStream out =
                 ctx.getDoc().getStreamFactory().newOuputStream()) {
             transformer.transformDocument(
-                    new HandlerDoc(ctx.getDoc()), in, out, ctx.getParseState());
+                    new HandlerDoc(ctx.getDoc(), true),
+                    in, out, ctx.getParseState());
             CachedInputStream newInputStream = null;
             if (out.isCacheEmpty()) {
                 LOG.debug("Transformer \"{}\" returned no content for: {}.",
@@ -189,7 +242,8 @@ public class HandlerConsumer
         try (CachedOutputStream out =
                 ctx.getDoc().getStreamFactory().newOuputStream()) {
             childDocs = splitter.splitDocument(
-                    new HandlerDoc(ctx.getDoc()), in, out, ctx.getParseState());
+                    new HandlerDoc(ctx.getDoc(), true),
+                    in, out, ctx.getParseState());
             // If writing was performed, get new content
             if (!out.isCacheEmpty()) {
                 ctx.getDoc().setInputStream(out.getInputStream());
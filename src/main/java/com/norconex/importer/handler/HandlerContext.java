@@ -14,11 +14,18 @@
  */
 package com.norconex.importer.handler;
 
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.input.ClosedInputStream;
 
 import com.norconex.commons.lang.event.EventManager;
+import com.norconex.commons.lang.map.PropertyMatchers;
 import com.norconex.importer.doc.Doc;
+import com.norconex.importer.handler.HandlerProfiler.HandlerStats;
 import com.norconex.importer.handler.filter.IDocumentFilter;
 import com.norconex.importer.parser.ParseState;
 
@@ -29,6 +36,10 @@ public class HandlerContext {
     private final List<Doc> childDocs = new ArrayList<>();
     private final ParseState parseState;
     private final EventManager eventManager;
+    private final HandlerProfiler profiler;
+    // Restriction results, keyed by handler identity, for this
+    // document only
+    private Map<AbstractImporterHandler, Boolean> applicability;
 
     private IDocumentFilter rejectedBy;
     private final IncludeMatchResolver includeResolver =
@@ -38,14 +49,88 @@ public class HandlerContext {
             Doc doc,
             EventManager eventManager,
             ParseState parseState) {
+        this(doc, eventManager, parseState, null);
+    }
+    /**
+     * Creates a handler context for a document being profiled.
+     * @param doc document
+     * @param eventManager event manager
+     * @param parseState parse state
+     * @param profiler profiler recording handler statistics for this
+     *     document, or <code>null</code> if not profiled
+     * @since 3.1.0
+     */
+    public HandlerContext(
+            Doc doc,
+            EventManager eventManager,
+            ParseState parseState,
+            HandlerProfiler profiler) {
         super();
         this.doc = doc;
         this.eventManager = eventManager;
         this.parseState = parseState;
+        this.profiler = profiler;
     }
     public Doc getDoc() {
         return doc;
     }
+    /**
+     * Gets the document content to pass to a handler or condition,
+     * rewound. Handlers or conditions declaring they do not access
+     * content get an empty stream instead, sparing a rewind.
+     * @param handler importer handler or condition
+     * @return content input stream
+     * @since 3.1.0
+     */
+    public InputStream getInputStream(Object handler) {
+        if (ContentAccess.of(handler) == ContentAccess.NONE) {
+            return ClosedInputStream.CLOSED_INPUT_STREAM;
+        }
+        return doc.getInputStream();
+    }
+    /**
+     * Gets the statistics to update for a handler or condition,
+     * if this document is being profiled.
+     * @param handler importer handler or condition
+     * @return handler statistics or <code>null</code> if not profiling
+     * @since 3.1.0
+     */
+    public HandlerStats getHandlerStats(Object handler) {
+        return profiler != null ? profiler.getStats(handler) : null;
+    }
+    /**
+     * Gets whether the restrictions of a handler match this document.
+     * Results are remembered for each handler instance,
+     * until {@link #resetApplicability()} is invoked.
+     * @param handler importer handler
+     * @return <code>true</code> if the handler applies to this document
+     * @since 3.1.0
+     */
+    public boolean isApplicable(AbstractImporterHandler handler) {
+        PropertyMatchers restrictions = handler.getRestrictionsCopy();
+        if (restrictions.isEmpty()) {
+            return true;
+        }
+        if (applicability == null) {
+            applicability = new IdentityHashMap<>();
+        }
+        Boolean applicable = applicability.get(handler);
+        if (applicable == null) {
+            applicable = restrictions.matches(doc.getMetadata());
+            applicability.put(handler, applicable);
+        }
+        return applicable;
+    }
+    /**
+     * Forgets restriction results, which need to be evaluated again
+     * when document metadata may have changed.
+     * @since 3.1.0
+     */
+    public void resetApplicability() {
+        if (applicability != null) {
+            applicability.clear();
+        }
+    }
     public List<Doc> getChildDocs() {
         return childDocs;
     }
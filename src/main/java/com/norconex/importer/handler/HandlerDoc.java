@@ -14,6 +14,7 @@
  */
 package com.norconex.importer.handler;
 
+import java.io.Closeable;
 import java.util.Objects;
 
 import org.apache.commons.lang3.builder.EqualsBuilder;
@@ -26,6 +27,7 @@ import com.norconex.commons.lang.io.CachedStreamFactory;
 import com.norconex.commons.lang.map.Properties;
 import com.norconex.importer.doc.Doc;
 import com.norconex.importer.doc.DocInfo;
+import com.norconex.importer.doc.TypedMetadata;
 
 /**
  * Lighter version of {@link Doc} which leaves content out to let each
@@ -37,9 +39,16 @@ public class HandlerDoc {
 
     @ToStringSummary
     private final Doc doc;
+    private final transient boolean restrictionsChecked;
 
     public HandlerDoc(Doc doc) {
+        this(doc, false);
+    }
+    // restrictionsChecked: whether the handler restrictions were
+    // already found to match this document
+    HandlerDoc(Doc doc, boolean restrictionsChecked) {
         this.doc = Objects.requireNonNull(doc, "'doc' must not be null.");
+        this.restrictionsChecked = restrictionsChecked;
     }
 
     public DocInfo getDocInfo() {
@@ -48,6 +57,15 @@ public class HandlerDoc {
     public Properties getMetadata() {
         return doc.getMetadata();
     }
+    /**
+     * Gets typed access to the document metadata.
+     * @return typed metadata
+     * @since 3.1.0
+     * @see Doc#getTypedMetadata()
+     */
+    public TypedMetadata getTypedMetadata() {
+        return doc.getTypedMetadata();
+    }
     public String getReference() {
         return doc.getReference();
     }
@@ -55,6 +73,15 @@ public class HandlerDoc {
         return doc.getStreamFactory();
     }
 
+    // Resources to close with the document rather than the handler
+    void addDisposable(Closeable disposable) {
+        doc.addDisposable(disposable);
+    }
+
+    boolean isRestrictionsChecked() {
+        return restrictionsChecked;
+    }
+
     @Override
     public boolean equals(final Object other) {
         return EqualsBuilder.reflectionEquals(this, other);
@@ -31,6 +31,7 @@ import com.norconex.commons.lang.xml.XML;
 import com.norconex.commons.lang.xml.flow.IXMLFlowPredicateAdapter;
 import com.norconex.commons.lang.xml.flow.XMLFlow;
 import com.norconex.importer.ImporterEvent;
+import com.norconex.importer.handler.HandlerProfiler.HandlerStats;
 import com.norconex.importer.handler.condition.IImporterCondition;
 import com.norconex.importer.handler.condition.impl.TextCondition;
 
@@ -63,12 +64,23 @@ public class HandlerPredicate
             return false;
         }
 
+        HandlerStats stats = ctx.getHandlerStats(condition);
+        long bytes = 0;
+        if (stats != null
+                && ContentAccess.of(condition) != ContentAccess.NONE) {
+            bytes = ctx.getDoc().getInputStream().length();
+        }
+        long start = stats != null ? System.nanoTime() : 0;
+        boolean result = false;
+        boolean failed = true;
+
         fireEvent(ctx, IMPORTER_HANDLER_BEGIN);
         try {
-            boolean result = condition.testDocument(
+            result = condition.testDocument(
                     new HandlerDoc(ctx.getDoc()),
-                    ctx.getDoc().getInputStream(),
+                    ctx.getInputStream(condition),
                     ctx.getParseState());
+            failed = false;
             fireEvent(ctx, result
                     ? IMPORTER_HANDLER_CONDITION_TRUE
                     : IMPORTER_HANDLER_CONDITION_FALSE);
@@ -80,6 +92,11 @@ public class HandlerPredicate
             fireEvent(ctx, IMPORTER_HANDLER_ERROR, e);
             ExceptionUtils.wrapAndThrow(new ImporterHandlerException(
                     "Importer failure for handler condition: " + condition, e));
+        } finally {
+            if (stats != null) {
+                stats.recordCondition(System.nanoTime() - start,
+                        bytes, result, failed);
+            }
         }
         fireEvent(ctx, IMPORTER_HANDLER_END);
         return false;
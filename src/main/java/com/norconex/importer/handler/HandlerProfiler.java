@@ -0,0 +1,332 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.handler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.text.StringEscapeUtils;
+
+import com.norconex.importer.ImporterConfig;
+
+/**
+ * <p>
+ * Collects execution statistics for importer handlers and conditions,
+ * on a sample of documents. For each handler or condition, it records
+ * how many times it was invoked, the time spent, the content bytes it
+ * was given, and how many times its restrictions made it not applicable
+ * to a document. For filters, it records how many documents they
+ * rejected (include filters not matching count as rejecting).
+ * For conditions, it records how many times they were false.
+ * </p>
+ * <p>
+ * The report ranks handlers by total time spent, with hints on where
+ * reordering or restricting handlers could help. It can be written
+ * as JSON or CSV.
+ * </p>
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ * @author Pascal Essiembre
+ * @since 3.1.0
+ * @see ImporterConfig#setProfilingSampleRate(double)
+ */
+public class HandlerProfiler {
+
+    // Hint thresholds, as ratios of invocations
+    private static final double REJECT_HINT_RATIO = 0.1;
+    private static final double NOT_APPLICABLE_HINT_RATIO = 0.9;
+
+    private final double sampleRate;
+    // Keyed by identity: handler equals/hashCode are reflection-based
+    private final Map<Object, HandlerStats> stats = new IdentityHashMap<>();
+
+    /**
+     * Creates a profiler sampling the given fraction of documents.
+     * @param sampleRate fraction of documents to profile, between
+     *     0 (none) and 1 (all)
+     */
+    public HandlerProfiler(double sampleRate) {
+        super();
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException(
+                    "Sample rate must be between 0 and 1: " + sampleRate);
+        }
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Gets the fraction of documents profiled.
+     * @return sample rate
+     */
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Decides whether the next document should be profiled,
+     * according to the sample rate.
+     * @return <code>true</code> to profile the document
+     */
+    public boolean sample() {
+        return sampleRate >= 1 || (sampleRate > 0
+                && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    /**
+     * Gets the statistics of a handler or condition, creating them
+     * if they do not exist.
+     * @param handler importer handler or condition
+     * @return handler statistics
+     */
+    public synchronized HandlerStats getStats(Object handler) {
+        return stats.computeIfAbsent(handler, h -> new HandlerStats(
+                h.getClass().getSimpleName() + "#" + (stats.size() + 1)));
+    }
+
+    /**
+     * Gets the statistics of all handlers and conditions profiled so
+     * far, from the one having spent the most time to the one having
+     * spent the least.
+     * @return handler statistics
+     */
+    public synchronized List<HandlerStats> getRankedStats() {
+        List<HandlerStats> ranked = new ArrayList<>(stats.values());
+        ranked.sort(Comparator.comparingLong(
+                HandlerStats::getNanos).reversed());
+        return ranked;
+    }
+
+    /**
+     * Clears all statistics.
+     */
+    public synchronized void reset() {
+        stats.clear();
+    }
+
+    /**
+     * Writes the ranked report to a file. The report is written as CSV
+     * if the file extension is "csv", as JSON otherwise.
+     * @param file report file
+     * @throws IOException problem writing the report
+     */
+    public void writeReport(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (Writer w = Files.newBufferedWriter(
+                file, StandardCharsets.UTF_8)) {
+            if ("csv".equalsIgnoreCase(
+                    FilenameUtils.getExtension(file.toString()))) {
+                writeCSV(w);
+            } else {
+                writeJSON(w);
+            }
+        }
+    }
+
+    /**
+     * Writes the ranked report as CSV, with a header row.
+     * @param writer where to write
+     * @throws IOException problem writing the report
+     */
+    public void writeCSV(Writer writer) throws IOException {
+        writer.write("rank,handler,invocations,totalMillis,avgMillis,"
+                + "bytes,rejections,falseResults,notApplicable,errors,hint\n");
+        int rank = 0;
+        for (HandlerStats s : getRankedStats()) {
+            writer.write(String.join(",",
+                    Integer.toString(++rank),
+                    StringEscapeUtils.escapeCsv(s.getName()),
+                    Long.toString(s.getInvocations()),
+                    format(s.getNanos() / 1_000_000d),
+                    format(s.getAverageMillis()),
+                    Long.toString(s.getBytes()),
+                    Long.toString(s.getRejections()),
+                    Long.toString(s.getFalseResults()),
+                    Long.toString(s.getNotApplicable()),
+                    Long.toString(s.getErrors()),
+                    StringEscapeUtils.escapeCsv(s.getHint())));
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    /**
+     * Writes the ranked report as JSON.
+     * @param writer where to write
+     * @throws IOException problem writing the report
+     */
+    public void writeJSON(Writer writer) throws IOException {
+        writer.write("{\n  \"sampleRate\": " + sampleRate
+                + ",\n  \"handlers\": [");
+        int rank = 0;
+        for (HandlerStats s : getRankedStats()) {
+            writer.write(rank == 0 ? "\n" : ",\n");
+            writer.write("    {\"rank\": " + ++rank
+                    + ", \"handler\": \"" + json(s.getName())
+                    + "\", \"invocations\": " + s.getInvocations()
+                    + ", \"totalMillis\": " + format(s.getNanos() / 1_000_000d)
+                    + ", \"avgMillis\": " + format(s.getAverageMillis())
+                    + ", \"bytes\": " + s.getBytes()
+                    + ", \"rejections\": " + s.getRejections()
+                    + ", \"falseResults\": " + s.getFalseResults()
+                    + ", \"notApplicable\": " + s.getNotApplicable()
+                    + ", \"errors\": " + s.getErrors()
+                    + ", \"hint\": \"" + json(s.getHint()) + "\"}");
+        }
+        writer.write("\n  ]\n}\n");
+        writer.flush();
+    }
+
+    private static String json(String value) {
+        return StringEscapeUtils.escapeJson(value);
+    }
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    /**
+     * Execution statistics of a single handler or condition.
+     */
+    public static class HandlerStats {
+        private final String name;
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder rejections = new LongAdder();
+        private final LongAdder falseResults = new LongAdder();
+        private final LongAdder notApplicable = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+
+        HandlerStats(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Records a handler invocation.
+         * @param elapsedNanos time spent, in nanoseconds
+         * @param contentBytes size of the content given to the handler
+         * @param rejected whether the handler, a filter, did not accept
+         *     the document
+         * @param applicable whether the handler restrictions
+         *     matched the document
+         * @param failed whether the handler failed
+         */
+        public void record(long elapsedNanos, long contentBytes,
+                boolean rejected, boolean applicable, boolean failed) {
+            invocations.increment();
+            nanos.add(elapsedNanos);
+            bytes.add(contentBytes);
+            if (rejected) {
+                rejections.increment();
+            }
+            if (!applicable) {
+                notApplicable.increment();
+            }
+            if (failed) {
+                errors.increment();
+            }
+        }
+        /**
+         * Records a condition invocation.
+         * @param elapsedNanos time spent, in nanoseconds
+         * @param contentBytes size of the content given to the condition
+         * @param result the condition result
+         * @param failed whether the condition failed
+         */
+        public void recordCondition(long elapsedNanos, long contentBytes,
+                boolean result, boolean failed) {
+            record(elapsedNanos, contentBytes, false, true, failed);
+            if (!result && !failed) {
+                falseResults.increment();
+            }
+        }
+
+        /**
+         * Gets the handler name: its class simple name and a sequence
+         * number distinguishing handlers of the same class.
+         * @return handler name
+         */
+        public String getName() {
+            return name;
+        }
+        public long getInvocations() {
+            return invocations.sum();
+        }
+        public long getNanos() {
+            return nanos.sum();
+        }
+        public double getAverageMillis() {
+            long count = getInvocations();
+            return count == 0 ? 0 : getNanos() / 1_000_000d / count;
+        }
+        public long getBytes() {
+            return bytes.sum();
+        }
+        public long getRejections() {
+            return rejections.sum();
+        }
+        public long getFalseResults() {
+            return falseResults.sum();
+        }
+        public long getNotApplicable() {
+            return notApplicable.sum();
+        }
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        /**
+         * Gets a suggestion on how to reduce the cost of the handler
+         * based on its statistics, if any.
+         * @return hint (empty if none)
+         */
+        public String getHint() {
+            long count = getInvocations();
+            if (count == 0) {
+                return "";
+            }
+            if (getRejections() >= count * REJECT_HINT_RATIO) {
+                return "Rejects "
+                        + percent(getRejections(), count)
+                        + " of documents: consider running it earlier.";
+            }
+            if (getNotApplicable() >= count * NOT_APPLICABLE_HINT_RATIO) {
+                return "Not applicable to "
+                        + percent(getNotApplicable(), count)
+                        + " of documents: consider moving it under "
+                        + "a condition matching the documents it applies to.";
+            }
+            return "";
+        }
+        private static String percent(long value, long total) {
+            return Math.round(value * 100d / total) + "%";
+        }
+    }
+}
@@ -0,0 +1,32 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.handler;
+
+/**
+ * Declares how an importer handler or condition accesses document
+ * content. Handlers declaring {@link ContentAccess#NONE} only deal
+ * with metadata, which lets the importer skip preparing the content
+ * stream for them (the stream they receive is empty).
+ * @author Pascal Essiembre
+ * @since 3.1.0
+ */
+public interface IContentAccessAware {
+
+    /**
+     * Gets how this handler or condition accesses document content.
+     * @return content access
+     */
+    ContentAccess getContentAccess();
+}
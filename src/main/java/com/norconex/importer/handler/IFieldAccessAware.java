@@ -0,0 +1,46 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.handler;
+
+import java.util.Set;
+
+/**
+ * Declares which metadata fields an importer handler reads and writes.
+ * Used by {@link FlowOptimizer} to find out whether handlers depend
+ * on each other and can safely be reordered. Declarations must be
+ * conservative: a handler that may read a field must report it as
+ * read, and one that cannot tell in advance which fields it writes
+ * must return <code>null</code> from {@link #getWrittenFields()}.
+ * Restrictions (<code>restrictTo</code>) are considered read fields.
+ * @author Pascal Essiembre
+ * @since 3.1.0
+ * @see IContentAccessAware
+ */
+public interface IFieldAccessAware {
+
+    /**
+     * Gets whether this handler may read the given metadata field.
+     * @param field field name
+     * @return <code>true</code> if the field may be read
+     */
+    boolean isReadingField(String field);
+
+    /**
+     * Gets the names of the metadata fields this handler may write.
+     * @return field names (empty if none), or <code>null</code> if
+     *     they cannot be known in advance
+     */
+    Set<String> getWrittenFields();
+}
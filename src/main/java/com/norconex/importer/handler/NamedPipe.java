@@ -0,0 +1,275 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.handler;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.SystemUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Named pipe (FIFO) given to an external application in place of
+ * a temporary file. Content is streamed to or from the pipe on a
+ * separate thread while the application runs, without ever being
+ * written to disk.
+ * </p>
+ * <p>
+ * Only supported on Unix-like operating systems with a
+ * <code>mkfifo</code> command. Unlike with regular files, the external
+ * application can only read or write the pipe once, sequentially.
+ * </p>
+ * <p>
+ * Creating a pipe requires starting a <code>mkfifo</code> process, so
+ * pipes are not deleted once used but kept for reuse by the next
+ * document needing one in the same directory. Only as many pipes as
+ * are used concurrently are created. They are deleted when the JVM
+ * exits.
+ * </p>
+ * @author Pascal Essiembre
+ * @since 3.1.0
+ * @see ExternalHandler#setNamedPipes(boolean)
+ */
+final class NamedPipe {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NamedPipe.class);
+
+    private static final long RELEASE_INTERVAL = 100;
+
+    private static final ExecutorService EXECUTOR =
+            Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "named-pipe");
+                t.setDaemon(true);
+                return t;
+            });
+
+    // Idle pipes ready for reuse, per directory and name prefix
+    private static final Map<Path, Queue<Path>> IDLE_PIPES =
+            new ConcurrentHashMap<>();
+
+    private static volatile Boolean supported;
+
+    private final Path path;
+    private final Path key;
+    private Future<?> transfer;
+    private boolean broken;
+
+    private NamedPipe(Path path, Path key) {
+        super();
+        this.path = path;
+        this.key = key;
+    }
+
+    /**
+     * Gets whether named pipes can be created on this system. Checked
+     * once by creating one in the system temporary directory.
+     * @return <code>true</code> if supported
+     */
+    static boolean isSupported() {
+        Boolean s = supported;
+        if (s == null) {
+            s = Boolean.FALSE;
+            if (SystemUtils.IS_OS_UNIX) {
+                try {
+                    Files.delete(mkfifo(FileUtils.getTempDirectory()
+                            .toPath(), "fifo-check"));
+                    s = Boolean.TRUE;
+                } catch (IOException e) {
+                    LOG.info("Named pipes are not supported. Temporary "
+                            + "files will be used instead.", e);
+                }
+            }
+            supported = s;
+        }
+        return s;
+    }
+
+    /**
+     * Gets a named pipe in the given directory, reusing an idle one
+     * if any, or creating a new one otherwise. The pipe must be given
+     * back with {@link #release()} once no longer used.
+     * @param dir directory where to create the pipe
+     * @param prefix pipe file name prefix
+     * @return named pipe
+     * @throws IOException could not create the pipe
+     */
+    static NamedPipe acquire(Path dir, String prefix) throws IOException {
+        Path key = dir.resolve(prefix);
+        Queue<Path> idle = IDLE_PIPES.get(key);
+        if (idle != null) {
+            Path file;
+            while ((file = idle.poll()) != null) {
+                // directory may have been cleaned up in between
+                if (Files.exists(file)) {
+                    return new NamedPipe(file, key);
+                }
+            }
+        }
+        Path file = mkfifo(dir, prefix);
+        file.toFile().deleteOnExit();
+        return new NamedPipe(file, key);
+    }
+
+    private static Path mkfifo(Path dir, String prefix) throws IOException {
+        Path file = Files.createTempFile(dir, prefix, ".fifo");
+        Files.delete(file);
+        Process process = new ProcessBuilder(
+                "mkfifo", file.toAbsolutePath().toString())
+                        .redirectErrorStream(true)
+                        .start();
+        String out;
+        try (InputStream is = process.getInputStream()) {
+            out = IOUtils.toString(is, StandardCharsets.UTF_8);
+        }
+        try {
+            if (process.waitFor() != 0) {
+                throw new IOException("Could not create named pipe \""
+                        + file + "\": " + StringUtils.trim(out));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(
+                    "Interrupted while creating named pipe.");
+        }
+        return file;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    /**
+     * Starts writing the given input to this pipe, for the external
+     * application to read. Stops quietly if the application closes
+     * the pipe before reading all of it.
+     * @param input content to write
+     */
+    void writeFrom(InputStream input) {
+        transfer = EXECUTOR.submit(() -> {
+            byte[] buffer = new byte[IOUtils.DEFAULT_BUFFER_SIZE];
+            try (OutputStream os = new FileOutputStream(path.toFile())) {
+                int n;
+                while ((n = input.read(buffer)) != -1) {
+                    try {
+                        os.write(buffer, 0, n);
+                    } catch (IOException e) {
+                        LOG.debug("External application stopped reading "
+                                + "named pipe: {}", path);
+                        break;
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Starts reading from this pipe what the external application
+     * writes to it, copying it to the given output.
+     * @param output where to copy content written by the application
+     */
+    void readTo(OutputStream output) {
+        transfer = EXECUTOR.submit(() -> {
+            try (InputStream is = new FileInputStream(path.toFile())) {
+                IOUtils.copyLarge(is, output);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Waits for the transfer to complete, once the external application
+     * has ended. Transfers still waiting for the application to open
+     * the pipe (e.g., it did not use it) are released.
+     * @throws IOException transfer failed
+     */
+    void finish() throws IOException {
+        if (transfer == null) {
+            return;
+        }
+        try {
+            while (true) {
+                // Opening both ends of a pipe does not block and lets
+                // the other end open, to then see end of stream or
+                // a broken pipe when closed.
+                new RandomAccessFile(path.toFile(), "rw").close();
+                try {
+                    transfer.get(RELEASE_INTERVAL, TimeUnit.MILLISECONDS);
+                    return;
+                } catch (TimeoutException e) {
+                    // not opened yet or still copying, try again
+                }
+            }
+        } catch (ExecutionException e) {
+            broken = true;
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(
+                    "Could not transfer named pipe content.", e.getCause());
+        } catch (InterruptedException e) {
+            broken = true;
+            Thread.currentThread().interrupt();
+            transfer.cancel(true);
+            throw new InterruptedIOException(
+                    "Interrupted while waiting for named pipe transfer.");
+        } finally {
+            transfer = null;
+        }
+    }
+
+    /**
+     * Gives this pipe back for reuse, once its transfer is finished.
+     * Pipes with an unfinished or failed transfer are deleted instead.
+     */
+    void release() {
+        if (transfer != null || broken) {
+            if (transfer != null) {
+                transfer.cancel(true);
+            }
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                LOG.warn("Could not delete named pipe: {}", path, e);
+            }
+            return;
+        }
+        IDLE_PIPES.computeIfAbsent(
+                key, k -> new ConcurrentLinkedQueue<>()).add(path);
+    }
+}
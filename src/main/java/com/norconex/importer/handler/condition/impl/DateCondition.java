@@ -24,6 +24,7 @@ import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalUnit;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Objects;
@@ -45,10 +46,14 @@ import com.norconex.commons.lang.config.ConfigurationException;
 import com.norconex.commons.lang.text.TextMatcher;
 import com.norconex.commons.lang.xml.IXMLConfigurable;
 import com.norconex.commons.lang.xml.XML;
+import com.norconex.importer.handler.ContentAccess;
 import com.norconex.importer.handler.HandlerDoc;
+import com.norconex.importer.handler.IContentAccessAware;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.condition.IImporterCondition;
 import com.norconex.importer.parser.ParseState;
+import com.norconex.importer.util.DateFormatRecognizer;
+import com.norconex.importer.util.FieldMatchCache;
 import com.norconex.importer.util.FormatUtil;
 
 /**
@@ -196,7 +201,8 @@ import com.norconex.importer.util.FormatUtil;
  * @since 3.0.0
  */
 @SuppressWarnings("javadoc")
-public class DateCondition implements IImporterCondition, IXMLConfigurable {
+public class DateCondition implements IImporterCondition, IXMLConfigurable,
+        IContentAccessAware {
 
     private static final Logger LOG =
             LoggerFactory.getLogger(DateCondition.class);
@@ -235,9 +241,12 @@ public class DateCondition implements IImporterCondition, IXMLConfigurable {
     }
 
     private final TextMatcher fieldMatcher = new TextMatcher();
+    private final transient FieldMatchCache fieldMatchCache =
+            new FieldMatchCache();
     private ValueMatcher valueMatcher;
     private ValueMatcher valueMatcherRangeEnd;
     private String format;
+    private transient volatile DateFormatRecognizer recognizer;
     private ZoneId docZoneId;
     // condition zoneId is only kept here for when we save to XML.
     private ZoneId conditionZoneId;
@@ -308,6 +317,12 @@ public class DateCondition implements IImporterCondition, IXMLConfigurable {
     }
     public void setFormat(String format) {
         this.format = format;
+        this.recognizer = null;
+    }
+
+    @Override
+    public ContentAccess getContentAccess() {
+        return ContentAccess.NONE;
     }
 
     @Override
@@ -318,44 +333,69 @@ public class DateCondition implements IImporterCondition, IXMLConfigurable {
             throw new IllegalArgumentException(
                     "\"fieldMatcher\" pattern cannot be empty.");
         }
+        // Reference dates are resolved once per document
+        ResolvedMatcher rangeStart = ResolvedMatcher.of(valueMatcher);
+        ResolvedMatcher rangeEnd = ResolvedMatcher.of(valueMatcherRangeEnd);
         for (Entry<String, List<String>> en :
-                doc.getMetadata().matchKeys(fieldMatcher).entrySet()) {
+                fieldMatchCache.matchKeys(
+                        fieldMatcher, doc.getMetadata()).entrySet()) {
             for (String value : en.getValue()) {
-                if (matches(valueMatcher, en.getKey(), value)
-                        && matches(valueMatcherRangeEnd, en.getKey(), value)) {
+                if (matches(rangeStart, rangeEnd, en.getKey(), value)) {
                     return true;
                 }
             }
         }
         return false;
     }
-    private boolean matches(
-            ValueMatcher matcher, String fieldName, String fieldValue) {
-        if (matcher == null) {
+    // Cleared when the format changes.
+    private DateFormatRecognizer recognizer() {
+        DateFormatRecognizer r = recognizer;
+        if (r == null) {
+            r = new DateFormatRecognizer(Collections.singletonList(format));
+            recognizer = r;
+        }
+        return r;
+    }
+
+    private boolean matches(ResolvedMatcher rangeStart,
+            ResolvedMatcher rangeEnd, String fieldName, String fieldValue) {
+        if (rangeStart == null && rangeEnd == null) {
             return true;
         }
 
+        // Rule out values not shaped like the format before parsing
+        if (!recognizer().hasCandidate(fieldValue)) {
+            return false;
+        }
         ZonedDateTime dt = FormatUtil.parseZonedDateTimeString(
                 fieldValue, format, null, fieldName, docZoneId);
         if (dt == null) {
             return false;
         }
+        return matches(rangeStart, dt, fieldName, fieldValue)
+                && matches(rangeEnd, dt, fieldName, fieldValue);
+    }
+    private boolean matches(ResolvedMatcher matcher,
+            ZonedDateTime dt, String fieldName, String fieldValue) {
+        if (matcher == null) {
+            return true;
+        }
 
         // if the date obtained by the supplier (the date value or logic
         // configured) starts with TODAY, we truncate that date to
         // ensure we are comparing apples to apples. Else, one must ensure
         // the date format matches for proper comparisons.
-        if (StringUtils.startsWithIgnoreCase(
-                matcher.getDateTimeSupplier().toString(), "today")) {
-            dt = dt.truncatedTo(ChronoUnit.DAYS);
+        ZonedDateTime docDate = dt;
+        if (matcher.today) {
+            docDate = dt.truncatedTo(ChronoUnit.DAYS);
         }
 
-        Operator op = defaultIfNull(matcher.operator, EQUALS);
-        boolean evalResult = op.evaluate(dt, matcher.getDateTime());
+        boolean evalResult = matcher.operator.evaluate(
+                docDate, matcher.dateTime);
         if (LOG.isDebugEnabled()) {
             LOG.debug("{}: {} [{}] {} = {}",
-                    fieldName, fieldValue, op,
-                    matcher.getDateTime(), evalResult);
+                    fieldName, fieldValue, matcher.operator,
+                    matcher.dateTime, evalResult);
         }
         return evalResult;
     }
@@ -492,12 +532,15 @@ public class DateCondition implements IImporterCondition, IXMLConfigurable {
     public static class ValueMatcher {
         private final Operator operator;
         private final Supplier<ZonedDateTime> dateTimeSupplier;
+        private final boolean today;
         public ValueMatcher(
                 Operator operator,
                 Supplier<ZonedDateTime> dateTimeSupplier) {
             super();
             this.operator = operator;
             this.dateTimeSupplier = dateTimeSupplier;
+            this.today = StringUtils.startsWithIgnoreCase(
+                    Objects.toString(dateTimeSupplier, null), "today");
         }
         public ZonedDateTime getDateTime() {
             return dateTimeSupplier.get();
@@ -521,6 +564,21 @@ public class DateCondition implements IImporterCondition, IXMLConfigurable {
         }
     }
 
+    // Value matcher with its date resolved.
+    private static final class ResolvedMatcher {
+        private final Operator operator;
+        private final ZonedDateTime dateTime;
+        private final boolean today;
+        private ResolvedMatcher(ValueMatcher matcher) {
+            this.operator = defaultIfNull(matcher.operator, EQUALS);
+            this.dateTime = matcher.getDateTime();
+            this.today = matcher.today;
+        }
+        private static ResolvedMatcher of(ValueMatcher matcher) {
+            return matcher == null ? null : new ResolvedMatcher(matcher);
+        }
+    }
+
     // Static local date, assumed to be of the zone Id supplied
     // (the ZoneId argument is ignored).
     public static class StaticDateTimeSupplier
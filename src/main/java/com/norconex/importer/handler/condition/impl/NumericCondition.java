@@ -31,10 +31,13 @@ import com.norconex.commons.lang.Operator;
 import com.norconex.commons.lang.text.TextMatcher;
 import com.norconex.commons.lang.xml.IXMLConfigurable;
 import com.norconex.commons.lang.xml.XML;
+import com.norconex.importer.handler.ContentAccess;
 import com.norconex.importer.handler.HandlerDoc;
+import com.norconex.importer.handler.IContentAccessAware;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.condition.IImporterCondition;
 import com.norconex.importer.parser.ParseState;
+import com.norconex.importer.util.FieldMatchCache;
 
 /**
  * <p>
@@ -96,9 +99,12 @@ import com.norconex.importer.parser.ParseState;
  * @author Pascal Essiembre
  * @since 3.0.0
  */
-public class NumericCondition implements IImporterCondition, IXMLConfigurable {
+public class NumericCondition implements IImporterCondition, IXMLConfigurable,
+        IContentAccessAware {
 
     private final TextMatcher fieldMatcher = new TextMatcher();
+    private final transient FieldMatchCache fieldMatchCache =
+            new FieldMatchCache();
     private ValueMatcher valueMatcher;
     private ValueMatcher valueMatcherRangeEnd;
 
@@ -150,19 +156,24 @@ public class NumericCondition implements IImporterCondition, IXMLConfigurable {
         this.valueMatcherRangeEnd = secondValueMatcher;
     }
 
+    @Override
+    public ContentAccess getContentAccess() {
+        return ContentAccess.NONE;
+    }
+
     @Override
     public boolean testDocument(
             HandlerDoc doc, InputStream input, ParseState parseState)
                     throws ImporterHandlerException {
-        for (String valueStr :
-                doc.getMetadata().matchKeys(fieldMatcher).valueList()) {
-            if (!NumberUtils.isCreatable(valueStr)) {
+        for (String field : doc.getMetadata().keySet()) {
+            if (!fieldMatchCache.matches(fieldMatcher, field)) {
                 continue;
             }
-            double number = NumberUtils.toDouble(valueStr);
-            if (matches(valueMatcher, number)
-                    && matches(valueMatcherRangeEnd, number)) {
-                return true;
+            for (double number : doc.getTypedMetadata().getDoubles(field)) {
+                if (matches(valueMatcher, number)
+                        && matches(valueMatcherRangeEnd, number)) {
+                    return true;
+                }
             }
         }
         return false;
@@ -24,7 +24,9 @@ import org.apache.commons.lang3.builder.ToStringStyle;
 import com.norconex.commons.lang.text.TextMatcher;
 import com.norconex.commons.lang.xml.IXMLConfigurable;
 import com.norconex.commons.lang.xml.XML;
+import com.norconex.importer.handler.ContentAccess;
 import com.norconex.importer.handler.HandlerDoc;
+import com.norconex.importer.handler.IContentAccessAware;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.condition.IImporterCondition;
 import com.norconex.importer.parser.ParseState;
@@ -57,7 +59,8 @@ import com.norconex.importer.parser.ParseState;
  */
 @SuppressWarnings("javadoc")
 public class ReferenceCondition
-        implements IImporterCondition, IXMLConfigurable {
+        implements IImporterCondition, IXMLConfigurable,
+        IContentAccessAware {
 
     private final TextMatcher valueMatcher = new TextMatcher();
 
@@ -83,6 +86,11 @@ public class ReferenceCondition
         this.valueMatcher.copyFrom(valueMatcher);
     }
 
+    @Override
+    public ContentAccess getContentAccess() {
+        return ContentAccess.NONE;
+    }
+
     @Override
     public boolean testDocument(HandlerDoc doc, InputStream input,
             ParseState parseState) throws ImporterHandlerException {
@@ -28,6 +28,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -45,11 +46,16 @@ import com.norconex.commons.lang.collection.CollectionUtil;
 import com.norconex.commons.lang.config.ConfigurationException;
 import com.norconex.commons.lang.text.TextMatcher;
 import com.norconex.commons.lang.xml.XML;
+import com.norconex.importer.handler.ContentAccess;
 import com.norconex.importer.handler.HandlerDoc;
+import com.norconex.importer.handler.IContentAccessAware;
+import com.norconex.importer.handler.IFieldAccessAware;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.filter.AbstractDocumentFilter;
 import com.norconex.importer.handler.filter.OnMatch;
 import com.norconex.importer.parser.ParseState;
+import com.norconex.importer.util.DateFormatRecognizer;
+import com.norconex.importer.util.FieldMatchCache;
 import com.norconex.importer.util.FormatUtil;
 /**
  * <p>Accepts or rejects a document based on whether field values correspond
@@ -176,7 +182,8 @@ import com.norconex.importer.util.FormatUtil;
  * @since 2.2.0
  */
 @SuppressWarnings("javadoc")
-public class DateMetadataFilter extends AbstractDocumentFilter {
+public class DateMetadataFilter extends AbstractDocumentFilter
+        implements IContentAccessAware, IFieldAccessAware {
     private static final Logger LOG =
             LoggerFactory.getLogger(DateMetadataFilter.class);
 
@@ -258,7 +265,10 @@ public class DateMetadataFilter extends AbstractDocumentFilter {
     }
 
     private final TextMatcher fieldMatcher = new TextMatcher();
+    private final transient FieldMatchCache fieldMatchCache =
+            new FieldMatchCache();
     private String format;
+    private transient volatile DateFormatRecognizer recognizer;
     private final List<Condition> conditions = new ArrayList<>(2);
 
     private ZoneId docZoneId;
@@ -357,6 +367,7 @@ public class DateMetadataFilter extends AbstractDocumentFilter {
     }
     public void setFormat(String format) {
         this.format = format;
+        this.recognizer = null;
     }
 
     // Uses system default time zone.
@@ -425,6 +436,22 @@ public class DateMetadataFilter extends AbstractDocumentFilter {
     }
 
 
+    @Override
+    public ContentAccess getContentAccess() {
+        return ContentAccess.NONE;
+    }
+
+    @Override
+    public boolean isReadingField(String field) {
+        return isRestrictedOn(field)
+                || fieldMatchCache.matches(fieldMatcher, field);
+    }
+
+    @Override
+    public Set<String> getWrittenFields() {
+        return Collections.emptySet();
+    }
+
     @Override
     protected boolean isDocumentMatched(
             HandlerDoc doc, InputStream input, ParseState parseState)
@@ -434,10 +461,16 @@ public class DateMetadataFilter extends AbstractDocumentFilter {
             throw new IllegalArgumentException(
                     "\"fieldMatcher\" pattern cannot be empty.");
         }
+        // Condition dates are resolved once per document
+        ResolvedCondition[] resolved = new ResolvedCondition[conditions.size()];
+        for (int i = 0; i < resolved.length; i++) {
+            resolved[i] = new ResolvedCondition(conditions.get(i));
+        }
         for (Entry<String, List<String>> en :
-                doc.getMetadata().matchKeys(fieldMatcher).entrySet()) {
+                fieldMatchCache.matchKeys(
+                        fieldMatcher, doc.getMetadata()).entrySet()) {
             for (String value : en.getValue()) {
-                if (meetsAllConditions(en.getKey(), value)) {
+                if (meetsAllConditions(resolved, en.getKey(), value)) {
                     return true;
                 }
             }
@@ -445,21 +478,35 @@ public class DateMetadataFilter extends AbstractDocumentFilter {
         return false;
     }
 
-    private boolean meetsAllConditions(String fieldName, String fieldValue) {
+    // Cleared when the format changes.
+    private DateFormatRecognizer recognizer() {
+        DateFormatRecognizer r = recognizer;
+        if (r == null) {
+            r = new DateFormatRecognizer(Collections.singletonList(format));
+            recognizer = r;
+        }
+        return r;
+    }
 
+    private boolean meetsAllConditions(ResolvedCondition[] resolved,
+            String fieldName, String fieldValue) {
 
+        // Rule out values not shaped like the format before parsing
+        if (!recognizer().hasCandidate(fieldValue)) {
+            return false;
+        }
         ZonedDateTime dt = FormatUtil.parseZonedDateTimeString(
                 fieldValue, format, null, fieldName, docZoneId);
         if (dt == null) {
             return false;
         }
-        for (Condition condition : conditions) {
+        for (ResolvedCondition condition : resolved) {
             boolean evalResult = condition.operator.evaluate(
-                    dt, condition.getDateTime());
+                    dt, condition.dateTime);
             if (LOG.isDebugEnabled()) {
                 LOG.debug("{}: {} [{}] {} = {}",
                         fieldName, fieldValue, condition.operator,
-                        condition.getDateTime(), evalResult);
+                        condition.dateTime, evalResult);
             }
             if (!evalResult) {
                 return false;
@@ -625,6 +672,16 @@ public class DateMetadataFilter extends AbstractDocumentFilter {
         }
     }
 
+    // Condition with its date resolved.
+    private static final class ResolvedCondition {
+        private final Operator operator;
+        private final ZonedDateTime dateTime;
+        private ResolvedCondition(Condition condition) {
+            this.operator = condition.operator;
+            this.dateTime = condition.getDateTime();
+        }
+    }
+
     // Static local date, assumed to be of the zone Id supplied
     // (the ZoneId argument is ignored).
     public static class StaticDateTimeSupplier
@@ -20,6 +20,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.builder.EqualsBuilder;
@@ -29,7 +30,10 @@ import org.apache.commons.lang3.builder.ToStringStyle;
 
 import com.norconex.commons.lang.collection.CollectionUtil;
 import com.norconex.commons.lang.xml.XML;
+import com.norconex.importer.handler.ContentAccess;
 import com.norconex.importer.handler.HandlerDoc;
+import com.norconex.importer.handler.IContentAccessAware;
+import com.norconex.importer.handler.IFieldAccessAware;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.filter.AbstractDocumentFilter;
 import com.norconex.importer.handler.filter.OnMatch;
@@ -61,7 +65,8 @@ import com.norconex.importer.parser.ParseState;
  */
 @Deprecated
 @SuppressWarnings("javadoc")
-public class EmptyMetadataFilter extends AbstractDocumentFilter {
+public class EmptyMetadataFilter extends AbstractDocumentFilter
+        implements IContentAccessAware, IFieldAccessAware {
 
     private final List<String> fields = new ArrayList<>();
 
@@ -86,6 +91,21 @@ public class EmptyMetadataFilter extends AbstractDocumentFilter {
         CollectionUtil.setAll(this.fields, fields);
     }
 
+    @Override
+    public ContentAccess getContentAccess() {
+        return ContentAccess.NONE;
+    }
+
+    @Override
+    public boolean isReadingField(String field) {
+        return isRestrictedOn(field) || fields.contains(field);
+    }
+
+    @Override
+    public Set<String> getWrittenFields() {
+        return Collections.emptySet();
+    }
+
     @Override
     protected boolean isDocumentMatched(
             HandlerDoc doc, InputStream input, ParseState parseState)
@@ -18,6 +18,7 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.builder.EqualsBuilder;
@@ -31,11 +32,15 @@ import org.slf4j.LoggerFactory;
 import com.norconex.commons.lang.collection.CollectionUtil;
 import com.norconex.commons.lang.text.TextMatcher;
 import com.norconex.commons.lang.xml.XML;
+import com.norconex.importer.handler.ContentAccess;
 import com.norconex.importer.handler.HandlerDoc;
+import com.norconex.importer.handler.IContentAccessAware;
+import com.norconex.importer.handler.IFieldAccessAware;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.filter.AbstractDocumentFilter;
 import com.norconex.importer.handler.filter.OnMatch;
 import com.norconex.importer.parser.ParseState;
+import com.norconex.importer.util.FieldMatchCache;
 /**
  * <p>
  * Accepts or rejects a document based on the numeric value(s) of matching
@@ -88,7 +93,8 @@ import com.norconex.importer.parser.ParseState;
  * @since 2.2.0
  */
 @SuppressWarnings("javadoc")
-public class NumericMetadataFilter extends AbstractDocumentFilter {
+public class NumericMetadataFilter extends AbstractDocumentFilter
+        implements IContentAccessAware, IFieldAccessAware {
 
     private static final Logger LOG =
             LoggerFactory.getLogger(NumericMetadataFilter.class);
@@ -138,6 +144,8 @@ public class NumericMetadataFilter extends AbstractDocumentFilter {
     }
 
     private final TextMatcher fieldMatcher = new TextMatcher();
+    private final transient FieldMatchCache fieldMatchCache =
+            new FieldMatchCache();
     private final List<Condition> conditions = new ArrayList<>(2);
 
     public NumericMetadataFilter() {
@@ -220,6 +228,22 @@ public class NumericMetadataFilter extends AbstractDocumentFilter {
         conditions.add(new Condition(operator, number));
     }
 
+    @Override
+    public ContentAccess getContentAccess() {
+        return ContentAccess.NONE;
+    }
+
+    @Override
+    public boolean isReadingField(String field) {
+        return isRestrictedOn(field)
+                || fieldMatchCache.matches(fieldMatcher, field);
+    }
+
+    @Override
+    public Set<String> getWrittenFields() {
+        return Collections.emptySet();
+    }
+
     @Override
     protected boolean isDocumentMatched(
             HandlerDoc doc, InputStream input, ParseState parseState)
@@ -229,19 +253,20 @@ public class NumericMetadataFilter extends AbstractDocumentFilter {
             throw new IllegalArgumentException(
                     "\"fieldMatcher\" pattern cannot be empty.");
         }
-        for (String value : doc.getMetadata().matchKeys(fieldMatcher).valueList()) {
-            if (meetsAllConditions(value)) {
-                return true;
+        for (String field : doc.getMetadata().keySet()) {
+            if (!fieldMatchCache.matches(fieldMatcher, field)) {
+                continue;
+            }
+            for (double number : doc.getTypedMetadata().getDoubles(field)) {
+                if (meetsAllConditions(number)) {
+                    return true;
+                }
             }
         }
         return false;
     }
 
-    private boolean meetsAllConditions(String fieldValue) {
-        if (!NumberUtils.isCreatable(fieldValue)) {
-            return false;
-        }
-        double fieldNumber = NumberUtils.toDouble(fieldValue);
+    private boolean meetsAllConditions(double fieldNumber) {
         for (Condition condition : conditions) {
             if (!condition.getOperator().evaluate(
                     fieldNumber, condition.getNumber())) {
@@ -15,6 +15,8 @@
 package com.norconex.importer.handler.filter.impl;
 
 import java.io.InputStream;
+import java.util.Collections;
+import java.util.Set;
 
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
@@ -23,7 +25,10 @@ import org.apache.commons.lang3.builder.ToStringStyle;
 
 import com.norconex.commons.lang.text.TextMatcher;
 import com.norconex.commons.lang.xml.XML;
+import com.norconex.importer.handler.ContentAccess;
 import com.norconex.importer.handler.HandlerDoc;
+import com.norconex.importer.handler.IContentAccessAware;
+import com.norconex.importer.handler.IFieldAccessAware;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.filter.AbstractDocumentFilter;
 import com.norconex.importer.parser.ParseState;
@@ -56,7 +61,8 @@ import com.norconex.importer.parser.ParseState;
  * @since 3.0.0
  */
 @SuppressWarnings("javadoc")
-public class ReferenceFilter extends AbstractDocumentFilter {
+public class ReferenceFilter extends AbstractDocumentFilter
+        implements IContentAccessAware, IFieldAccessAware {
 
     private final TextMatcher valueMatcher = new TextMatcher();
 
@@ -82,6 +88,21 @@ public class ReferenceFilter extends AbstractDocumentFilter {
         this.valueMatcher.copyFrom(valueMatcher);
     }
 
+    @Override
+    public ContentAccess getContentAccess() {
+        return ContentAccess.NONE;
+    }
+
+    @Override
+    public boolean isReadingField(String field) {
+        return isRestrictedOn(field);
+    }
+
+    @Override
+    public Set<String> getWrittenFields() {
+        return Collections.emptySet();
+    }
+
     @Override
     protected boolean isDocumentMatched(
             HandlerDoc doc, InputStream input, ParseState parseState)
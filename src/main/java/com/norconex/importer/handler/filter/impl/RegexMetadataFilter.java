@@ -16,7 +16,9 @@ package com.norconex.importer.handler.filter.impl;
 
 import java.io.InputStream;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Objects;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringUtils;
@@ -29,7 +31,10 @@ import org.slf4j.LoggerFactory;
 
 import com.norconex.commons.lang.text.Regex;
 import com.norconex.commons.lang.xml.XML;
+import com.norconex.importer.handler.ContentAccess;
 import com.norconex.importer.handler.HandlerDoc;
+import com.norconex.importer.handler.IContentAccessAware;
+import com.norconex.importer.handler.IFieldAccessAware;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.filter.AbstractDocumentFilter;
 import com.norconex.importer.handler.filter.OnMatch;
@@ -70,7 +75,8 @@ import com.norconex.importer.parser.ParseState;
  * @deprecated Since 3.0.0, use {@link TextFilter} instead.
  */
 @Deprecated
-public class RegexMetadataFilter extends AbstractDocumentFilter {
+public class RegexMetadataFilter extends AbstractDocumentFilter
+        implements IContentAccessAware, IFieldAccessAware {
 
     private static final Logger LOG =
             LoggerFactory.getLogger(RegexMetadataFilter.class);
@@ -120,6 +126,21 @@ public class RegexMetadataFilter extends AbstractDocumentFilter {
         this.field = property;
     }
 
+    @Override
+    public ContentAccess getContentAccess() {
+        return ContentAccess.NONE;
+    }
+
+    @Override
+    public boolean isReadingField(String field) {
+        return isRestrictedOn(field) || Objects.equals(this.field, field);
+    }
+
+    @Override
+    public Set<String> getWrittenFields() {
+        return Collections.emptySet();
+    }
+
     @Override
     protected boolean isDocumentMatched(
             HandlerDoc doc, InputStream input, ParseState parseState)
@@ -15,6 +15,8 @@
 package com.norconex.importer.handler.filter.impl;
 
 import java.io.InputStream;
+import java.util.Collections;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringUtils;
@@ -25,7 +27,10 @@ import org.apache.commons.lang3.builder.ToStringStyle;
 
 import com.norconex.commons.lang.text.Regex;
 import com.norconex.commons.lang.xml.XML;
+import com.norconex.importer.handler.ContentAccess;
 import com.norconex.importer.handler.HandlerDoc;
+import com.norconex.importer.handler.IContentAccessAware;
+import com.norconex.importer.handler.IFieldAccessAware;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.filter.AbstractDocumentFilter;
 import com.norconex.importer.handler.filter.OnMatch;
@@ -65,7 +70,8 @@ import com.norconex.importer.parser.ParseState;
  * @deprecated Since 3.0.0, use {@link ReferenceFilter} instead.
  */
 @Deprecated
-public class RegexReferenceFilter extends AbstractDocumentFilter {
+public class RegexReferenceFilter extends AbstractDocumentFilter
+        implements IContentAccessAware, IFieldAccessAware {
 
     private boolean caseSensitive;
     private String regex;
@@ -103,6 +109,21 @@ public class RegexReferenceFilter extends AbstractDocumentFilter {
         cachedPattern = null;
     }
 
+    @Override
+    public ContentAccess getContentAccess() {
+        return ContentAccess.NONE;
+    }
+
+    @Override
+    public boolean isReadingField(String field) {
+        return isRestrictedOn(field);
+    }
+
+    @Override
+    public Set<String> getWrittenFields() {
+        return Collections.emptySet();
+    }
+
     @Override
     protected boolean isDocumentMatched(
             HandlerDoc doc, InputStream input, ParseState parseState)
@@ -15,13 +15,18 @@
 package com.norconex.importer.handler.filter.impl;
 
 import java.io.InputStream;
+import java.util.Collections;
+import java.util.Set;
 
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 
+import com.norconex.importer.handler.ContentAccess;
 import com.norconex.importer.handler.HandlerDoc;
+import com.norconex.importer.handler.IContentAccessAware;
+import com.norconex.importer.handler.IFieldAccessAware;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.filter.IDocumentFilter;
 import com.norconex.importer.parser.ParseState;
@@ -48,10 +53,26 @@ import com.norconex.importer.parser.ParseState;
  * @author Pascal Essiembre
  * @since 3.0.0
  */
-public final class RejectFilter implements IDocumentFilter {
+public final class RejectFilter implements IDocumentFilter,
+        IContentAccessAware, IFieldAccessAware {
 
     public static final RejectFilter INSTANCE = new RejectFilter();
 
+    @Override
+    public ContentAccess getContentAccess() {
+        return ContentAccess.NONE;
+    }
+
+    @Override
+    public boolean isReadingField(String field) {
+        return false;
+    }
+
+    @Override
+    public Set<String> getWrittenFields() {
+        return Collections.emptySet();
+    }
+
     @Override
     public boolean acceptDocument(
             HandlerDoc doc, InputStream input, ParseState parseState)
@@ -42,6 +42,7 @@ import com.norconex.commons.lang.xml.XML;
 import com.norconex.importer.doc.Doc;
 import com.norconex.importer.doc.DocInfo;
 import com.norconex.importer.doc.DocMetadata;
+import com.norconex.importer.doc.FieldNames;
 import com.norconex.importer.handler.HandlerDoc;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.splitter.AbstractDocumentSplitter;
@@ -170,12 +171,15 @@ public class CsvSplitter extends AbstractDocumentSplitter
                 String childEmbedRef = "row-" + count;
                 if (count == 1 && useFirstRowAsFields) {
                     colNames = cols;
+                    for (int i = 0; i < colNames.length; i++) {
+                        colNames[i] = FieldNames.intern(colNames[i]);
+                    }
                 } else {
                     for (int i = 0; i < cols.length; i++) {
                         int colPos = i + 1;
                         String colName = null;
                         if (colNames == null || i >= colNames.length) {
-                            colName = "column" + colPos;
+                            colName = FieldNames.intern("column" + colPos);
                         } else {
                             colName = colNames[i];
                         }
@@ -43,6 +43,8 @@ import com.norconex.importer.handler.splitter.AbstractDocumentSplitter;
 import com.norconex.importer.parser.ParseState;
 import com.norconex.importer.util.CharsetUtil;
 import com.norconex.importer.util.DOMUtil;
+import com.norconex.importer.util.MemoryBudget;
+import com.norconex.importer.util.MemoryBudget.Reservation;
 
 /**
  * <p>Splits HTML, XHTML, or XML document on elements matching a given
@@ -175,7 +177,8 @@ public class DOMSplitter extends AbstractDocumentSplitter
                 sourceCharset,
                 doc.getDocInfo().getContentEncoding());
         List<Doc> docs = new ArrayList<>();
-        try {
+        try (Reservation r = MemoryBudget.current().acquire(
+                input, DOMUtil.DOM_MEMORY_FACTOR)) {
             Document soupDoc = Jsoup.parse(input, inputCharset,
                     doc.getReference(), DOMUtil.toJSoupParser(getParser()));
             Elements elms = soupDoc.select(selector);
@@ -20,17 +20,22 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.apache.commons.io.output.ByteArrayOutputStream;
+import org.apache.commons.io.output.CloseShieldOutputStream;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.multipdf.Splitter;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
 
+import com.norconex.commons.lang.io.CachedOutputStream;
+import com.norconex.commons.lang.io.ICachedStream;
 import com.norconex.commons.lang.map.Properties;
 import com.norconex.commons.lang.map.PropertyMatcher;
 import com.norconex.commons.lang.text.TextMatcher;
+import com.norconex.commons.lang.unit.DataUnit;
 import com.norconex.commons.lang.xml.IXMLConfigurable;
 import com.norconex.commons.lang.xml.XML;
 import com.norconex.importer.doc.Doc;
@@ -69,6 +74,16 @@ import com.norconex.importer.parser.ParseState;
  *
  * <p>Should be used as a pre-parse handler.</p>
  *
+ * <p>
+ * Pages are extracted one at a time and each is written to the document
+ * cache as soon as it is extracted, so only one page is held at any
+ * time. The original PDF uses up to a maximum amount of memory
+ * (10 MB by default), beyond which PDFBox relies on a scratch file in
+ * the document cache directory. Set a negative value to keep it fully
+ * in memory. Since 3.1.0, it is also possible to only split a range of
+ * pages. Pages outside that range are never extracted.
+ * </p>
+ *
  * {@nx.xml.usage
  *  <handler class="com.norconex.importer.handler.splitter.impl.PDFPageSplitter">
  *    {@nx.include com.norconex.importer.handler.AbstractImporterHandler#restrictTo}
@@ -77,6 +92,12 @@ import com.norconex.importer.parser.ParseState;
  *      (String to put before the page number is appended to the document
  *      reference. Default is "#".)
  *    </referencePagePrefix>
+ *    <startPage>(first page to split, default is 1)</startPage>
+ *    <endPage>(last page to split, default is the last page)</endPage>
+ *    <maxMainMemory>
+ *      (Maximum memory used by PDFBox for the original PDF before
+ *      using a scratch file. Default is 10MB.)
+ *    </maxMainMemory>
  *
  *  </handler>
  * }
@@ -101,8 +122,14 @@ public class PDFPageSplitter extends AbstractDocumentSplitter
             "document.pdf.numberOfPages";
 
     public static final String DEFAULT_REFERENCE_PAGE_PREFIX = "#";
+    /** @since 3.1.0 */
+    public static final long DEFAULT_MAX_MAIN_MEMORY =
+            DataUnit.MB.toBytes(10).longValue();
 
     private String referencePagePrefix = DEFAULT_REFERENCE_PAGE_PREFIX;
+    private int startPage = 1;
+    private int endPage = -1;
+    private long maxMainMemory = DEFAULT_MAX_MAIN_MEMORY;
 
     public PDFPageSplitter() {
         super();
@@ -118,6 +145,62 @@ public class PDFPageSplitter extends AbstractDocumentSplitter
         this.referencePagePrefix = referencePagePrefix;
     }
 
+    /**
+     * Gets the first page to split (1-based).
+     * @return start page
+     * @since 3.1.0
+     */
+    public int getStartPage() {
+        return startPage;
+    }
+    /**
+     * Sets the first page to split (1-based). Default is 1.
+     * @param startPage start page
+     * @since 3.1.0
+     */
+    public void setStartPage(int startPage) {
+        this.startPage = startPage;
+    }
+
+    /**
+     * Gets the last page to split (1-based), zero or less for the last
+     * page of each document.
+     * @return end page
+     * @since 3.1.0
+     */
+    public int getEndPage() {
+        return endPage;
+    }
+    /**
+     * Sets the last page to split (1-based), zero or less for the last
+     * page of each document (default).
+     * @param endPage end page
+     * @since 3.1.0
+     */
+    public void setEndPage(int endPage) {
+        this.endPage = endPage;
+    }
+
+    /**
+     * Gets the maximum number of bytes PDFBox keeps in memory for
+     * a PDF being split, before using a scratch file.
+     * @return maximum main memory, or a negative value for no maximum
+     * @since 3.1.0
+     */
+    public long getMaxMainMemory() {
+        return maxMainMemory;
+    }
+    /**
+     * Sets the maximum number of bytes PDFBox keeps in memory for
+     * a PDF being split, before using a scratch file. A negative value
+     * keeps the PDF fully in memory. Default is 10 MB.
+     * @param maxMainMemory maximum main memory
+     * @since 3.1.0
+     */
+    public void setMaxMainMemory(long maxMainMemory) {
+        this.maxMainMemory = maxMainMemory;
+    }
+
     @Override
     protected List<Doc> splitApplicableDocument(
             HandlerDoc doc, InputStream input, OutputStream output,
@@ -130,59 +213,25 @@ public class PDFPageSplitter extends AbstractDocumentSplitter
             return pageDocs;
         }
 
-        try (PDDocument document = PDDocument.load(input)) {
+        MemoryUsageSetting memoryUsage = getMemoryUsageSetting(input);
+        try (PDDocument document = PDDocument.load(input, memoryUsage)) {
 
             // Make sure we are not splitting single pages.
-            if (document.getNumberOfPages() <= 1) {
+            int totalPages = document.getNumberOfPages();
+            if (totalPages <= 1) {
                 doc.getMetadata().set(DOC_PDF_PAGE_NO, 1);
                 doc.getMetadata().set(DOC_PDF_TOTAL_PAGES, 1);
                 return pageDocs;
             }
 
-            Splitter splitter = new Splitter();
-            List<PDDocument> splittedDocuments = splitter.split(document);
-            int pageNo = 0;
-            for (PDDocument page : splittedDocuments) {
-                pageNo++;
-
-                String pageRef =
-                        doc.getReference() + referencePagePrefix + pageNo;
-
-                // metadata
-                Properties pageMeta = new Properties();
-                pageMeta.loadFromMap(doc.getMetadata());
-
-                DocInfo pageInfo = new DocInfo(pageRef);
-
-//                pageInfo.setEmbeddedReference(Integer.toString(pageNo));
-                pageMeta.set(DocMetadata.EMBEDDED_REFERENCE,
-                        Integer.toString(pageNo));
-
-
-                pageInfo.addEmbeddedParentReference(doc.getReference());
-
-//                pageMeta.setReference(pageRef);
-//                pageMeta.setEmbeddedReference(Integer.toString(pageNo));
-//                pageMeta.setEmbeddedParentReference(doc.getReference());
-//                pageMeta.setEmbeddedParentRootReference(doc.getReference());
-
-                pageMeta.set(DOC_PDF_PAGE_NO, pageNo);
-                pageMeta.set(DOC_PDF_TOTAL_PAGES, document.getNumberOfPages());
-
-                // a single page should not be too big to store in memory
-                ByteArrayOutputStream os = new ByteArrayOutputStream();
-                try {
-                    page.save(os);
-                } finally {
-                    page.close();
-                }
-                Doc pageDoc = new Doc(
-                        pageInfo,
-                        doc.getStreamFactory().newInputStream(
-                                os.toInputStream()),
-                        pageMeta);
-                pageDocs.add(pageDoc);
+            PageSplitter splitter = new PageSplitter(
+                    memoryUsage, (pageNo, page) -> pageDocs.add(
+                            toPageDoc(doc, page, pageNo, totalPages)));
+            splitter.setStartPage(Math.max(1, startPage));
+            if (endPage > 0) {
+                splitter.setEndPage(endPage);
             }
+            splitter.split(document);
         } catch (IOException e) {
             throw new ImporterHandlerException(
                     "Could not split PDF: " + doc.getReference(), e);
@@ -190,15 +239,66 @@ public class PDFPageSplitter extends AbstractDocumentSplitter
         return pageDocs;
     }
 
+    private Doc toPageDoc(HandlerDoc doc, PDDocument page,
+            int pageNo, int totalPages) throws IOException {
+        String pageRef = doc.getReference() + referencePagePrefix + pageNo;
+
+        // metadata
+        Properties pageMeta = new Properties();
+        pageMeta.loadFromMap(doc.getMetadata());
+
+        DocInfo pageInfo = new DocInfo(pageRef);
+
+//        pageInfo.setEmbeddedReference(Integer.toString(pageNo));
+        pageMeta.set(DocMetadata.EMBEDDED_REFERENCE, Integer.toString(pageNo));
+
+        pageInfo.addEmbeddedParentReference(doc.getReference());
+
+//        pageMeta.setReference(pageRef);
+//        pageMeta.setEmbeddedReference(Integer.toString(pageNo));
+//        pageMeta.setEmbeddedParentReference(doc.getReference());
+//        pageMeta.setEmbeddedParentRootReference(doc.getReference());
+
+        pageMeta.set(DOC_PDF_PAGE_NO, pageNo);
+        pageMeta.set(DOC_PDF_TOTAL_PAGES, totalPages);
+
+        // PDFBox closes the stream it saves to
+        CachedOutputStream os = doc.getStreamFactory().newOuputStream();
+        page.save(new CloseShieldOutputStream(os));
+        Doc pageDoc = new Doc(pageInfo, os.getInputStream(), pageMeta);
+        os.close();
+        return pageDoc;
+    }
+
+    private MemoryUsageSetting getMemoryUsageSetting(InputStream input) {
+        if (maxMainMemory < 0) {
+            return MemoryUsageSetting.setupMainMemoryOnly();
+        }
+        MemoryUsageSetting setting =
+                MemoryUsageSetting.setupMixed(maxMainMemory);
+        if (input instanceof ICachedStream
+                && ((ICachedStream) input).getCacheDirectory() != null) {
+            setting.setTempDir(
+                    ((ICachedStream) input).getCacheDirectory().toFile());
+        }
+        return setting;
+    }
+
     @Override
     protected void loadHandlerFromXML(XML xml) {
         setReferencePagePrefix(
                 xml.getString("referencePagePrefix", referencePagePrefix));
+        setStartPage(xml.getInteger("startPage", startPage));
+        setEndPage(xml.getInteger("endPage", endPage));
+        setMaxMainMemory(xml.getDataSize("maxMainMemory", maxMainMemory));
     }
 
     @Override
     protected void saveHandlerToXML(XML xml) {
         xml.addElement("referencePagePrefix", referencePagePrefix);
+        xml.addElement("startPage", startPage);
+        xml.addElement("endPage", endPage);
+        xml.addElement("maxMainMemory", maxMainMemory);
     }
 
     @Override
@@ -210,6 +310,9 @@ public class PDFPageSplitter extends AbstractDocumentSplitter
         return new EqualsBuilder()
                 .appendSuper(super.equals(castOther))
                 .append(referencePagePrefix, castOther.referencePagePrefix)
+                .append(startPage, castOther.startPage)
+                .append(endPage, castOther.endPage)
+                .append(maxMainMemory, castOther.maxMainMemory)
                 .isEquals();
     }
     @Override
@@ -217,6 +320,9 @@ public class PDFPageSplitter extends AbstractDocumentSplitter
         return new HashCodeBuilder()
                 .appendSuper(super.hashCode())
                 .append(referencePagePrefix)
+                .append(startPage)
+                .append(endPage)
+                .append(maxMainMemory)
                 .toHashCode();
     }
     @Override
@@ -224,6 +330,52 @@ public class PDFPageSplitter extends AbstractDocumentSplitter
         return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
                 .appendSuper(super.toString())
                 .append("referencePagePrefix", referencePagePrefix)
+                .append("startPage", startPage)
+                .append("endPage", endPage)
+                .append("maxMainMemory", maxMainMemory)
                 .toString();
     }
+
+    @FunctionalInterface
+    private interface PageConsumer {
+        void accept(int pageNo, PDDocument page) throws IOException;
+    }
+
+    // Hands each page to a consumer as soon as it is extracted and
+    // closes it, instead of returning all pages at once.
+    private static class PageSplitter extends Splitter {
+        private final MemoryUsageSetting memoryUsage;
+        private final PageConsumer consumer;
+        private int pageNo;
+        public PageSplitter(
+                MemoryUsageSetting memoryUsage, PageConsumer consumer) {
+            super();
+            this.memoryUsage = memoryUsage;
+            this.consumer = consumer;
+        }
+        @Override
+        public void setStartPage(int start) {
+            super.setStartPage(start);
+            pageNo = start - 1;
+        }
+        @Override
+        protected PDDocument createNewDocument() throws IOException {
+            PDDocument source = getSourceDocument();
+            PDDocument document = new PDDocument(memoryUsage);
+            document.getDocument().setVersion(source.getVersion());
+            document.setDocumentInformation(
+                    source.getDocumentInformation());
+            document.getDocumentCatalog().setViewerPreferences(
+                    source.getDocumentCatalog().getViewerPreferences());
+            return document;
+        }
+        @Override
+        protected void processPage(PDPage page) throws IOException {
+            super.processPage(page);
+            pageNo++;
+            try (PDDocument pageDoc = getDestinationDocument()) {
+                consumer.accept(pageNo, pageDoc);
+            }
+        }
+    }
 }
@@ -20,13 +20,25 @@ import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -34,11 +46,12 @@ import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
-import org.apache.tika.language.translate.CachedTranslator;
 import org.apache.tika.language.translate.MicrosoftTranslator;
 import org.apache.tika.language.translate.MosesTranslator;
 import org.apache.tika.language.translate.Translator;
 import org.apache.tika.language.translate.YandexTranslator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.memetix.mst.language.Language;
 import com.norconex.commons.lang.collection.CollectionUtil;
@@ -57,6 +70,7 @@ import com.norconex.importer.handler.HandlerDoc;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.splitter.AbstractDocumentSplitter;
 import com.norconex.importer.parser.ParseState;
+import com.norconex.importer.util.TranslationMemory;
 
 /**
  * <p>Translate documents using one of the supported translation API.  The
@@ -106,6 +120,27 @@ import com.norconex.importer.parser.ParseState;
  * document will always remain the original document, while the children
  * will always be the translations.</p>
  *
+ * <h3>Translation memory and batching</h3>
+ * <p>
+ * Content lines and field values are translated as separate segments.
+ * Translated segments are remembered (by source and target language)
+ * in a translation memory, so text repeated across documents is only
+ * translated once. The memory keeps the most recently used segments
+ * in memory ({@value TranslationMemory#DEFAULT_MAX_SIZE} by default,
+ * zero to disable) and can also be saved to a directory, to be reused
+ * across executions (up to
+ * {@value TranslationMemory#DEFAULT_MAX_DISK_SIZE} segments by default).
+ * </p>
+ * <p>
+ * Segments not in memory are sent to the translation API in batches of
+ * numbered lines, up to a maximum number of characters per request (2 KB
+ * by default). When a response does not have the same numbered lines as
+ * the request, segments of that batch are translated one by one instead.
+ * Target languages are translated concurrently, using up to as many
+ * threads as there are processors for all documents. To comply with API
+ * rate limits, a minimum interval between requests can be set.
+ * </p>
+ *
  * {@nx.xml.usage
  * <handler class="com.norconex.importer.handler.splitter.impl.TranslatorSplitter"
  *     api="(microsoft|google|lingo24|moses|yandex)">
@@ -119,6 +154,18 @@ import com.norconex.importer.parser.ParseState;
  *   <sourceLanguage>(language when no source language field)</sourceLanguage>
  *   <targetLanguages>(coma-separated list of languages)</targetLanguages>
  *
+ *   <translationMemory
+ *       size="(segments kept in memory, 0 disables the memory)"
+ *       diskSize="(segments kept in directory, when set)">
+ *     (optional directory where to save translated segments)
+ *   </translationMemory>
+ *   <maxBatchSize>
+ *     (maximum characters sent per request, default depends on API)
+ *   </maxBatchSize>
+ *   <requestInterval>
+ *     (minimum time between requests to the API, default none)
+ *   </requestInterval>
+ *
  *   <!-- Microsoft -->
  *   <clientId>...</clientId>
  *   <clientSecret>...</clientSecret>
@@ -158,6 +205,27 @@ import com.norconex.importer.parser.ParseState;
 @SuppressWarnings("javadoc")
 public class TranslatorSplitter extends AbstractDocumentSplitter {
 
+    private static final Logger LOG =
+            LoggerFactory.getLogger(TranslatorSplitter.class);
+
+    private static final Pattern MARKER_PATTERN =
+            Pattern.compile("\\[\\s*(\\d{1,9})\\s*\\]\\s*");
+
+    // Shared by all documents being translated, so bounded
+    private static final ExecutorService EXECUTOR;
+    static {
+        int threads = Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread t = new Thread(r, "translator");
+                    t.setDaemon(true);
+                    return t;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        EXECUTOR = executor;
+    }
+
     public static final String API_MICROSOFT = "microsoft";
     public static final String API_GOOGLE = "google";
     public static final String API_LINGO24 = "lingo24";
@@ -194,6 +262,16 @@ public class TranslatorSplitter extends AbstractDocumentSplitter {
     private String smtPath;
     private String scriptPath;
 
+    private int translationMemorySize = TranslationMemory.DEFAULT_MAX_SIZE;
+    private Path translationMemoryDir;
+    private int translationMemoryDiskSize =
+            TranslationMemory.DEFAULT_MAX_DISK_SIZE;
+    private int maxBatchSize;
+    private long requestInterval;
+
+    private transient volatile TranslationMemory translationMemory;
+    private final transient RequestThrottle throttle = new RequestThrottle();
+
     /**
      * Constructor.
      */
@@ -288,7 +366,13 @@ public class TranslatorSplitter extends AbstractDocumentSplitter {
 
         validateProperties(doc);
 
-        List<Doc> translatedDocs = new ArrayList<>();
+        String sourceLang = getResolvedSourceLanguage(doc);
+        List<String> langs = new ArrayList<>();
+        for (String lang : targetLanguages) {
+            if (!Objects.equals(sourceLanguage, lang)) {
+                langs.add(lang);
+            }
+        }
 
         CachedInputStream cachedInput = null;
         if (input instanceof CachedInputStream) {
@@ -297,29 +381,24 @@ public class TranslatorSplitter extends AbstractDocumentSplitter {
             cachedInput = doc.getStreamFactory().newInputStream(input);
         }
 
-        for (String lang : targetLanguages) {
-            if (Objects.equals(sourceLanguage, lang)) {
-                continue;
-            }
-            cachedInput.rewind();
-            try (TextReader reader = new TextReader(
-                    new InputStreamReader(cachedInput, StandardCharsets.UTF_8),
-                    getTranslatorStrategy().getReadSize())) {
-                translatedDocs.add(
-                        translateDocument(doc, doc.getStreamFactory(), lang, reader));
-            } catch (Exception e) {
-                String extra = "";
-                if (API_GOOGLE.equals(api)
-                        && e instanceof IndexOutOfBoundsException) {
-                    extra = " \"apiKey\" is likely invalid.";
-                }
-                throw new ImporterHandlerException(
-                        "Translation failed form \"" + sourceLanguage
-                      + "\" to \"" + lang + "\" for: \""
-                      + doc.getReference() + "\"." + extra, e);
+        try {
+            return translateDocument(doc, cachedInput, sourceLang, langs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ImporterHandlerException(
+                    "Interrupted while translating: \""
+                            + doc.getReference() + "\".", e);
+        } catch (Exception e) {
+            String extra = "";
+            if (API_GOOGLE.equals(api)
+                    && e instanceof IndexOutOfBoundsException) {
+                extra = " \"apiKey\" is likely invalid.";
             }
+            throw new ImporterHandlerException(
+                    "Translation failed form \"" + sourceLang
+                  + "\" to \"" + StringUtils.join(langs, ", ")
+                  + "\" for: \"" + doc.getReference() + "\"." + extra, e);
         }
-        return translatedDocs;
     }
 
     public boolean isIgnoreContent() {
@@ -408,36 +487,91 @@ public class TranslatorSplitter extends AbstractDocumentSplitter {
         return strategy;
     }
 
-    private Doc translateDocument(HandlerDoc doc,
-            CachedStreamFactory streamFactory, String targetLang,
-            TextReader reader) throws Exception {
+    // Fields and content chunks are translated in all target
+    // languages concurrently.
+    private List<Doc> translateDocument(HandlerDoc doc,
+            CachedInputStream input, String sourceLang, List<String> langs)
+                    throws Exception {
 
-        Translator translator = getTranslatorStrategy().getTranslator();
-        String sourceLang = getResolvedSourceLanguage(doc);
-
-
-        //--- Do Fields ---
-        Properties childMeta = translateFields(
-                doc, translator, sourceLang, targetLang);
+        CachedStreamFactory streamFactory = doc.getStreamFactory();
+        List<Future<?>> futures = new ArrayList<>();
+        List<CachedOutputStream> childContents = new ArrayList<>();
+        boolean success = false;
+        try {
+            //--- Do Fields ---
+            List<Future<Properties>> childMetas = new ArrayList<>();
+            for (String lang : langs) {
+                Future<Properties> childMeta = EXECUTOR.submit(
+                        () -> translateFields(doc, sourceLang, lang));
+                childMetas.add(childMeta);
+                futures.add(childMeta);
+            }
 
-        //--- Do Content ---
-        CachedInputStream childInput = null;
-        if (!ignoreContent) {
-            CachedOutputStream childContent = streamFactory.newOuputStream();
+            //--- Do Content ---
+            if (!ignoreContent) {
+                for (int i = 0; i < langs.size(); i++) {
+                    childContents.add(streamFactory.newOuputStream());
+                }
+                input.rewind();
+                try (TextReader reader = new TextReader(
+                        new InputStreamReader(input, StandardCharsets.UTF_8),
+                        getBatchSize())) {
+                    String text = null;
+                    while ((text = reader.readText()) != null) {
+                        String chunk = text;
+                        List<Future<String>> translated = new ArrayList<>();
+                        for (String lang : langs) {
+                            Future<String> future = EXECUTOR.submit(
+                                    () -> translateText(
+                                            chunk, sourceLang, lang));
+                            translated.add(future);
+                            futures.add(future);
+                        }
+                        for (int i = 0; i < langs.size(); i++) {
+                            childContents.get(i).write(
+                                    get(translated.get(i)).getBytes(
+                                            StandardCharsets.UTF_8));
+                        }
+                    }
+                }
+            }
 
-            String text = null;
-            while ((text = reader.readText()) != null) {
-                String txt = translator.translate(text, sourceLang, targetLang);
-                childContent.write(txt.getBytes(StandardCharsets.UTF_8));
-                childContent.flush();
+            //--- Build child documents ---
+            List<Doc> childDocs = new ArrayList<>();
+            for (int i = 0; i < langs.size(); i++) {
+                CachedInputStream childInput = ignoreContent
+                        ? streamFactory.newInputStream()
+                        : childContents.get(i).getInputStream();
+                childDocs.add(newChildDoc(doc, sourceLang, langs.get(i),
+                        get(childMetas.get(i)), childInput));
             }
-            try { reader.close(); } catch (IOException ie) {/*NOOP*/}
-            childInput = childContent.getInputStream();
-        } else {
-            childInput = streamFactory.newInputStream();
+            success = true;
+            return childDocs;
+        } finally {
+            if (!success) {
+                // Stop pending API calls and release translated content
+                for (Future<?> future : futures) {
+                    future.cancel(true);
+                }
+                for (CachedOutputStream childContent : childContents) {
+                    dispose(childContent);
+                }
+            }
+        }
+    }
+
+    // Disposed through its input stream, which deletes any cache file
+    private static void dispose(CachedOutputStream out) {
+        try {
+            out.getInputStream().dispose();
+        } catch (IOException e) {
+            LOG.debug("Could not dispose of translated content.", e);
         }
+    }
 
-        //--- Build child document ---
+    private Doc newChildDoc(HandlerDoc doc, String sourceLang,
+            String targetLang, Properties childMeta,
+            CachedInputStream childInput) {
         String childEmbedRef = "translation-" + targetLang;
         String childDocRef = doc.getReference() + "!" + childEmbedRef;
 
@@ -463,8 +597,8 @@ public class TranslatorSplitter extends AbstractDocumentSplitter {
     }
 
     private Properties translateFields(
-            HandlerDoc doc, Translator translator,
-            String sourceLang, String targetLang) throws Exception {
+            HandlerDoc doc, String sourceLang, String targetLang)
+                    throws Exception {
         Properties childMeta = new Properties();
         if (ignoreNonTranslatedFields) {
             if (fieldsToTranslate.isEmpty()) {
@@ -483,31 +617,217 @@ public class TranslatorSplitter extends AbstractDocumentSplitter {
             }
         }
 
-        StringBuilder b = new StringBuilder();
+        // Each value is a segment, on a single line
+        List<String> segments = new ArrayList<>();
         for (String fld : fieldsToTranslate) {
-            List<String> values = doc.getMetadata().get(fld);
-            for (String value : values) {
-                b.append("[" + value.replaceAll("[\n\\[\\]]", " ") + "]");
+            for (String value : doc.getMetadata().getStrings(fld)) {
+                segments.add(StringUtils.trimToEmpty(
+                        value.replaceAll("[\\r\\n]+", " ")));
             }
-            b.append("\n");
         }
-        if (b.length() == 0) {
+        if (segments.isEmpty()) {
             return childMeta;
         }
 
-        String txt = translator.translate(b.toString(), sourceLang, targetLang);
-        List<String> lines = IOUtils.readLines(new StringReader(txt));
+        List<String> translated =
+                translateSegments(segments, sourceLang, targetLang);
         int index = 0;
-        for (String line : lines) {
-            line = StringUtils.removeStart(line, "[");
-            line = StringUtils.removeEnd(line, "]");
-            String[] values = StringUtils.splitByWholeSeparator(line, "][");
-            childMeta.set(fieldsToTranslate.get(index), values);
-            index++;
+        for (String fld : fieldsToTranslate) {
+            int count = doc.getMetadata().getStrings(fld).size();
+            if (count > 0) {
+                childMeta.set(fld, translated.subList(
+                        index, index + count).toArray(new String[count]));
+                index += count;
+            }
         }
         return childMeta;
     }
 
+    // Translates each line separately, keeping white spaces around them
+    private String translateText(
+            String text, String sourceLang, String targetLang)
+                    throws Exception {
+        String[] lines = text.split("(?<=\\n)");
+        List<String> segments = new ArrayList<>(lines.length);
+        int[][] bounds = new int[lines.length][];
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            int start = 0;
+            int end = line.length();
+            while (start < end
+                    && Character.isWhitespace(line.charAt(start))) {
+                start++;
+            }
+            while (end > start
+                    && Character.isWhitespace(line.charAt(end - 1))) {
+                end--;
+            }
+            bounds[i] = new int[] { start, end };
+            segments.add(line.substring(start, end));
+        }
+        List<String> translated =
+                translateSegments(segments, sourceLang, targetLang);
+        StringBuilder b = new StringBuilder(text.length());
+        for (int i = 0; i < lines.length; i++) {
+            b.append(lines[i], 0, bounds[i][0])
+             .append(translated.get(i))
+             .append(lines[i], bounds[i][1], lines[i].length());
+        }
+        return b.toString();
+    }
+
+    // Gets segments from translation memory, translating missing ones
+    // in batches.
+    private List<String> translateSegments(List<String> segments,
+            String sourceLang, String targetLang) throws Exception {
+        TranslationMemory memory = getTranslationMemory();
+        String[] results = new String[segments.size()];
+        // Missing segment -> indices where it appears
+        Map<String, List<Integer>> missing = new LinkedHashMap<>();
+        for (int i = 0; i < results.length; i++) {
+            String segment = segments.get(i);
+            if (StringUtils.isBlank(segment)) {
+                results[i] = segment;
+                continue;
+            }
+            if (memory != null) {
+                results[i] = memory.get(sourceLang, targetLang, segment);
+            }
+            if (results[i] == null) {
+                missing.computeIfAbsent(
+                        segment, k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        int maxSize = getBatchSize();
+        List<String> batch = new ArrayList<>();
+        int batchSize = 0;
+        for (String segment : missing.keySet()) {
+            if (!batch.isEmpty() && batchSize + segment.length() > maxSize) {
+                translateBatch(batch, sourceLang, targetLang, missing, results);
+                batch.clear();
+                batchSize = 0;
+            }
+            // plus marker and line feed
+            batchSize += marker(batch.size()).length()
+                    + segment.length() + 1;
+            batch.add(segment);
+        }
+        if (!batch.isEmpty()) {
+            translateBatch(batch, sourceLang, targetLang, missing, results);
+        }
+        return Arrays.asList(results);
+    }
+
+    private void translateBatch(List<String> batch, String sourceLang,
+            String targetLang, Map<String, List<Integer>> indices,
+            String[] results) throws Exception {
+        List<String> translated = null;
+        if (batch.size() > 1) {
+            StringBuilder b = new StringBuilder();
+            for (int i = 0; i < batch.size(); i++) {
+                if (i > 0) {
+                    b.append('\n');
+                }
+                b.append(marker(i)).append(batch.get(i));
+            }
+            translated = unmark(IOUtils.readLines(new StringReader(
+                    translate(b.toString(), sourceLang, targetLang))),
+                    batch.size());
+            if (translated == null) {
+                LOG.debug("Translated lines do not match the {} lines "
+                        + "requested. Translating them one by one.",
+                        batch.size());
+            }
+        }
+        if (translated == null) {
+            translated = new ArrayList<>(batch.size());
+            for (String segment : batch) {
+                translated.add(translate(segment, sourceLang, targetLang));
+            }
+        }
+        TranslationMemory memory = getTranslationMemory();
+        for (int i = 0; i < batch.size(); i++) {
+            String segment = batch.get(i);
+            String translation = StringUtils.strip(translated.get(i));
+            for (int index : indices.get(segment)) {
+                results[index] = translation;
+            }
+            if (memory != null) {
+                memory.put(sourceLang, targetLang, segment, translation);
+            }
+        }
+    }
+
+    // Batched lines are numbered, so translations merging, splitting or
+    // moving lines are detected and not remembered with the wrong segment.
+    private static String marker(int index) {
+        return "[" + index + "] ";
+    }
+    // Gets translated lines without their markers, or null if lines
+    // do not have their own marker only.
+    private static List<String> unmark(List<String> lines, int count) {
+        if (lines.size() != count) {
+            return null;
+        }
+        List<String> unmarked = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Matcher m = MARKER_PATTERN.matcher(lines.get(i));
+            if (!m.find() || Integer.parseInt(m.group(1)) != i) {
+                return null;
+            }
+            String line = lines.get(i).substring(0, m.start())
+                    + lines.get(i).substring(m.end());
+            if (m.find()) {
+                return null;
+            }
+            unmarked.add(line);
+        }
+        return unmarked;
+    }
+
+    private String translate(
+            String text, String sourceLang, String targetLang)
+                    throws Exception {
+        throttle.acquire(requestInterval);
+        return getTranslatorStrategy().getTranslator(targetLang).translate(
+                text, sourceLang, targetLang);
+    }
+
+    private int getBatchSize() {
+        return maxBatchSize > 0
+                ? maxBatchSize : getTranslatorStrategy().getReadSize();
+    }
+
+    private TranslationMemory getTranslationMemory() {
+        if (translationMemorySize <= 0 && translationMemoryDir == null) {
+            return null;
+        }
+        TranslationMemory memory = translationMemory;
+        if (memory == null) {
+            synchronized (this) {
+                memory = translationMemory;
+                if (memory == null) {
+                    memory = new TranslationMemory(translationMemorySize,
+                            translationMemoryDir, translationMemoryDiskSize);
+                    translationMemory = memory;
+                }
+            }
+        }
+        return memory;
+    }
+
+    private static <T> T get(Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+
     private void validateProperties(HandlerDoc doc)
             throws ImporterHandlerException {
         if (StringUtils.isBlank(getApi())) {
@@ -541,6 +861,119 @@ public class TranslatorSplitter extends AbstractDocumentSplitter {
         return lang;
     }
 
+    /**
+     * Gets the maximum number of translated segments kept in memory.
+     * @return translation memory size
+     * @since 3.1.0
+     */
+    public int getTranslationMemorySize() {
+        return translationMemorySize;
+    }
+    /**
+     * Sets the maximum number of translated segments kept in memory.
+     * Zero disables the translation memory, unless a directory is set.
+     * @param translationMemorySize translation memory size
+     * @since 3.1.0
+     */
+    public void setTranslationMemorySize(int translationMemorySize) {
+        this.translationMemorySize = translationMemorySize;
+        translationMemory = null;
+    }
+
+    /**
+     * Gets the directory where translated segments are saved.
+     * @return translation memory directory, or <code>null</code>
+     * @since 3.1.0
+     */
+    public Path getTranslationMemoryDir() {
+        return translationMemoryDir;
+    }
+    /**
+     * Sets the directory where translated segments are saved, to be
+     * reused across executions. Default is <code>null</code>
+     * (memory only).
+     * @param translationMemoryDir translation memory directory
+     * @since 3.1.0
+     */
+    public void setTranslationMemoryDir(Path translationMemoryDir) {
+        this.translationMemoryDir = translationMemoryDir;
+        translationMemory = null;
+    }
+
+    /**
+     * Gets the maximum number of translated segments kept in the
+     * translation memory directory.
+     * @return translation memory disk size
+     * @since 3.1.0
+     */
+    public int getTranslationMemoryDiskSize() {
+        return translationMemoryDiskSize;
+    }
+    /**
+     * Sets the maximum number of translated segments kept in the
+     * translation memory directory. Least recently used are
+     * deleted first.
+     * @param translationMemoryDiskSize translation memory disk size
+     * @since 3.1.0
+     */
+    public void setTranslationMemoryDiskSize(int translationMemoryDiskSize) {
+        this.translationMemoryDiskSize = translationMemoryDiskSize;
+        translationMemory = null;
+    }
+
+    /**
+     * Gets the maximum number of characters sent to the translation API
+     * per request.
+     * @return maximum batch size, or zero for the API default
+     * @since 3.1.0
+     */
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+    /**
+     * Sets the maximum number of characters sent to the translation API
+     * per request. Zero or less uses the API default.
+     * @param maxBatchSize maximum batch size
+     * @since 3.1.0
+     */
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Gets the minimum number of milliseconds between two requests
+     * to the translation API.
+     * @return request interval
+     * @since 3.1.0
+     */
+    public long getRequestInterval() {
+        return requestInterval;
+    }
+    /**
+     * Sets the minimum number of milliseconds between two requests
+     * to the translation API, for all threads using this splitter.
+     * Zero or less for no limit.
+     * @param requestInterval request interval
+     * @since 3.1.0
+     */
+    public void setRequestInterval(long requestInterval) {
+        this.requestInterval = requestInterval;
+    }
+
+    // Registers a custom translator (e.g., for testing)
+    void registerTranslator(String api, Supplier<Translator> supplier) {
+        translators.put(api, new TranslatorStrategy() {
+            @Override
+            protected Translator createTranslator() {
+                return supplier.get();
+            }
+            @Override
+            public void validateProperties() {
+                //NOOP
+            }
+        });
+    }
+
     public String getClientId() {
         return clientId;
     }
@@ -588,6 +1021,15 @@ public class TranslatorSplitter extends AbstractDocumentSplitter {
         setUserKey(xml.getString("userKey", userKey));
         setSmtPath(xml.getString("smtPath", smtPath));
         setScriptPath(xml.getString("scriptPath", scriptPath));
+        setTranslationMemorySize(xml.getInteger(
+                "translationMemory/@size", translationMemorySize));
+        setTranslationMemoryDiskSize(xml.getInteger(
+                "translationMemory/@diskSize", translationMemoryDiskSize));
+        setTranslationMemoryDir(
+                xml.getPath("translationMemory", translationMemoryDir));
+        setMaxBatchSize(xml.getInteger("maxBatchSize", maxBatchSize));
+        setRequestInterval(
+                xml.getDurationMillis("requestInterval", requestInterval));
     }
 
     @Override
@@ -605,6 +1047,11 @@ public class TranslatorSplitter extends AbstractDocumentSplitter {
         xml.addElement("userKey", userKey);
         xml.addElement("smtPath", smtPath);
         xml.addElement("scriptPath", scriptPath);
+        xml.addElement("translationMemory", translationMemoryDir)
+                .setAttribute("size", translationMemorySize)
+                .setAttribute("diskSize", translationMemoryDiskSize);
+        xml.addElement("maxBatchSize", maxBatchSize);
+        xml.addElement("requestInterval", requestInterval);
     }
 
     @Override
@@ -626,18 +1073,38 @@ public class TranslatorSplitter extends AbstractDocumentSplitter {
     private abstract static class TranslatorStrategy {
         private static final int DEFAULT_READ_SIZE =
                 DataUnit.KB.toBytes(2).intValue();
-        private Translator translator;
+        // One translator per target language, since languages are
+        // translated concurrently.
+        private final Map<String, Translator> translators =
+                new ConcurrentHashMap<>();
         public int getReadSize() {
             return DEFAULT_READ_SIZE;
         }
-        public final Translator getTranslator() {
-            if (translator == null) {
-                translator = new CachedTranslator(createTranslator());
-            }
-            return translator;
+        public final Translator getTranslator(String targetLang) {
+            return translators.computeIfAbsent(
+                    targetLang, k -> createTranslator());
         }
         protected abstract Translator createTranslator();
         public abstract void validateProperties()
                 throws ImporterHandlerException;
     }
+
+    private static final class RequestThrottle {
+        private long next;
+        private void acquire(long interval) throws InterruptedException {
+            if (interval <= 0) {
+                return;
+            }
+            long wait;
+            synchronized (this) {
+                long now = System.currentTimeMillis();
+                long slot = Math.max(now, next);
+                next = slot + interval;
+                wait = slot - now;
+            }
+            if (wait > 0) {
+                Thread.sleep(wait);
+            }
+        }
+    }
 }
@@ -28,6 +28,8 @@ import com.norconex.commons.lang.xml.XML;
 import com.norconex.importer.handler.HandlerDoc;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.parser.ParseState;
+import com.norconex.importer.util.MemoryBudget;
+import com.norconex.importer.util.MemoryBudget.Reservation;
 
 /**
  * <p>Base class to facilitate creating taggers based on text content, loading
@@ -80,7 +82,9 @@ public abstract class AbstractStringTagger
         StringBuilder b = new StringBuilder();
         String text = null;
         boolean atLeastOnce = false;
-        try (TextReader reader = new TextReader(input, maxReadSize)) {
+        // Java characters are two bytes each
+        try (Reservation r = MemoryBudget.current().acquire(maxReadSize * 2L);
+                TextReader reader = new TextReader(input, maxReadSize)) {
             while ((text = reader.readText()) != null) {
                 b.append(text);
                 tagStringContent(doc, b, parseState, sectionIndex);
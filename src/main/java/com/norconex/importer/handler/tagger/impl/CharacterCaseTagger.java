@@ -37,7 +37,9 @@ import com.norconex.commons.lang.EqualsUtil;
 import com.norconex.commons.lang.map.Properties;
 import com.norconex.commons.lang.text.TextMatcher;
 import com.norconex.commons.lang.xml.XML;
+import com.norconex.importer.handler.ContentAccess;
 import com.norconex.importer.handler.HandlerDoc;
+import com.norconex.importer.handler.IContentAccessAware;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.tagger.AbstractDocumentTagger;
 import com.norconex.importer.parser.ParseState;
@@ -103,7 +105,8 @@ import com.norconex.importer.parser.ParseState;
  * @since 2.0.0
  */
 @SuppressWarnings("javadoc")
-public class CharacterCaseTagger extends AbstractDocumentTagger {
+public class CharacterCaseTagger extends AbstractDocumentTagger
+        implements IContentAccessAware {
 
     private static final Logger LOG =
             LoggerFactory.getLogger(CharacterCaseTagger.class);
@@ -177,6 +180,11 @@ public class CharacterCaseTagger extends AbstractDocumentTagger {
         this.applyTo = applyTo;
     }
 
+    @Override
+    public ContentAccess getContentAccess() {
+        return ContentAccess.NONE;
+    }
+
     @Override
     public void tagApplicableDocument(
             HandlerDoc doc, InputStream document, ParseState parseState)
@@ -36,12 +36,15 @@ import com.norconex.commons.lang.text.TextMatcher.Method;
 import com.norconex.commons.lang.xml.IXMLConfigurable;
 import com.norconex.commons.lang.xml.XML;
 import com.norconex.importer.doc.DocMetadata;
+import com.norconex.importer.handler.ContentAccess;
 import com.norconex.importer.handler.HandlerDoc;
+import com.norconex.importer.handler.IContentAccessAware;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.tagger.AbstractDocumentTagger;
 import com.norconex.importer.handler.transformer.impl.CharsetTransformer;
 import com.norconex.importer.parser.ParseState;
 import com.norconex.importer.util.CharsetUtil;
+import com.norconex.importer.util.FieldMatchCache;
 
 /**
  * <p>
@@ -103,7 +106,7 @@ import com.norconex.importer.util.CharsetUtil;
  */
 @SuppressWarnings("javadoc")
 public class CharsetTagger extends AbstractDocumentTagger
-        implements IXMLConfigurable {
+        implements IXMLConfigurable, IContentAccessAware {
 
     private static final Logger LOG =
             LoggerFactory.getLogger(CharsetTagger.class);
@@ -114,6 +117,13 @@ public class CharsetTagger extends AbstractDocumentTagger
     private String targetCharset = DEFAULT_TARGET_CHARSET;
     private String sourceCharset = null;
     private final TextMatcher fieldMatcher = new TextMatcher();
+    private final transient FieldMatchCache fieldMatchCache =
+            new FieldMatchCache();
+
+    @Override
+    public ContentAccess getContentAccess() {
+        return ContentAccess.NONE;
+    }
 
     @Override
     public void tagApplicableDocument(
@@ -126,7 +136,8 @@ public class CharsetTagger extends AbstractDocumentTagger
         }
 
         for (Entry<String, List<String>> en :
-            doc.getMetadata().matchKeys(fieldMatcher).entrySet()) {
+            fieldMatchCache.matchKeys(
+                    fieldMatcher, doc.getMetadata()).entrySet()) {
             LOG.debug("Field to convert charset: {}", en.getKey());
             convertCharset(doc.getReference(), doc.getMetadata(), en.getKey());
         }
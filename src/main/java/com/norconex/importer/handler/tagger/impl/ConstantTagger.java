@@ -18,9 +18,11 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
@@ -29,7 +31,10 @@ import org.apache.commons.lang3.builder.ToStringStyle;
 
 import com.norconex.commons.lang.map.PropertySetter;
 import com.norconex.commons.lang.xml.XML;
+import com.norconex.importer.handler.ContentAccess;
 import com.norconex.importer.handler.HandlerDoc;
+import com.norconex.importer.handler.IContentAccessAware;
+import com.norconex.importer.handler.IFieldAccessAware;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.tagger.AbstractDocumentTagger;
 import com.norconex.importer.parser.ParseState;
@@ -73,7 +78,8 @@ import com.norconex.importer.parser.ParseState;
  * @author Pascal Essiembre
  */
 @SuppressWarnings("javadoc")
-public class ConstantTagger extends AbstractDocumentTagger{
+public class ConstantTagger extends AbstractDocumentTagger
+        implements IContentAccessAware, IFieldAccessAware {
 
     @Deprecated
     public enum OnConflict { ADD, REPLACE, NOOP }
@@ -81,6 +87,21 @@ public class ConstantTagger extends AbstractDocumentTagger{
     private final Map<String, List<String>> constants = new HashMap<>();
     private PropertySetter onSet;
 
+    @Override
+    public ContentAccess getContentAccess() {
+        return ContentAccess.NONE;
+    }
+
+    @Override
+    public boolean isReadingField(String field) {
+        return isRestrictedOn(field) || constants.containsKey(field);
+    }
+
+    @Override
+    public Set<String> getWrittenFields() {
+        return new HashSet<>(constants.keySet());
+    }
+
     @Override
     public void tagApplicableDocument(
             HandlerDoc doc, InputStream document, ParseState parseState)
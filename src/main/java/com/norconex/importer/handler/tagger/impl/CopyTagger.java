@@ -27,7 +27,9 @@ import org.apache.commons.lang3.builder.ToStringStyle;
 import com.norconex.commons.lang.map.PropertySetter;
 import com.norconex.commons.lang.text.TextMatcher;
 import com.norconex.commons.lang.xml.XML;
+import com.norconex.importer.handler.ContentAccess;
 import com.norconex.importer.handler.HandlerDoc;
+import com.norconex.importer.handler.IContentAccessAware;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.tagger.AbstractDocumentTagger;
 import com.norconex.importer.parser.ParseState;
@@ -76,10 +78,16 @@ import com.norconex.importer.parser.ParseState;
  * @since 1.3.0
  */
 @SuppressWarnings("javadoc")
-public class CopyTagger extends AbstractDocumentTagger {
+public class CopyTagger extends AbstractDocumentTagger
+        implements IContentAccessAware {
 
     private final List<CopyDetails> copyDetailsList = new ArrayList<>();
 
+    @Override
+    public ContentAccess getContentAccess() {
+        return ContentAccess.NONE;
+    }
+
     @Override
     public void tagApplicableDocument(
             HandlerDoc doc, InputStream document, ParseState parseState)
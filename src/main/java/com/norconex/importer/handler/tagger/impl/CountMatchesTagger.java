@@ -38,6 +38,8 @@ import com.norconex.importer.handler.HandlerDoc;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.tagger.AbstractCharStreamTagger;
 import com.norconex.importer.parser.ParseState;
+import com.norconex.importer.util.FieldMatchCache;
+import com.norconex.importer.util.TextAnalyzer;
 
 /**
  * <p>
@@ -99,6 +101,8 @@ import com.norconex.importer.parser.ParseState;
 public class CountMatchesTagger extends AbstractCharStreamTagger {
 
     private TextMatcher fieldMatcher = new TextMatcher();
+    private final transient FieldMatchCache fieldMatchCache =
+            new FieldMatchCache();
     private TextMatcher countMatcher = new TextMatcher();
     private String toField;
     private PropertySetter onSet;
@@ -131,7 +135,8 @@ public class CountMatchesTagger extends AbstractCharStreamTagger {
 
     private int countFieldMatches(Properties metadata) {
         int count = 0;
-        for (String value : metadata.matchKeys(fieldMatcher).valueList()) {
+        for (String value : fieldMatchCache.matchKeys(
+                fieldMatcher, metadata).valueList()) {
             Matcher m = countMatcher.toRegexMatcher(value);
             while (m.find()) {
                 count++;
@@ -141,19 +146,16 @@ public class CountMatchesTagger extends AbstractCharStreamTagger {
     }
     private int countContentMatches(Reader reader)
             throws ImporterHandlerException {
-        int count = 0;
-        String text = null;
-        try (TextReader tr = new TextReader(reader, maxReadSize)) {
-            while ((text = tr.readText()) != null) {
-                Matcher m = countMatcher.toRegexMatcher(text);
-                while (m.find()) {
-                    count++;
-                }
-            }
+        try {
+            return (int) new TextAnalyzer()
+                    .setStatistics(false)
+                    .setMaxReadSize(maxReadSize)
+                    .addMatchCounter(toField, countMatcher)
+                    .analyze(reader)
+                    .getMatchCount(toField);
         } catch (IOException e) {
             throw new ImporterHandlerException("Cannot tag text document.", e);
         }
-        return count;
     }
 
     /**
@@ -16,8 +16,10 @@ package com.norconex.importer.handler.tagger.impl;
 
 import java.io.InputStream;
 import java.text.SimpleDateFormat;
+import java.util.Collections;
 import java.util.Date;
 import java.util.Locale;
+import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.builder.EqualsBuilder;
@@ -28,7 +30,10 @@ import org.apache.commons.lang3.builder.ToStringStyle;
 import com.norconex.commons.lang.map.PropertySetter;
 import com.norconex.commons.lang.xml.XML;
 import com.norconex.importer.doc.DocMetadata;
+import com.norconex.importer.handler.ContentAccess;
 import com.norconex.importer.handler.HandlerDoc;
+import com.norconex.importer.handler.IContentAccessAware;
+import com.norconex.importer.handler.IFieldAccessAware;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.tagger.AbstractDocumentTagger;
 import com.norconex.importer.parser.ParseState;
@@ -87,7 +92,8 @@ import com.norconex.importer.parser.ParseState;
  * @since 2.2.0
  */
 @SuppressWarnings("javadoc")
-public class CurrentDateTagger extends AbstractDocumentTagger {
+public class CurrentDateTagger extends AbstractDocumentTagger
+        implements IContentAccessAware, IFieldAccessAware {
 
     public static final String DEFAULT_FIELD =
             DocMetadata.IMPORTED_DATE;
@@ -104,6 +110,23 @@ public class CurrentDateTagger extends AbstractDocumentTagger {
         super();
     }
 
+    @Override
+    public ContentAccess getContentAccess() {
+        return ContentAccess.NONE;
+    }
+
+    @Override
+    public boolean isReadingField(String field) {
+        return isRestrictedOn(field)
+                || getWrittenFields().contains(field);
+    }
+
+    @Override
+    public Set<String> getWrittenFields() {
+        return Collections.singleton(
+                StringUtils.defaultIfBlank(toField, DEFAULT_FIELD));
+    }
+
     @Override
     public void tagApplicableDocument(
             HandlerDoc doc, InputStream document, ParseState parseState)
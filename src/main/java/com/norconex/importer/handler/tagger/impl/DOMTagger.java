@@ -18,8 +18,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.builder.EqualsBuilder;
@@ -39,12 +41,15 @@ import com.norconex.commons.lang.xml.XML;
 import com.norconex.importer.doc.DocMetadata;
 import com.norconex.importer.handler.CommonRestrictions;
 import com.norconex.importer.handler.HandlerDoc;
+import com.norconex.importer.handler.IFieldAccessAware;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.tagger.AbstractDocumentTagger;
 import com.norconex.importer.handler.transformer.impl.DOMDeleteTransformer;
 import com.norconex.importer.parser.ParseState;
 import com.norconex.importer.util.CharsetUtil;
 import com.norconex.importer.util.DOMUtil;
+import com.norconex.importer.util.MemoryBudget;
+import com.norconex.importer.util.MemoryBudget.Reservation;
 
 /**
  * <p>Extract the value of one or more elements or attributes into
@@ -205,7 +210,8 @@ import com.norconex.importer.util.DOMUtil;
  * @see DOMDeleteTransformer
  */
 @SuppressWarnings("javadoc")
-public class DOMTagger extends AbstractDocumentTagger {
+public class DOMTagger extends AbstractDocumentTagger
+        implements IFieldAccessAware {
 
     private static final Logger LOG = LoggerFactory.getLogger(DOMTagger.class);
 
@@ -223,6 +229,25 @@ public class DOMTagger extends AbstractDocumentTagger {
                 CommonRestrictions.domContentTypes(DocMetadata.CONTENT_TYPE));
     }
 
+    @Override
+    public boolean isReadingField(String field) {
+        // target fields are read when values are appended
+        return isRestrictedOn(field)
+                || Objects.equals(fromField, field)
+                || getWrittenFields().contains(field);
+    }
+
+    @Override
+    public Set<String> getWrittenFields() {
+        Set<String> fields = new HashSet<>();
+        for (DOMExtractDetails details : extractions) {
+            if (StringUtils.isNotBlank(details.toField)) {
+                fields.add(details.toField);
+            }
+        }
+        return fields;
+    }
+
     /**
      * Gets the assumed source character encoding.
      * @return character encoding of the source to be transformed
@@ -305,8 +330,11 @@ public class DOMTagger extends AbstractDocumentTagger {
                         parseState,
                         sourceCharset,
                         doc.getDocInfo().getContentEncoding());
-                handle(Jsoup.parse(document, inputCharset, ref,
-                        DOMUtil.toJSoupParser(getParser())), meta);
+                try (Reservation r = MemoryBudget.current().acquire(
+                        document, DOMUtil.DOM_MEMORY_FACTOR)) {
+                    handle(Jsoup.parse(document, inputCharset, ref,
+                            DOMUtil.toJSoupParser(getParser())), meta);
+                }
             }
         } catch (IOException e) {
             throw new ImporterHandlerException(
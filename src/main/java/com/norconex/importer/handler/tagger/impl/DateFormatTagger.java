@@ -21,6 +21,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 
+import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
@@ -30,10 +31,13 @@ import org.apache.commons.lang3.builder.ToStringStyle;
 import com.norconex.commons.lang.collection.CollectionUtil;
 import com.norconex.commons.lang.map.PropertySetter;
 import com.norconex.commons.lang.xml.XML;
+import com.norconex.importer.handler.ContentAccess;
 import com.norconex.importer.handler.HandlerDoc;
+import com.norconex.importer.handler.IContentAccessAware;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.tagger.AbstractDocumentTagger;
 import com.norconex.importer.parser.ParseState;
+import com.norconex.importer.util.DateFormatRecognizer;
 import com.norconex.importer.util.FormatUtil;
 
 /**
@@ -45,6 +49,13 @@ import com.norconex.importer.util.FormatUtil;
  * for <code>fromFormat</code> or <code>toFormat</code> when not specified
  * is EPOCH.</p>
  *
+ * <p>When multiple source formats are specified, they are tried in the
+ * order provided and the first one matching a date is used. Source
+ * formats can match a date partially (e.g., "yyyy-MM-dd" matches
+ * the beginning of "2001-10-10 11:32"), so list the most specific ones
+ * first. As an optimization, formats that cannot match a date given its
+ * shape (e.g., where digits and letters are) are skipped.</p>
+ *
  * <p>When omitting the <code>toField</code>, the value will replace the one
  * in the same field.</p>
  *
@@ -106,7 +117,8 @@ import com.norconex.importer.util.FormatUtil;
  * @since 2.0.0
  */
 @SuppressWarnings("javadoc")
-public class DateFormatTagger extends AbstractDocumentTagger {
+public class DateFormatTagger extends AbstractDocumentTagger
+        implements IContentAccessAware {
 
     private String fromField;
     private String toField;
@@ -116,6 +128,7 @@ public class DateFormatTagger extends AbstractDocumentTagger {
     private Locale toLocale;
     private boolean keepBadDates;
     private PropertySetter onSet;
+    private transient volatile DateFormatRecognizer recognizer;
 
     /**
      * Constructor.
@@ -124,6 +137,11 @@ public class DateFormatTagger extends AbstractDocumentTagger {
         super();
     }
 
+    @Override
+    public ContentAccess getContentAccess() {
+        return ContentAccess.NONE;
+    }
+
     @Override
     public void tagApplicableDocument(
             HandlerDoc doc, InputStream document, ParseState parseState)
@@ -132,8 +150,9 @@ public class DateFormatTagger extends AbstractDocumentTagger {
 
         List<String> fromDates = doc.getMetadata().getStrings(fromField);
         List<String> toDates = new ArrayList<>(fromDates.size());
+        DateFormatRecognizer r = recognizer();
         for (String fromDate : fromDates) {
-            String toDate = formatDate(fromDate);
+            String toDate = formatDate(fromDate, r);
             if (StringUtils.isNotBlank(toDate)) {
                 toDates.add(toDate);
             } else if (keepBadDates) {
@@ -149,23 +168,39 @@ public class DateFormatTagger extends AbstractDocumentTagger {
         }
     }
 
-    private String formatDate(String fromDate) {
-        List<String> formats = new ArrayList<>();
+    private String formatDate(String fromDate, DateFormatRecognizer r) {
         if (fromFormats.isEmpty()) {
-            formats.add("EPOCH");
-        } else {
-            formats.addAll(fromFormats);
+            return formatDate(fromDate, "EPOCH");
         }
-        for (String fromFormat : formats) {
-            String toDate = FormatUtil.formatDateString(
-                    fromDate, fromFormat, fromLocale,
-                    toFormat, toLocale, fromField);
-            if (StringUtils.isNotBlank(toDate)) {
-                return toDate;
+        boolean[] candidates = r.getCandidateFlags(fromDate);
+        for (int i = 0; i < fromFormats.size(); i++) {
+            if (candidates[i]) {
+                String toDate = formatDate(fromDate, fromFormats.get(i));
+                if (toDate != null) {
+                    return toDate;
+                }
             }
         }
         return null;
     }
+    // Formats and locale can be modified without setters, so we check.
+    private DateFormatRecognizer recognizer() {
+        DateFormatRecognizer r = recognizer;
+        if (r == null || !r.getFormats().equals(fromFormats)
+                || !r.getLocale().equals(
+                        ObjectUtils.defaultIfNull(fromLocale, Locale.US))) {
+            r = new DateFormatRecognizer(fromFormats, fromLocale);
+            recognizer = r;
+        }
+        return r;
+    }
+
+    private String formatDate(String fromDate, String fromFormat) {
+        String toDate = FormatUtil.formatDateString(
+                fromDate, fromFormat, fromLocale,
+                toFormat, toLocale, fromField);
+        return StringUtils.isNotBlank(toDate) ? toDate : null;
+    }
 
 
     public String getFromField() {
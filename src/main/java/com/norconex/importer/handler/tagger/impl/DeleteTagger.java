@@ -29,10 +29,13 @@ import org.slf4j.LoggerFactory;
 import com.norconex.commons.lang.text.TextMatcher;
 import com.norconex.commons.lang.text.TextMatcher.Method;
 import com.norconex.commons.lang.xml.XML;
+import com.norconex.importer.handler.ContentAccess;
 import com.norconex.importer.handler.HandlerDoc;
+import com.norconex.importer.handler.IContentAccessAware;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.tagger.AbstractDocumentTagger;
 import com.norconex.importer.parser.ParseState;
+import com.norconex.importer.util.FieldMatchCache;
 /**
  * <p>
  * Delete the metadata fields provided. Exact field names (case-insensitive)
@@ -64,12 +67,20 @@ import com.norconex.importer.parser.ParseState;
  * @author Pascal Essiembre
  */
 @SuppressWarnings("javadoc")
-public class DeleteTagger extends AbstractDocumentTagger {
+public class DeleteTagger extends AbstractDocumentTagger
+        implements IContentAccessAware {
 
     private static final Logger LOG =
             LoggerFactory.getLogger(DeleteTagger.class);
 
     private final TextMatcher fieldMatcher = new TextMatcher();
+    private final transient FieldMatchCache fieldMatchCache =
+            new FieldMatchCache();
+
+    @Override
+    public ContentAccess getContentAccess() {
+        return ContentAccess.NONE;
+    }
 
     @Override
     public void tagApplicableDocument(
@@ -82,7 +93,8 @@ public class DeleteTagger extends AbstractDocumentTagger {
         }
 
         for (String field :
-                doc.getMetadata().matchKeys(fieldMatcher).keySet()) {
+                fieldMatchCache.matchKeys(
+                        fieldMatcher, doc.getMetadata()).keySet()) {
             doc.getMetadata().remove(field);
             LOG.debug("Deleted field: {}", field);
         }
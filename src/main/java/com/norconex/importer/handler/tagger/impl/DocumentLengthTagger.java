@@ -17,22 +17,19 @@ package com.norconex.importer.handler.tagger.impl;
 import java.io.IOException;
 import java.io.InputStream;
 
-import org.apache.commons.io.IOUtils;
-import org.apache.commons.io.input.CountingInputStream;
-import org.apache.commons.io.output.NullOutputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 
-import com.norconex.commons.lang.io.CachedInputStream;
 import com.norconex.commons.lang.map.PropertySetter;
 import com.norconex.commons.lang.xml.XML;
 import com.norconex.importer.handler.HandlerDoc;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.tagger.AbstractDocumentTagger;
 import com.norconex.importer.parser.ParseState;
+import com.norconex.importer.util.TextAnalyzer;
 
 /**
  * <p>Adds the document length (i.e., number of bytes) to
@@ -89,17 +86,11 @@ public class DocumentLengthTagger extends AbstractDocumentTagger {
             throw new IllegalArgumentException("\"toField\" cannot be empty.");
         }
 
-        int length = -1;
-        if (document instanceof CachedInputStream) {
-            length = ((CachedInputStream) document).length();
-        } else {
-            CountingInputStream is = new CountingInputStream(document);
-            try {
-                IOUtils.copy(is, NullOutputStream.NULL_OUTPUT_STREAM);
-            } catch (IOException e) {
-                throw new ImporterHandlerException(e);
-            }
-            length = is.getCount();
+        long length = -1;
+        try {
+            length = TextAnalyzer.countBytes(document);
+        } catch (IOException e) {
+            throw new ImporterHandlerException(e);
         }
 
         PropertySetter.orAppend(onSet).apply(
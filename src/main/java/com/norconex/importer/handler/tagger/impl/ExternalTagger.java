@@ -92,6 +92,12 @@ import com.norconex.importer.parser.impl.ExternalParser;
  *     (Optional directory where to store temporary files used
  *      for transformation.)
  *   </tempDir>
+ *   <deduplicateInput>[false|true]</deduplicateInput>
+ *   <namedPipes>[false|true]</namedPipes>
+ *   <workerPool
+ *       size="(number of persistent worker processes, default 0)"
+ *       maxRequests="(documents handled before restarting a worker)"
+ *       timeout="(maximum time to handle one document)"/>
  *
  * </handler>
  * }
@@ -317,6 +323,113 @@ public class ExternalTagger extends AbstractDocumentTagger {
         h.setTempDir(tempDir);
     }
 
+    /**
+     * Gets whether <code>${INPUT}</code> files are shared between documents
+     * having identical content.
+     * @return <code>true</code> if sharing input files
+     * @since 3.1.0
+     * @see ExternalHandler#isDeduplicateInput()
+     */
+    public boolean isDeduplicateInput() {
+        return h.isDeduplicateInput();
+    }
+    /**
+     * Sets whether <code>${INPUT}</code> files are shared between documents
+     * having identical content. Only enable it if the external application
+     * does not modify or delete its input file.
+     * @param deduplicateInput <code>true</code> to share input files
+     * @since 3.1.0
+     * @see ExternalHandler#setDeduplicateInput(boolean)
+     */
+    public void setDeduplicateInput(boolean deduplicateInput) {
+        h.setDeduplicateInput(deduplicateInput);
+    }
+
+    /**
+     * Gets whether <code>${INPUT}</code>, <code>${OUTPUT}</code> and
+     * <code>${OUTPUT_META}</code> are named pipes instead of temporary
+     * files, when supported.
+     * @return <code>true</code> if using named pipes
+     * @since 3.1.0
+     * @see ExternalHandler#isNamedPipes()
+     */
+    public boolean isNamedPipes() {
+        return h.isNamedPipes();
+    }
+    /**
+     * Sets whether <code>${INPUT}</code>, <code>${OUTPUT}</code> and
+     * <code>${OUTPUT_META}</code> are named pipes instead of temporary
+     * files, when supported. Only enable it if the external application
+     * reads and writes those files sequentially.
+     * @param namedPipes <code>true</code> to use named pipes
+     * @since 3.1.0
+     * @see ExternalHandler#setNamedPipes(boolean)
+     */
+    public void setNamedPipes(boolean namedPipes) {
+        h.setNamedPipes(namedPipes);
+    }
+
+    /**
+     * Gets the number of persistent worker processes. Zero (default)
+     * starts a new process for every document.
+     * @return worker pool size
+     * @since 3.1.0
+     * @see ExternalHandler#getWorkerPoolSize()
+     */
+    public int getWorkerPoolSize() {
+        return h.getWorkerPoolSize();
+    }
+    /**
+     * Sets the number of persistent worker processes. Zero (default)
+     * starts a new process for every document.
+     * @param workerPoolSize worker pool size
+     * @since 3.1.0
+     * @see ExternalHandler#setWorkerPoolSize(int)
+     */
+    public void setWorkerPoolSize(int workerPoolSize) {
+        h.setWorkerPoolSize(workerPoolSize);
+    }
+    /**
+     * Gets the number of documents a persistent worker handles before
+     * it is restarted.
+     * @return maximum documents per worker
+     * @since 3.1.0
+     * @see ExternalHandler#getWorkerMaxRequests()
+     */
+    public int getWorkerMaxRequests() {
+        return h.getWorkerMaxRequests();
+    }
+    /**
+     * Sets the number of documents a persistent worker handles before
+     * it is restarted.
+     * @param workerMaxRequests maximum documents per worker
+     * @since 3.1.0
+     * @see ExternalHandler#setWorkerMaxRequests(int)
+     */
+    public void setWorkerMaxRequests(int workerMaxRequests) {
+        h.setWorkerMaxRequests(workerMaxRequests);
+    }
+    /**
+     * Gets the maximum milliseconds a persistent worker can take to handle
+     * a document.
+     * @return worker timeout
+     * @since 3.1.0
+     * @see ExternalHandler#getWorkerTimeout()
+     */
+    public long getWorkerTimeout() {
+        return h.getWorkerTimeout();
+    }
+    /**
+     * Sets the maximum milliseconds a persistent worker can take to handle
+     * a document.
+     * @param workerTimeout worker timeout
+     * @since 3.1.0
+     * @see ExternalHandler#setWorkerTimeout(long)
+     */
+    public void setWorkerTimeout(long workerTimeout) {
+        h.setWorkerTimeout(workerTimeout);
+    }
+
     @Override
     public void tagApplicableDocument(
             HandlerDoc doc, InputStream document, ParseState parseState)
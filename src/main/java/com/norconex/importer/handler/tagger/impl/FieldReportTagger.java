@@ -14,25 +14,35 @@
  */
 package com.norconex.importer.handler.tagger.impl;
 
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.HashSet;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 
-import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
-import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 import org.slf4j.Logger;
@@ -40,7 +50,9 @@ import org.slf4j.LoggerFactory;
 
 import com.norconex.commons.lang.map.Properties;
 import com.norconex.commons.lang.xml.XML;
+import com.norconex.importer.handler.ContentAccess;
 import com.norconex.importer.handler.HandlerDoc;
+import com.norconex.importer.handler.IContentAccessAware;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.tagger.AbstractDocumentTagger;
 import com.norconex.importer.parser.ParseState;
@@ -65,6 +77,20 @@ import com.norconex.importer.parser.ParseState;
  * When not specified with {@link #setFile(Path)}, a file called
  * "field-report.csv" will be created in the working directory.
  * </p>
+ * <p>
+ * Documents are not held back while the report is written. Fields and
+ * samples are collected concurrently and the report file is rewritten
+ * in the background, at most once per flush interval (1 second
+ * by default), and one last time when the JVM shuts down. Background
+ * writing stops when no new fields or samples were discovered for
+ * a whole interval, and resumes when some are. You can also
+ * force writing it with {@link #flush()}, or write it and stop background
+ * writing with {@link #close()} when done with the tagger.
+ * A flush interval of zero
+ * or less writes the report as soon as new fields or samples are
+ * discovered. The report file is replaced atomically when
+ * the file system supports it, so it is never read partially written.
+ * </p>
  *
  * <p>Can be used both as a pre-parse or post-parse handler.</p>
  *
@@ -74,6 +100,7 @@ import com.norconex.importer.parser.ParseState;
  *     withHeaders="[false|true]"
  *     withOccurences="[false|true]"
  *     truncateSamplesAt="(number of characters to truncate long samples)"
+ *     flushInterval="(how often to write the report, default 1 second)"
  *     file="(path to a local file)" >
  *
  *   {@nx.include com.norconex.importer.handler.AbstractImporterHandler#restrictTo}
@@ -94,22 +121,48 @@ import com.norconex.importer.parser.ParseState;
  * @since 2.10.0
  */
 @SuppressWarnings("javadoc")
-public class FieldReportTagger extends AbstractDocumentTagger {
+public class FieldReportTagger extends AbstractDocumentTagger
+        implements IContentAccessAware {
 
     private static final Logger LOG =
             LoggerFactory.getLogger(FieldReportTagger.class);
 
     public static final int DEFAULT_MAX_SAMPLES = 3;
     public static final Path DEFAULT_FILE = Paths.get("./field-report.csv");
+    /**
+     * Default interval in milliseconds between report writes.
+     * @since 3.1.0
+     */
+    public static final long DEFAULT_FLUSH_INTERVAL = 1000;
+
+    // Shared by all instances, writing reports in the background
+    private static final ScheduledExecutorService FLUSHER =
+            Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "FieldReportTagger-flusher");
+                t.setDaemon(true);
+                return t;
+            });
+    private static final List<FieldReportTagger> FLUSHED =
+            new CopyOnWriteArrayList<>();
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(
+                () -> FLUSHED.forEach(FieldReportTagger::flush),
+                "FieldReportTagger-shutdown"));
+    }
 
     private int maxSamples = DEFAULT_MAX_SAMPLES;
     private Path file;
     private boolean withHeaders;
     private boolean withOccurences;
     private int truncateSamplesAt = -1;
+    private long flushInterval = DEFAULT_FLUSH_INTERVAL;
 
-    private final Map<String, FieldData> fields = MapUtils.lazyMap(
-            new TreeMap<String, FieldData>(), FieldData::new);
+    private final transient Map<String, FieldData> fields =
+            new ConcurrentHashMap<>();
+    private final transient AtomicBoolean dirty = new AtomicBoolean();
+    // Not "this", which is held while writing the report
+    private final transient Object flusherLock = new Object();
+    private transient volatile ScheduledFuture<?> flushTask;
 
     public Path getFile() {
         return file;
@@ -146,6 +199,30 @@ public class FieldReportTagger extends AbstractDocumentTagger {
         this.truncateSamplesAt = truncateSamplesAt;
     }
 
+    /**
+     * Gets the minimum interval in milliseconds between report writes.
+     * @return flush interval
+     * @since 3.1.0
+     */
+    public long getFlushInterval() {
+        return flushInterval;
+    }
+    /**
+     * Sets the minimum interval in milliseconds between report writes.
+     * Zero or less writes the report as soon as new fields or samples
+     * are discovered. Has no effect once the tagger started reporting.
+     * @param flushInterval flush interval
+     * @since 3.1.0
+     */
+    public void setFlushInterval(long flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    @Override
+    public ContentAccess getContentAccess() {
+        return ContentAccess.NONE;
+    }
+
     @Override
     public void tagApplicableDocument(
             HandlerDoc doc, InputStream document, ParseState parseState)
@@ -153,34 +230,115 @@ public class FieldReportTagger extends AbstractDocumentTagger {
         reportFields(doc.getMetadata());
     }
 
-    private synchronized void reportFields(Properties metadata) {
-        boolean dirty = false;
+    /**
+     * Writes the report file if new fields or samples were discovered
+     * since it was last written. Invoked automatically at every flush
+     * interval and when the JVM shuts down.
+     * @since 3.1.0
+     */
+    public synchronized void flush() {
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+        try {
+            saveReport();
+        } catch (IOException | RuntimeException e) {
+            dirty.set(true);
+            LOG.error("Could not write field report to: " + file, e);
+        }
+    }
+
+    /**
+     * Writes the report file if new fields or samples were discovered
+     * since it was last written, and stops writing it in the background.
+     * Background writing resumes if the tagger is used again.
+     * @since 3.1.0
+     */
+    public void close() {
+        synchronized (flusherLock) {
+            stopFlusher();
+        }
+        flush();
+    }
+
+    private void reportFields(Properties metadata) {
+        boolean changed = false;
         for (Entry<String, List<String>> en : metadata.entrySet()) {
             if (reportField(en.getKey(), en.getValue())) {
-                dirty = true;
+                changed = true;
             }
         }
-        if (dirty) {
-            saveReport();
+        if (changed) {
+            dirty.set(true);
+            if (flushInterval > 0) {
+                startFlusher();
+            } else {
+                flush();
+            }
         }
     }
 
     private boolean reportField(String field, List<String> samples) {
-        boolean dirty = false;
-        if (!fields.containsKey(field)) {
-            dirty = true;
-        }
+        boolean changed = false;
         FieldData fieldData = fields.get(field);
-        if (fieldData.addSamples(samples, maxSamples, truncateSamplesAt)) {
-            dirty = true;
+        if (fieldData == null) {
+            FieldData newData = new FieldData(field, maxSamples);
+            fieldData = fields.putIfAbsent(field, newData);
+            if (fieldData == null) {
+                fieldData = newData;
+                changed = true;
+            }
+        }
+        if (fieldData.addSamples(samples, truncateSamplesAt)) {
+            changed = true;
+        }
+        return changed;
+    }
+
+    private void startFlusher() {
+        if (flushTask != null) {
+            return;
+        }
+        synchronized (flusherLock) {
+            if (flushTask == null) {
+                FLUSHED.add(this);
+                flushTask = FLUSHER.scheduleWithFixedDelay(this::flushOrStop,
+                        flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+    private void flushOrStop() {
+        if (dirty.get()) {
+            flush();
+            return;
+        }
+        // Idle: stop until new fields or samples are discovered. Those
+        // discovered while stopping would not restart it, so we check.
+        synchronized (flusherLock) {
+            stopFlusher();
+            if (dirty.get()) {
+                startFlusher();
+            }
         }
-        return dirty;
+    }
+    // Must hold flusherLock
+    private void stopFlusher() {
+        if (flushTask != null) {
+            flushTask.cancel(false);
+            flushTask = null;
+        }
+        FLUSHED.remove(this);
+    }
+    boolean isFlusherRunning() {
+        return flushTask != null;
     }
 
-    private void saveReport() {
+    private void saveReport() throws IOException {
         Path f = file == null ? DEFAULT_FILE : file;
-        try (CSVPrinter printer = new CSVPrinter(
-                new FileWriter(f.toFile()), CSVFormat.DEFAULT)) {
+        // Write to a sibling file first so the report is replaced at once
+        Path tmp = f.resolveSibling(f.getFileName() + ".tmp");
+        try (Writer w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8);
+                CSVPrinter printer = new CSVPrinter(w, CSVFormat.DEFAULT)) {
             if (withHeaders) {
                 printer.print("Field Name");
                 if (withOccurences) {
@@ -192,23 +350,28 @@ public class FieldReportTagger extends AbstractDocumentTagger {
                 printer.println();
             }
 
-            for (FieldData fieldData : fields.values()) {
+            for (FieldData fieldData : new TreeMap<>(fields).values()) {
                 printer.print(fieldData.name);
                 if (withOccurences) {
-                    printer.print(fieldData.occurences);
+                    printer.print(fieldData.occurences.sum());
                 }
-                for (String value : fieldData.values) {
+                List<String> values = fieldData.getSamples();
+                for (String value : values) {
                     printer.print(value);
                 }
                 // fill the blanks
-                for (int i = 0; i < maxSamples - fieldData.values.size(); i++) {
+                for (int i = 0; i < maxSamples - values.size(); i++) {
                     printer.print("");
                 }
                 printer.println();
             }
             printer.flush();
-        } catch (IOException e) {
-            LOG.error("Could not write field report to: " + file, e);
+        }
+        try {
+            Files.move(tmp, f, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, f, StandardCopyOption.REPLACE_EXISTING);
         }
     }
 
@@ -220,6 +383,8 @@ public class FieldReportTagger extends AbstractDocumentTagger {
         setWithOccurences(xml.getBoolean("@withOccurences", withOccurences));
         setTruncateSamplesAt(
                 xml.getInteger("@truncateSamplesAt", truncateSamplesAt));
+        setFlushInterval(
+                xml.getDurationMillis("@flushInterval", flushInterval));
     }
 
     @Override
@@ -229,6 +394,7 @@ public class FieldReportTagger extends AbstractDocumentTagger {
         xml.setAttribute("withHeaders", withHeaders);
         xml.setAttribute("withOccurences", withOccurences);
         xml.setAttribute("truncateSamplesAt", truncateSamplesAt);
+        xml.setAttribute("flushInterval", flushInterval);
     }
 
     @Override
@@ -241,63 +407,77 @@ public class FieldReportTagger extends AbstractDocumentTagger {
     }
     @Override
     public String toString() {
-        int fieldSize = 0;
-        synchronized (fields) {
-            fieldSize = fields.size();
-        }
+        int fieldSize = fields.size();
         return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
                 .append("file", file)
                 .append("maxSamples", maxSamples)
                 .append("withHeaders", withHeaders)
                 .append("withOccurences", withOccurences)
                 .append("truncateSamplesAt", truncateSamplesAt)
+                .append("flushInterval", flushInterval)
                 .append("fields", "<size=" + fieldSize + ">")
                 .toString();
     }
 
-    class FieldData {
+    // Samples are kept in fixed slots, filled without locking
+    private final class FieldData {
         private final String name;
-        private final Set<String> values = new HashSet<>();
-        private int occurences;
-        public FieldData(String name) {
+        private final AtomicReferenceArray<String> values;
+        private final LongAdder occurences = new LongAdder();
+        private FieldData(String name, int maxSamples) {
             super();
             this.name = name;
+            this.values = new AtomicReferenceArray<>(Math.max(0, maxSamples));
         }
         // returns true if something changed
-        public boolean addSamples(
-                List<String> samples, int maxSamples, int truncateAt) {
-            occurences++;
+        private boolean addSamples(List<String> samples, int truncateAt) {
+            occurences.increment();
             if (samples == null) {
-                return false;
+                return withOccurences;
             }
-            int beforeCount = values.size();
+            boolean added = false;
             for (String sample : samples) {
-                if (values.size() < maxSamples
-                        && StringUtils.isNotBlank(sample)) {
-                    if (truncateAt > -1) {
-                        values.add(StringUtils.truncate(sample, truncateAt));
-                    } else {
-                        values.add(sample);
-                    }
-                } else {
+                if (StringUtils.isBlank(sample)) {
+                    break;
+                }
+                int result = addSample(truncateAt > -1
+                        ? StringUtils.truncate(sample, truncateAt) : sample);
+                if (result < 0) {
                     break;
                 }
+                if (result > 0) {
+                    added = true;
+                }
             }
-            return withOccurences || beforeCount != values.size();
+            return withOccurences || added;
         }
-
-        @Override
-        public boolean equals(final Object other) {
-            return EqualsBuilder.reflectionEquals(this, other);
-        }
-        @Override
-        public int hashCode() {
-            return HashCodeBuilder.reflectionHashCode(this);
+        // 1 if added, 0 if already there, -1 if no more slots
+        private int addSample(String sample) {
+            for (int i = 0; i < values.length(); i++) {
+                String existing = values.get(i);
+                if (existing == null) {
+                    if (values.compareAndSet(i, null, sample)) {
+                        return 1;
+                    }
+                    // another thread took the slot
+                    existing = values.get(i);
+                }
+                if (existing.equals(sample)) {
+                    return 0;
+                }
+            }
+            return -1;
         }
-        @Override
-        public String toString() {
-            return new ReflectionToStringBuilder(
-                    this, ToStringStyle.SHORT_PREFIX_STYLE).toString();
+        private List<String> getSamples() {
+            List<String> samples = new ArrayList<>(values.length());
+            for (int i = 0; i < values.length(); i++) {
+                String value = values.get(i);
+                if (value == null) {
+                    break;
+                }
+                samples.add(value);
+            }
+            return samples;
         }
     }
 }
@@ -28,7 +28,9 @@ import org.apache.commons.lang3.builder.ToStringStyle;
 
 import com.norconex.commons.lang.text.TextMatcher;
 import com.norconex.commons.lang.xml.XML;
+import com.norconex.importer.handler.ContentAccess;
 import com.norconex.importer.handler.HandlerDoc;
+import com.norconex.importer.handler.IContentAccessAware;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.tagger.AbstractDocumentTagger;
 import com.norconex.importer.parser.ParseState;
@@ -74,11 +76,17 @@ import com.norconex.importer.parser.ParseState;
  * @author Pascal Essiembre
  */
 @SuppressWarnings("javadoc")
-public class ForceSingleValueTagger extends AbstractDocumentTagger {
+public class ForceSingleValueTagger extends AbstractDocumentTagger
+        implements IContentAccessAware {
 
     private final TextMatcher fieldMatcher = new TextMatcher();
     private String action;
 
+    @Override
+    public ContentAccess getContentAccess() {
+        return ContentAccess.NONE;
+    }
+
     @Override
     public void tagApplicableDocument(
             HandlerDoc doc, InputStream document, ParseState parseState)
@@ -30,7 +30,9 @@ import org.apache.commons.lang3.builder.ToStringStyle;
 import com.norconex.commons.lang.map.Properties;
 import com.norconex.commons.lang.map.PropertySetter;
 import com.norconex.commons.lang.xml.XML;
+import com.norconex.importer.handler.ContentAccess;
 import com.norconex.importer.handler.HandlerDoc;
+import com.norconex.importer.handler.IContentAccessAware;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.tagger.AbstractDocumentTagger;
 import com.norconex.importer.parser.ParseState;
@@ -104,10 +106,16 @@ import com.norconex.importer.parser.ParseState;
  * @since 1.3.0
  */
 @SuppressWarnings("javadoc")
-public class HierarchyTagger extends AbstractDocumentTagger {
+public class HierarchyTagger extends AbstractDocumentTagger
+        implements IContentAccessAware {
 
     private final List<HierarchyDetails> list = new ArrayList<>();
 
+    @Override
+    public ContentAccess getContentAccess() {
+        return ContentAccess.NONE;
+    }
+
     @Override
     public void tagApplicableDocument(
             HandlerDoc doc, InputStream document, ParseState parseState)
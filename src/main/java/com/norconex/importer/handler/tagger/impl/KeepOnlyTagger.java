@@ -30,10 +30,13 @@ import org.slf4j.LoggerFactory;
 import com.norconex.commons.lang.text.TextMatcher;
 import com.norconex.commons.lang.text.TextMatcher.Method;
 import com.norconex.commons.lang.xml.XML;
+import com.norconex.importer.handler.ContentAccess;
 import com.norconex.importer.handler.HandlerDoc;
+import com.norconex.importer.handler.IContentAccessAware;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.tagger.AbstractDocumentTagger;
 import com.norconex.importer.parser.ParseState;
+import com.norconex.importer.util.FieldMatchCache;
 
 /**
  * <p>Keep only the metadata fields provided, delete all other ones.
@@ -74,12 +77,20 @@ import com.norconex.importer.parser.ParseState;
  * @see Pattern
  */
 @SuppressWarnings("javadoc")
-public class KeepOnlyTagger extends AbstractDocumentTagger {
+public class KeepOnlyTagger extends AbstractDocumentTagger
+        implements IContentAccessAware {
 
     private static final Logger LOG =
             LoggerFactory.getLogger(KeepOnlyTagger.class);
 
     private final TextMatcher fieldMatcher = new TextMatcher();
+    private final transient FieldMatchCache fieldMatchCache =
+            new FieldMatchCache();
+
+    @Override
+    public ContentAccess getContentAccess() {
+        return ContentAccess.NONE;
+    }
 
     @Override
     public void tagApplicableDocument(
@@ -87,7 +98,7 @@ public class KeepOnlyTagger extends AbstractDocumentTagger {
                     throws ImporterHandlerException {
 
         for (String field : new HashSet<>(doc.getMetadata().keySet())) {
-            if (!fieldMatcher.matches(field)) {
+            if (!fieldMatchCache.matches(fieldMatcher, field)) {
                 doc.getMetadata().remove(field);
                 LOG.debug("Not kept: {}", field);
             }
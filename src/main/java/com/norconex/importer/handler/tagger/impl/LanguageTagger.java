@@ -15,18 +15,24 @@
 package com.norconex.importer.handler.tagger.impl;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
-import org.apache.tika.langdetect.OptimaizeLangDetector;
-import org.apache.tika.language.detect.LanguageDetector;
+import org.apache.tika.language.detect.LanguageConfidence;
+import org.apache.tika.language.detect.LanguageNames;
 import org.apache.tika.language.detect.LanguageResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,9 +42,18 @@ import com.norconex.commons.lang.xml.IXMLConfigurable;
 import com.norconex.commons.lang.xml.XML;
 import com.norconex.importer.doc.DocMetadata;
 import com.norconex.importer.handler.HandlerDoc;
+import com.norconex.importer.handler.IFieldAccessAware;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.tagger.AbstractStringTagger;
 import com.norconex.importer.parser.ParseState;
+import com.optimaize.langdetect.DetectedLanguage;
+import com.optimaize.langdetect.LanguageDetector;
+import com.optimaize.langdetect.LanguageDetectorBuilder;
+import com.optimaize.langdetect.i18n.LdLocale;
+import com.optimaize.langdetect.ngram.NgramExtractors;
+import com.optimaize.langdetect.profiles.BuiltInLanguages;
+import com.optimaize.langdetect.profiles.LanguageProfile;
+import com.optimaize.langdetect.profiles.LanguageProfileReader;
 
 /**
  * <p>Detects a document language based on Apache Tika language detection
@@ -160,11 +175,31 @@ import com.norconex.importer.parser.ParseState;
  * the default behavior is to try match all languages currently supported.
  * </p>
  *
+ * <h3>Performance:</h3>
+ * <p>
+ * Language models are loaded only once and shared by all
+ * <code>LanguageTagger</code> instances having the same language candidates.
+ * Detection is thread-safe.
+ * </p>
+ * <p>
+ * <b>Since 3.1.0</b>, you can enable sampling by setting a
+ * "sampleWindowSize". Instead of analyzing the entire first text section
+ * (see "maxReadSize"), up to "sampleMaxWindows" evenly spaced windows of
+ * that size are analyzed one after the other. Detection stops as soon as
+ * the average probability of the top language exceeds the one of the
+ * second language by at least "sampleConfidenceMargin"
+ * (default is {@value #DEFAULT_SAMPLE_CONFIDENCE_MARGIN}).
+ * This can greatly reduce detection time on long documents.
+ * </p>
+ *
  * {@nx.xml.usage
  * <handler class="com.norconex.importer.handler.tagger.impl.LanguageTagger"
  *     keepProbabilities="(false|true)"
  *     toField="(custom target field to store the language)"
  *     fallbackLanguage="(default language when detection failed)"
+ *     sampleWindowSize="(characters per sample window, 0 disables sampling)"
+ *     sampleMaxWindows="(maximum number of sample windows)"
+ *     sampleConfidenceMargin="(probability margin to stop sampling)"
  *     {@nx.include com.norconex.importer.handler.tagger.AbstractStringTagger#attributes}>
  *
  *   {@nx.include com.norconex.importer.handler.AbstractImporterHandler#restrictTo}
@@ -191,7 +226,7 @@ import com.norconex.importer.parser.ParseState;
  */
 @SuppressWarnings("javadoc")
 public class LanguageTagger extends AbstractStringTagger
-        implements IXMLConfigurable {
+        implements IXMLConfigurable, IFieldAccessAware {
 
     //TODO Check if doc.size is defined in metadata? If so, use it to
     //determine if we are going with small or long text?
@@ -202,14 +237,38 @@ public class LanguageTagger extends AbstractStringTagger
     private static final Logger LOG =
             LoggerFactory.getLogger(LanguageTagger.class);
 
+    public static final int DEFAULT_SAMPLE_MAX_WINDOWS = 10;
+    public static final float DEFAULT_SAMPLE_CONFIDENCE_MARGIN = 0.5f;
+
+    // Detectors are immutable and thread-safe. They are shared by
+    // all instances having the same language candidates (key is sorted,
+    // empty means all languages).
+    private static final Map<TreeSet<String>, LanguageDetector> DETECTORS =
+            new ConcurrentHashMap<>();
+
     private LanguageDetector detector;
     private boolean keepProbabilities;
     private final List<String> languages = new ArrayList<>();
     private String fallbackLanguage;
+    private int sampleWindowSize;
+    private int sampleMaxWindows = DEFAULT_SAMPLE_MAX_WINDOWS;
+    private float sampleConfidenceMargin = DEFAULT_SAMPLE_CONFIDENCE_MARGIN;
 
     private final Comparator<LanguageResult> langResultComparator =
             (o1, o2) -> Float.compare(o2.getRawScore(), o1.getRawScore());
 
+    @Override
+    public boolean isReadingField(String field) {
+        return isRestrictedOn(field);
+    }
+
+    @Override
+    public Set<String> getWrittenFields() {
+        // probability field names depend on detected languages
+        return keepProbabilities
+                ? null : Collections.singleton(DocMetadata.LANGUAGE);
+    }
+
     @Override
     protected void tagStringContent(HandlerDoc doc, StringBuilder content,
             ParseState parseState, int sectionIndex)
@@ -222,7 +281,13 @@ public class LanguageTagger extends AbstractStringTagger
 
         ensureDetectorInitialization();
 
-        List<LanguageResult> results = detector.detectAll(content.toString());
+        List<LanguageResult> results;
+        if (sampleWindowSize > 0
+                && content.length() > sampleWindowSize * 2L) {
+            results = detectSampled(content);
+        } else {
+            results = toLanguageResults(detector.getProbabilities(content));
+        }
 
         // leave now if no matches
         if (results.isEmpty()) {
@@ -250,6 +315,84 @@ public class LanguageTagger extends AbstractStringTagger
         }
     }
 
+    // Scores evenly spaced windows, stopping as soon as the average
+    // probability margin between the top two languages is reached.
+    private List<LanguageResult> detectSampled(CharSequence text) {
+        int windowCount = Math.max(2, Math.min(
+                sampleMaxWindows, text.length() / sampleWindowSize));
+        int stride = (text.length() - sampleWindowSize) / (windowCount - 1);
+        Map<String, Double> sums = new HashMap<>();
+        int scored = 0;
+        for (int i = 0; i < windowCount; i++) {
+            int start = i * stride;
+            // avoid starting in the middle of a word
+            if (start > 0) {
+                while (start < text.length()
+                        && !Character.isWhitespace(text.charAt(start))) {
+                    start++;
+                }
+            }
+            int end = Math.min(text.length(), start + sampleWindowSize);
+            if (start >= end) {
+                continue;
+            }
+            for (DetectedLanguage dl : detector.getProbabilities(
+                    text.subSequence(start, end))) {
+                sums.merge(toLanguageName(dl.getLocale()),
+                        dl.getProbability(), Double::sum);
+            }
+            scored++;
+            if (scored > 1 && hasMargin(sums, scored)) {
+                LOG.trace("Language sampling stopped after {} windows.",
+                        scored);
+                break;
+            }
+        }
+        List<LanguageResult> results = new ArrayList<>(sums.size());
+        if (scored == 0) {
+            return results;
+        }
+        for (Entry<String, Double> en : sums.entrySet()) {
+            results.add(toLanguageResult(
+                    en.getKey(), en.getValue() / scored));
+        }
+        return results;
+    }
+    private boolean hasMargin(Map<String, Double> sums, int scored) {
+        double first = 0;
+        double second = 0;
+        for (double sum : sums.values()) {
+            if (sum > first) {
+                second = first;
+                first = sum;
+            } else if (sum > second) {
+                second = sum;
+            }
+        }
+        return first > 0
+                && (first - second) / scored >= sampleConfidenceMargin;
+    }
+
+    private List<LanguageResult> toLanguageResults(
+            List<DetectedLanguage> detected) {
+        List<LanguageResult> results = new ArrayList<>(detected.size());
+        for (DetectedLanguage dl : detected) {
+            results.add(toLanguageResult(
+                    toLanguageName(dl.getLocale()), dl.getProbability()));
+        }
+        return results;
+    }
+    private LanguageResult toLanguageResult(String lang, double probability) {
+        // Same confidence brackets as Tika OptimaizeLangDetector
+        return new LanguageResult(lang, probability > 0.9
+                ? LanguageConfidence.HIGH : LanguageConfidence.MEDIUM,
+                (float) probability);
+    }
+    // Same language names as Tika OptimaizeLangDetector
+    private static String toLanguageName(LdLocale locale) {
+        return LanguageNames.makeName(locale.getLanguage(),
+                locale.getScript().orNull(), locale.getRegion().orNull());
+    }
     public boolean isKeepProbabilities() {
         return keepProbabilities;
     }
@@ -277,21 +420,57 @@ public class LanguageTagger extends AbstractStringTagger
         this.fallbackLanguage = fallbackLanguage;
     }
 
-    private synchronized void ensureDetectorInitialization()
+    private void ensureDetectorInitialization()
             throws ImporterHandlerException {
         if (detector == null) {
-            OptimaizeLangDetector d = new OptimaizeLangDetector();
             try {
-                if (languages.isEmpty()) {
-                    d.loadModels();
-                } else {
-                    d.loadModels(new HashSet<>(languages));
-                }
-            } catch (IOException e) {
+                detector = DETECTORS.computeIfAbsent(
+                        normalizeLanguages(languages),
+                        LanguageTagger::newDetector);
+            } catch (UncheckedIOException e) {
+                throw new ImporterHandlerException(
+                        "Cannot initialize language detector.", e.getCause());
+            } catch (RuntimeException e) {
                 throw new ImporterHandlerException(
                         "Cannot initialize language detector.", e);
             }
-            detector = d;
+        }
+    }
+    // Normalized the same way as Tika OptimaizeLangDetector (e.g.,
+    // lowercase).
+    private static TreeSet<String> normalizeLanguages(List<String> langs) {
+        TreeSet<String> normalized = new TreeSet<>();
+        for (String lang : langs) {
+            normalized.add(LanguageNames.normalizeName(lang.trim()));
+        }
+        return normalized;
+    }
+    // Same detector settings as Tika OptimaizeLangDetector.
+    private static LanguageDetector newDetector(TreeSet<String> langs) {
+        try {
+            List<LanguageProfile> profiles;
+            if (langs.isEmpty()) {
+                profiles = new LanguageProfileReader().readAllBuiltIn();
+            } else {
+                // Like Tika, unsupported languages are ignored
+                List<LdLocale> locales = new ArrayList<>();
+                for (LdLocale locale : BuiltInLanguages.getLanguages()) {
+                    if (langs.contains(toLanguageName(locale))) {
+                        locales.add(locale);
+                    }
+                }
+                if (locales.size() < langs.size()) {
+                    LOG.warn("Some language candidates are not supported "
+                            + "and will be ignored: {}", langs);
+                }
+                profiles = new LanguageProfileReader().readBuiltIn(locales);
+            }
+            return LanguageDetectorBuilder.create(NgramExtractors.standard())
+                    .shortTextAlgorithm(30)
+                    .withProfiles(profiles)
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
@@ -307,6 +486,62 @@ public class LanguageTagger extends AbstractStringTagger
         CollectionUtil.setAll(this.languages, languages);
     }
 
+    /**
+     * Gets the number of characters in each sample window.
+     * @return sample window size
+     * @since 3.1.0
+     */
+    public int getSampleWindowSize() {
+        return sampleWindowSize;
+    }
+    /**
+     * Sets the number of characters in each sample window. Sampling
+     * is disabled when zero or less (default).
+     * @param sampleWindowSize sample window size
+     * @since 3.1.0
+     */
+    public void setSampleWindowSize(int sampleWindowSize) {
+        this.sampleWindowSize = sampleWindowSize;
+    }
+
+    /**
+     * Gets the maximum number of sample windows to analyze.
+     * @return maximum number of sample windows
+     * @since 3.1.0
+     */
+    public int getSampleMaxWindows() {
+        return sampleMaxWindows;
+    }
+    /**
+     * Sets the maximum number of sample windows to analyze.
+     * Default is {@value #DEFAULT_SAMPLE_MAX_WINDOWS}.
+     * @param sampleMaxWindows maximum number of sample windows
+     * @since 3.1.0
+     */
+    public void setSampleMaxWindows(int sampleMaxWindows) {
+        this.sampleMaxWindows = sampleMaxWindows;
+    }
+
+    /**
+     * Gets the minimum difference between the average probability of
+     * the two most probable languages for sampling to stop early.
+     * @return sample confidence margin
+     * @since 3.1.0
+     */
+    public float getSampleConfidenceMargin() {
+        return sampleConfidenceMargin;
+    }
+    /**
+     * Sets the minimum difference between the average probability of
+     * the two most probable languages for sampling to stop early.
+     * Default is {@value #DEFAULT_SAMPLE_CONFIDENCE_MARGIN}.
+     * @param sampleConfidenceMargin sample confidence margin
+     * @since 3.1.0
+     */
+    public void setSampleConfidenceMargin(float sampleConfidenceMargin) {
+        this.sampleConfidenceMargin = sampleConfidenceMargin;
+    }
+
     private void ensureNotInitialized() {
         if (detector != null) {
             throw new IllegalStateException(
@@ -322,12 +557,21 @@ public class LanguageTagger extends AbstractStringTagger
         setFallbackLanguage(xml.getString(
                 "@fallbackLanguage", fallbackLanguage));
         setLanguages(xml.getDelimitedStringList("languages", languages));
+        setSampleWindowSize(xml.getInteger(
+                "@sampleWindowSize", sampleWindowSize));
+        setSampleMaxWindows(xml.getInteger(
+                "@sampleMaxWindows", sampleMaxWindows));
+        setSampleConfidenceMargin(xml.getFloat(
+                "@sampleConfidenceMargin", sampleConfidenceMargin));
     }
 
     @Override
     protected void saveStringTaggerToXML(XML xml) {
         xml.setAttribute("keepProbabilities", keepProbabilities);
         xml.setAttribute("fallbackLanguage", fallbackLanguage);
+        xml.setAttribute("sampleWindowSize", sampleWindowSize);
+        xml.setAttribute("sampleMaxWindows", sampleMaxWindows);
+        xml.setAttribute("sampleConfidenceMargin", sampleConfidenceMargin);
         xml.addDelimitedElementList("languages", languages);
     }
 
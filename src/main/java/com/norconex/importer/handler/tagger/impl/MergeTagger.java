@@ -30,7 +30,9 @@ import org.apache.commons.lang3.builder.ToStringStyle;
 import com.norconex.commons.lang.text.TextMatcher;
 import com.norconex.commons.lang.text.TextMatcher.Method;
 import com.norconex.commons.lang.xml.XML;
+import com.norconex.importer.handler.ContentAccess;
 import com.norconex.importer.handler.HandlerDoc;
+import com.norconex.importer.handler.IContentAccessAware;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.tagger.AbstractDocumentTagger;
 import com.norconex.importer.parser.ParseState;
@@ -109,10 +111,16 @@ import com.norconex.importer.parser.ParseState;
  * @since 2.7.0
  */
 @SuppressWarnings("javadoc")
-public class MergeTagger extends AbstractDocumentTagger {
+public class MergeTagger extends AbstractDocumentTagger
+        implements IContentAccessAware {
 
     private final List<Merge> merges = new ArrayList<>();
 
+    @Override
+    public ContentAccess getContentAccess() {
+        return ContentAccess.NONE;
+    }
+
     @Override
     public void tagApplicableDocument(
             HandlerDoc doc, InputStream document, ParseState parseState)
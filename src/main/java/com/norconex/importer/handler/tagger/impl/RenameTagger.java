@@ -29,7 +29,9 @@ import com.norconex.commons.lang.map.PropertySetter;
 import com.norconex.commons.lang.text.TextMatcher;
 import com.norconex.commons.lang.text.TextMatcher.Method;
 import com.norconex.commons.lang.xml.XML;
+import com.norconex.importer.handler.ContentAccess;
 import com.norconex.importer.handler.HandlerDoc;
+import com.norconex.importer.handler.IContentAccessAware;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.tagger.AbstractDocumentTagger;
 import com.norconex.importer.parser.ParseState;
@@ -82,10 +84,16 @@ import com.norconex.importer.parser.ParseState;
  * @author Pascal Essiembre
  */
 @SuppressWarnings("javadoc")
-public class RenameTagger extends AbstractDocumentTagger {
+public class RenameTagger extends AbstractDocumentTagger
+        implements IContentAccessAware {
 
     private final List<RenameDetails> renames = new ArrayList<>();
 
+    @Override
+    public ContentAccess getContentAccess() {
+        return ContentAccess.NONE;
+    }
+
     @Override
     public void tagApplicableDocument(
             HandlerDoc doc, InputStream document, ParseState parseState)
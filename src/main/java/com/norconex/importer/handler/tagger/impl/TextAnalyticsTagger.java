@@ -0,0 +1,297 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.handler.tagger.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.commons.io.input.NullInputStream;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import com.norconex.commons.lang.io.TextReader;
+import com.norconex.commons.lang.map.PropertySetter;
+import com.norconex.commons.lang.text.TextMatcher;
+import com.norconex.commons.lang.xml.XML;
+import com.norconex.importer.handler.HandlerDoc;
+import com.norconex.importer.handler.ImporterHandlerException;
+import com.norconex.importer.handler.tagger.AbstractDocumentTagger;
+import com.norconex.importer.parser.ParseState;
+import com.norconex.importer.util.CharsetUtil;
+import com.norconex.importer.util.TextAnalyzer;
+
+/**
+ * <p>
+ * Combines what {@link TextStatisticsTagger}, {@link CountMatchesTagger},
+ * and {@link DocumentLengthTagger} do on document content, reading
+ * the content only once. Use this tagger instead of the others when
+ * you need more than one of them on the same documents.
+ * </p>
+ * <p>
+ * Statistic fields are the same as the ones created by
+ * {@link TextStatisticsTagger} (e.g. <code>document.stat.wordCount</code>)
+ * and are created unless "statistics" is <code>false</code>.
+ * The document length (number of bytes) is stored in "lengthField",
+ * when specified. Each "countMatcher" stores its number of matches
+ * in its own "toField".
+ * </p>
+ *
+ * <h3>Storing values in an existing field</h3>
+ * <p>
+ * If a target field with the same name already exists for a document,
+ * the length and count values will be added to the end of the existing
+ * value list. It is possible to change this default behavior
+ * with {@link #setOnSet(PropertySetter)}.
+ * </p>
+ *
+ * <p>Can be used both as a pre-parse (text-only) or post-parse handler.</p>
+ *
+ * {@nx.xml.usage
+ * <handler class="com.norconex.importer.handler.tagger.impl.TextAnalyticsTagger"
+ *     statistics="[false|true]"
+ *     lengthField="(optional field where to store document length)"
+ *     maxReadSize="(max characters to read at once)"
+ *     sourceCharset="(character encoding)"
+ *     {@nx.include com.norconex.commons.lang.map.PropertySetter#attributes}>
+ *
+ *   {@nx.include com.norconex.importer.handler.AbstractImporterHandler#restrictTo}
+ *
+ *   <!-- multiple countMatcher tags allowed -->
+ *   <countMatcher toField="(target field)"
+ *       {@nx.include com.norconex.commons.lang.text.TextMatcher#matchAttributes}>
+ *     (expression used to count matches)
+ *   </countMatcher>
+ *
+ * </handler>
+ * }
+ *
+ * {@nx.xml.example
+ * <handler class="TextAnalyticsTagger" lengthField="docSize">
+ *   <countMatcher toField="questionCount">?</countMatcher>
+ * </handler>
+ * }
+ * <p>
+ * The above creates text statistics fields, stores the document
+ * length in "docSize", and the number of question marks in "questionCount".
+ * </p>
+ *
+ * @author Pascal Essiembre
+ * @since 3.1.0
+ */
+@SuppressWarnings("javadoc")
+public class TextAnalyticsTagger extends AbstractDocumentTagger {
+
+    private boolean statistics = true;
+    private String lengthField;
+    private final Map<String, TextMatcher> countMatchers =
+            new LinkedHashMap<>();
+    private PropertySetter onSet;
+    private int maxReadSize = TextReader.DEFAULT_MAX_READ_SIZE;
+    private String sourceCharset;
+
+    @Override
+    protected void tagApplicableDocument(
+            HandlerDoc doc, InputStream input, ParseState parseState)
+                    throws ImporterHandlerException {
+        TextAnalyzer analyzer = new TextAnalyzer()
+                .setStatistics(statistics)
+                .setMaxReadSize(maxReadSize);
+        for (Entry<String, TextMatcher> en : countMatchers.entrySet()) {
+            analyzer.addMatchCounter(en.getKey(), en.getValue());
+        }
+
+        String inputCharset = CharsetUtil.firstNonBlankOrUTF8(
+                parseState,
+                sourceCharset,
+                doc.getDocInfo().getContentEncoding());
+        TextAnalyzer.Result result;
+        try {
+            result = analyzer.analyze(
+                    input == null ? new NullInputStream(0) : input,
+                    inputCharset);
+        } catch (IOException e) {
+            throw new ImporterHandlerException(
+                    "Cannot analyze text document.", e);
+        }
+
+        if (statistics) {
+            result.addStatisticsTo(doc.getMetadata(), null);
+        }
+        if (StringUtils.isNotBlank(lengthField)) {
+            PropertySetter.orAppend(onSet).apply(
+                    doc.getMetadata(), lengthField, result.getByteCount());
+        }
+        for (Entry<String, Long> en : result.getMatchCounts().entrySet()) {
+            PropertySetter.orAppend(onSet).apply(
+                    doc.getMetadata(), en.getKey(), en.getValue());
+        }
+    }
+
+    /**
+     * Gets whether to create text statistics fields.
+     * Default is <code>true</code>.
+     * @return <code>true</code> if creating statistics fields
+     */
+    public boolean isStatistics() {
+        return statistics;
+    }
+    /**
+     * Sets whether to create text statistics fields.
+     * @param statistics <code>true</code> if creating statistics fields
+     */
+    public void setStatistics(boolean statistics) {
+        this.statistics = statistics;
+    }
+
+    /**
+     * Gets the field where to store the document length.
+     * @return length field
+     */
+    public String getLengthField() {
+        return lengthField;
+    }
+    /**
+     * Sets the field where to store the document length. The length
+     * is not stored when <code>null</code>.
+     * @param lengthField length field
+     */
+    public void setLengthField(String lengthField) {
+        this.lengthField = lengthField;
+    }
+
+    /**
+     * Gets the count matchers, keyed by target fields.
+     * @return count matchers (never <code>null</code>)
+     */
+    public Map<String, TextMatcher> getCountMatchers() {
+        return Collections.unmodifiableMap(countMatchers);
+    }
+    /**
+     * Sets a matcher used to count matches and store the count in
+     * the given target field. Replaces any count matcher already set
+     * for that field.
+     * @param toField target field
+     * @param countMatcher count matcher
+     */
+    public void setCountMatcher(String toField, TextMatcher countMatcher) {
+        if (StringUtils.isBlank(toField)) {
+            throw new IllegalArgumentException("'toField' cannot be blank.");
+        }
+        countMatchers.put(toField, countMatcher);
+    }
+    /**
+     * Removes the count matcher for the given target field.
+     * @param toField target field
+     */
+    public void removeCountMatcher(String toField) {
+        countMatchers.remove(toField);
+    }
+
+    /**
+     * Gets the property setter to use when a value is set.
+     * @return property setter
+     */
+    public PropertySetter getOnSet() {
+        return onSet;
+    }
+    /**
+     * Sets the property setter to use when a value is set.
+     * @param onSet property setter
+     */
+    public void setOnSet(PropertySetter onSet) {
+        this.onSet = onSet;
+    }
+
+    /**
+     * Gets the maximum number of characters to read from content for
+     * analysis at once. Default is {@link TextReader#DEFAULT_MAX_READ_SIZE}.
+     * @return maximum read size
+     */
+    public int getMaxReadSize() {
+        return maxReadSize;
+    }
+    /**
+     * Sets the maximum number of characters to read from content for
+     * analysis at once.
+     * @param maxReadSize maximum read size
+     */
+    public void setMaxReadSize(int maxReadSize) {
+        this.maxReadSize = maxReadSize;
+    }
+
+    /**
+     * Gets the assumed source character encoding.
+     * @return character encoding of the source to be analyzed
+     */
+    public String getSourceCharset() {
+        return sourceCharset;
+    }
+    /**
+     * Sets the assumed source character encoding.
+     * @param sourceCharset character encoding of the source to be analyzed
+     */
+    public void setSourceCharset(String sourceCharset) {
+        this.sourceCharset = sourceCharset;
+    }
+
+    @Override
+    protected void loadHandlerFromXML(XML xml) {
+        setStatistics(xml.getBoolean("@statistics", statistics));
+        setLengthField(xml.getString("@lengthField", lengthField));
+        setOnSet(PropertySetter.fromXML(xml, onSet));
+        setMaxReadSize(xml.getInteger("@maxReadSize", maxReadSize));
+        setSourceCharset(xml.getString("@sourceCharset", sourceCharset));
+        for (XML node : xml.getXMLList("countMatcher")) {
+            TextMatcher tm = new TextMatcher();
+            tm.loadFromXML(node);
+            setCountMatcher(node.getString("@toField", null), tm);
+        }
+    }
+
+    @Override
+    protected void saveHandlerToXML(XML xml) {
+        xml.setAttribute("statistics", statistics);
+        xml.setAttribute("lengthField", lengthField);
+        PropertySetter.toXML(xml, getOnSet());
+        xml.setAttribute("maxReadSize", maxReadSize);
+        xml.setAttribute("sourceCharset", sourceCharset);
+        for (Entry<String, TextMatcher> en : countMatchers.entrySet()) {
+            XML node = xml.addElement("countMatcher");
+            en.getValue().saveToXML(node);
+            node.setAttribute("toField", en.getKey());
+        }
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        return EqualsBuilder.reflectionEquals(this, other);
+    }
+    @Override
+    public int hashCode() {
+        return HashCodeBuilder.reflectionHashCode(this);
+    }
+    @Override
+    public String toString() {
+        return new ReflectionToStringBuilder(
+                this, ToStringStyle.SHORT_PREFIX_STYLE).toString();
+    }
+}
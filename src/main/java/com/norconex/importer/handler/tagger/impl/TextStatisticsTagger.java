@@ -14,17 +14,12 @@
  */
 package com.norconex.importer.handler.tagger.impl;
 
+import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
-import java.math.BigDecimal;
-import java.text.BreakIterator;
 import java.util.List;
 import java.util.Map.Entry;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
-import org.apache.commons.io.IOUtils;
-import org.apache.commons.io.LineIterator;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
@@ -39,6 +34,8 @@ import com.norconex.importer.handler.HandlerDoc;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.tagger.AbstractCharStreamTagger;
 import com.norconex.importer.parser.ParseState;
+import com.norconex.importer.util.FieldMatchCache;
+import com.norconex.importer.util.TextAnalyzer;
 
 /**
  * <p>Analyzes the content of the supplied document and adds statistical
@@ -134,10 +131,11 @@ import com.norconex.importer.parser.ParseState;
 public class TextStatisticsTagger extends AbstractCharStreamTagger
         implements IXMLConfigurable {
 
-    private static final Pattern PATTERN_WORD = Pattern.compile(
-            "\\w+\\-{0,1}\\w*", Pattern.UNICODE_CHARACTER_CLASS);
+    private static final TextAnalyzer ANALYZER = new TextAnalyzer();
 
     private final TextMatcher fieldMatcher = new TextMatcher();
+    private final transient FieldMatchCache fieldMatchCache =
+            new FieldMatchCache();
 
     @Override
     protected void tagTextDocument(
@@ -147,82 +145,22 @@ public class TextStatisticsTagger extends AbstractCharStreamTagger
             analyze(input, doc.getMetadata(), null);
         } else {
             for (Entry<String, List<String>> en :
-                    doc.getMetadata().matchKeys(fieldMatcher).entrySet()) {
+                    fieldMatchCache.matchKeys(
+                            fieldMatcher, doc.getMetadata()).entrySet()) {
                 analyze(new StringReader(StringUtils.join(
                        en.getValue(), "\n\n")), doc.getMetadata(), en.getKey());
             }
         }
     }
 
-    protected void analyze(Reader input, Properties metadata, String field) {
-        long charCount = 0;
-        long wordCharCount = 0;
-        long wordCount = 0;
-        long sentenceCount = 0;
-        long sentenceCharCount = 0;
-        long paragraphCount = 0;
-
-        //TODO make this more efficient, by doing all this in one pass.
-        LineIterator it = IOUtils.lineIterator(input);
-        while (it.hasNext()) {
-            String line = it.nextLine().trim();
-            if (StringUtils.isBlank(line)) {
-                continue;
-            }
-
-            // Paragraph
-            paragraphCount++;
-
-            // Character
-            charCount += line.length();
-
-            // Word
-            Matcher matcher = PATTERN_WORD.matcher(line);
-            while (matcher.find()) {
-                int wordLength = matcher.end() - matcher.start();
-                wordCount++;
-                wordCharCount += wordLength;
-            }
-
-            // Sentence
-            BreakIterator boundary = BreakIterator.getSentenceInstance();
-            boundary.setText(line);
-            int start = boundary.first();
-            for (int end = boundary.next(); end != BreakIterator.DONE;
-                    start = end, end = boundary.next()) {
-                sentenceCharCount += (end - start);
-                sentenceCount++;
-            }
-        }
-
-        //--- Add fields ---
-        String prefix = "document.stat.";
-        if (StringUtils.isNotBlank(field)) {
-            prefix += field.trim() + ".";
+    protected void analyze(Reader input, Properties metadata, String field)
+            throws ImporterHandlerException {
+        try {
+            ANALYZER.analyze(input).addStatisticsTo(metadata, field);
+        } catch (IOException e) {
+            throw new ImporterHandlerException(
+                    "Cannot compute text statistics.", e);
         }
-        metadata.add(prefix + "characterCount", charCount);
-        metadata.add(prefix + "wordCount", wordCount);
-        metadata.add(prefix + "sentenceCount", sentenceCount);
-        metadata.add(prefix + "paragraphCount", paragraphCount);
-        metadata.add(prefix + "averageWordCharacterCount",
-                divide(wordCharCount, wordCount));
-        metadata.add(prefix + "averageSentenceCharacterCount",
-                divide(sentenceCharCount, sentenceCount));
-        metadata.add(prefix + "averageSentenceWordCount",
-                divide(wordCount, sentenceCount));
-        metadata.add(prefix + "averageParagraphCharacterCount",
-                divide(charCount, paragraphCount));
-        metadata.add(prefix + "averageParagraphSentenceCount",
-                divide(sentenceCount, paragraphCount));
-        metadata.add(prefix + "averageParagraphWordCount",
-                divide(wordCount, paragraphCount));
-
-    }
-
-    private String divide(long value, long divisor) {
-        return BigDecimal.valueOf(value).divide(
-                BigDecimal.valueOf(divisor), 1,
-                        BigDecimal.ROUND_HALF_UP).toString();
     }
 
     /**
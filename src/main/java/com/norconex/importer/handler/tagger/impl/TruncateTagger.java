@@ -32,7 +32,9 @@ import com.norconex.commons.lang.map.PropertySetter;
 import com.norconex.commons.lang.text.StringUtil;
 import com.norconex.commons.lang.text.TextMatcher;
 import com.norconex.commons.lang.xml.XML;
+import com.norconex.importer.handler.ContentAccess;
 import com.norconex.importer.handler.HandlerDoc;
+import com.norconex.importer.handler.IContentAccessAware;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.tagger.AbstractDocumentTagger;
 import com.norconex.importer.parser.ParseState;
@@ -99,7 +101,8 @@ import com.norconex.importer.parser.ParseState;
  * @since 2.8.0
  */
 @SuppressWarnings("javadoc")
-public class TruncateTagger extends AbstractDocumentTagger {
+public class TruncateTagger extends AbstractDocumentTagger
+        implements IContentAccessAware {
 
     private static final Logger LOG =
             LoggerFactory.getLogger(TruncateTagger.class);
@@ -234,6 +237,11 @@ public class TruncateTagger extends AbstractDocumentTagger {
         this.fieldMatcher.setPattern(fromField);
     }
 
+    @Override
+    public ContentAccess getContentAccess() {
+        return ContentAccess.NONE;
+    }
+
     @Override
     public void tagApplicableDocument(
             HandlerDoc doc, InputStream document, ParseState parseState)
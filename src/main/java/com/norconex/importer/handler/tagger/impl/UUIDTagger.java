@@ -15,6 +15,8 @@
 package com.norconex.importer.handler.tagger.impl;
 
 import java.io.InputStream;
+import java.util.Collections;
+import java.util.Set;
 import java.util.UUID;
 
 import org.apache.commons.lang3.StringUtils;
@@ -25,7 +27,10 @@ import org.apache.commons.lang3.builder.ToStringStyle;
 
 import com.norconex.commons.lang.map.PropertySetter;
 import com.norconex.commons.lang.xml.XML;
+import com.norconex.importer.handler.ContentAccess;
 import com.norconex.importer.handler.HandlerDoc;
+import com.norconex.importer.handler.IContentAccessAware;
+import com.norconex.importer.handler.IFieldAccessAware;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.tagger.AbstractDocumentTagger;
 import com.norconex.importer.parser.ParseState;
@@ -69,7 +74,8 @@ import com.norconex.importer.parser.ParseState;
  * @since 2.7.0
  */
 @SuppressWarnings("javadoc")
-public class UUIDTagger extends AbstractDocumentTagger {
+public class UUIDTagger extends AbstractDocumentTagger
+        implements IContentAccessAware, IFieldAccessAware {
 
     public static final String DEFAULT_FIELD = "document.uuid";
 
@@ -83,6 +89,23 @@ public class UUIDTagger extends AbstractDocumentTagger {
         super();
     }
 
+    @Override
+    public ContentAccess getContentAccess() {
+        return ContentAccess.NONE;
+    }
+
+    @Override
+    public boolean isReadingField(String field) {
+        return isRestrictedOn(field)
+                || getWrittenFields().contains(field);
+    }
+
+    @Override
+    public Set<String> getWrittenFields() {
+        return Collections.singleton(
+                StringUtils.defaultIfBlank(toField, DEFAULT_FIELD));
+    }
+
     @Override
     public void tagApplicableDocument(
             HandlerDoc doc, InputStream document, ParseState parseState)
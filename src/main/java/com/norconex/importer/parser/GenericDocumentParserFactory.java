@@ -188,18 +188,23 @@ public class GenericDocumentParserFactory
 
     private boolean parsersAreUpToDate = false;
 
+    private static boolean tikaInitWarningFixed;
+
     /**
      * Creates a new document parser factory of the given format.
+     * Tika parsers are only loaded when first used.
      */
     public GenericDocumentParserFactory() {
         super();
-        fixTikaInitWarning();
-
-        //have all parsers lazy loaded instead?
         initDefaultParsers();
     }
 
-    private void fixTikaInitWarning() {
+    // Done once per JVM, before the first document is parsed
+    private static synchronized void fixTikaInitWarning() {
+        if (tikaInitWarningFixed) {
+            return;
+        }
+        tikaInitWarningFixed = true;
 
         // A check for Tesseract OCR parser is done the first time a Tika
         // parser is used.  We remove this check since we manage Tesseract OCR
@@ -298,6 +303,7 @@ public class GenericDocumentParserFactory
 
     private synchronized void ensureParseHintsState() {
         if (!parsersAreUpToDate) {
+            fixTikaInitWarning();
             for (Entry<ContentType, IDocumentParser> entry :
                 parsers.entrySet()) {
                 IDocumentParser parser = entry.getValue();
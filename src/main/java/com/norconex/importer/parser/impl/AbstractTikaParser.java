@@ -23,9 +23,11 @@ import java.io.Writer;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.function.Supplier;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
@@ -57,6 +59,7 @@ import com.norconex.commons.lang.io.CachedStreamFactory;
 import com.norconex.commons.lang.map.Properties;
 import com.norconex.importer.doc.Doc;
 import com.norconex.importer.doc.DocInfo;
+import com.norconex.importer.doc.FieldNames;
 import com.norconex.importer.parser.DocumentParserException;
 import com.norconex.importer.parser.IHintsAwareParser;
 import com.norconex.importer.parser.OCRConfig;
@@ -72,10 +75,12 @@ public class AbstractTikaParser implements IHintsAwareParser {
     private static final Logger LOG =
             LoggerFactory.getLogger(AbstractTikaParser.class);
 
-    private final Parser parser;
+    private final Class<? extends Parser> parserType;
+    private Supplier<? extends Parser> parserSupplier;
+    private volatile Parser parser;
     private TesseractOCRConfig ocrTesseractConfig;
     private ParseHints parseHints;
-    private final ThreadSafeCacheableAutoDetectWrapper knownDetector;
+    private volatile ThreadSafeCacheableAutoDetectWrapper knownDetector;
 
     /**
      * Creates a new Tika-based parser.
@@ -83,15 +88,52 @@ public class AbstractTikaParser implements IHintsAwareParser {
      */
     public AbstractTikaParser(Parser parser) {
         super();
-        this.parser = parser;
-        if (parser instanceof AutoDetectParser) {
-            AutoDetectParser p = (AutoDetectParser) parser;
-            knownDetector =
-                    new ThreadSafeCacheableAutoDetectWrapper(p.getDetector());
-            p.setDetector(knownDetector);
-        } else {
-            knownDetector = null;
+        this.parserType = parser != null ? parser.getClass() : null;
+        setParser(parser);
+    }
+    /**
+     * Creates a new Tika-based parser, only creating the Tika parser
+     * when the first document is parsed. Useful for Tika parsers that
+     * are expensive to create, so applications not parsing documents of
+     * that kind (or not parsing documents at all) do not pay for it.
+     * @param parserType type of the Tika parser (not <code>null</code>)
+     * @param parserSupplier creates the Tika parser (not <code>null</code>)
+     * @since 3.1.0
+     */
+    protected AbstractTikaParser(Class<? extends Parser> parserType,
+            Supplier<? extends Parser> parserSupplier) {
+        super();
+        this.parserType = Validate.notNull(
+                parserType, "'parserType' must not be null.");
+        this.parserSupplier = Validate.notNull(
+                parserSupplier, "'parserSupplier' must not be null.");
+    }
+
+    // Creates the Tika parser if not already created.
+    private Parser tikaParser() {
+        Parser p = parser;
+        if (p == null && parserSupplier != null) {
+            synchronized (this) {
+                p = parser;
+                if (p == null) {
+                    p = parserSupplier.get();
+                    setParser(p);
+                    parserSupplier = null;
+                }
+            }
         }
+        return p;
+    }
+    private void setParser(Parser p) {
+        if (p instanceof AutoDetectParser) {
+            AutoDetectParser adp = (AutoDetectParser) p;
+            ThreadSafeCacheableAutoDetectWrapper detector =
+                    new ThreadSafeCacheableAutoDetectWrapper(adp.getDetector());
+            adp.setDetector(detector);
+            knownDetector = detector;
+        }
+        // Published last, for the detector to be visible when the parser is
+        parser = p;
     }
 
     @Override
@@ -130,6 +172,7 @@ public class AbstractTikaParser implements IHintsAwareParser {
 
         RecursiveParser recursiveParser = null;
         try {
+            tikaParser();
             if (knownDetector != null) {
                 knownDetector.initCache(doc.getReference(), contentType);
             }
@@ -185,6 +228,8 @@ public class AbstractTikaParser implements IHintsAwareParser {
             if (TikaMetadataKeys.RESOURCE_NAME_KEY.equals(name)) {
                 continue;
             }
+            // Share field name instances between documents
+            name = FieldNames.intern(name);
             List<String> nxValues = metadata.getStrings(name);
             String[] tikaValues = tikaMeta.getValues(name);
             for (String tikaValue : tikaValues) {
@@ -220,9 +265,9 @@ public class AbstractTikaParser implements IHintsAwareParser {
         if (StringUtils.isNotBlank(splitRegex)
                 && contentType.matches(splitRegex)) {
             return new SplitEmbbededParser(
-                    reference, this.parser, metadata, streamFactory);
+                    reference, tikaParser(), metadata, streamFactory);
         }
-        return new MergeEmbeddedParser(this.parser, writer, metadata);
+        return new MergeEmbeddedParser(tikaParser(), writer, metadata);
     }
 
     private TesseractOCRConfig toTesseractConfig(OCRConfig ocrConfig) {
@@ -253,28 +298,16 @@ public class AbstractTikaParser implements IHintsAwareParser {
             return false;
         }
         AbstractTikaParser castOther = (AbstractTikaParser) other;
-        Class<?> thisParserClass = null;
-        Class<?> otherParserClass = null;
-        if (parser != null) {
-            thisParserClass = parser.getClass();
-        }
-        if (castOther.parser != null) {
-            otherParserClass = castOther.parser.getClass();
-        }
         return new EqualsBuilder()
-                .append(thisParserClass, otherParserClass)
+                .append(parserType, castOther.parserType)
                 .append(parseHints, castOther.parseHints)
                 .isEquals();
     }
 
     @Override
     public int hashCode() {
-        Class<?> thisParserClass = null;
-        if (parser != null) {
-            thisParserClass = parser.getClass();
-        }
         return new HashCodeBuilder()
-                .append(thisParserClass)
+                .append(parserType)
                 .append(parseHints)
                 .toHashCode();
     }
@@ -282,8 +315,8 @@ public class AbstractTikaParser implements IHintsAwareParser {
     @Override
     public String toString() {
         String thisParserClass = null;
-        if (parser != null) {
-            thisParserClass = parser.getClass().getSimpleName();
+        if (parserType != null) {
+            thisParserClass = parserType.getSimpleName();
         }
         return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
                 .append("tika", thisParserClass)
@@ -27,24 +27,36 @@ import com.norconex.importer.ImporterRuntimeException;
 /**
  * Parser using auto-detection of document content-type to figure out
  * which specific parser to invoke to best parse a document.
+ * <p>
+ * As of 3.1.0, the Tika parser registry is only loaded when the first
+ * document is parsed, and is shared by all fallback parsers.
+ * Creating an importer is no longer slowed down by it.
+ * </p>
  * @author Pascal Essiembre
  */
 public class FallbackParser extends AbstractTikaParser {
 
+    private static TikaConfig tikaConfig;
+
     /**
      * Creates a new parser.
      */
     public FallbackParser() {
-        super(new AutoDetectParser(tikaConfig()));
+        super(AutoDetectParser.class,
+                () -> new AutoDetectParser(tikaConfig()));
     }
 
-    private static TikaConfig tikaConfig() {
-        try {
-            return new TikaConfig(
-                    FallbackParser.class.getResource("/tika-config.xml"));
-        } catch (TikaException | IOException | SAXException e) {
-            throw new ImporterRuntimeException(
-                    "Could not load tika configuration file.", e);
+    // Loading all Tika parsers is expensive so it is done once, when needed
+    private static synchronized TikaConfig tikaConfig() {
+        if (tikaConfig == null) {
+            try {
+                tikaConfig = new TikaConfig(FallbackParser.class.getResource(
+                        "/tika-config.xml"));
+            } catch (TikaException | IOException | SAXException e) {
+                throw new ImporterRuntimeException(
+                        "Could not load tika configuration file.", e);
+            }
         }
+        return tikaConfig;
     }
 }
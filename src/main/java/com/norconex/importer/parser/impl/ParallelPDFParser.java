@@ -0,0 +1,609 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.parser.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDDocumentCatalog;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.documentinterchange.logicalstructure.PDStructureTreeRoot;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDOutlineItem;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDOutlineNode;
+import org.apache.pdfbox.pdmodel.interactive.form.PDAcroForm;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.pdfbox.util.Matrix;
+import org.apache.pdfbox.util.Vector;
+import org.apache.tika.exception.TikaException;
+import org.apache.tika.io.TikaInputStream;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.PDF;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.Parser;
+import org.apache.tika.parser.ParserDecorator;
+import org.apache.tika.parser.ocr.TesseractOCRConfig;
+import org.apache.tika.parser.pdf.PDFParser;
+import org.apache.tika.parser.pdf.PDFParserConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+
+import com.norconex.commons.lang.io.CachedInputStream;
+import com.norconex.commons.lang.io.CachedStreamFactory;
+import com.norconex.commons.lang.map.Properties;
+import com.norconex.commons.lang.xml.IXMLConfigurable;
+import com.norconex.commons.lang.xml.XML;
+import com.norconex.importer.doc.Doc;
+
+/**
+ * <p>
+ * PDF parser extracting the text of large documents on multiple threads.
+ * The PDF is copied to a temporary file once and its pages are divided
+ * into as many ranges as there are threads. The parsing thread extracts
+ * the text of the first range while worker threads each load their own
+ * copy of the document from that file and extract the text of the
+ * other ranges. Extracted text is written to the output in page order.
+ * </p>
+ * <p>
+ * Worker threads are shared by all documents parsed by the same parser
+ * instance, up to the configured maximum number of threads (the parsing
+ * thread included). When none are available, the parsing thread
+ * extracts the remaining ranges itself.
+ * </p>
+ * <p>
+ * Document metadata is extracted by the same Tika PDF parser used for
+ * documents parsed on a single thread, while the text is being extracted,
+ * and is identical to it. The text is however extracted with PDFBox
+ * directly rather than by Tika. It holds the text of each page followed
+ * by bookmarks (when enabled), but spacing and line breaks
+ * may differ from Tika's.
+ * </p>
+ * <p>
+ * Documents with fewer pages than the configured minimum are parsed on
+ * a single thread, as well as documents holding text only Tika
+ * extracts: encrypted documents, documents having embedded files,
+ * form fields or annotations (unless annotation text extraction is
+ * disabled), inline images or marked content to extract, documents for
+ * which OCR is enabled, or when embedded documents are split.
+ * Documents too small to have the minimum number of pages are
+ * not copied nor loaded before being parsed on a single thread.
+ * </p>
+ * <p>
+ * To use, register it for PDFs in your document parser factory
+ * configuration.
+ * </p>
+ *
+ * {@nx.xml.usage
+ * <parser contentType="application/pdf"
+ *     class="com.norconex.importer.parser.impl.ParallelPDFParser">
+ *   <maxThreads>
+ *     (Maximum number of threads extracting text from one document.
+ *      Default is the number of available processors.)
+ *   </maxThreads>
+ *   <minPages>
+ *     (Minimum number of pages a document must have for its text to be
+ *      extracted on multiple threads. Default is 100.)
+ *   </minPages>
+ * </parser>
+ * }
+ *
+ * {@nx.xml.example
+ * <parser contentType="application/pdf"
+ *     class="com.norconex.importer.parser.impl.ParallelPDFParser">
+ *   <maxThreads>4</maxThreads>
+ * </parser>
+ * }
+ * <p>
+ * The above example extracts text from PDFs of 100 pages or more using
+ * up to 4 threads.
+ * </p>
+ *
+ * @author Pascal Essiembre
+ * @since 3.1.0
+ */
+@SuppressWarnings("javadoc")
+public class ParallelPDFParser
+        extends AbstractTikaParser implements IXMLConfigurable {
+
+    private static final Logger LOG =
+            LoggerFactory.getLogger(ParallelPDFParser.class);
+
+    public static final int DEFAULT_MIN_PAGES = 100;
+
+    // Page statistics Tika adds while extracting text
+    private static final String CHARS_PER_PAGE = "pdf:charsPerPage";
+    private static final String UNMAPPED_CHARS_PER_PAGE =
+            "pdf:unmappedUnicodeCharsPerPage";
+    // Document statistics Tika adds once text is extracted
+    private static final String TOTAL_UNMAPPED_CHARS =
+            "pdf:totalUnmappedUnicodeChars";
+    private static final String PERCENTAGE_UNMAPPED_CHARS =
+            "pdf:overallPercentageUnmappedUnicodeChars";
+
+    // Smallest size a page can take in a PDF, to skip documents too small
+    // to have enough pages without copying or loading them.
+    private static final int MIN_PAGE_BYTES = 64;
+
+    private static final ExecutorService EXECUTOR =
+            Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "pdf-text");
+                t.setDaemon(true);
+                return t;
+            });
+
+    private int maxThreads = Runtime.getRuntime().availableProcessors();
+    private int minPages = DEFAULT_MIN_PAGES;
+    // Worker threads available, the parsing thread being one of them
+    private Semaphore workers = new Semaphore(Math.max(0, maxThreads - 1));
+
+    public ParallelPDFParser() {
+        super(PDFParser.class, PDFParser::new);
+    }
+
+    /**
+     * Gets the maximum number of threads extracting text from
+     * one document.
+     * @return maximum number of threads
+     */
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+    /**
+     * Sets the maximum number of threads extracting text from
+     * one document. Default is the number of available processors.
+     * @param maxThreads maximum number of threads
+     */
+    public void setMaxThreads(int maxThreads) {
+        this.maxThreads = maxThreads;
+        this.workers = new Semaphore(Math.max(0, maxThreads - 1));
+    }
+
+    /**
+     * Gets the minimum number of pages a document must have for its text
+     * to be extracted on multiple threads.
+     * @return minimum number of pages
+     */
+    public int getMinPages() {
+        return minPages;
+    }
+    /**
+     * Sets the minimum number of pages a document must have for its text
+     * to be extracted on multiple threads.
+     * Default is {@value #DEFAULT_MIN_PAGES}.
+     * @param minPages minimum number of pages
+     */
+    public void setMinPages(int minPages) {
+        this.minPages = minPages;
+    }
+
+    @Override
+    protected RecursiveParser createRecursiveParser(
+            String reference, String contentType, Writer writer,
+            Properties metadata, CachedStreamFactory streamFactory) {
+        RecursiveParser parser = super.createRecursiveParser(
+                reference, contentType, writer, metadata, streamFactory);
+        if (maxThreads > 1 && parser instanceof MergeEmbeddedParser) {
+            return new PageParallelParser(
+                    (MergeEmbeddedParser) parser, writer, metadata);
+        }
+        return parser;
+    }
+
+    @Override
+    public void loadFromXML(XML xml) {
+        setMaxThreads(xml.getInteger("maxThreads", maxThreads));
+        setMinPages(xml.getInteger("minPages", minPages));
+    }
+    @Override
+    public void saveToXML(XML xml) {
+        xml.addElement("maxThreads", maxThreads);
+        xml.addElement("minPages", minPages);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (!(other instanceof ParallelPDFParser)) {
+            return false;
+        }
+        ParallelPDFParser castOther = (ParallelPDFParser) other;
+        return new EqualsBuilder()
+                .appendSuper(super.equals(other))
+                .append(maxThreads, castOther.maxThreads)
+                .append(minPages, castOther.minPages)
+                .isEquals();
+    }
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder()
+                .appendSuper(super.hashCode())
+                .append(maxThreads)
+                .append(minPages)
+                .toHashCode();
+    }
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+                .appendSuper(super.toString())
+                .append("maxThreads", maxThreads)
+                .append("minPages", minPages)
+                .toString();
+    }
+
+    // Extracts the main document in parallel when possible, else (and for
+    // embedded documents) parses the same as on a single thread.
+    private class PageParallelParser
+            extends ParserDecorator implements RecursiveParser {
+        private static final long serialVersionUID = 1L;
+        private final Writer writer;
+        private final Properties metadata;
+        private boolean isMasterDoc = true;
+        public PageParallelParser(MergeEmbeddedParser parser,
+                Writer writer, Properties metadata) {
+            super(parser);
+            this.writer = writer;
+            this.metadata = metadata;
+        }
+        @Override
+        public void parse(InputStream stream, ContentHandler handler,
+                Metadata tikaMeta, ParseContext context)
+                throws IOException, SAXException, TikaException {
+            if (isMasterDoc) {
+                isMasterDoc = false;
+                if (stream instanceof CachedInputStream
+                        && context.get(TesseractOCRConfig.class) == null
+                        && parseInParallel((CachedInputStream) stream,
+                                tikaMeta, context)) {
+                    return;
+                }
+            }
+            super.parse(stream, handler, tikaMeta, context);
+        }
+        @Override
+        public List<Doc> getEmbeddedDocuments() {
+            return ((RecursiveParser) getWrappedParser())
+                    .getEmbeddedDocuments();
+        }
+
+        private boolean parseInParallel(CachedInputStream content,
+                Metadata tikaMeta, ParseContext context)
+                throws IOException, SAXException, TikaException {
+            if (content.length() < (long) Math.max(2, minPages)
+                    * MIN_PAGE_BYTES) {
+                return false;
+            }
+            PDFParserConfig config = context.get(
+                    PDFParserConfig.class, new PDFParserConfig());
+            Path cacheDir = content.getCacheDirectory();
+            Path file = cacheDir != null
+                    ? Files.createTempFile(cacheDir, "pdf-", ".pdf")
+                    : Files.createTempFile("pdf-", ".pdf");
+            try {
+                Files.copy(content, file, StandardCopyOption.REPLACE_EXISTING);
+                content.rewind();
+
+                // Make sure it is worth it and text is the same as when
+                // extracted on a single thread. The document is then
+                // reused to extract the first page range.
+                try (PDDocument document = load(file)) {
+                    int pages = document.getNumberOfPages();
+                    boolean markedContent = hasMarkedContent(document);
+                    if (pages < Math.max(2, minPages)
+                            || !isTextSameInParallel(
+                                    document, markedContent, config)) {
+                        return false;
+                    }
+                    int threads = extractText(file, document, pages,
+                            tikaMeta, context, markedContent, config);
+                    if (config.getExtractBookmarksText()) {
+                        writer.write(getOutlineText(document));
+                    }
+                    LOG.debug("Extracted text from {} PDF pages on {} "
+                            + "threads.", pages, threads);
+                }
+                addTikaMetadataToImporterMetadata(tikaMeta, metadata);
+                return true;
+            } finally {
+                deleteFile(file);
+            }
+        }
+
+        // Returns the number of threads used
+        private int extractText(Path file, PDDocument document, int pages,
+                Metadata tikaMeta, ParseContext context,
+                boolean markedContent, PDFParserConfig config)
+                        throws IOException, SAXException, TikaException {
+            List<Future<PageRange>> ranges = new ArrayList<>();
+            List<FutureTask<PageRange>> callerRanges = new ArrayList<>();
+            Semaphore available = workers;
+            int threads = 1;
+            try {
+                int slices = Math.min(maxThreads, pages);
+                int pagesPerThread = (pages + slices - 1) / slices;
+                for (int start = 1; start <= pages; start += pagesPerThread) {
+                    int first = start;
+                    int last = Math.min(pages, start + pagesPerThread - 1);
+                    FutureTask<PageRange> range;
+                    if (first == 1 || !available.tryAcquire()) {
+                        range = new FutureTask<>(() -> extractText(
+                                document, first, last, config));
+                        callerRanges.add(range);
+                    } else {
+                        range = new WorkerRange(available, () -> {
+                            try (PDDocument doc = load(file)) {
+                                return extractText(doc, first, last, config);
+                            }
+                        });
+                        EXECUTOR.execute(range);
+                        threads++;
+                    }
+                    ranges.add(range);
+                }
+
+                // Metadata is extracted by Tika while text is extracted
+                parseMetadata(file, tikaMeta, context, markedContent);
+                for (FutureTask<PageRange> range : callerRanges) {
+                    range.run();
+                }
+
+                int chars = 0;
+                int unmappedChars = 0;
+                for (Future<PageRange> range : ranges) {
+                    PageRange r = getPageRange(range);
+                    writer.write(r.text);
+                    for (int i = 0; i < r.chars.length; i++) {
+                        tikaMeta.add(CHARS_PER_PAGE,
+                                Integer.toString(r.chars[i]));
+                        tikaMeta.add(UNMAPPED_CHARS_PER_PAGE,
+                                Integer.toString(r.unmappedChars[i]));
+                        chars += r.chars[i];
+                        unmappedChars += r.unmappedChars[i];
+                    }
+                }
+                tikaMeta.set(TOTAL_UNMAPPED_CHARS,
+                        Integer.toString(unmappedChars));
+                if (chars > 0) {
+                    tikaMeta.set(PERCENTAGE_UNMAPPED_CHARS, Float.toString(
+                            (float) unmappedChars / (float) chars));
+                }
+            } finally {
+                for (Future<PageRange> range : ranges) {
+                    range.cancel(true);
+                }
+            }
+            return threads;
+        }
+
+        private void parseMetadata(Path file, Metadata tikaMeta,
+                ParseContext context, boolean markedContent)
+                throws IOException, SAXException, TikaException {
+            Parser tikaParser = ((ParserDecorator)
+                    getWrappedParser()).getWrappedParser();
+            try (TikaInputStream input = TikaInputStream.get(file)) {
+                // Without a content handler, no content is extracted
+                tikaParser.parse(input, null, tikaMeta, context);
+            }
+            // Set by Tika along with content
+            if (tikaMeta.get(PDF.HAS_XFA) == null) {
+                tikaMeta.set(PDF.HAS_XFA, Boolean.toString(false));
+            }
+            if (tikaMeta.get(PDF.HAS_MARKED_CONTENT) == null) {
+                tikaMeta.set(PDF.HAS_MARKED_CONTENT,
+                        Boolean.toString(markedContent));
+            }
+        }
+    }
+
+    private static boolean isTextSameInParallel(PDDocument document,
+            boolean markedContent, PDFParserConfig config) {
+        if (document.isEncrypted()
+                || config.getExtractInlineImages()
+                || (markedContent && config.getExtractMarkedContent())) {
+            return false;
+        }
+        if (config.getExtractAnnotationText() && hasAnnotations(document)) {
+            return false;
+        }
+        PDDocumentCatalog catalog = document.getDocumentCatalog();
+        if (catalog.getNames() != null
+                && catalog.getNames().getEmbeddedFiles() != null) {
+            return false;
+        }
+        PDAcroForm form = catalog.getAcroForm();
+        return form == null
+                || (!form.hasXFA() && form.getFields().isEmpty());
+    }
+
+    private static boolean hasAnnotations(PDDocument document) {
+        for (PDPage page : document.getPages()) {
+            COSBase annots = page.getCOSObject().getDictionaryObject(
+                    COSName.ANNOTS);
+            if (annots instanceof COSArray && ((COSArray) annots).size() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Same check as Tika
+    private static boolean hasMarkedContent(PDDocument document) {
+        PDStructureTreeRoot root =
+                document.getDocumentCatalog().getStructureTreeRoot();
+        if (root == null) {
+            return false;
+        }
+        COSBase base = root.getK();
+        if (base instanceof COSDictionary) {
+            return ((COSDictionary) base).size() > 0;
+        }
+        if (base instanceof COSArray) {
+            return ((COSArray) base).size() > 0;
+        }
+        return false;
+    }
+
+    private static String getOutlineText(PDDocument document) {
+        StringBuilder b = new StringBuilder();
+        appendOutline(b, document.getDocumentCatalog().getDocumentOutline());
+        return b.toString();
+    }
+    private static void appendOutline(StringBuilder b, PDOutlineNode node) {
+        if (node == null) {
+            return;
+        }
+        for (PDOutlineItem item : node.children()) {
+            if (item.getTitle() != null) {
+                b.append(item.getTitle()).append('\n');
+            }
+            appendOutline(b, item);
+        }
+    }
+
+    private static PageRange extractText(PDDocument document,
+            int startPage, int endPage, PDFParserConfig config)
+                    throws IOException {
+        PageRangeStripper stripper =
+                new PageRangeStripper(startPage, endPage);
+        stripper.setSortByPosition(config.getSortByPosition());
+        stripper.setSuppressDuplicateOverlappingText(
+                config.getSuppressDuplicateOverlappingText());
+        stripper.setWordSeparator(config.getEnableAutoSpace() ? " " : "");
+        if (config.getAverageCharTolerance() != null) {
+            stripper.setAverageCharTolerance(
+                    config.getAverageCharTolerance());
+        }
+        if (config.getSpacingTolerance() != null) {
+            stripper.setSpacingTolerance(config.getSpacingTolerance());
+        }
+        // pages are separated like when extracted by Tika
+        stripper.setPageEnd(stripper.getLineSeparator());
+        StringWriter text = new StringWriter();
+        stripper.writeText(document, text);
+        stripper.range.text = text.toString();
+        return stripper.range;
+    }
+
+    // Each thread needs its own document, loaded from the shared file.
+    // Loaded objects are buffered in temporary files next to it, so
+    // parallel copies of a large document do not exhaust memory.
+    private static PDDocument load(Path file) throws IOException {
+        return PDDocument.load(file.toFile(), MemoryUsageSetting
+                .setupTempFileOnly().setTempDir(file.getParent().toFile()));
+    }
+
+    private static PageRange getPageRange(Future<PageRange> range)
+            throws IOException, TikaException {
+        try {
+            return range.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TikaException(
+                    "Interrupted while extracting PDF text.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new TikaException(
+                    "Could not extract PDF text.", e.getCause());
+        }
+    }
+
+    private static void deleteFile(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOG.warn("Could not delete temporary file: {}", file, e);
+        }
+    }
+
+    // Text and statistics of a range of pages
+    private static final class PageRange {
+        private final int[] chars;
+        private final int[] unmappedChars;
+        private String text;
+        private PageRange(int pages) {
+            chars = new int[pages];
+            unmappedChars = new int[pages];
+        }
+    }
+
+    // Gives back its worker once no longer running, whether it completed
+    // or was cancelled. Cancelling does not stop PDFBox, so the worker
+    // is only given back when it returns.
+    private static class WorkerRange extends FutureTask<PageRange> {
+        private final Semaphore workers;
+        public WorkerRange(Semaphore workers, Callable<PageRange> callable) {
+            super(callable);
+            this.workers = workers;
+        }
+        @Override
+        public void run() {
+            try {
+                super.run();
+            } finally {
+                workers.release();
+            }
+        }
+    }
+
+    // Counts characters per page the same way as Tika
+    private static class PageRangeStripper extends PDFTextStripper {
+        private final PageRange range;
+        public PageRangeStripper(int startPage, int endPage)
+                throws IOException {
+            super();
+            setStartPage(startPage);
+            setEndPage(endPage);
+            range = new PageRange(endPage - startPage + 1);
+        }
+        @Override
+        protected void showGlyph(Matrix textRenderingMatrix, PDFont font,
+                int code, String unicode, Vector displacement)
+                        throws IOException {
+            super.showGlyph(
+                    textRenderingMatrix, font, code, unicode, displacement);
+            int index = getCurrentPageNo() - getStartPage();
+            if (unicode == null || unicode.isEmpty()) {
+                range.unmappedChars[index]++;
+            }
+            range.chars[index]++;
+        }
+    }
+}
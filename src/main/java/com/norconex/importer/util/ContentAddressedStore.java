@@ -0,0 +1,326 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.util;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.norconex.commons.lang.io.CachedInputStream;
+import com.norconex.importer.ImporterRuntimeException;
+
+/**
+ * <p>
+ * Temporary file storage where files are named after a digest of their
+ * content. Storing content identical to a file already stored does not
+ * write it to disk again: the existing file is shared instead.
+ * </p>
+ * <p>
+ * Every {@link #store(InputStream)} returns a new {@link StoredFile}
+ * reference. A file is deleted as soon as all its references are closed.
+ * Stored files are shared and must therefore never be modified.
+ * </p>
+ * <p>
+ * Deduplication only applies to content stored while another reference
+ * to the same file is still open. Once the last reference is closed,
+ * storing the same content again writes a new file.
+ * </p>
+ * <p>
+ * Use {@link #of(Path)} to get the store shared by all users of
+ * a given directory. This class is thread-safe.
+ * </p>
+ * @author Pascal Essiembre
+ * @since 3.1.0
+ */
+public class ContentAddressedStore {
+
+    private static final Logger LOG =
+            LoggerFactory.getLogger(ContentAddressedStore.class);
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final String FILE_SUFFIX = ".cas";
+    private static final Map<Path, ContentAddressedStore> STORES =
+            new ConcurrentHashMap<>();
+
+    private final Path directory;
+    // digest -> reference count
+    private final Map<String, Integer> refCounts = new HashMap<>();
+    private long storeCount;
+    private long duplicateCount;
+    private long savedBytes;
+
+    /**
+     * Creates a content-addressed store in the given directory.
+     * Prefer {@link #of(Path)} to share stored files with other users
+     * of the same directory.
+     * @param directory where to store files
+     */
+    public ContentAddressedStore(Path directory) {
+        super();
+        this.directory = Objects.requireNonNull(
+                directory, "'directory' must not be null.");
+    }
+
+    /**
+     * Gets the store shared by all users of the given directory.
+     * @param directory where to store files
+     * @return content-addressed store
+     */
+    public static ContentAddressedStore of(Path directory) {
+        return STORES.computeIfAbsent(directory.toAbsolutePath().normalize(),
+                ContentAddressedStore::new);
+    }
+
+    /**
+     * Gets the directory where files are stored.
+     * @return directory
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Stores the given content, or adds a reference to an identical
+     * file already stored. The input stream is read fully but not closed.
+     * A {@link CachedInputStream} is rewound and digested before
+     * anything is written, so content already stored is not written again.
+     * Other streams are digested while being written.
+     * @param input content to store
+     * @return stored file reference, to be closed when no longer needed
+     * @throws IOException could not store the content
+     */
+    public StoredFile store(InputStream input) throws IOException {
+        if (input instanceof CachedInputStream) {
+            CachedInputStream cachedInput = (CachedInputStream) input;
+            cachedInput.rewind();
+            MessageDigest md = newDigest();
+            long length = IOUtils.copyLarge(
+                    cachedInput, new DigestOutputStream(
+                            NullOutputStream.NULL_OUTPUT_STREAM, md));
+            String digest = Hex.encodeHexString(md.digest());
+            StoredFile storedFile = addReference(digest, length);
+            if (storedFile != null) {
+                return storedFile;
+            }
+            cachedInput.rewind();
+            return write(cachedInput);
+        }
+        return write(input);
+    }
+
+    private StoredFile write(InputStream input) throws IOException {
+        Files.createDirectories(directory);
+        Path tempFile = Files.createTempFile(directory, "store-", ".tmp");
+        try {
+            MessageDigest md = newDigest();
+            long length;
+            try (OutputStream os = new DigestOutputStream(
+                    Files.newOutputStream(tempFile), md)) {
+                length = IOUtils.copyLarge(input, os);
+            }
+            String digest = Hex.encodeHexString(md.digest());
+            Path file = directory.resolve(digest + FILE_SUFFIX);
+            synchronized (refCounts) {
+                // identical content may have been stored concurrently
+                StoredFile storedFile = addReference(digest, length);
+                if (storedFile != null) {
+                    return storedFile;
+                }
+                storeCount++;
+                Files.move(tempFile, file,
+                        StandardCopyOption.REPLACE_EXISTING);
+                refCounts.put(digest, 1);
+            }
+            return new StoredFile(digest, file, length);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    // Returns null if no file with the given digest is currently stored.
+    private StoredFile addReference(String digest, long length) {
+        synchronized (refCounts) {
+            Integer count = refCounts.get(digest);
+            if (count == null) {
+                return null;
+            }
+            storeCount++;
+            duplicateCount++;
+            savedBytes += length;
+            refCounts.put(digest, count + 1);
+            return new StoredFile(
+                    digest, directory.resolve(digest + FILE_SUFFIX), length);
+        }
+    }
+
+    /**
+     * Gets the number of files currently stored.
+     * @return stored file count
+     */
+    public int getFileCount() {
+        synchronized (refCounts) {
+            return refCounts.size();
+        }
+    }
+    /**
+     * Gets how many times content was stored so far.
+     * @return store count
+     */
+    public long getStoreCount() {
+        synchronized (refCounts) {
+            return storeCount;
+        }
+    }
+    /**
+     * Gets how many times stored content was identical to a file
+     * already stored.
+     * @return duplicate count
+     */
+    public long getDuplicateCount() {
+        synchronized (refCounts) {
+            return duplicateCount;
+        }
+    }
+    /**
+     * Gets how many bytes were not kept on disk thanks to duplicates
+     * being shared.
+     * @return saved bytes
+     */
+    public long getSavedBytes() {
+        synchronized (refCounts) {
+            return savedBytes;
+        }
+    }
+
+    private void release(StoredFile storedFile) {
+        synchronized (refCounts) {
+            Integer count = refCounts.get(storedFile.digest);
+            if (count == null) {
+                return;
+            }
+            if (count > 1) {
+                refCounts.put(storedFile.digest, count - 1);
+                return;
+            }
+            refCounts.remove(storedFile.digest);
+            try {
+                Files.deleteIfExists(storedFile.file);
+            } catch (IOException e) {
+                LOG.warn("Could not delete stored file: {}",
+                        storedFile.file, e);
+            }
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new ImporterRuntimeException(
+                    "Digest algorithm not available: " + DIGEST_ALGORITHM, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        synchronized (refCounts) {
+            return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+                    .append("directory", directory)
+                    .append("fileCount", refCounts.size())
+                    .append("storeCount", storeCount)
+                    .append("duplicateCount", duplicateCount)
+                    .append("savedBytes", savedBytes)
+                    .toString();
+        }
+    }
+
+    /**
+     * Reference to a file in a content-addressed store. Closing it
+     * deletes the file if no other references to it remain open.
+     * Closing it more than once has no effect.
+     */
+    public final class StoredFile implements Closeable {
+        private final String digest;
+        private final Path file;
+        private final long length;
+        private boolean closed;
+
+        private StoredFile(String digest, Path file, long length) {
+            this.digest = digest;
+            this.file = file;
+            this.length = length;
+        }
+        /**
+         * Gets the stored file path. The file must not be modified.
+         * @return file path
+         */
+        public Path getPath() {
+            return file;
+        }
+        /**
+         * Gets the hexadecimal content digest identifying the file.
+         * @return content digest
+         */
+        public String getDigest() {
+            return digest;
+        }
+        /**
+         * Gets the stored content length in bytes.
+         * @return length
+         */
+        public long length() {
+            return length;
+        }
+        /**
+         * Gets a new input stream on the stored content.
+         * @return input stream
+         * @throws IOException could not read the stored file
+         */
+        public InputStream newInputStream() throws IOException {
+            return new BufferedInputStream(Files.newInputStream(file));
+        }
+        @Override
+        public synchronized void close() {
+            if (!closed) {
+                closed = true;
+                release(this);
+            }
+        }
+        @Override
+        public String toString() {
+            return file.toString();
+        }
+    }
+}
@@ -32,6 +32,13 @@ public final class DOMUtil {
     public static final String PARSER_HTML = "html";
     /** @since 2.8.0 */
     public static final String PARSER_XML = "xml";
+    /**
+     * Estimated number of bytes of memory used by a JSoup DOM-tree
+     * for each byte of source content. Used for
+     * {@link MemoryBudget} accounting.
+     * @since 3.1.0
+     */
+    public static final float DOM_MEMORY_FACTOR = 6f;
 
     private DOMUtil() {
     }
@@ -0,0 +1,545 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.util;
+
+import java.text.DateFormatSymbols;
+import java.text.DecimalFormatSymbols;
+import java.time.DayOfWeek;
+import java.time.Month;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * <p>
+ * Quickly tells which of many date formats could possibly match a
+ * date string, without parsing it. Formats are the ones supported by
+ * {@link FormatUtil}: {@link java.text.SimpleDateFormat} or
+ * {@link java.time.format.DateTimeFormatter} patterns, or "EPOCH"
+ * (or blank).
+ * </p>
+ * <p>
+ * Each format is compiled once into a sequence of expected elements
+ * (numbers, words, literals). A date string is reduced once to its shape,
+ * made of its runs of digits, letters and other characters. Only formats
+ * accepting that shape are candidates. Candidates for a given shape
+ * are cached.
+ * </p>
+ * <p>
+ * Formats that are not candidates cannot parse the date string, with
+ * either {@link java.text.SimpleDateFormat} or
+ * {@link java.time.format.DateTimeFormatter}. Trying only candidates
+ * therefore gives the same result as trying every format. Candidates
+ * may still fail to parse. Callers should try candidates in
+ * their original order, since a date can be matched by more than one
+ * format (e.g., when one only matches its beginning). The shape analysis
+ * is conservative: nothing is checked past the first pattern element
+ * it cannot reason about (e.g., a time zone).
+ * </p>
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ * @author Pascal Essiembre
+ * @since 3.1.0
+ */
+public class DateFormatRecognizer {
+
+    private static final int MAX_CACHED_SHAPES = 10_000;
+
+    // Shape symbols
+    private static final char DIGITS = '#';
+    private static final char WORD = '@';
+    private static final char SPACE = ' ';
+    private static final char ESCAPE = '\\';
+    // letters parsed as "not a number" by number formats
+    private static final char NAN = '\uE000';
+    private static final char INFINITY = '\u221E';
+    // possible number prefixes (e.g., locale-specific minus sign)
+    private static final int MAX_SIGN_LENGTH = 3;
+
+    private final List<String> formats;
+    private final Locale locale;
+    private final List<Element[]> compiled;
+    private final String nanSymbol;
+    private final String exponentSymbol;
+    private final Map<String, boolean[]> shapeCandidates =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Creates a recognizer for the given formats, using the US
+     * English locale.
+     * @param formats date formats
+     */
+    public DateFormatRecognizer(List<String> formats) {
+        this(formats, null);
+    }
+    /**
+     * Creates a recognizer for the given formats and locale.
+     * @param formats date formats
+     * @param locale locale used for parsing (<code>null</code> means
+     *     US English)
+     */
+    public DateFormatRecognizer(List<String> formats, Locale locale) {
+        super();
+        Locale loc = locale != null ? locale : Locale.US;
+        this.locale = loc;
+        DecimalFormatSymbols dfs = DecimalFormatSymbols.getInstance(loc);
+        this.nanSymbol = dfs.getNaN();
+        this.exponentSymbol = dfs.getExponentSeparator();
+        boolean wordsStartWithLetter = wordsStartWithLetter(loc);
+        boolean numericYear =
+                Calendar.getInstance(loc) instanceof GregorianCalendar;
+        this.formats = Collections.unmodifiableList(new ArrayList<>(
+                formats == null ? Collections.emptyList() : formats));
+        this.compiled = new ArrayList<>(this.formats.size());
+        for (String format : this.formats) {
+            compiled.add(compile(format, wordsStartWithLetter, numericYear));
+        }
+    }
+
+    /**
+     * Gets the formats this recognizer was created with.
+     * @return formats
+     */
+    public List<String> getFormats() {
+        return formats;
+    }
+    /**
+     * Gets the locale this recognizer was created with.
+     * @return locale (never <code>null</code>)
+     */
+    public Locale getLocale() {
+        return locale;
+    }
+
+    /**
+     * Gets which formats could match the given date string. The returned
+     * array has one entry per format, in the same order. It must not
+     * be modified.
+     * @param dateString the date string
+     * @return flags indicating which formats are candidates
+     */
+    public boolean[] getCandidateFlags(String dateString) {
+        String shape = toShape(StringUtils.defaultString(dateString));
+        boolean[] flags = shapeCandidates.get(shape);
+        if (flags == null) {
+            flags = new boolean[compiled.size()];
+            for (int i = 0; i < flags.length; i++) {
+                flags[i] = accepts(compiled.get(i), shape);
+            }
+            if (shapeCandidates.size() < MAX_CACHED_SHAPES) {
+                shapeCandidates.put(shape, flags);
+            }
+        }
+        return flags;
+    }
+
+    /**
+     * Gets the formats that could match the given date string, in their
+     * original order.
+     * @param dateString the date string
+     * @return candidate formats
+     */
+    public List<String> getCandidates(String dateString) {
+        boolean[] flags = getCandidateFlags(dateString);
+        List<String> candidates = new ArrayList<>();
+        for (int i = 0; i < flags.length; i++) {
+            if (flags[i]) {
+                candidates.add(formats.get(i));
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Gets whether at least one format could match the given date string.
+     * @param dateString the date string
+     * @return <code>true</code> if there is at least one candidate
+     */
+    public boolean hasCandidate(String dateString) {
+        for (boolean flag : getCandidateFlags(dateString)) {
+            if (flag) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //--- Shape ----------------------------------------------------------------
+
+    // Digit runs become '#', whitespace runs ' ', single letters are
+    // kept as is and longer letter runs become '@' (or a "NaN" marker
+    // when starting with the locale "NaN" symbol). Other characters
+    // are kept (escaped if they are one of our symbols).
+    String toShape(String value) {
+        StringBuilder b = new StringBuilder();
+        int i = 0;
+        int len = value.length();
+        while (i < len) {
+            char ch = value.charAt(i);
+            int start = i;
+            if (Character.isDigit(ch)) {
+                while (i < len && Character.isDigit(value.charAt(i))) {
+                    i++;
+                }
+                b.append(DIGITS);
+            } else if (Character.isLetter(ch)) {
+                while (i < len && Character.isLetter(value.charAt(i))) {
+                    i++;
+                }
+                if (Character.isLetter(nanSymbol.charAt(0))
+                        && value.startsWith(nanSymbol, start)) {
+                    b.append(NAN);
+                } else {
+                    b.append(i - start == 1 ? ch : WORD);
+                }
+            } else if (Character.isWhitespace(ch)) {
+                while (i < len && Character.isWhitespace(value.charAt(i))) {
+                    i++;
+                }
+                b.append(SPACE);
+            } else {
+                if (ch == DIGITS || ch == WORD || ch == ESCAPE || ch == NAN) {
+                    b.append(ESCAPE);
+                }
+                b.append(ch);
+                i++;
+            }
+        }
+        return b.toString();
+    }
+
+    //--- Matching -------------------------------------------------------------
+
+    // Returns false only if the format cannot possibly match.
+    // Unparsed trailing text is accepted, like SimpleDateFormat does.
+    private boolean accepts(Element[] elements, String shape) {
+        if (elements == null) {
+            return true;
+        }
+        int pos = 0;
+        int len = shape.length();
+        for (Element el : elements) {
+            switch (el.type) {
+            case EPOCH:
+                return shape.equals("#") || shape.equals("-#")
+                        || shape.equals("+#");
+            case NUMBER:
+                pos = skipSpace(shape, pos);
+                if (pos < len && (shape.charAt(pos) == NAN
+                        || (!Character.isLetter(nanSymbol.charAt(0))
+                                && shape.charAt(pos) == nanSymbol.charAt(0)))) {
+                    return true;
+                }
+                pos = skipSign(shape, pos);
+                if (pos < len && shape.charAt(pos) == INFINITY) {
+                    return true;
+                }
+                if (pos >= len || shape.charAt(pos) != DIGITS) {
+                    return false;
+                }
+                pos++;
+                // Number formats parse exponents (e.g. 1E3)
+                if (exponentSymbol.length() != 1
+                        || !Character.isLetter(exponentSymbol.charAt(0))) {
+                    return true;
+                }
+                pos = skipExponent(shape, pos, exponentSymbol.charAt(0));
+                break;
+            case WORD:
+                pos = skipSpace(shape, pos);
+                if (pos >= len) {
+                    return false;
+                }
+                return isLetter(shape, pos);
+            case SPACE:
+                pos = skipSpace(shape, pos);
+                break;
+            case LITERAL:
+                if (pos >= len) {
+                    return false;
+                }
+                char sc = shape.charAt(pos);
+                if (Character.isLetter(el.literal)) {
+                    // can't tell how a longer word would continue
+                    if (sc == WORD || sc == NAN) {
+                        return true;
+                    }
+                    if (sc != el.literal) {
+                        return false;
+                    }
+                    pos++;
+                } else {
+                    if (sc == ESCAPE) {
+                        pos++;
+                        sc = pos < len ? shape.charAt(pos) : 0;
+                    } else if (sc == DIGITS || sc == WORD || sc == SPACE
+                            || sc == NAN) {
+                        return false;
+                    }
+                    if (sc != el.literal) {
+                        return false;
+                    }
+                    pos++;
+                }
+                break;
+            default: // ANY
+                return true;
+            }
+        }
+        return true;
+    }
+
+    private static int skipSpace(String shape, int pos) {
+        if (pos < shape.length() && shape.charAt(pos) == SPACE) {
+            return pos + 1;
+        }
+        return pos;
+    }
+    private static int skipSign(String shape, int pos) {
+        int p = pos;
+        for (int i = 0; i < MAX_SIGN_LENGTH && p < shape.length(); i++) {
+            char ch = shape.charAt(p);
+            if (ch == ESCAPE) {
+                p += 2;
+            } else if (ch != DIGITS && ch != WORD && ch != SPACE && ch != NAN
+                    && ch != INFINITY && !Character.isLetter(ch)) {
+                p++;
+            } else {
+                break;
+            }
+        }
+        return Math.min(p, shape.length());
+    }
+    private static int skipExponent(String shape, int pos, char exponent) {
+        int p = pos;
+        if (p < shape.length() && shape.charAt(p) == exponent) {
+            p++;
+            if (p < shape.length()
+                    && (shape.charAt(p) == '-' || shape.charAt(p) == '+')) {
+                p++;
+            }
+            if (p < shape.length() && shape.charAt(p) == DIGITS) {
+                return p + 1;
+            }
+        }
+        return pos;
+    }
+    private static boolean isLetter(String shape, int pos) {
+        char ch = shape.charAt(pos);
+        return ch == WORD || ch == NAN || Character.isLetter(ch);
+    }
+
+    //--- Compilation ----------------------------------------------------------
+
+    // Returns null when the format can't be analyzed (always a candidate).
+    private static Element[] compile(String format,
+            boolean wordsStartWithLetter, boolean numericYear) {
+        if (StringUtils.isBlank(format) || "EPOCH".equalsIgnoreCase(format)) {
+            return new Element[] { new Element(Type.EPOCH) };
+        }
+        List<Element> elements = new ArrayList<>();
+        int i = 0;
+        int len = format.length();
+        while (i < len) {
+            char ch = format.charAt(i);
+            if (ch == '\'') {
+                // quoted literal, where '' is a single quote
+                int end = i + 1;
+                if (end < len && format.charAt(end) == '\'') {
+                    addLiteral(elements, '\'');
+                    i = end + 1;
+                    continue;
+                }
+                StringBuilder text = new StringBuilder();
+                while (end < len) {
+                    if (format.charAt(end) == '\'') {
+                        if (end + 1 < len && format.charAt(end + 1) == '\'') {
+                            text.append('\'');
+                            end += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    text.append(format.charAt(end));
+                    end++;
+                }
+                if (end >= len) {
+                    return null; // unterminated quote
+                }
+                for (char c : text.toString().toCharArray()) {
+                    addLiteral(elements, c);
+                }
+                i = end + 1;
+            } else if ((ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z')) {
+                int count = 1;
+                while (i + count < len && format.charAt(i + count) == ch) {
+                    count++;
+                }
+                Type type = fieldType(ch, count, numericYear);
+                if (type == null) {
+                    return null; // unknown or ambiguous pattern letter
+                }
+                if (type == Type.NUMBER) {
+                    // adjacent numbers are parsed as one digit run
+                    if (elements.isEmpty() || elements.get(
+                            elements.size() - 1).type != Type.NUMBER) {
+                        elements.add(new Element(Type.NUMBER));
+                    }
+                } else if (type == Type.WORD && wordsStartWithLetter) {
+                    elements.add(new Element(Type.WORD));
+                } else {
+                    // names that may start with a digit (e.g., Japanese
+                    // months with some locale providers) can't be told
+                    // apart from adjacent numbers
+                    elements.add(new Element(Type.ANY));
+                }
+                i += count;
+            } else if (ch == '[' || ch == ']' || ch == '{' || ch == '}'
+                    || ch == '#') {
+                // optional sections or reserved characters
+                elements.add(new Element(Type.ANY));
+                i++;
+            } else {
+                addLiteral(elements, ch);
+                i++;
+            }
+        }
+        // Nothing is checked past the first element that accepts anything
+        int anyIndex = -1;
+        for (int j = 0; j < elements.size(); j++) {
+            if (elements.get(j).type == Type.ANY) {
+                anyIndex = j;
+                break;
+            }
+        }
+        if (anyIndex == 0) {
+            return null;
+        }
+        if (anyIndex > 0) {
+            return elements.subList(0, anyIndex + 1).toArray(new Element[0]);
+        }
+        return elements.toArray(new Element[0]);
+    }
+
+    private static void addLiteral(List<Element> elements, char ch) {
+        if (Character.isWhitespace(ch)) {
+            elements.add(new Element(Type.SPACE));
+        } else if (Character.isDigit(ch)) {
+            // could be part of a digit run
+            elements.add(new Element(Type.ANY));
+        } else {
+            Element el = new Element(Type.LITERAL);
+            el.literal = ch;
+            elements.add(el);
+        }
+    }
+
+    // Pattern letters of SimpleDateFormat and DateTimeFormatter combined.
+    // Letters having a different meaning in each are only considered
+    // numbers or words if they are in both.
+    private static Type fieldType(char ch, int count, boolean numericYear) {
+        switch (ch) {
+        case 'y':
+        case 'Y':
+        case 'u':
+            return numericYear ? Type.NUMBER : Type.ANY;
+        case 'M':
+        case 'L':
+            return count <= 2 ? Type.NUMBER : Type.WORD;
+        case 'd':
+        case 'D':
+        case 'F':
+        case 'w':
+        case 'W':
+        case 'H':
+        case 'h':
+        case 'k':
+        case 'K':
+        case 'm':
+        case 's':
+        case 'S':
+            return Type.NUMBER;
+        case 'E':
+        case 'a':
+        case 'G':
+            return Type.WORD;
+        case 'z':
+        case 'Z':
+        case 'X':
+        case 'x':
+        case 'V':
+        case 'v':
+        case 'O':
+        case 'Q':
+        case 'q':
+        case 'e':
+        case 'c':
+            return Type.ANY;
+        default:
+            // including letters only known to DateTimeFormatter
+            // (e.g., nano-of-second), to preserve their parsing errors
+            return null;
+        }
+    }
+
+    // Whether all month, day, AM/PM and era names start with a letter.
+    // Not the case for some locales (e.g., Chinese months start with
+    // a digit).
+    private static boolean wordsStartWithLetter(Locale locale) {
+        List<String> names = new ArrayList<>();
+        DateFormatSymbols dfs = DateFormatSymbols.getInstance(locale);
+        names.addAll(Arrays.asList(dfs.getMonths()));
+        names.addAll(Arrays.asList(dfs.getShortMonths()));
+        names.addAll(Arrays.asList(dfs.getWeekdays()));
+        names.addAll(Arrays.asList(dfs.getShortWeekdays()));
+        names.addAll(Arrays.asList(dfs.getAmPmStrings()));
+        names.addAll(Arrays.asList(dfs.getEras()));
+        for (TextStyle style : TextStyle.values()) {
+            for (Month month : Month.values()) {
+                names.add(month.getDisplayName(style, locale));
+            }
+            for (DayOfWeek day : DayOfWeek.values()) {
+                names.add(day.getDisplayName(style, locale));
+            }
+        }
+        for (String name : names) {
+            if (StringUtils.isNotEmpty(name)
+                    && !Character.isLetter(name.charAt(0))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private enum Type { EPOCH, NUMBER, WORD, SPACE, LITERAL, ANY }
+
+    private static class Element {
+        private final Type type;
+        private char literal;
+        Element(Type type) {
+            this.type = type;
+        }
+    }
+}
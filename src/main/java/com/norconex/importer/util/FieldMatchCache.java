@@ -0,0 +1,139 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.util;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.norconex.commons.lang.map.Properties;
+import com.norconex.commons.lang.text.TextMatcher;
+import com.norconex.importer.doc.FieldNames;
+
+/**
+ * <p>
+ * Remembers which field names a field {@link TextMatcher} matches, so
+ * handlers evaluating the same matcher on every document only evaluate
+ * it once per distinct field name. Field names are usually the same
+ * from one document to the next, making resolving matching fields a
+ * lookup instead of a regular expression or wildcard evaluation
+ * per field.
+ * </p>
+ * <p>
+ * Results are forgotten when the matcher is modified. Only up to
+ * a maximum number of field names are remembered, to protect against
+ * field names generated from content.
+ * </p>
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ * @author Pascal Essiembre
+ * @since 3.1.0
+ */
+public class FieldMatchCache {
+
+    /** Default maximum number of field names remembered. */
+    public static final int DEFAULT_MAX_SIZE = 10_000;
+
+    private final int maxSize;
+    private volatile Results results;
+
+    /**
+     * Creates a field match cache remembering up to
+     * {@value #DEFAULT_MAX_SIZE} field names.
+     */
+    public FieldMatchCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+    /**
+     * Creates a field match cache remembering up to the given
+     * number of field names.
+     * @param maxSize maximum number of field names remembered
+     */
+    public FieldMatchCache(int maxSize) {
+        super();
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Gets whether the given field name is matched by the field matcher.
+     * @param matcher field matcher
+     * @param field field name
+     * @return <code>true</code> if matching
+     */
+    public boolean matches(TextMatcher matcher, String field) {
+        return results(matcher).matches(matcher, field);
+    }
+
+    /**
+     * Gets the metadata fields matched by the field matcher, along with
+     * their values. Same as {@link Properties#matchKeys(TextMatcher)}.
+     * @param matcher field matcher
+     * @param metadata document metadata
+     * @return matching fields and values
+     */
+    public Properties matchKeys(TextMatcher matcher, Properties metadata) {
+        Results r = results(matcher);
+        Properties matched = new Properties();
+        for (Entry<String, List<String>> en : metadata.entrySet()) {
+            if (r.matches(matcher, en.getKey())) {
+                matched.put(en.getKey(), en.getValue());
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Gets the number of field names remembered.
+     * @return number of field names
+     */
+    public int size() {
+        Results r = results;
+        return r == null ? 0 : r.matches.size();
+    }
+
+    // Results for the given matcher, reset if the matcher has changed.
+    private Results results(TextMatcher matcher) {
+        Results r = results;
+        if (r == null || !r.matcher.equals(matcher)) {
+            r = new Results(matcher);
+            results = r;
+        }
+        return r;
+    }
+
+    private final class Results {
+        // copy, to detect changes to the original matcher
+        private final TextMatcher matcher = new TextMatcher();
+        private final Map<String, Boolean> matches = new ConcurrentHashMap<>();
+        private Results(TextMatcher matcher) {
+            this.matcher.copyFrom(matcher);
+        }
+        private boolean matches(TextMatcher m, String field) {
+            if (field == null) {
+                return m.matches(field);
+            }
+            Boolean match = matches.get(field);
+            if (match == null) {
+                match = m.matches(field);
+                if (matches.size() < maxSize) {
+                    matches.put(FieldNames.intern(field), match);
+                }
+            }
+            return match;
+        }
+    }
+}
@@ -14,20 +14,24 @@
  */
 package com.norconex.importer.util;
 
-import java.text.ParseException;
+import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
+import java.time.DateTimeException;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
-import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoField;
 import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQueries;
 import java.util.Date;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
@@ -39,6 +43,7 @@ import org.slf4j.LoggerFactory;
  * uses the US English locale when the locale is not specified.
  * In addition to standard Java date format syntax, you can use
  * the string "EPOCH" (or <code>null</code>) to represent an EPOCH format.
+ * Date formatters are created once per pattern and locale and reused.
  * @author Pascal Essiembre
  * @since 2.2.0
  */
@@ -47,6 +52,16 @@ public final class FormatUtil {
 
     private static final Logger LOG = LoggerFactory.getLogger(FormatUtil.class);
 
+    // Formats come from configuration, so this limit should never be
+    // reached. It is there to protect against formats created dynamically.
+    private static final int MAX_CACHED_FORMATS = 1000;
+
+    // SimpleDateFormat is not thread-safe, so each thread gets its own.
+    private static final Map<FormatKey, ThreadLocal<SimpleDateFormat>>
+            SIMPLE_FORMATS = new ConcurrentHashMap<>();
+    private static final Map<FormatKey, DateTimeFormatter>
+            ZONED_PARSE_FORMATS = new ConcurrentHashMap<>();
+
     private FormatUtil() {
     }
 
@@ -120,13 +135,13 @@ public final class FormatUtil {
             date = new Date(millis);
         } else {
             // From date is custom format
-            try {
-                date = new SimpleDateFormat(
-                        fromFormat, sourceLocale).parse(dateString);
-            } catch (ParseException e) {
+            ParsePosition pos = new ParsePosition(0);
+            date = simpleDateFormat(fromFormat, sourceLocale).parse(
+                    dateString, pos);
+            if (date == null) {
                 if (LOG.isDebugEnabled()) {
-                    LOG.debug("Invalid date format{}",
-                            formatSubjectMsg(subjectName) + e.getMessage());
+                    LOG.debug("Invalid date format{}Unparseable date: \"{}\"",
+                            formatSubjectMsg(subjectName), dateString);
                 }
                 return null;
             }
@@ -142,8 +157,7 @@ public final class FormatUtil {
             // To date format is EPOCH
             toDate = Long.toString(date.getTime());
         } else {
-            toDate = new SimpleDateFormat(
-                    toFormat, targetLocale).format(date);
+            toDate = simpleDateFormat(toFormat, targetLocale).format(date);
         }
         return toDate;
     }
@@ -200,31 +214,37 @@ public final class FormatUtil {
 // If zone id is NOT specified (null), it means to use whatever is detected
 //   in the date string if zone was provided, or default zone otherwise.
 
+                // Parsing through the java.text adapter does not throw,
+                // so non-matching dates are ruled out cheaply while
+                // matching ones are parsed and resolved only once.
+                ParsePosition pos = new ParsePosition(0);
+                DateTimeFormatter dtf =
+                        zonedParseFormatter(fromFormat, sourceLocale);
+                TemporalAccessor parsed = (TemporalAccessor)
+                        dtf.toFormat().parseObject(dateString, pos);
+                if (parsed == null || pos.getIndex() < dateString.length()) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("Invalid date format{}Text '{}' could "
+                                + "not be parsed at index {}",
+                                formatSubjectMsg(subjectName), dateString,
+                                Math.max(pos.getErrorIndex(), pos.getIndex()));
+                    }
+                    return null;
+                }
 
-                DateTimeFormatter dtf = new DateTimeFormatterBuilder().append(
-                        DateTimeFormatter.ofPattern(fromFormat, sourceLocale))
-                            .parseDefaulting(ChronoField.HOUR_OF_DAY, 0)
-                            .parseDefaulting(ChronoField.MINUTE_OF_HOUR, 0)
-                            .parseDefaulting(ChronoField.SECOND_OF_MINUTE, 0)
-                            .toFormatter();
-
-                TemporalAccessor parsed = dtf.parseBest(dateString,
-                        ZonedDateTime::from,
-                        LocalDateTime::from);
-
-                // if it's a ZonedDateTime, return it
-                if (parsed instanceof ZonedDateTime) {
-                    dateTime = (ZonedDateTime) parsed;
+                // if it has a zone, return it as a ZonedDateTime
+                if (parsed.query(TemporalQueries.zone()) != null) {
+                    dateTime = ZonedDateTime.from(parsed);
                     if (zoneId != null) {
                         dateTime = dateTime.withZoneSameLocal(zoneId);
                     }
-                } else if (parsed instanceof LocalDateTime) {
+                } else {
                     // convert LocalDateTime to JVM default timezone
-                    LocalDateTime dt = (LocalDateTime) parsed;
+                    LocalDateTime dt = LocalDateTime.from(parsed);
                     dateTime = dt.atZone(safeZoneId(zoneId));
                 }
 
-            } catch (DateTimeParseException e) {
+            } catch (DateTimeException e) {
                 if (LOG.isDebugEnabled()) {
                     LOG.debug("Invalid date format{}",
                             formatSubjectMsg(subjectName) + e.getMessage());
@@ -236,6 +256,43 @@ public final class FormatUtil {
         return dateTime;
     }
 
+    // Returns a thread-confined instance, safe to use until the calling
+    // thread asks for a formatter again.
+    private static SimpleDateFormat simpleDateFormat(
+            String format, Locale locale) {
+        FormatKey key = new FormatKey(format, locale);
+        ThreadLocal<SimpleDateFormat> tl = SIMPLE_FORMATS.get(key);
+        if (tl == null) {
+            if (SIMPLE_FORMATS.size() >= MAX_CACHED_FORMATS) {
+                return new SimpleDateFormat(format, locale);
+            }
+            tl = SIMPLE_FORMATS.computeIfAbsent(key, k -> ThreadLocal
+                    .withInitial(() -> new SimpleDateFormat(format, locale)));
+        }
+        SimpleDateFormat sdf = tl.get();
+        // Parsing a date having a time zone changes the formatter one.
+        sdf.setTimeZone(TimeZone.getDefault());
+        return sdf;
+    }
+
+    private static DateTimeFormatter zonedParseFormatter(
+            String format, Locale locale) {
+        FormatKey key = new FormatKey(format, locale);
+        DateTimeFormatter dtf = ZONED_PARSE_FORMATS.get(key);
+        if (dtf == null) {
+            dtf = new DateTimeFormatterBuilder().append(
+                    DateTimeFormatter.ofPattern(format, locale))
+                        .parseDefaulting(ChronoField.HOUR_OF_DAY, 0)
+                        .parseDefaulting(ChronoField.MINUTE_OF_HOUR, 0)
+                        .parseDefaulting(ChronoField.SECOND_OF_MINUTE, 0)
+                        .toFormatter();
+            if (ZONED_PARSE_FORMATS.size() < MAX_CACHED_FORMATS) {
+                ZONED_PARSE_FORMATS.putIfAbsent(key, dtf);
+            }
+        }
+        return dtf;
+    }
+
     // returns true if blank or "EPOCH" (case insensitive).
     private static boolean isEpochFormat(String format) {
         return StringUtils.isBlank(format) || "EPOCH".equalsIgnoreCase(format);
@@ -253,4 +310,25 @@ public final class FormatUtil {
         return Optional.ofNullable(
                 nullableZoneId).orElse(ZoneId.systemDefault()).normalized();
     }
+
+    private static final class FormatKey {
+        private final String format;
+        private final Locale locale;
+        private FormatKey(String format, Locale locale) {
+            this.format = format;
+            this.locale = locale;
+        }
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof FormatKey)) {
+                return false;
+            }
+            FormatKey other = (FormatKey) obj;
+            return format.equals(other.format) && locale.equals(other.locale);
+        }
+        @Override
+        public int hashCode() {
+            return format.hashCode() * 31 + locale.hashCode();
+        }
+    }
 }
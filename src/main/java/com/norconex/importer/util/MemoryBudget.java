@@ -0,0 +1,363 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.util;
+
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import com.norconex.commons.lang.io.CachedInputStream;
+
+/**
+ * <p>
+ * Memory budget shared by all documents processed concurrently by
+ * an importer. Memory-hungry allocators (stream caches, DOM trees,
+ * string sections, pending child documents, etc.) reserve an estimated
+ * number of bytes from it and release them when done.
+ * </p>
+ * <p>
+ * There are two ways to reserve bytes:
+ * </p>
+ * <ul>
+ *   <li>{@link #reserve(long, long)} waits for enough bytes to be
+ *       available. It is meant for admitting new documents, which is
+ *       where backpressure is applied.</li>
+ *   <li>{@link #acquire(long)} never waits and may go over budget.
+ *       It is meant for allocations made while a document is already
+ *       being processed, where waiting could lead to deadlocks.</li>
+ * </ul>
+ * <p>
+ * The budget in use for the current thread is obtained with
+ * {@link #current()}. When none is bound, an unlimited budget
+ * is returned, so handlers can always account for their memory.
+ * </p>
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ * @author Pascal Essiembre
+ * @since 3.1.0
+ */
+public class MemoryBudget {
+
+    /**
+     * Budget without limit. Reservations on it are always granted,
+     * but still tracked.
+     */
+    public static final long UNLIMITED = -1;
+
+    // Not inherited: threads created while importing (e.g., by parsers)
+    // would otherwise keep the binding after the import ends.
+    private static final ThreadLocal<MemoryBudget> CURRENT =
+            new ThreadLocal<>();
+
+    private final long maxBytes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private long usedBytes;
+    private long peakBytes;
+    private int waitingCount;
+    private long waitCount;
+    private long timeoutCount;
+
+    /**
+     * Creates an unlimited memory budget.
+     */
+    public MemoryBudget() {
+        this(UNLIMITED);
+    }
+    /**
+     * Creates a memory budget of the given number of bytes. Zero or less
+     * means unlimited.
+     * @param maxBytes maximum number of bytes
+     */
+    public MemoryBudget(long maxBytes) {
+        super();
+        this.maxBytes = maxBytes > 0 ? maxBytes : UNLIMITED;
+    }
+
+    /**
+     * Gets the memory budget bound to the current thread, or a new
+     * unlimited one if none is bound.
+     * @return memory budget (never <code>null</code>)
+     */
+    public static MemoryBudget current() {
+        MemoryBudget budget = CURRENT.get();
+        return budget != null ? budget : new MemoryBudget();
+    }
+    /**
+     * Binds a memory budget to the current thread. Threads it creates
+     * do not inherit it.
+     * @param budget memory budget or <code>null</code> to unbind
+     * @return the budget previously bound, or <code>null</code>
+     */
+    public static MemoryBudget bind(MemoryBudget budget) {
+        MemoryBudget previous = CURRENT.get();
+        if (budget == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(budget);
+        }
+        return previous;
+    }
+
+    /**
+     * Reserves the given number of bytes, waiting up to the given
+     * number of milliseconds for them to be available. A reservation
+     * larger than the whole budget is granted once nothing else
+     * is reserved.
+     * @param bytes number of bytes to reserve
+     * @param timeoutMillis maximum time to wait, in milliseconds
+     * @return reservation, or <code>null</code> if the bytes could not
+     *     be reserved in time
+     * @throws InterruptedException thread interrupted while waiting
+     */
+    public Reservation reserve(long bytes, long timeoutMillis)
+            throws InterruptedException {
+        long amount = Math.max(0, bytes);
+        lock.lock();
+        try {
+            if (!fits(amount)) {
+                waitCount++;
+                waitingCount++;
+                try {
+                    long nanos = TimeUnit.MILLISECONDS.toNanos(
+                            Math.max(0, timeoutMillis));
+                    while (!fits(amount)) {
+                        if (nanos <= 0) {
+                            timeoutCount++;
+                            return null;
+                        }
+                        nanos = released.awaitNanos(nanos);
+                    }
+                } finally {
+                    waitingCount--;
+                }
+            }
+            add(amount);
+            return new Reservation(amount);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reserves the given number of bytes if they are available, without
+     * waiting.
+     * @param bytes number of bytes to reserve
+     * @return reservation, or <code>null</code> if not enough bytes
+     *     are available
+     */
+    public Reservation tryReserve(long bytes) {
+        long amount = Math.max(0, bytes);
+        lock.lock();
+        try {
+            if (!fits(amount)) {
+                return null;
+            }
+            add(amount);
+            return new Reservation(amount);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reserves the given number of bytes without waiting, even if
+     * it means going over budget.
+     * @param bytes number of bytes to reserve
+     * @return reservation (never <code>null</code>)
+     */
+    public Reservation acquire(long bytes) {
+        long amount = Math.max(0, bytes);
+        lock.lock();
+        try {
+            add(amount);
+            return new Reservation(amount);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reserves an estimate of the memory needed to hold the given
+     * stream content, multiplied by the given factor, without waiting.
+     * Only {@link CachedInputStream} can be estimated. Others
+     * reserve nothing.
+     * @param input content stream
+     * @param factor how many bytes of memory per byte of content
+     * @return reservation (never <code>null</code>)
+     */
+    public Reservation acquire(InputStream input, float factor) {
+        long length = 0;
+        if (input instanceof CachedInputStream) {
+            length = ((CachedInputStream) input).length();
+        }
+        return acquire((long) (length * (double) factor));
+    }
+
+    /**
+     * Gets the maximum number of bytes.
+     * @return maximum bytes, or {@link #UNLIMITED}
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+    /**
+     * Gets whether this budget has no limit.
+     * @return <code>true</code> if unlimited
+     */
+    public boolean isUnlimited() {
+        return maxBytes == UNLIMITED;
+    }
+    /**
+     * Gets the number of bytes currently reserved. Can be greater
+     * than the maximum when allocations went over budget.
+     * @return reserved bytes
+     */
+    public long getUsedBytes() {
+        lock.lock();
+        try {
+            return usedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+    /**
+     * Gets the number of bytes still available, or
+     * {@link Long#MAX_VALUE} if unlimited.
+     * @return available bytes
+     */
+    public long getAvailableBytes() {
+        if (isUnlimited()) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, maxBytes - getUsedBytes());
+    }
+    /**
+     * Gets the highest number of bytes reserved at once so far.
+     * @return peak reserved bytes
+     */
+    public long getPeakBytes() {
+        lock.lock();
+        try {
+            return peakBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+    /**
+     * Gets the number of threads currently waiting for a reservation.
+     * @return waiting thread count
+     */
+    public int getWaitingCount() {
+        lock.lock();
+        try {
+            return waitingCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+    /**
+     * Gets how many reservations had to wait so far.
+     * @return wait count
+     */
+    public long getWaitCount() {
+        lock.lock();
+        try {
+            return waitCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+    /**
+     * Gets how many reservations timed out so far.
+     * @return time-out count
+     */
+    public long getTimeoutCount() {
+        lock.lock();
+        try {
+            return timeoutCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // must hold lock
+    private boolean fits(long amount) {
+        return isUnlimited() || usedBytes == 0
+                || usedBytes + amount <= maxBytes;
+    }
+    // must hold lock
+    private void add(long amount) {
+        usedBytes += amount;
+        peakBytes = Math.max(peakBytes, usedBytes);
+    }
+    private void release(long amount) {
+        lock.lock();
+        try {
+            usedBytes -= amount;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        lock.lock();
+        try {
+            return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+                    .append("maxBytes", maxBytes)
+                    .append("usedBytes", usedBytes)
+                    .append("peakBytes", peakBytes)
+                    .append("waitingCount", waitingCount)
+                    .append("waitCount", waitCount)
+                    .append("timeoutCount", timeoutCount)
+                    .toString();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Bytes reserved from a memory budget. Closing it releases them.
+     * Closing it more than once has no effect.
+     */
+    public final class Reservation implements AutoCloseable {
+        private final long bytes;
+        private boolean closed;
+        private Reservation(long bytes) {
+            this.bytes = bytes;
+        }
+        /**
+         * Gets the number of bytes reserved.
+         * @return reserved bytes
+         */
+        public long getBytes() {
+            return bytes;
+        }
+        @Override
+        public synchronized void close() {
+            if (!closed) {
+                closed = true;
+                release(bytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,450 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.text.BreakIterator;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CountingInputStream;
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import com.norconex.commons.lang.io.CachedInputStream;
+import com.norconex.commons.lang.io.TextReader;
+import com.norconex.commons.lang.map.Properties;
+import com.norconex.commons.lang.text.TextMatcher;
+
+/**
+ * <p>
+ * Computes text statistics, byte length, and match counts
+ * in a single pass over a document content. Text is read one section
+ * at a time (see {@link #setMaxReadSize(int)}) and every enabled
+ * computation is performed on each section before the next one is read.
+ * </p>
+ * <p>
+ * Statistics are computed one line at a time, where each non-blank line
+ * is considered a paragraph. Sentence boundaries are obtained from a
+ * {@link BreakIterator} reused per thread and all counters are primitives.
+ * Match counts are performed on whole sections so that patterns spanning
+ * multiple lines are supported.
+ * </p>
+ * <p>
+ * Instances are not meant to be modified once in use, but can safely
+ * be shared by multiple threads for analysis.
+ * </p>
+ * @author Pascal Essiembre
+ * @since 3.0.0
+ */
+public class TextAnalyzer {
+
+    /** Prefix of all statistic field names. */
+    public static final String STATS_PREFIX = "document.stat.";
+
+    private static final ThreadLocal<BreakIterator> SENTENCE_ITERATOR =
+            ThreadLocal.withInitial(BreakIterator::getSentenceInstance);
+
+    private final Map<String, TextMatcher> matchCounters =
+            new LinkedHashMap<>();
+    private boolean statistics = true;
+    private int maxReadSize = TextReader.DEFAULT_MAX_READ_SIZE;
+
+    /**
+     * Gets whether text statistics (characters, words, sentences,
+     * paragraphs) are computed. Default is <code>true</code>.
+     * @return <code>true</code> if computing statistics
+     */
+    public boolean isStatistics() {
+        return statistics;
+    }
+    /**
+     * Sets whether text statistics (characters, words, sentences,
+     * paragraphs) are computed.
+     * @param statistics <code>true</code> if computing statistics
+     * @return this instance
+     */
+    public TextAnalyzer setStatistics(boolean statistics) {
+        this.statistics = statistics;
+        return this;
+    }
+
+    /**
+     * Gets the maximum number of characters to read from content at once.
+     * Default is {@link TextReader#DEFAULT_MAX_READ_SIZE}.
+     * @return maximum read size
+     */
+    public int getMaxReadSize() {
+        return maxReadSize;
+    }
+    /**
+     * Sets the maximum number of characters to read from content at once.
+     * @param maxReadSize maximum read size
+     * @return this instance
+     */
+    public TextAnalyzer setMaxReadSize(int maxReadSize) {
+        this.maxReadSize = maxReadSize;
+        return this;
+    }
+
+    /**
+     * Adds a matcher for which to count the number of matches.
+     * @param key unique key used to obtain the count from analysis results
+     * @param matcher text matcher
+     * @return this instance
+     */
+    public TextAnalyzer addMatchCounter(String key, TextMatcher matcher) {
+        matchCounters.put(key, matcher);
+        return this;
+    }
+    /**
+     * Gets the matchers for which to count the number of matches, keyed
+     * by the keys they were added with.
+     * @return match counters (never <code>null</code>)
+     */
+    public Map<String, TextMatcher> getMatchCounters() {
+        return Collections.unmodifiableMap(matchCounters);
+    }
+
+    /**
+     * Analyzes the supplied input stream, decoding it with the given
+     * character set only when statistics or match counts are required.
+     * The byte length is always computed. The stream is fully consumed.
+     * @param input input stream
+     * @param charset character set of the input stream
+     * @return analysis result
+     * @throws IOException problem reading the stream
+     */
+    public Result analyze(InputStream input, String charset)
+            throws IOException {
+        if (!statistics && matchCounters.isEmpty()) {
+            Result result = new Result();
+            result.byteCount = countBytes(input);
+            return result;
+        }
+        CountingInputStream is = new CountingInputStream(input);
+        Result result = analyze(new InputStreamReader(is, charset));
+        result.byteCount = is.getByteCount();
+        return result;
+    }
+
+    /**
+     * Analyzes the supplied reader. The byte length is not computed
+     * and will be <code>-1</code>. The reader is fully consumed.
+     * @param reader reader
+     * @return analysis result
+     * @throws IOException problem reading the reader
+     */
+    public Result analyze(Reader reader) throws IOException {
+        Result result = new Result();
+        Pattern[] patterns = new Pattern[matchCounters.size()];
+        long[] counts = new long[matchCounters.size()];
+        int idx = 0;
+        for (TextMatcher tm : matchCounters.values()) {
+            patterns[idx++] = tm.toRegexPattern();
+        }
+
+        StringBuilder line = new StringBuilder();
+        String text = null;
+        try (TextReader tr = new TextReader(reader, maxReadSize)) {
+            while ((text = tr.readText()) != null) {
+                for (int i = 0; i < patterns.length; i++) {
+                    Matcher m = patterns[i].matcher(text);
+                    while (m.find()) {
+                        counts[i]++;
+                    }
+                }
+                if (statistics) {
+                    splitLines(text, line, result);
+                }
+            }
+        }
+        if (statistics) {
+            analyzeLine(line, result);
+        }
+
+        idx = 0;
+        for (String key : matchCounters.keySet()) {
+            result.matchCounts.put(key, counts[idx++]);
+        }
+        return result;
+    }
+
+    /**
+     * Counts the number of bytes in the supplied stream. When the stream
+     * is a {@link CachedInputStream}, its length is returned without
+     * reading it.
+     * @param input input stream
+     * @return number of bytes
+     * @throws IOException problem reading the stream
+     */
+    public static long countBytes(InputStream input) throws IOException {
+        if (input instanceof CachedInputStream) {
+            return ((CachedInputStream) input).length();
+        }
+        CountingInputStream is = new CountingInputStream(input);
+        IOUtils.copy(is, NullOutputStream.NULL_OUTPUT_STREAM);
+        return is.getByteCount();
+    }
+
+    // Lines can span multiple sections so partial lines are kept in
+    // "line" until a line terminator is found.
+    private void splitLines(String text, StringBuilder line, Result result) {
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (ch == '\n' || ch == '\r') {
+                line.append(text, start, i);
+                analyzeLine(line, result);
+                line.setLength(0);
+                start = i + 1;
+            }
+        }
+        line.append(text, start, text.length());
+    }
+
+    private void analyzeLine(StringBuilder line, Result result) {
+        // Same trimming as String#trim()
+        int start = 0;
+        int end = line.length();
+        while (start < end && line.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && line.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (isBlank(line, start, end)) {
+            return;
+        }
+
+        // Paragraph
+        result.paragraphCount++;
+
+        // Character
+        result.characterCount += end - start;
+
+        // Word
+        countWords(line, start, end, result);
+
+        // Sentence
+        BreakIterator boundary = SENTENCE_ITERATOR.get();
+        boundary.setText(line.substring(start, end));
+        int sentStart = boundary.first();
+        for (int sentEnd = boundary.next(); sentEnd != BreakIterator.DONE;
+                sentStart = sentEnd, sentEnd = boundary.next()) {
+            result.sentenceCharacterCount += sentEnd - sentStart;
+            result.sentenceCount++;
+        }
+    }
+
+    // Equivalent to matching "\w+\-{0,1}\w*" with Unicode character classes.
+    private void countWords(
+            CharSequence text, int start, int end, Result result) {
+        int i = start;
+        while (i < end) {
+            int cp = Character.codePointAt(text, i);
+            if (!isWordChar(cp)) {
+                i += Character.charCount(cp);
+                continue;
+            }
+            int wordStart = i;
+            i = skipWordChars(text, i, end);
+            if (i < end && text.charAt(i) == '-') {
+                i = skipWordChars(text, i + 1, end);
+            }
+            result.wordCount++;
+            result.wordCharacterCount += i - wordStart;
+        }
+    }
+    private int skipWordChars(CharSequence text, int start, int end) {
+        int i = start;
+        while (i < end) {
+            int cp = Character.codePointAt(text, i);
+            if (!isWordChar(cp)) {
+                break;
+            }
+            i += Character.charCount(cp);
+        }
+        return i;
+    }
+    private static boolean isWordChar(int cp) {
+        if (Character.isAlphabetic(cp)) {
+            return true;
+        }
+        switch (Character.getType(cp)) {
+        case Character.NON_SPACING_MARK:
+        case Character.ENCLOSING_MARK:
+        case Character.COMBINING_SPACING_MARK:
+        case Character.DECIMAL_DIGIT_NUMBER:
+        case Character.CONNECTOR_PUNCTUATION:
+            return true;
+        default:
+            return cp == 0x200C || cp == 0x200D;
+        }
+    }
+    private static boolean isBlank(CharSequence cs, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!Character.isWhitespace(cs.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Formats the average of a value over a divisor, rounded half-up
+     * to one decimal. A zero divisor gives "0.0".
+     * @param value value (zero or positive)
+     * @param divisor divisor (zero or positive)
+     * @return formatted average
+     */
+    public static String formatAverage(long value, long divisor) {
+        if (divisor <= 0) {
+            return "0.0";
+        }
+        long tenths = (value * 20 + divisor) / (divisor * 2);
+        return (tenths / 10) + "." + (tenths % 10);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        return EqualsBuilder.reflectionEquals(this, other);
+    }
+    @Override
+    public int hashCode() {
+        return HashCodeBuilder.reflectionHashCode(this);
+    }
+    @Override
+    public String toString() {
+        return new ReflectionToStringBuilder(
+                this, ToStringStyle.SHORT_PREFIX_STYLE).toString();
+    }
+
+    /**
+     * Text analysis result.
+     */
+    public static class Result {
+        private long byteCount = -1;
+        private long characterCount;
+        private long wordCount;
+        private long wordCharacterCount;
+        private long sentenceCount;
+        private long sentenceCharacterCount;
+        private long paragraphCount;
+        private final Map<String, Long> matchCounts = new LinkedHashMap<>();
+
+        /**
+         * Gets the number of bytes read, or <code>-1</code> if unknown.
+         * @return byte count
+         */
+        public long getByteCount() {
+            return byteCount;
+        }
+        /**
+         * Gets the number of characters in non-blank lines, excluding
+         * leading and trailing spaces.
+         * @return character count
+         */
+        public long getCharacterCount() {
+            return characterCount;
+        }
+        public long getWordCount() {
+            return wordCount;
+        }
+        public long getWordCharacterCount() {
+            return wordCharacterCount;
+        }
+        public long getSentenceCount() {
+            return sentenceCount;
+        }
+        public long getSentenceCharacterCount() {
+            return sentenceCharacterCount;
+        }
+        public long getParagraphCount() {
+            return paragraphCount;
+        }
+        /**
+         * Gets the number of matches for the match counter added
+         * with the given key.
+         * @param key match counter key
+         * @return match count, or zero if there are no such key
+         */
+        public long getMatchCount(String key) {
+            return matchCounts.getOrDefault(key, 0L);
+        }
+        /**
+         * Gets all match counts.
+         * @return match counts, keyed by match counter keys
+         */
+        public Map<String, Long> getMatchCounts() {
+            return Collections.unmodifiableMap(matchCounts);
+        }
+
+        /**
+         * Adds statistic fields to the supplied metadata, using the
+         * same field names as {@code TextStatisticsTagger}.
+         * @param metadata metadata to add statistics to
+         * @param field optional source field name, inserted after
+         *              {@value TextAnalyzer#STATS_PREFIX}
+         */
+        public void addStatisticsTo(Properties metadata, String field) {
+            String prefix = STATS_PREFIX;
+            if (StringUtils.isNotBlank(field)) {
+                prefix += field.trim() + ".";
+            }
+            metadata.add(prefix + "characterCount", characterCount);
+            metadata.add(prefix + "wordCount", wordCount);
+            metadata.add(prefix + "sentenceCount", sentenceCount);
+            metadata.add(prefix + "paragraphCount", paragraphCount);
+            metadata.add(prefix + "averageWordCharacterCount",
+                    formatAverage(wordCharacterCount, wordCount));
+            metadata.add(prefix + "averageSentenceCharacterCount",
+                    formatAverage(sentenceCharacterCount, sentenceCount));
+            metadata.add(prefix + "averageSentenceWordCount",
+                    formatAverage(wordCount, sentenceCount));
+            metadata.add(prefix + "averageParagraphCharacterCount",
+                    formatAverage(characterCount, paragraphCount));
+            metadata.add(prefix + "averageParagraphSentenceCount",
+                    formatAverage(sentenceCount, paragraphCount));
+            metadata.add(prefix + "averageParagraphWordCount",
+                    formatAverage(wordCount, paragraphCount));
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            return EqualsBuilder.reflectionEquals(this, other);
+        }
+        @Override
+        public int hashCode() {
+            return HashCodeBuilder.reflectionHashCode(this);
+        }
+        @Override
+        public String toString() {
+            return new ReflectionToStringBuilder(
+                    this, ToStringStyle.SHORT_PREFIX_STYLE).toString();
+        }
+    }
+}
@@ -0,0 +1,299 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Translation memory: remembers translated text segments (e.g., lines or
+ * field values) by source and target language, so that text repeated
+ * across documents (headers, footers, legal notices, etc.) is
+ * only sent once to a translation service.
+ * </p>
+ * <p>
+ * The most recently used segments are kept in memory, up to a maximum
+ * number. When a directory is given, segments are also saved to disk,
+ * one file per segment named after a digest of the segment and
+ * languages, so they survive restarts and can be shared by several
+ * processes. Disk entries are evicted least recently used first when
+ * exceeding their own maximum.
+ * </p>
+ * <p>
+ * Failing to read or write disk entries is logged and treated like
+ * a missing entry. This class is thread-safe.
+ * </p>
+ * @author Pascal Essiembre
+ * @since 3.1.0
+ */
+public class TranslationMemory {
+
+    private static final Logger LOG =
+            LoggerFactory.getLogger(TranslationMemory.class);
+
+    /** Default maximum number of segments kept in memory. */
+    public static final int DEFAULT_MAX_SIZE = 10_000;
+    /** Default maximum number of segments kept on disk. */
+    public static final int DEFAULT_MAX_DISK_SIZE = 100_000;
+
+    private static final String FILE_SUFFIX = ".tm";
+
+    private final int maxSize;
+    private final Path directory;
+    private final int maxDiskSize;
+    private final Map<String, String> entries;
+    private final Object diskLock = new Object();
+    // number of files on disk, -1 until counted
+    private int diskSize = -1;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates a translation memory kept in memory only.
+     * @param maxSize maximum number of segments kept in memory
+     */
+    public TranslationMemory(int maxSize) {
+        this(maxSize, null, 0);
+    }
+    /**
+     * Creates a translation memory also saved to the given directory.
+     * @param maxSize maximum number of segments kept in memory
+     * @param directory directory where to save segments, or
+     *     <code>null</code> to keep them in memory only
+     * @param maxDiskSize maximum number of segments kept on disk
+     */
+    public TranslationMemory(int maxSize, Path directory, int maxDiskSize) {
+        super();
+        this.maxSize = maxSize;
+        this.directory = directory;
+        this.maxDiskSize = maxDiskSize;
+        this.entries = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+            @Override
+            protected boolean removeEldestEntry(Entry<String, String> e) {
+                return size() > TranslationMemory.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Gets the directory where segments are saved.
+     * @return directory or <code>null</code>
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Gets a translated segment.
+     * @param sourceLang source language
+     * @param targetLang target language
+     * @param text text segment to translate
+     * @return translated text, or <code>null</code> if not in memory
+     */
+    public String get(String sourceLang, String targetLang, String text) {
+        String key = key(sourceLang, targetLang, text);
+        String translation;
+        synchronized (entries) {
+            translation = entries.get(key);
+        }
+        if (translation == null && directory != null) {
+            translation = readFile(key);
+            if (translation != null) {
+                putInMemory(key, translation);
+            }
+        }
+        if (translation == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return translation;
+    }
+
+    /**
+     * Remembers a translated segment.
+     * @param sourceLang source language
+     * @param targetLang target language
+     * @param text text segment
+     * @param translation translated text
+     */
+    public void put(String sourceLang, String targetLang,
+            String text, String translation) {
+        String key = key(sourceLang, targetLang, text);
+        putInMemory(key, translation);
+        if (directory != null) {
+            writeFile(key, translation);
+        }
+    }
+
+    /**
+     * Gets the number of segments kept in memory.
+     * @return number of segments
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+    /**
+     * Gets how many times a translated segment was found.
+     * @return hit count
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+    /**
+     * Gets how many times a translated segment was not found.
+     * @return miss count
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    private void putInMemory(String key, String translation) {
+        if (maxSize > 0) {
+            synchronized (entries) {
+                entries.put(key, translation);
+            }
+        }
+    }
+
+    private String readFile(String key) {
+        Path file = file(key);
+        try {
+            String translation = new String(
+                    Files.readAllBytes(file), StandardCharsets.UTF_8);
+            // last modified date is used to evict least recently used
+            Files.setLastModifiedTime(
+                    file, FileTime.fromMillis(System.currentTimeMillis()));
+            return translation;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            LOG.warn("Could not read translation memory file: {}", file, e);
+            return null;
+        }
+    }
+
+    private void writeFile(String key, String translation) {
+        Path file = file(key);
+        Path tempFile = null;
+        try {
+            Files.createDirectories(file.getParent());
+            boolean existed = Files.exists(file);
+            tempFile = Files.createTempFile(file.getParent(), key, ".tmp");
+            Files.write(tempFile, translation.getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file,
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+            tempFile = null;
+            if (!existed && addToDiskSize() > maxDiskSize) {
+                evict();
+            }
+        } catch (IOException e) {
+            LOG.warn("Could not write translation memory file: {}", file, e);
+        } finally {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException e) {
+                    LOG.debug("Could not delete file: {}", tempFile, e);
+                }
+            }
+        }
+    }
+
+    // Counts files on disk the first time, then keeps count
+    private int addToDiskSize() throws IOException {
+        synchronized (diskLock) {
+            diskSize = diskSize < 0 ? listFiles().size() : diskSize + 1;
+            return diskSize;
+        }
+    }
+
+    // Deletes least recently used files, down to 90% of maximum
+    private void evict() throws IOException {
+        synchronized (diskLock) {
+            List<Path> files = listFiles();
+            int target = (int) (maxDiskSize * 0.9);
+            if (files.size() <= maxDiskSize) {
+                diskSize = files.size();
+                return;
+            }
+            files.sort(Comparator.comparingLong(
+                    TranslationMemory::lastModified));
+            int deleted = 0;
+            for (Path file : files.subList(0, files.size() - target)) {
+                if (Files.deleteIfExists(file)) {
+                    deleted++;
+                }
+            }
+            diskSize = files.size() - deleted;
+            LOG.debug("Evicted {} translation memory files.", deleted);
+        }
+    }
+
+    private List<Path> listFiles() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> stream = Files.walk(directory, 2)) {
+            return stream.filter(p -> p.getFileName().toString()
+                    .endsWith(FILE_SUFFIX)).collect(Collectors.toList());
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private Path file(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(
+                key + FILE_SUFFIX);
+    }
+
+    private static String key(
+            String sourceLang, String targetLang, String text) {
+        return DigestUtils.sha256Hex(
+                sourceLang + '\u0000' + targetLang + '\u0000' + text);
+    }
+}
@@ -0,0 +1,134 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ImporterBatchTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testDirectoryWithCheckpoint() throws Exception {
+        Path inputDir = tempDir.resolve("in");
+        Path outputDir = tempDir.resolve("out");
+        Path checkpoint = tempDir.resolve("checkpoint.txt");
+        write(inputDir.resolve("a.txt"), "Document A");
+        write(inputDir.resolve("sub/b.txt"), "Document B");
+
+        ImporterBatch batch = new ImporterBatch(new Importer())
+                .setOutputDir(outputDir)
+                .setCheckpointFile(checkpoint)
+                .setWorkers(2);
+        batch.run(inputDir.toString());
+
+        assertEquals(2, batch.getImported());
+        assertEquals(0, batch.getErrors());
+        assertTrue(Files.isRegularFile(
+                outputDir.resolve("a.txt-imported.txt")));
+        assertTrue(Files.isRegularFile(
+                outputDir.resolve("sub/b.txt-imported.txt.properties")));
+        assertEquals(2, Files.readAllLines(checkpoint).size());
+
+        // resuming skips files already processed
+        write(inputDir.resolve("c.txt"), "Document C");
+        batch = new ImporterBatch(new Importer())
+                .setOutputDir(outputDir)
+                .setCheckpointFile(checkpoint);
+        batch.run(inputDir.toString());
+        assertEquals(1, batch.getImported());
+        assertEquals(2, batch.getSkipped());
+    }
+
+    @Test
+    public void testGlobAndFileList() throws Exception {
+        Path inputDir = tempDir.resolve("in");
+        write(inputDir.resolve("a.txt"), "Document A");
+        write(inputDir.resolve("b.csv"), "Document B");
+        write(inputDir.resolve("sub/c.txt"), "Document C");
+
+        ImporterBatch batch = new ImporterBatch(new Importer())
+                .setOutputDir(tempDir.resolve("out1"));
+        batch.run(inputDir.toString().replace('\\', '/') + "/**.txt");
+        assertEquals(2, batch.getImported());
+
+        Path list = tempDir.resolve("list.txt");
+        Files.write(list, Arrays.asList("# files to import",
+                inputDir.resolve("b.csv").toString(), ""));
+        batch = new ImporterBatch(new Importer())
+                .setOutputDir(tempDir.resolve("out2"));
+        batch.run(list.toString());
+        assertEquals(1, batch.getImported());
+    }
+
+    @Test
+    public void testOutputNextToInput() throws Exception {
+        Path inputDir = tempDir.resolve("in");
+        write(inputDir.resolve("a.txt"), "Document A");
+
+        ImporterBatch batch = new ImporterBatch(new Importer());
+        batch.run(inputDir.toString());
+        assertEquals(1, batch.getImported());
+        assertTrue(Files.isRegularFile(
+                inputDir.resolve("a.txt-imported.txt")));
+
+        // outputs of the previous run are not imported again
+        batch = new ImporterBatch(new Importer());
+        batch.run(inputDir.toString());
+        assertEquals(1, batch.getImported());
+        assertEquals(0, batch.getErrors());
+    }
+
+    @Test
+    public void testUnreadableDirectory() throws Exception {
+        Path inputDir = tempDir.resolve("in");
+        write(inputDir.resolve("a.txt"), "Document A");
+        Path locked = inputDir.resolve("locked");
+        write(locked.resolve("b.txt"), "Document B");
+        Assumptions.assumeTrue(FileSystems.getDefault()
+                .supportedFileAttributeViews().contains("posix"));
+        Files.setPosixFilePermissions(
+                locked, PosixFilePermissions.fromString("---------"));
+        try {
+            Assumptions.assumeFalse(Files.isReadable(locked));
+            ImporterBatch batch = new ImporterBatch(new Importer())
+                    .setOutputDir(tempDir.resolve("out"));
+            batch.run(inputDir.toString());
+            assertEquals(1, batch.getImported());
+            assertEquals(1, batch.getErrors());
+        } finally {
+            Files.setPosixFilePermissions(
+                    locked, PosixFilePermissions.fromString("rwx------"));
+        }
+    }
+
+    private static void write(Path file, String content) throws Exception {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
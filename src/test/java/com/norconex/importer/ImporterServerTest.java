@@ -0,0 +1,117 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.text.StringEscapeUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ImporterServerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testStreamProtocol() throws Exception {
+        Path file = tempDir.resolve("doc.txt");
+        Files.write(file, "Hello \"server\"".getBytes(StandardCharsets.UTF_8));
+
+        String requests = "ref1\t" + file
+                + "\ttext/plain\t{\"color\":[\"blue\"]}\n"
+                + "\n"
+                + "ref2\t" + tempDir.resolve("missing.txt") + "\n"
+                + "\t" + tempDir.resolve("missing.txt") + "\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImporterServer server = new ImporterServer(new Importer(), 1)) {
+            server.serve(new ByteArrayInputStream(
+                    requests.getBytes(StandardCharsets.UTF_8)), out);
+        }
+
+        List<String> responses = Arrays.asList(
+                out.toString(StandardCharsets.UTF_8.name()).split("\n"));
+        assertEquals(3, responses.size());
+        String ok = responses.get(0);
+        assertTrue(ok.startsWith(
+                "{\"reference\":\"ref1\",\"status\":\"SUCCESS\""), ok);
+        assertTrue(ok.contains("\"color\":[\"blue\"]"), ok);
+        assertTrue(ok.contains("\"content\":\"Hello \\\"server\\\""), ok);
+        assertTrue(responses.get(1).startsWith(
+                "{\"reference\":\"ref2\",\"status\":\"ERROR\""),
+                responses.get(1));
+        // without reference, errors are referenced by file path
+        assertTrue(responses.get(2).startsWith("{\"reference\":\""
+                + StringEscapeUtils.escapeJson(
+                        tempDir.resolve("missing.txt").toString())
+                + "\",\"status\":\"ERROR\""), responses.get(2));
+    }
+
+    @Test
+    public void testSocket() throws Exception {
+        Path file = tempDir.resolve("doc.txt");
+        Files.write(file, "Hello socket".getBytes(StandardCharsets.UTF_8));
+
+        try (ImporterServer server = new ImporterServer(new Importer(), 2)) {
+            int port = server.bind(0, "secret");
+            new Thread(server::acceptConnections).start();
+            try (Socket socket = new Socket(
+                    InetAddress.getLoopbackAddress(), port)) {
+                OutputStream os = socket.getOutputStream();
+                os.write(("secret\n\t" + file + "\n").getBytes(
+                        StandardCharsets.UTF_8));
+                os.flush();
+                socket.shutdownOutput();
+                BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(),
+                                StandardCharsets.UTF_8));
+                String response = reader.readLine();
+                assertTrue(response.contains("\"status\":\"SUCCESS\""),
+                        response);
+                assertTrue(response.contains("Hello socket"), response);
+            }
+
+            // wrong token
+            try (Socket socket = new Socket(
+                    InetAddress.getLoopbackAddress(), port)) {
+                OutputStream os = socket.getOutputStream();
+                os.write("wrong\n".getBytes(StandardCharsets.UTF_8));
+                os.flush();
+                socket.shutdownOutput();
+                BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(),
+                                StandardCharsets.UTF_8));
+                String response = reader.readLine();
+                assertTrue(response.contains("Invalid token."), response);
+                assertNull(reader.readLine());
+            }
+        }
+    }
+}
@@ -42,6 +42,7 @@ import com.norconex.importer.handler.filter.OnMatch;
 import com.norconex.importer.handler.filter.impl.TextFilter;
 import com.norconex.importer.handler.transformer.IDocumentTransformer;
 import com.norconex.importer.response.ImporterResponse;
+import com.norconex.importer.util.MemoryBudget.Reservation;
 
 public class ImporterTest {
 
@@ -142,6 +143,32 @@ public class ImporterTest {
                         + "status description.");
     }
 
+    @Test
+    public void testMemoryBudget() {
+        ImporterConfig config = new ImporterConfig();
+        config.setMaxMemoryBudget(10L * 1024 * 1024);
+        config.setMemoryBudgetWait(1);
+        Importer importer = new Importer(config);
+        File file = TestUtil.getAliceTextFile();
+
+        // Only the known content length is reserved
+        ImporterResponse response = importer.importDocument(
+                new ImporterRequest(file.toPath()));
+        Assertions.assertTrue(response.isSuccess());
+        Assertions.assertTrue(
+                importer.getMemoryBudget().getPeakBytes() <= file.length());
+
+        // Budget exhausted: content goes to disk, import still succeeds
+        try (Reservation all = importer.getMemoryBudget().acquire(
+                config.getMaxMemoryBudget())) {
+            response = importer.importDocument(
+                    new ImporterRequest(file.toPath()));
+        }
+        Assertions.assertTrue(response.isSuccess());
+        Assertions.assertEquals(
+                1, importer.getMemoryBudget().getTimeoutCount());
+    }
+
     private void writeToFile(Doc doc, File file)
             throws IOException {
         FileOutputStream out = new FileOutputStream(file);
@@ -0,0 +1,68 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.norconex.importer.response.ImporterResponse;
+
+/**
+ * Measures how long a new JVM takes to import its first document.
+ * Meant to be run in its own JVM, as done by the "startup-benchmark"
+ * Maven profile. Optionally takes the file to import as argument.
+ */
+public final class StartupBenchmark {
+
+    private StartupBenchmark() {
+        super();
+    }
+
+    public static void main(String[] args) throws IOException {
+        long mainStart = System.currentTimeMillis();
+        long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+        Path file = args.length > 0
+                ? Paths.get(args[0]) : TestUtil.getAlicePdfFile().toPath();
+
+        long t0 = System.nanoTime();
+        Importer importer = new Importer();
+        long t1 = System.nanoTime();
+        ImporterResponse response =
+                importer.importDocument(new ImporterRequest(file));
+        long t2 = System.nanoTime();
+        importer.importDocument(new ImporterRequest(file));
+        long t3 = System.nanoTime();
+
+        System.out.println("Startup benchmark for: " + file);
+        System.out.println("  Status:                "
+                + response.getImporterStatus().getStatus());
+        print("JVM start to main", mainStart - jvmStart);
+        print("Importer creation", millis(t1 - t0));
+        print("First document", millis(t2 - t1));
+        print("Second document", millis(t3 - t2));
+        print("Time to first document",
+                mainStart - jvmStart + millis(t2 - t0));
+    }
+
+    private static long millis(long nanos) {
+        return nanos / 1_000_000;
+    }
+    private static void print(String label, long millis) {
+        System.out.println(
+                String.format("  %-23s%6d ms", label + ":", millis));
+    }
+}
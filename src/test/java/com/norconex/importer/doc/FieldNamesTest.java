@@ -0,0 +1,46 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.doc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+public class FieldNamesTest {
+
+    @Test
+    public void testIntern() {
+        String name = new StringBuilder("FieldNamesTest-").append(
+                "field").toString();
+        assertEquals(FieldNames.NO_ID, FieldNames.existingId(name));
+
+        String canonical = FieldNames.intern(name);
+        String other = FieldNames.intern(new String(name));
+        assertSame(canonical, other);
+
+        int id = FieldNames.id(name);
+        assertNotEquals(FieldNames.NO_ID, id);
+        assertEquals(id, FieldNames.existingId(name));
+        assertSame(canonical, FieldNames.name(id));
+
+        assertSame(DocMetadata.CONTENT_TYPE,
+                FieldNames.intern(new String(DocMetadata.CONTENT_TYPE)));
+        assertEquals(FieldNames.NO_ID, FieldNames.id(null));
+        assertNull(FieldNames.name(-1));
+    }
+}
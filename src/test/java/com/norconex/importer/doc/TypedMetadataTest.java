@@ -0,0 +1,72 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.doc;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import com.norconex.commons.lang.map.Properties;
+
+public class TypedMetadataTest {
+
+    @Test
+    public void testTypedReads() {
+        Properties meta = new Properties();
+        meta.add("num", "12", "abc", "-3.5", "9223372036854775808");
+        meta.add("bool", "TRUE", "no", "false");
+        TypedMetadata typed = new TypedMetadata(meta);
+
+        assertArrayEquals(new long[] {12}, typed.getLongs("num"));
+        assertArrayEquals(new double[] {12, -3.5, 9223372036854775808d},
+                typed.getDoubles("num"));
+        assertArrayEquals(
+                new boolean[] {true, false}, typed.getBooleans("bool"));
+        assertEquals(0, typed.getLongs("missing").length);
+        assertNull(typed.getLong("missing"));
+
+        // parsed once until values change
+        assertSame(typed.getDoubles("num"), typed.getDoubles("num"));
+        meta.set("num", "7");
+        assertArrayEquals(new double[] {7}, typed.getDoubles("num"));
+    }
+
+    @Test
+    public void testTypedWrites() {
+        Properties meta = new Properties();
+        TypedMetadata typed = new TypedMetadata(meta);
+
+        typed.setLong("long", 1, 2);
+        typed.setDouble("double", 1.5);
+        typed.setBoolean("bool", true);
+        typed.setInstant("date", Instant.ofEpochMilli(1000));
+
+        assertEquals(Arrays.asList("1", "2"), meta.getStrings("long"));
+        assertEquals("1.5", meta.getString("double"));
+        assertEquals("true", meta.getString("bool"));
+        assertEquals("1000", meta.getString("date"));
+        assertEquals(Instant.ofEpochMilli(1000), typed.getInstant("date"));
+        assertArrayEquals(new long[] {1, 2}, typed.getLongs("long"));
+
+        typed.setLong("long");
+        assertNull(meta.getString("long"));
+    }
+}
@@ -0,0 +1,58 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import com.norconex.commons.lang.io.CachedInputStream;
+import com.norconex.commons.lang.map.Properties;
+import com.norconex.importer.doc.Doc;
+import com.norconex.importer.handler.filter.impl.RejectFilter;
+import com.norconex.importer.handler.filter.impl.TextFilter;
+import com.norconex.importer.handler.tagger.impl.ConstantTagger;
+import com.norconex.importer.handler.transformer.impl.ReplaceTransformer;
+import com.norconex.importer.parser.ParseState;
+
+public class ContentAccessTest {
+
+    @Test
+    public void testOf() {
+        assertEquals(ContentAccess.NONE,
+                ContentAccess.of(new ConstantTagger()));
+        assertEquals(ContentAccess.NONE, ContentAccess.of(new RejectFilter()));
+        assertEquals(ContentAccess.READ, ContentAccess.of(new TextFilter()));
+        assertEquals(ContentAccess.WRITE,
+                ContentAccess.of(new ReplaceTransformer()));
+        assertEquals(ContentAccess.READ, ContentAccess.of(null));
+    }
+
+    @Test
+    public void testInputStream() throws IOException {
+        Doc doc = new Doc("ref", CachedInputStream.cache(
+                new ByteArrayInputStream(
+                        "content".getBytes(StandardCharsets.UTF_8))),
+                new Properties());
+        HandlerContext ctx = new HandlerContext(doc, null, ParseState.PRE);
+        // metadata-only handlers get an empty stream
+        assertEquals(-1, ctx.getInputStream(new ConstantTagger()).read());
+        assertEquals('c', ctx.getInputStream(new TextFilter()).read());
+    }
+}
@@ -0,0 +1,80 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.norconex.commons.lang.map.Properties;
+import com.norconex.commons.lang.text.RegexFieldValueExtractor;
+
+public class ExtractionPatternsTest {
+
+    private static final List<String> LINES = Arrays.asList(
+            "field1:value1",
+            "<field2>value2</field2>",
+            "nothing to see here",
+            "FIELD3 value3",
+            "abab repeated",
+            "");
+
+    @Test
+    public void testSameResultAsSequential() {
+        RegexFieldValueExtractor ignoreCase =
+                new RegexFieldValueExtractor("^field3 (.*)", "field3", 1);
+        ignoreCase.getRegex().setIgnoreCase(true);
+        // combinable patterns
+        assertSameResult(
+                new RegexFieldValueExtractor("^(f.*?):(.*)", 1, 2),
+                new RegexFieldValueExtractor(
+                        "^<field2>(.*)</field2>", "field2", 1),
+                ignoreCase);
+        // back reference disables combined evaluation
+        assertSameResult(
+                new RegexFieldValueExtractor("^(ab)\\1", "repeat"),
+                new RegexFieldValueExtractor("^(f.*?):(.*)", 1, 2));
+    }
+
+    @Test
+    public void testNoPatterns() {
+        ExtractionPatterns patterns =
+                new ExtractionPatterns(Collections.emptyList());
+        assertTrue(patterns.isEmpty());
+        Properties meta = new Properties();
+        patterns.extract(meta, "field1:value1");
+        assertTrue(meta.isEmpty());
+    }
+
+    private void assertSameResult(RegexFieldValueExtractor... extractors) {
+        Properties expected = new Properties();
+        Properties actual = new Properties();
+        ExtractionPatterns patterns =
+                new ExtractionPatterns(Arrays.asList(extractors));
+        for (String line : LINES) {
+            RegexFieldValueExtractor.extractFieldValues(
+                    expected, line, extractors);
+            patterns.extract(actual, line);
+        }
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, actual);
+    }
+}
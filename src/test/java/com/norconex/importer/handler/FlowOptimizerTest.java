@@ -0,0 +1,96 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.norconex.commons.lang.xml.XML;
+
+public class FlowOptimizerTest {
+
+    private static final String PKG = "com.norconex.importer.handler.";
+
+    @Test
+    public void testOptimize() {
+        XML flow = new XML(
+              "<preParseHandlers>"
+            + "<handler class=\"" + PKG + "tagger.impl.LanguageTagger\"/>"
+            + "<handler class=\"" + PKG + "tagger.impl.ConstantTagger\">"
+            +   "<constant name=\"a\">x</constant>"
+            + "</handler>"
+            // does not read "a": moved first
+            + "<handler class=\"" + PKG + "filter.impl.ReferenceFilter\" "
+            +     "onMatch=\"exclude\">"
+            +   "<valueMatcher>abc</valueMatcher>"
+            + "</handler>"
+            // reads "a": stays after ConstantTagger
+            + "<handler class=\"" + PKG + "filter.impl.EmptyMetadataFilter\" "
+            +     "onMatch=\"exclude\" fields=\"a\"/>"
+            // no handlers: removed
+            + "<if>"
+            +   "<condition class=\"" + PKG
+            +       "condition.impl.ReferenceCondition\">"
+            +     "<valueMatcher>abc</valueMatcher>"
+            +   "</condition>"
+            +   "<then></then>"
+            + "</if>"
+            + "<reject/>"
+            // after reject: removed
+            + "<handler class=\"" + PKG + "tagger.impl.UUIDTagger\"/>"
+            + "</preParseHandlers>");
+
+        FlowOptimizer optimizer = new FlowOptimizer();
+        optimizer.optimize(flow);
+
+        List<String> actual = new ArrayList<>();
+        for (XML xml : flow.getXMLList("*")) {
+            actual.add(xml.getString("@class", xml.getName())
+                    .replace(PKG, ""));
+        }
+        assertEquals(Arrays.asList(
+                "filter.impl.ReferenceFilter",
+                "tagger.impl.LanguageTagger",
+                "tagger.impl.ConstantTagger",
+                "filter.impl.EmptyMetadataFilter",
+                "reject"), actual);
+        assertEquals(1, optimizer.getMovedFilters());
+        assertEquals(2, optimizer.getSkippedHandlers());
+        assertEquals(1, optimizer.getSkippedContentHandlers());
+        assertEquals(2, optimizer.getRemovedElements());
+    }
+
+    @Test
+    public void testIncludeFilterNotMoved() {
+        XML flow = new XML(
+              "<preParseHandlers>"
+            + "<handler class=\"" + PKG + "tagger.impl.UUIDTagger\"/>"
+            + "<handler class=\"" + PKG + "filter.impl.ReferenceFilter\" "
+            +     "onMatch=\"include\">"
+            +   "<valueMatcher>abc</valueMatcher>"
+            + "</handler>"
+            + "</preParseHandlers>");
+        FlowOptimizer optimizer = new FlowOptimizer();
+        optimizer.optimize(flow);
+        assertEquals(0, optimizer.getMovedFilters());
+        assertEquals("Flow optimization: no changes.",
+                optimizer.getSummary());
+    }
+}
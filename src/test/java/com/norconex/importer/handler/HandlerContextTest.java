@@ -0,0 +1,108 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.norconex.commons.lang.event.EventManager;
+import com.norconex.commons.lang.io.CachedInputStream;
+import com.norconex.commons.lang.map.Properties;
+import com.norconex.commons.lang.text.TextMatcher;
+import com.norconex.importer.doc.Doc;
+import com.norconex.importer.doc.DocMetadata;
+import com.norconex.importer.handler.filter.OnMatch;
+import com.norconex.importer.handler.filter.impl.ReferenceFilter;
+import com.norconex.importer.handler.tagger.impl.ConstantTagger;
+import com.norconex.importer.parser.ParseState;
+
+public class HandlerContextTest {
+
+    @Test
+    public void testRestrictionsRemembered() {
+        ConstantTagger t1 = newDomTagger();
+        ConstantTagger t2 = newDomTagger();
+
+        HandlerContext ctx = newContext();
+        assertFalse(ctx.isApplicable(t1));
+
+        // remembered per handler instance, until reset
+        ctx.getDoc().getMetadata().set(
+                DocMetadata.CONTENT_TYPE, "text/html");
+        assertFalse(ctx.isApplicable(t1));
+        assertTrue(ctx.isApplicable(t2));
+        ctx.resetApplicability();
+        assertTrue(ctx.isApplicable(t1));
+    }
+
+    @Test
+    public void testNotApplicableSkipped() {
+        ConstantTagger tagger = newDomTagger();
+        HandlerContext ctx = newContext();
+        new HandlerConsumer(tagger).accept(ctx);
+        assertNull(ctx.getDoc().getMetadata().getString("a"));
+
+        ctx = newContext();
+        ctx.getDoc().getMetadata().set(
+                DocMetadata.CONTENT_TYPE, "text/html");
+        new HandlerConsumer(tagger).accept(ctx);
+        assertEquals("x", ctx.getDoc().getMetadata().getString("a"));
+    }
+
+    @Test
+    public void testNotApplicableIncludeFilter() {
+        // a not applicable include filter counts as matching
+        ReferenceFilter notApplicable = newIncludeFilter();
+        notApplicable.addRestrictions(
+                CommonRestrictions.domContentTypes(DocMetadata.CONTENT_TYPE));
+        ReferenceFilter notMatching = newIncludeFilter();
+
+        HandlerContext ctx = newContext();
+        HandlerConsumer.fromHandlers(notApplicable, notMatching).accept(ctx);
+        assertTrue(ctx.getIncludeResolver().passes());
+
+        ctx = newContext();
+        HandlerConsumer.fromHandlers(notMatching).accept(ctx);
+        assertFalse(ctx.getIncludeResolver().passes());
+    }
+
+    private static ReferenceFilter newIncludeFilter() {
+        ReferenceFilter filter = new ReferenceFilter(
+                TextMatcher.basic("noMatch"));
+        filter.setOnMatch(OnMatch.INCLUDE);
+        return filter;
+    }
+
+    private static ConstantTagger newDomTagger() {
+        ConstantTagger tagger = new ConstantTagger();
+        tagger.addConstant("a", "x");
+        tagger.addRestrictions(
+                CommonRestrictions.domContentTypes(DocMetadata.CONTENT_TYPE));
+        return tagger;
+    }
+
+    private static HandlerContext newContext() {
+        Doc doc = new Doc("ref", CachedInputStream.cache(
+                new ByteArrayInputStream(new byte[0])), new Properties());
+        doc.getMetadata().remove(DocMetadata.CONTENT_TYPE);
+        return new HandlerContext(doc, new EventManager(), ParseState.PRE);
+    }
+}
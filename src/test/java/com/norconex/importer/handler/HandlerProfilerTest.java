@@ -0,0 +1,121 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.norconex.commons.lang.event.EventManager;
+import com.norconex.commons.lang.io.CachedInputStream;
+import com.norconex.commons.lang.map.Properties;
+import com.norconex.commons.lang.map.PropertyMatcher;
+import com.norconex.commons.lang.text.TextMatcher;
+import com.norconex.importer.doc.Doc;
+import com.norconex.importer.handler.HandlerProfiler.HandlerStats;
+import com.norconex.importer.handler.condition.impl.ReferenceCondition;
+import com.norconex.importer.handler.filter.OnMatch;
+import com.norconex.importer.handler.filter.impl.ReferenceFilter;
+import com.norconex.importer.handler.tagger.impl.ConstantTagger;
+import com.norconex.importer.parser.ParseState;
+
+public class HandlerProfilerTest {
+
+    @Test
+    public void testProfiling() throws IOException {
+        ConstantTagger tagger = new ConstantTagger();
+        tagger.addConstant("a", "x");
+        tagger.addRestriction(new PropertyMatcher(TextMatcher.basic("b")));
+        ReferenceFilter filter = new ReferenceFilter(
+                TextMatcher.basic("rejectMe"));
+        filter.setOnMatch(OnMatch.EXCLUDE);
+
+        HandlerProfiler profiler = new HandlerProfiler(1);
+        for (String ref : new String[] { "keepMe", "rejectMe" }) {
+            Doc doc = new Doc(ref, CachedInputStream.cache(
+                    new ByteArrayInputStream(
+                            "content".getBytes(StandardCharsets.UTF_8))),
+                    new Properties());
+            HandlerContext ctx = new HandlerContext(
+                    doc, new EventManager(), ParseState.PRE, profiler);
+            HandlerConsumer.fromHandlers(tagger, filter).accept(ctx);
+        }
+
+        List<HandlerStats> stats = profiler.getRankedStats();
+        assertEquals(2, stats.size());
+        HandlerStats tagStats = profiler.getStats(tagger);
+        assertEquals(2, tagStats.getInvocations());
+        assertEquals(2, tagStats.getNotApplicable());
+        assertEquals(0, tagStats.getRejections());
+        HandlerStats filterStats = profiler.getStats(filter);
+        assertEquals(2, filterStats.getInvocations());
+        assertEquals(1, filterStats.getRejections());
+        assertTrue(filterStats.getHint().contains("50%"));
+
+        StringWriter csv = new StringWriter();
+        profiler.writeCSV(csv);
+        assertEquals(3, csv.toString().split("\n").length);
+        StringWriter json = new StringWriter();
+        profiler.writeJSON(json);
+        assertTrue(json.toString().contains(
+                "\"handler\": \"ReferenceFilter#2\""));
+    }
+
+    @Test
+    public void testFilterAndConditionDecisions() throws IOException {
+        ReferenceFilter include = new ReferenceFilter(
+                TextMatcher.basic("keepMe"));
+        include.setOnMatch(OnMatch.INCLUDE);
+        ReferenceCondition condition = new ReferenceCondition(
+                TextMatcher.basic("keepMe"));
+
+        HandlerProfiler profiler = new HandlerProfiler(1);
+        for (String ref : new String[] { "keepMe", "rejectMe" }) {
+            Doc doc = new Doc(ref, CachedInputStream.cache(
+                    new ByteArrayInputStream(
+                            "content".getBytes(StandardCharsets.UTF_8))),
+                    new Properties());
+            HandlerContext ctx = new HandlerContext(
+                    doc, new EventManager(), ParseState.PRE, profiler);
+            new HandlerPredicate(condition).test(ctx);
+            HandlerConsumer.fromHandlers(include).accept(ctx);
+        }
+
+        // include filters not matching count as rejecting
+        HandlerStats filterStats = profiler.getStats(include);
+        assertEquals(2, filterStats.getInvocations());
+        assertEquals(1, filterStats.getRejections());
+        // false conditions do not
+        HandlerStats conditionStats = profiler.getStats(condition);
+        assertEquals(2, conditionStats.getInvocations());
+        assertEquals(0, conditionStats.getRejections());
+        assertEquals(1, conditionStats.getFalseResults());
+        assertEquals("", conditionStats.getHint());
+    }
+
+    @Test
+    public void testSampleRate() {
+        assertTrue(new HandlerProfiler(1).sample());
+        assertFalse(new HandlerProfiler(0).sample());
+    }
+}
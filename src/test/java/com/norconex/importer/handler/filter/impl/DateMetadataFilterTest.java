@@ -92,6 +92,38 @@ class DateMetadataFilterTest {
         Assertions.assertTrue(TestUtil.filter(filter, "n/a", null, meta, PRE));
     }
 
+    @Test
+    void testMultiValuedField() throws ImporterHandlerException {
+        Properties meta = new Properties();
+        meta.add("field1", "not a date", "1980-12-20", "1980-12-21");
+
+        DateMetadataFilter filter = new DateMetadataFilter();
+        filter.setFieldMatcher(TextMatcher.basic("field1"));
+        filter.setFormat("yyyy-MM-dd");
+        filter.addCondition(Operator.GREATER_THAN, LocalDate.of(
+                1980, 12, 20).atStartOfDay(ZoneId.systemDefault()));
+        filter.addCondition(Operator.LOWER_EQUAL, LocalDate.of(
+                1980, 12, 21).atStartOfDay(ZoneId.systemDefault()));
+        Assertions.assertTrue(TestUtil.filter(filter, "n/a", null, meta, PRE));
+
+        meta.set("field1", "not a date", "1980-12-20", "1980-12-22");
+        Assertions.assertFalse(TestUtil.filter(filter, "n/a", null, meta, PRE));
+    }
+
+    @Test
+    void testSubMillisecondPrecision() throws ImporterHandlerException {
+        Properties meta = new Properties();
+        meta.set("field1", "2020-01-01T00:00:00.1234");
+
+        DateMetadataFilter filter = new DateMetadataFilter();
+        filter.setFieldMatcher(TextMatcher.basic("field1"));
+        filter.setFormat("yyyy-MM-dd'T'HH:mm:ss.SSSS");
+        filter.addCondition(Operator.GREATER_THAN, LocalDateTime.of(
+                2020, 1, 1, 0, 0, 0, 123_000_000).atZone(
+                        ZoneId.systemDefault()));
+        Assertions.assertTrue(TestUtil.filter(filter, "n/a", null, meta, PRE));
+    }
+
     @Test
     void testWriteRead() {
         DateMetadataFilter filter = new DateMetadataFilter();
@@ -60,6 +60,23 @@ public class PDFPageSplitterTest {
         Assertions.assertEquals(3, getPageNo(pages.get(2)));
     }
 
+    @Test
+    public void testSplitPageRange() throws ImporterHandlerException {
+        PDFPageSplitter s = new PDFPageSplitter();
+        s.setStartPage(2);
+        s.setEndPage(2);
+        // force the use of a scratch file
+        s.setMaxMainMemory(0);
+        List<Doc> pages = split(s);
+
+        Assertions.assertEquals(1, pages.size(), "Invalid number of pages.");
+        Assertions.assertEquals(2, getPageNo(pages.get(0)));
+        Assertions.assertEquals(3, pages.get(0).getMetadata().getInteger(
+                PDFPageSplitter.DOC_PDF_TOTAL_PAGES));
+        Assertions.assertTrue(
+                pages.get(0).getReference().endsWith("#2"));
+    }
+
     private int getPageNo(Doc doc) {
         return doc.getMetadata().getInteger(PDFPageSplitter.DOC_PDF_PAGE_NO);
     }
@@ -68,6 +85,9 @@ public class PDFPageSplitterTest {
         public void testWriteRead() {
         PDFPageSplitter splitter = new PDFPageSplitter();
         splitter.setReferencePagePrefix("#page");
+        splitter.setStartPage(2);
+        splitter.setEndPage(5);
+        splitter.setMaxMainMemory(1024);
         XML.assertWriteRead(splitter, "handler");
     }
 
@@ -0,0 +1,196 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.handler.splitter.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.tika.language.translate.Translator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.norconex.commons.lang.map.Properties;
+import com.norconex.commons.lang.xml.XML;
+import com.norconex.importer.TestUtil;
+import com.norconex.importer.doc.Doc;
+import com.norconex.importer.doc.DocMetadata;
+import com.norconex.importer.handler.ImporterHandlerException;
+import com.norconex.importer.parser.ParseState;
+
+public class TranslatorSplitterTest {
+
+    private static final String STUB = "stub";
+
+    @TempDir
+    Path tempDir;
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private boolean reverseLines;
+
+    @Test
+    public void testTranslationMemoryAndBatching()
+            throws ImporterHandlerException, IOException {
+        TranslatorSplitter splitter = newSplitter();
+
+        List<Doc> docs = split(splitter, "  Hello world\n\nCopyright ACME\n");
+        assertEquals(2, docs.size());
+        Doc fr = docs.get(0);
+        assertEquals("  [fr] Hello world\n\n[fr] Copyright ACME\n",
+                TestUtil.getContentAsString(fr));
+        assertEquals("[fr] My title", fr.getMetadata().getString("title"));
+        assertEquals("fr", fr.getMetadata().getString(DocMetadata.LANGUAGE));
+        assertEquals("en", fr.getMetadata().getString(
+                DocMetadata.TRANSLATED_FROM));
+        assertEquals("  [de] Hello world\n\n[de] Copyright ACME\n",
+                TestUtil.getContentAsString(docs.get(1)));
+        // one request for fields and one for content, per language
+        assertEquals(4, calls.get());
+
+        // only the new line is translated
+        docs = split(splitter, "Copyright ACME\nBye\n");
+        assertEquals("[fr] Copyright ACME\n[fr] Bye\n",
+                TestUtil.getContentAsString(docs.get(0)));
+        assertEquals(6, calls.get());
+    }
+
+    @Test
+    public void testTranslationMemoryDir()
+            throws ImporterHandlerException, IOException {
+        TranslatorSplitter splitter = newSplitter();
+        splitter.setTranslationMemoryDir(tempDir);
+        split(splitter, "Hello world\n");
+        assertEquals(4, calls.get());
+
+        // new instance, reading translations from disk
+        splitter = newSplitter();
+        splitter.setTranslationMemorySize(0);
+        splitter.setTranslationMemoryDir(tempDir);
+        List<Doc> docs = split(splitter, "Hello world\n");
+        assertEquals("[fr] Hello world\n",
+                TestUtil.getContentAsString(docs.get(0)));
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    public void testMaxBatchSize()
+            throws ImporterHandlerException, IOException {
+        TranslatorSplitter splitter = newSplitter();
+        splitter.setMaxBatchSize(5);
+        splitter.setTargetLanguages("fr");
+        List<Doc> docs = split(splitter, "one\ntwo\none\n");
+        assertEquals("[fr] one\n[fr] two\n[fr] one\n",
+                TestUtil.getContentAsString(docs.get(0)));
+        // title + "one" + "two"
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    public void testMisalignedBatch()
+            throws ImporterHandlerException, IOException {
+        reverseLines = true;
+        TranslatorSplitter splitter = newSplitter();
+        splitter.setTargetLanguages("fr");
+        List<Doc> docs = split(splitter, "one\ntwo\n");
+        assertEquals("[fr] one\n[fr] two\n",
+                TestUtil.getContentAsString(docs.get(0)));
+        // title + batch + "one" + "two"
+        assertEquals(4, calls.get());
+
+        // remembered with the right segments
+        reverseLines = false;
+        docs = split(splitter, "two\none\n");
+        assertEquals("[fr] two\n[fr] one\n",
+                TestUtil.getContentAsString(docs.get(0)));
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    public void testWriteRead() {
+        TranslatorSplitter splitter = new TranslatorSplitter();
+        splitter.setApi(TranslatorSplitter.API_GOOGLE);
+        splitter.setApiKey("key");
+        splitter.setSourceLanguage("en");
+        splitter.setTargetLanguages("fr", "de");
+        splitter.setFieldsToTranslate("title", "description");
+        splitter.setTranslationMemorySize(500);
+        splitter.setTranslationMemoryDiskSize(5000);
+        splitter.setTranslationMemoryDir(tempDir);
+        splitter.setMaxBatchSize(4000);
+        splitter.setRequestInterval(250);
+        XML.assertWriteRead(splitter, "handler");
+    }
+
+    private TranslatorSplitter newSplitter() {
+        TranslatorSplitter splitter = new TranslatorSplitter();
+        splitter.registerTranslator(STUB, StubTranslator::new);
+        splitter.setApi(STUB);
+        splitter.setSourceLanguage("en");
+        splitter.setTargetLanguages("fr", "de");
+        splitter.setFieldsToTranslate("title");
+        return splitter;
+    }
+
+    private List<Doc> split(TranslatorSplitter splitter, String content)
+            throws ImporterHandlerException {
+        Properties metadata = new Properties();
+        metadata.set("title", "My title");
+        InputStream input = new ByteArrayInputStream(
+                content.getBytes(StandardCharsets.UTF_8));
+        return splitter.splitApplicableDocument(
+                TestUtil.toHandlerDoc("n/a", input, metadata),
+                input, NullOutputStream.NULL_OUTPUT_STREAM, ParseState.POST);
+    }
+
+    // Offline translator prefixing each line with the target language,
+    // optionally reversing lines order
+    private class StubTranslator implements Translator {
+        @Override
+        public String translate(
+                String text, String sourceLanguage, String targetLanguage)
+                        throws IOException {
+            calls.incrementAndGet();
+            StringBuilder b = new StringBuilder();
+            List<String> lines = IOUtils.readLines(new StringReader(text));
+            if (reverseLines) {
+                Collections.reverse(lines);
+            }
+            for (String line : lines) {
+                b.append('[').append(targetLanguage).append("] ")
+                        .append(line).append('\n');
+            }
+            return b.toString();
+        }
+        @Override
+        public String translate(String text, String targetLanguage)
+                throws IOException {
+            return translate(text, null, targetLanguage);
+        }
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+    }
+}
@@ -14,6 +14,7 @@
  */
 package com.norconex.importer.handler.tagger.impl;
 
+import java.util.Arrays;
 import java.util.Locale;
 
 import org.junit.jupiter.api.Assertions;
@@ -83,6 +84,44 @@ public class DateFormatTaggerTest {
 
     }
 
+    @Test
+    public void testAlternatingFromFormats() throws ImporterHandlerException {
+        Properties meta = new Properties();
+        meta.add("dates",
+                "2001-10-10T11:32:21",
+                "Wed, 10 Oct 2001 11:32:21",
+                "Wed, 10 Oct 2001 11:32:21",
+                "2001-10-10T11:32:21",
+                "bad date",
+                "2001-10-10T11:32:21");
+
+        DateFormatTagger t = new DateFormatTagger();
+        t.setFromField("dates");
+        t.setFromFormats("EEE, dd MMM yyyy HH:mm:ss", "yyyy-MM-dd'T'HH:mm:ss");
+        t.setToFormat("yyyy/MM/dd HH:mm:ss");
+        TestUtil.tag(t, "n/a", meta, ParseState.POST);
+        Assertions.assertEquals(5, meta.getStrings("dates").size());
+        for (String date : meta.getStrings("dates")) {
+            Assertions.assertEquals("2001/10/10 11:32:21", date);
+        }
+    }
+
+    @Test
+    public void testFromFormatsTriedInOrder() throws ImporterHandlerException {
+        Properties meta = new Properties();
+        // second format parses a prefix of the second value
+        meta.add("dates", "2001-10-10", "2001-10-10 11:32");
+
+        DateFormatTagger t = new DateFormatTagger();
+        t.setFromField("dates");
+        t.setFromFormats("yyyy-MM-dd HH:mm", "yyyy-MM-dd");
+        t.setToFormat("yyyy/MM/dd HH:mm");
+        TestUtil.tag(t, "n/a", meta, ParseState.POST);
+        Assertions.assertEquals(Arrays.asList(
+                "2001/10/10 00:00", "2001/10/10 11:32"),
+                meta.getStrings("dates"));
+    }
+
     @Test
     public void testDateFormat() throws ImporterHandlerException {
         Properties meta = new Properties();
@@ -0,0 +1,133 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.handler.tagger.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.norconex.commons.lang.map.Properties;
+import com.norconex.commons.lang.xml.XML;
+import com.norconex.importer.TestUtil;
+import com.norconex.importer.parser.ParseState;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FieldReportTaggerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testWriteRead() {
+        FieldReportTagger tagger = new FieldReportTagger();
+        tagger.setFile(tempDir.resolve("report.csv"));
+        tagger.setMaxSamples(5);
+        tagger.setWithHeaders(true);
+        tagger.setWithOccurences(true);
+        tagger.setTruncateSamplesAt(10);
+        tagger.setFlushInterval(5000);
+        XML.assertWriteRead(tagger, "handler");
+    }
+
+    @Test
+    public void testConcurrentReport() throws Exception {
+        Path file = tempDir.resolve("report.csv");
+        FieldReportTagger tagger = new FieldReportTagger();
+        tagger.setFile(file);
+        tagger.setMaxSamples(2);
+        tagger.setWithHeaders(true);
+        tagger.setWithOccurences(true);
+        // only written when flushed in this test
+        tagger.setFlushInterval(60_000);
+
+        ExecutorService exec = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] futures = new Future<?>[100];
+            for (int i = 0; i < futures.length; i++) {
+                String value = "v" + (i % 3);
+                futures[i] = exec.submit(() -> {
+                    Properties meta = new Properties();
+                    meta.add("b", value);
+                    meta.add("a", "same");
+                    TestUtil.tag(tagger, "ref", meta, ParseState.POST);
+                    return null;
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            exec.shutdown();
+        }
+        assertTrue(tagger.isFlusherRunning());
+        tagger.close();
+        assertFalse(tagger.isFlusherRunning());
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(Arrays.asList(
+                "Field Name,Occurences,Sample Value 1,Sample Value 2",
+                "a,100,same,"), lines.subList(0, 2));
+        String[] b = lines.get(2).split(",");
+        assertEquals("b", b[0]);
+        assertEquals("100", b[1]);
+        // two distinct samples out of three possible values
+        assertEquals(2, Arrays.stream(b, 2, 4).distinct()
+                .filter(v -> v.matches("v[012]")).count());
+        assertEquals(3, lines.size());
+    }
+
+    @Test
+    public void testFlusherStopsWhenIdle() throws Exception {
+        Path file = tempDir.resolve("report.csv");
+        FieldReportTagger tagger = new FieldReportTagger();
+        tagger.setFile(file);
+        tagger.setFlushInterval(200);
+
+        Properties meta = new Properties();
+        meta.add("a", "x");
+        TestUtil.tag(tagger, "ref", meta, ParseState.POST);
+        assertTrue(tagger.isFlusherRunning());
+        // written, then stopped after an idle interval
+        long timeout = System.currentTimeMillis() + 10_000;
+        while (tagger.isFlusherRunning()
+                && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        assertFalse(tagger.isFlusherRunning());
+        assertEquals(Arrays.asList("a,x,,"),
+                Files.readAllLines(file, StandardCharsets.UTF_8));
+
+        // resumes on new fields
+        meta.add("b", "y");
+        TestUtil.tag(tagger, "ref", meta, ParseState.POST);
+        assertTrue(tagger.isFlusherRunning());
+        tagger.close();
+    }
+}
@@ -82,11 +82,31 @@ public class LanguageTaggerTest {
         }
     }
 
+    @Test
+    public void testLanguageCandidatesNormalized()
+            throws ImporterHandlerException {
+        CachedStreamFactory factory =
+                new CachedStreamFactory(10 * 1024, 10 * 1024);
+        LanguageTagger tagger = new LanguageTagger();
+        // uppercase and unsupported candidates are tolerated
+        tagger.setLanguages(Arrays.asList("EN", "Fr", "xx-unsupported"));
+
+        Doc doc = new Doc(
+                "n/a", factory.newInputStream(sampleTexts.get("fr")));
+        tagger.tagDocument(
+                new HandlerDoc(doc), doc.getInputStream(), ParseState.POST);
+        Assertions.assertEquals(
+                "fr", doc.getMetadata().getString(DocMetadata.LANGUAGE));
+    }
+
     @Test
         public void testWriteRead() {
         LanguageTagger tagger = new LanguageTagger();
         tagger.setKeepProbabilities(true);
         tagger.setFallbackLanguage("fr");
+        tagger.setSampleWindowSize(500);
+        tagger.setSampleMaxWindows(5);
+        tagger.setSampleConfidenceMargin(0.3f);
 
         XML.assertWriteRead(tagger, "handler");
 
@@ -94,6 +114,27 @@ public class LanguageTaggerTest {
         XML.assertWriteRead(tagger, "handler");
     }
 
+    @Test
+    public void testSampledDetection() throws ImporterHandlerException {
+        CachedStreamFactory factory =
+                new CachedStreamFactory(100 * 1024, 100 * 1024);
+        LanguageTagger tagger = new LanguageTagger();
+        tagger.setLanguages(Arrays.asList("en", "fr", "it", "es"));
+        tagger.setSampleWindowSize(100);
+
+        StringBuilder b = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            b.append("Alice commençait à se sentir très lasse de rester "
+                   + "assise à côté de sa sœur, sur le talus, et de n'avoir "
+                   + "rien à faire. ");
+        }
+        Doc doc = new Doc("n/a", factory.newInputStream(b.toString()));
+        tagger.tagDocument(
+                new HandlerDoc(doc), doc.getInputStream(), ParseState.POST);
+        Assertions.assertEquals(
+                "fr", doc.getMetadata().getString(DocMetadata.LANGUAGE));
+    }
+
     @Test
     public void testSortOrder() throws ImporterHandlerException {
         CachedStreamFactory factory =
@@ -0,0 +1,106 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.handler.tagger.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+
+import com.norconex.commons.lang.map.Properties;
+import com.norconex.commons.lang.map.PropertySetter;
+import com.norconex.commons.lang.text.TextMatcher;
+import com.norconex.commons.lang.xml.XML;
+import com.norconex.importer.TestUtil;
+import com.norconex.importer.doc.DocMetadata;
+import com.norconex.importer.handler.ImporterHandlerException;
+import com.norconex.importer.parser.ParseState;
+
+public class TextAnalyticsTaggerTest {
+
+    @Test
+    public void testTagDocument()
+            throws ImporterHandlerException, IOException {
+
+        String txt =
+            "White Rabbit checking watch"
+          + "\n\n"
+          + "  In another moment down went Alice after it, never once "
+          + "considering how in the world she was to get out again."
+          + "\n\n"
+          + "  The rabbit-hole went straight on like a tunnel for some way, "
+          + "and then dipped suddenly down, so suddenly that Alice had not a "
+          + "moment to think about stopping herself before she found herself "
+          + "falling down a very deep well."
+          + "\n\n"
+          + "`Well!' thought Alice to herself, `after such a fall as this, I "
+          + "shall think nothing of tumbling down stairs!  How brave they'll "
+          + "all think me at home!  Why, I wouldn't say anything about it, "
+          + "even if I fell off the top of the house!' (Which was very likely "
+          + "true.)";
+
+        TextAnalyticsTagger t = new TextAnalyticsTagger();
+        t.setLengthField("docSize");
+        t.setCountMatcher("aliceCount", TextMatcher.basic("alice")
+                .setIgnoreCase(true).setPartial(true));
+        // small read size to make sure lines spanning sections are fine
+        t.setMaxReadSize(100);
+
+        InputStream is = IOUtils.toInputStream(txt, StandardCharsets.UTF_8);
+        Properties meta = new Properties();
+        meta.set(DocMetadata.CONTENT_TYPE, "text/html");
+        t.tagDocument(TestUtil.toHandlerDoc(
+                "n/a", is, meta), is, ParseState.PRE);
+        is.close();
+
+        assertEquals(616,
+                (int) meta.getInteger("document.stat.characterCount"));
+        assertEquals(115, (int) meta.getInteger("document.stat.wordCount"));
+        assertEquals(8, (int) meta.getInteger("document.stat.sentenceCount"));
+        assertEquals(4, (int) meta.getInteger("document.stat.paragraphCount"));
+        assertEquals("4.2",
+                meta.getString("document.stat.averageWordCharacterCount"));
+        assertEquals("77.0",
+                meta.getString("document.stat.averageSentenceCharacterCount"));
+        assertEquals("14.4",
+                meta.getString("document.stat.averageSentenceWordCount"));
+        assertEquals("154.0",
+                meta.getString("document.stat.averageParagraphCharacterCount"));
+        assertEquals("2.0",
+                meta.getString("document.stat.averageParagraphSentenceCount"));
+        assertEquals("28.8",
+                meta.getString("document.stat.averageParagraphWordCount"));
+        assertEquals(txt.getBytes(StandardCharsets.UTF_8).length,
+                (int) meta.getInteger("docSize"));
+        assertEquals(3, (int) meta.getInteger("aliceCount"));
+    }
+
+    @Test
+    public void testWriteRead() {
+        TextAnalyticsTagger t = new TextAnalyticsTagger();
+        t.setStatistics(false);
+        t.setLengthField("docSize");
+        t.setOnSet(PropertySetter.REPLACE);
+        t.setMaxReadSize(1234);
+        t.setSourceCharset("UTF-8");
+        t.setCountMatcher("count1", TextMatcher.regex("[a-z]+"));
+        t.setCountMatcher("count2", TextMatcher.basic("blah"));
+        XML.assertWriteRead(t, "handler");
+    }
+}
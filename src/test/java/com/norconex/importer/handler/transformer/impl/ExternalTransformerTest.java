@@ -48,6 +48,10 @@ public class ExternalTransformerTest {
         t.setMetadataInputFormat("json");
         t.setMetadataOutputFormat("xml");
         t.setOnSet(PropertySetter.PREPEND);
+        t.setNamedPipes(true);
+        t.setWorkerPoolSize(2);
+        t.setWorkerMaxRequests(100);
+        t.setWorkerTimeout(30_000);
 
         t.setMetadataExtractionPatterns(
             new RegexFieldValueExtractor("asdf.*", "blah"),
@@ -91,12 +95,62 @@ public class ExternalTransformerTest {
                 + "-ref ${REFERENCE}", true);
     }
 
+    @Test
+    public void testNamedPipes()
+            throws ImporterHandlerException {
+        // falls back to temporary files when not supported
+        testWithExternalApp("-ic ${INPUT} -oc ${OUTPUT} "
+                + "-im ${INPUT_META} -om ${OUTPUT_META} "
+                + "-ref ${REFERENCE}", true, true);
+        testWithExternalApp("-ic ${INPUT} -ref ${REFERENCE}", false, true);
+    }
+
+    @Test
+    public void testPersistentWorker()
+            throws ImporterHandlerException {
+        ExternalTransformer t = new ExternalTransformer();
+        t.setCommand(ExternalApp.newCommandLine("-worker"));
+        t.setMetadataInputFormat(ExternalHandler.META_FORMAT_PROPERTIES);
+        t.setMetadataOutputFormat(ExternalHandler.META_FORMAT_PROPERTIES);
+        t.setOnSet(PropertySetter.REPLACE);
+        t.setWorkerPoolSize(1);
+        t.setWorkerMaxRequests(2);
+        try {
+            // more documents than max requests, to restart the worker
+            for (int i = 0; i < 3; i++) {
+                InputStream input = inputAsStream();
+                ByteArrayOutputStream output = outputAsStream();
+                Properties metadata = new Properties();
+                metadata.set("metaFileField1", "this is a first test");
+                metadata.set("metaFileField2",
+                        "this is a second test value1",
+                        "this is a second test value2");
+                t.transformDocument(TestUtil.toHandlerDoc(
+                        "doc" + i, input, metadata),
+                        input, output, ParseState.PRE);
+                Assertions.assertEquals(
+                        EXPECTED_OUTPUT, output.toString().trim());
+                assertMetadataFiles(metadata);
+                Assertions.assertEquals(
+                        "doc" + i, metadata.getString("reference"));
+            }
+        } finally {
+            // releases the worker pool
+            t.setWorkerPoolSize(0);
+        }
+    }
+
     private void testWithExternalApp(String command)
             throws ImporterHandlerException {
         testWithExternalApp(command, false);
     }
     private void testWithExternalApp(String command, boolean metaFiles)
             throws ImporterHandlerException {
+        testWithExternalApp(command, metaFiles, false);
+    }
+    private void testWithExternalApp(
+            String command, boolean metaFiles, boolean namedPipes)
+                    throws ImporterHandlerException {
         InputStream input = inputAsStream();
         ByteArrayOutputStream output = outputAsStream();
         Properties metadata = new Properties();
@@ -114,6 +168,7 @@ public class ExternalTransformerTest {
         t.setMetadataInputFormat(ExternalHandler.META_FORMAT_PROPERTIES);
         t.setMetadataOutputFormat(ExternalHandler.META_FORMAT_PROPERTIES);
         t.setOnSet(PropertySetter.REPLACE);
+        t.setNamedPipes(namedPipes);
         t.transformDocument(TestUtil.toHandlerDoc(
                 "c:\\ref with spaces\\doc.txt", input, metadata),
                 input, output, ParseState.PRE);
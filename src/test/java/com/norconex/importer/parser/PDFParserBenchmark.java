@@ -0,0 +1,101 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.parser;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.commons.io.output.NullWriter;
+import org.apache.tika.parser.pdf.PDFParser;
+
+import com.norconex.commons.lang.file.ContentType;
+import com.norconex.commons.lang.io.CachedStreamFactory;
+import com.norconex.importer.doc.Doc;
+import com.norconex.importer.parser.impl.AbstractTikaParser;
+import com.norconex.importer.parser.impl.ParallelPDFParser;
+
+/**
+ * Compares the time it takes to parse a large PDF on a single thread
+ * and with {@link ParallelPDFParser}, as done by the "pdf-benchmark"
+ * Maven profile. Optionally takes the number of pages of the generated
+ * PDF as argument (default is 1000).
+ */
+public final class PDFParserBenchmark {
+
+    private static final int RUNS = 3;
+
+    private PDFParserBenchmark() {
+        super();
+    }
+
+    public static void main(String[] args)
+            throws IOException, DocumentParserException {
+        int pages = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        Path file = Files.createTempFile("pdf-benchmark-", ".pdf");
+        try {
+            try (OutputStream out = Files.newOutputStream(file)) {
+                ParallelPDFParserTest.writePDF(out, pages);
+            }
+            AbstractTikaParser single = new AbstractTikaParser(new PDFParser());
+            ParallelPDFParser parallel = new ParallelPDFParser();
+            parallel.setMinPages(1);
+
+            System.out.println("PDF parser benchmark for " + pages
+                    + " pages (best of " + RUNS + " runs):");
+            // warm up
+            parse(single, file);
+            parse(parallel, file);
+            long singleMillis = best(single, file);
+            long parallelMillis = best(parallel, file);
+            print("Single thread", singleMillis);
+            print(parallel.getMaxThreads() + " threads", parallelMillis);
+            System.out.println(String.format("  %-23s%6.2fx", "Speedup:",
+                    (double) singleMillis / Math.max(1, parallelMillis)));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static long best(AbstractTikaParser parser, Path file)
+            throws IOException, DocumentParserException {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            long t0 = System.nanoTime();
+            parse(parser, file);
+            best = Math.min(best, (System.nanoTime() - t0) / 1_000_000);
+        }
+        return best;
+    }
+
+    private static void parse(AbstractTikaParser parser, Path file)
+            throws IOException, DocumentParserException {
+        parser.initialize(new ParseHints());
+        Doc doc = new Doc(file.toString(), new CachedStreamFactory()
+                .newInputStream(Files.newInputStream(file)));
+        doc.getDocInfo().setContentType(ContentType.PDF);
+        try {
+            parser.parseDocument(doc, NullWriter.NULL_WRITER);
+        } finally {
+            doc.dispose();
+        }
+    }
+
+    private static void print(String label, long millis) {
+        System.out.println(
+                String.format("  %-23s%6d ms", label + ":", millis));
+    }
+}
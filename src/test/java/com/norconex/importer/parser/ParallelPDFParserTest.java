@@ -0,0 +1,194 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.util.function.IntUnaryOperator;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAnnotationText;
+import org.apache.tika.parser.pdf.PDFParser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.norconex.commons.lang.file.ContentType;
+import com.norconex.commons.lang.io.CachedStreamFactory;
+import com.norconex.commons.lang.map.Properties;
+import com.norconex.commons.lang.unit.DataUnit;
+import com.norconex.commons.lang.xml.XML;
+import com.norconex.importer.doc.Doc;
+import com.norconex.importer.parser.impl.AbstractTikaParser;
+import com.norconex.importer.parser.impl.ParallelPDFParser;
+
+public class ParallelPDFParserTest {
+
+    private static byte[] pdf;
+    private static byte[] annotatedPdf;
+
+    @BeforeAll
+    public static void setup() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writePDF(out, 20);
+        pdf = out.toByteArray();
+
+        try (PDDocument document = PDDocument.load(pdf)) {
+            PDAnnotationText note = new PDAnnotationText();
+            note.setRectangle(new PDRectangle(50, 50, 20, 20));
+            note.setContents("Annotated page note.");
+            document.getPage(4).getAnnotations().add(note);
+            out.reset();
+            document.save(out);
+            annotatedPdf = out.toByteArray();
+        }
+    }
+
+    @Test
+    public void testSameAsSingleThreaded() throws DocumentParserException {
+        ParallelPDFParser parallel = new ParallelPDFParser();
+        parallel.setMaxThreads(3);
+        parallel.setMinPages(1);
+        assertSameAsSingleThreaded(parallel);
+    }
+
+    @Test
+    public void testBelowMinPages() throws DocumentParserException {
+        ParallelPDFParser parallel = new ParallelPDFParser();
+        parallel.setMaxThreads(3);
+        parallel.setMinPages(21);
+        assertSameAsSingleThreaded(parallel);
+    }
+
+    @Test
+    public void testSameMetadata()
+            throws DocumentParserException, IOException {
+        // pages of different lengths, for page statistics to differ
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writePDF(out, 12, page -> page * 2);
+        byte[] content = out.toByteArray();
+
+        ParallelPDFParser parallel = new ParallelPDFParser();
+        parallel.setMaxThreads(4);
+        parallel.setMinPages(1);
+        Properties expected = parse(new AbstractTikaParser(new PDFParser()),
+                content, new StringWriter()).getMetadata();
+        Properties actual =
+                parse(parallel, content, new StringWriter()).getMetadata();
+
+        Assertions.assertEquals(12,
+                expected.getStrings("pdf:charsPerPage").size());
+        Assertions.assertEquals(expected.getStrings("pdf:charsPerPage"),
+                actual.getStrings("pdf:charsPerPage"));
+        Assertions.assertEquals(
+                expected.getString("pdf:totalUnmappedUnicodeChars"),
+                actual.getString("pdf:totalUnmappedUnicodeChars"));
+        Assertions.assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testAnnotations() throws DocumentParserException {
+        ParallelPDFParser parallel = new ParallelPDFParser();
+        parallel.setMaxThreads(3);
+        parallel.setMinPages(1);
+        StringWriter text = new StringWriter();
+        parse(parallel, annotatedPdf, text);
+        Assertions.assertTrue(
+                text.toString().contains("Annotated page note."));
+    }
+
+    @Test
+    public void testWriteRead() {
+        ParallelPDFParser p = new ParallelPDFParser();
+        p.setMaxThreads(3);
+        p.setMinPages(50);
+        XML.assertWriteRead(p, "parser");
+    }
+
+    private void assertSameAsSingleThreaded(ParallelPDFParser parallel)
+            throws DocumentParserException {
+        StringWriter expectedText = new StringWriter();
+        Doc expected = parse(
+                new AbstractTikaParser(new PDFParser()), pdf, expectedText);
+        StringWriter actualText = new StringWriter();
+        Doc actual = parse(parallel, pdf, actualText);
+
+        Assertions.assertEquals(
+                expected.getMetadata(), actual.getMetadata());
+        Assertions.assertEquals(
+                StringUtils.normalizeSpace(expectedText.toString()),
+                StringUtils.normalizeSpace(actualText.toString()));
+        Assertions.assertTrue(actualText.toString().indexOf("Page 2,")
+                < actualText.toString().indexOf("Page 20,"));
+    }
+
+    private Doc parse(AbstractTikaParser parser, byte[] content,
+            StringWriter output) throws DocumentParserException {
+        parser.initialize(new ParseHints());
+        Doc doc = new Doc("test.pdf", new CachedStreamFactory(
+                DataUnit.KB.toBytes(100).intValue(),
+                DataUnit.KB.toBytes(50).intValue()).newInputStream(
+                        new ByteArrayInputStream(content)));
+        doc.getDocInfo().setContentType(ContentType.PDF);
+        parser.parseDocument(doc, output);
+        return doc;
+    }
+
+    /**
+     * Writes a PDF of the given number of pages, each having a few lines
+     * of text starting with "Page N,".
+     * @param out where to write the PDF
+     * @param pages number of pages
+     * @throws IOException problem writing PDF
+     */
+    static void writePDF(OutputStream out, int pages) throws IOException {
+        writePDF(out, pages, page -> 30);
+    }
+    private static void writePDF(OutputStream out, int pages,
+            IntUnaryOperator linesPerPage) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            document.getDocumentInformation().setTitle("Parallel PDF");
+            document.getDocumentInformation().setAuthor("Norconex");
+            for (int i = 1; i <= pages; i++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content =
+                        new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(PDType1Font.HELVETICA, 12);
+                    content.setLeading(14);
+                    content.newLineAtOffset(50, 700);
+                    int lines = linesPerPage.applyAsInt(i);
+                    for (int line = 1; line <= lines; line++) {
+                        content.showText("Page " + i + ", line " + line
+                                + ": the quick brown fox jumps over "
+                                + "the lazy dog.");
+                        content.newLine();
+                    }
+                    content.endText();
+                }
+            }
+            document.save(out);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.norconex.commons.lang.io.CachedInputStream;
+import com.norconex.commons.lang.io.CachedStreamFactory;
+import com.norconex.importer.doc.Doc;
+import com.norconex.importer.util.ContentAddressedStore.StoredFile;
+
+public class ContentAddressedStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testDeduplication() throws IOException {
+        ContentAddressedStore store = new ContentAddressedStore(tempDir);
+
+        StoredFile f1 = store.store(toStream("same content"));
+        StoredFile f2 = store.store(toStream("same content"));
+        StoredFile f3 = store.store(toStream("other content"));
+
+        assertEquals(f1.getPath(), f2.getPath());
+        assertNotEquals(f1.getPath(), f3.getPath());
+        assertEquals(2, store.getFileCount());
+        assertEquals(1, store.getDuplicateCount());
+        assertEquals(12, store.getSavedBytes());
+        try (InputStream is = f2.newInputStream()) {
+            assertEquals("same content",
+                    IOUtils.toString(is, StandardCharsets.UTF_8));
+        }
+
+        // deleted only when the last reference is closed
+        f1.close();
+        f1.close(); // no effect
+        assertTrue(Files.exists(f2.getPath()));
+        f2.close();
+        assertFalse(Files.exists(f2.getPath()));
+        f3.close();
+        assertEquals(0, store.getFileCount());
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    public void testCachedInputDeduplication() throws IOException {
+        ContentAddressedStore store = new ContentAddressedStore(tempDir);
+        CachedStreamFactory factory = new CachedStreamFactory(
+                1000, 1000, tempDir.resolve("cache"));
+
+        CachedInputStream cis1 = cached(factory, "same content");
+        cis1.read(); // stored from the beginning regardless
+        StoredFile f1 = store.store(cis1);
+        StoredFile f2 = store.store(cached(factory, "same content"));
+
+        assertEquals(f1.getPath(), f2.getPath());
+        assertEquals(1, store.getFileCount());
+        assertEquals(1, store.getDuplicateCount());
+        assertEquals(12, f2.length());
+        try (InputStream is = f1.newInputStream()) {
+            assertEquals("same content",
+                    IOUtils.toString(is, StandardCharsets.UTF_8));
+        }
+
+        // not shared anymore once all references are closed
+        f1.close();
+        f2.close();
+        StoredFile f3 = store.store(cached(factory, "same content"));
+        assertTrue(Files.exists(f3.getPath()));
+        assertEquals(1, store.getDuplicateCount());
+        f3.close();
+    }
+
+    @Test
+    public void testReleasedWithDocument() throws IOException {
+        ContentAddressedStore store = new ContentAddressedStore(tempDir);
+        CachedStreamFactory factory = new CachedStreamFactory(
+                1000, 1000, tempDir.resolve("cache"));
+        Doc doc = new Doc("ref", cached(factory, "doc content"));
+
+        StoredFile f1 = store.store(doc.getInputStream());
+        doc.addDisposable(f1);
+        // e.g., another handler on the same document
+        StoredFile f2 = store.store(doc.getInputStream());
+        doc.addDisposable(f2);
+
+        assertEquals(1, store.getDuplicateCount());
+        assertTrue(Files.exists(f1.getPath()));
+        doc.dispose();
+        assertFalse(Files.exists(f1.getPath()));
+        assertEquals(0, store.getFileCount());
+    }
+
+    private CachedInputStream cached(
+            CachedStreamFactory factory, String content) {
+        return factory.newInputStream(toStream(content));
+    }
+    private InputStream toStream(String content) {
+        return IOUtils.toInputStream(content, StandardCharsets.UTF_8);
+    }
+}
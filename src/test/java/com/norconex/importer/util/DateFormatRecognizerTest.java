@@ -0,0 +1,177 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.text.SimpleDateFormat;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TimeZone;
+
+import org.junit.jupiter.api.Test;
+
+public class DateFormatRecognizerTest {
+
+    private static final String ISO = "yyyy-MM-dd'T'HH:mm:ss";
+    private static final String HTTP = "EEE, dd MMM yyyy HH:mm:ss";
+    private static final String SLASHES = "dd/MM/yyyy";
+    private static final String EPOCH = "EPOCH";
+
+    private final DateFormatRecognizer recognizer = new DateFormatRecognizer(
+            Arrays.asList(ISO, HTTP, SLASHES, EPOCH));
+
+    @Test
+    public void testCandidates() {
+        assertEquals(Arrays.asList(ISO),
+                recognizer.getCandidates("2021-03-04T10:11:12"));
+        assertEquals(Arrays.asList(HTTP),
+                recognizer.getCandidates("Thu, 04 Mar 2021 10:11:12"));
+        assertEquals(Arrays.asList(SLASHES),
+                recognizer.getCandidates("04/03/2021"));
+        assertEquals(Arrays.asList(EPOCH),
+                recognizer.getCandidates("1614852672000"));
+        assertFalse(recognizer.hasCandidate(""));
+        assertFalse(recognizer.hasCandidate("04-Mar-2021"));
+    }
+
+    @Test
+    public void testSameResultAsSequential() {
+        List<String> formats = recognizer.getFormats();
+        for (String date : Arrays.asList("2021-03-04T10:11:12",
+                "Thu, 04 Mar 2021 10:11:12", " 04/03/2021", "04/03/2021 x",
+                "1614852672000", "04-Mar-2021", "2021-03-04")) {
+            String expected = null;
+            for (String format : formats) {
+                expected = FormatUtil.formatDateString(
+                        date, format, null, null);
+                if (expected != null) {
+                    break;
+                }
+            }
+            String actual = null;
+            for (String format : recognizer.getCandidates(date)) {
+                actual = FormatUtil.formatDateString(
+                        date, format, null, null);
+                if (actual != null) {
+                    break;
+                }
+            }
+            assertEquals(expected, actual, "Date: " + date);
+        }
+    }
+
+    // A format must never be filtered out for dates formatted with it,
+    // or for any date it can parse.
+    @Test
+    public void testNeverFiltersParseableDates() {
+        List<String> formats = Arrays.asList(
+                EPOCH, ISO, HTTP, SLASHES, "yyyy-MM-dd", "yyyy-MM-dd HH:mm",
+                "yyyy-MM-dd'T'HH:mm:ss.SSSZ", "yyyy-MM-dd'T'HH:mm:ssXXX",
+                "MM/dd/yy", "d MMM yyyy", "dd MMMM yyyy", "EEEE d MMMM yyyy",
+                "MMM d, yyyy", "MMMM d, yyyy h:mm a", "h:mm a", "HH:mm:ss",
+                "yyyyMMdd", "yyyyMMddHHmmss", "yy.MM.dd G", "d.M.yyyy",
+                "yyyy.MM.dd G 'at' HH:mm:ss z", "EEE MMM dd HH:mm:ss zzz yyyy",
+                "''yy''", "'Date:' yyyy/MM/dd",
+                "yyyy'\u5e74'M'\u6708'd'\u65e5'",
+                "E yyyy", "a h", "MMMyyyy", "ddMMMyyyy", "dd-MMM-yy",
+                "D yyyy", "K:mm a", "kk:mm", "yyyy-MM", "MMM", "EEEE");
+        List<Locale> locales = Arrays.asList(Locale.US, Locale.FRANCE,
+                Locale.GERMANY, Locale.JAPAN, Locale.CHINA,
+                new Locale("ja", "JP", "JP"), new Locale("th", "TH", "TH"),
+                new Locale("ar", "EG"), new Locale("hi", "IN"),
+                new Locale("ru", "RU"));
+        List<ZonedDateTime> dates = Arrays.asList(
+                ZonedDateTime.of(2021, 1, 5, 3, 4, 5, 6_000_000,
+                        ZoneOffset.UTC),
+                ZonedDateTime.of(1999, 12, 31, 23, 59, 59, 0,
+                        ZoneId.of("America/New_York")));
+
+        for (Locale locale : locales) {
+            DateFormatRecognizer r = new DateFormatRecognizer(formats, locale);
+            Set<String> samples = new LinkedHashSet<>();
+            for (int i = 0; i < formats.size(); i++) {
+                for (String sample : format(formats.get(i), locale, dates)) {
+                    assertTrue(r.getCandidateFlags(sample)[i],
+                            locale + " \"" + sample + "\" formatted with "
+                                    + formats.get(i));
+                    samples.add(sample);
+                    samples.add(sample.toUpperCase(locale));
+                    samples.add(sample + " trailing");
+                }
+            }
+            samples.addAll(Arrays.asList("", " ", "NaN", "1E3", "-1", "+5"));
+            for (String sample : samples) {
+                boolean[] flags = r.getCandidateFlags(sample);
+                for (int i = 0; i < formats.size(); i++) {
+                    if (!flags[i]) {
+                        assertFalse(parses(sample, formats.get(i), locale),
+                                locale + " \"" + sample + "\" filtered out "
+                                        + "but parsed by " + formats.get(i));
+                    }
+                }
+            }
+        }
+    }
+
+    private static List<String> format(
+            String format, Locale locale, List<ZonedDateTime> dates) {
+        List<String> samples = new ArrayList<>();
+        for (ZonedDateTime date : dates) {
+            if (EPOCH.equals(format)) {
+                samples.add(Long.toString(date.toInstant().toEpochMilli()));
+                continue;
+            }
+            SimpleDateFormat sdf = new SimpleDateFormat(format, locale);
+            sdf.setTimeZone(TimeZone.getTimeZone(date.getZone()));
+            samples.add(sdf.format(Date.from(date.toInstant())));
+            samples.add(DateTimeFormatter.ofPattern(
+                    format, locale).format(date));
+        }
+        return samples;
+    }
+
+    // Parsed like by DateFormatTagger, or DateCondition and
+    // DateMetadataFilter.
+    private static boolean parses(
+            String date, String format, Locale locale) {
+        return FormatUtil.formatDateString(
+                date, format, locale, EPOCH, null, null) != null
+                || FormatUtil.parseZonedDateTimeString(
+                        date, format, locale, null, null) != null;
+    }
+
+    @Test
+    public void testUnanalyzableFormatsAlwaysCandidates() {
+        // time zones are not analyzed
+        DateFormatRecognizer r = new DateFormatRecognizer(
+                Collections.singletonList("z yyyy"));
+        assertTrue(r.hasCandidate("anything"));
+        assertNotNull(r.getCandidateFlags("anything"));
+    }
+}
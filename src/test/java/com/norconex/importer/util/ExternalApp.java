@@ -14,6 +14,9 @@
  */
 package com.norconex.importer.util;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -24,6 +27,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
@@ -64,6 +69,7 @@ public class ExternalApp {
     public static final String ARG_INFILE_META = "im";
     public static final String ARG_OUTFILE_META = "om";
     public static final String ARG_REFERENCE = "ref";
+    public static final String ARG_WORKER = "worker";
 
     public static final String ENV_STDOUT_BEFORE = "stdout_before";
     public static final String ENV_STDOUT_AFTER = "stdout_after";
@@ -75,6 +81,10 @@ public class ExternalApp {
     public static void main(String[] args) throws IOException {
 
         CommandLine cmd = parseCommandLineArguments(args);
+        if (cmd.hasOption(ARG_WORKER)) {
+            runWorker();
+            return;
+        }
 
         File inFileContent = null;
         File outFileContent = null;
@@ -123,19 +133,70 @@ public class ExternalApp {
             try (Reader r = new FileReader(inFileMeta);
                  Writer w = new FileWriter(outFileMeta)) {
                 p.loadFromProperties(r);
-                for (Entry<String, List<String>> entry : p.entrySet()) {
-                    String[] values = entry.getValue().toArray(
-                            ArrayUtils.EMPTY_STRING_ARRAY);
-                    for (int i = 0; i < values.length; i++) {
-                        values[i] = reverseWords(values[i]);
-                    }
-                    p.set(entry.getKey(), values);
-                }
+                reverseValues(p);
                 p.storeToProperties(w);
             }
         }
     }
 
+    // Same as above as a persistent worker, for each document received
+    // on STDIN. Metadata is expected in "properties" format.
+    private static void runWorker() throws IOException {
+        InputStream in = new BufferedInputStream(System.in);
+        OutputStream out = new BufferedOutputStream(System.out);
+        String header;
+        while ((header = readLine(in)) != null) {
+            String[] parts = header.split(" ", 3);
+            Properties p = new Properties();
+            p.loadFromProperties(new StringReader(new String(
+                    IOUtils.readFully(in, Integer.parseInt(parts[1])),
+                    StandardCharsets.UTF_8)));
+            String content = new String(
+                    IOUtils.readFully(in, Integer.parseInt(parts[0])),
+                    StandardCharsets.UTF_8);
+            reverseValues(p);
+            if (parts.length > 2) {
+                p.set("reference", parts[2]);
+            }
+            StringWriter meta = new StringWriter();
+            p.storeToProperties(meta);
+            StringBuilder b = new StringBuilder();
+            for (String line : IOUtils.readLines(new StringReader(content))) {
+                b.append(reverseWords(line)).append('\n');
+            }
+            byte[] metaBytes =
+                    meta.toString().getBytes(StandardCharsets.UTF_8);
+            byte[] outBytes = b.toString().getBytes(StandardCharsets.UTF_8);
+            out.write(("OK " + outBytes.length + " " + metaBytes.length
+                    + "\n").getBytes(StandardCharsets.UTF_8));
+            out.write(metaBytes);
+            out.write(outBytes);
+            out.flush();
+        }
+    }
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b == -1) {
+                return null;
+            }
+            line.write(b);
+        }
+        return new String(line.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static void reverseValues(Properties p) {
+        for (Entry<String, List<String>> entry : p.entrySet()) {
+            String[] values = entry.getValue().toArray(
+                    ArrayUtils.EMPTY_STRING_ARRAY);
+            for (int i = 0; i < values.length; i++) {
+                values[i] = reverseWords(values[i]);
+            }
+            p.set(entry.getKey(), values);
+        }
+    }
+
     private static String reverseWords(String str) {
         String[] words =  str.split(" ");
         ArrayUtils.reverse(words);
@@ -326,6 +387,8 @@ public class ExternalApp {
                 "Output metadata file (default to STDOUT/STDERR).");
         options.addOption(ARG_REFERENCE, true,
                 "Document reference.");
+        options.addOption(ARG_WORKER, false,
+                "Run as a persistent worker (ignores other arguments).");
 
         CommandLineParser parser = new DefaultParser();
         CommandLine cmd = null;
@@ -0,0 +1,59 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.norconex.commons.lang.map.Properties;
+import com.norconex.commons.lang.text.TextMatcher;
+
+public class FieldMatchCacheTest {
+
+    @Test
+    public void testMatchKeys() {
+        Properties meta = new Properties();
+        meta.add("title", "A title");
+        meta.add("date", "2021-01-01");
+        meta.add("dc:title", "Another title");
+
+        FieldMatchCache cache = new FieldMatchCache();
+        TextMatcher matcher = TextMatcher.regex(".*title");
+
+        Properties matched = cache.matchKeys(matcher, meta);
+        assertEquals(meta.matchKeys(matcher), matched);
+        assertEquals(3, cache.size());
+        // same result from cache
+        assertEquals(meta.matchKeys(matcher), cache.matchKeys(matcher, meta));
+
+        // modified matcher is detected
+        matcher.setPattern("date");
+        assertTrue(cache.matches(matcher, "date"));
+        assertFalse(cache.matches(matcher, "title"));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testMaxSize() {
+        FieldMatchCache cache = new FieldMatchCache(1);
+        TextMatcher matcher = TextMatcher.basic("b");
+        assertFalse(cache.matches(matcher, "a"));
+        assertTrue(cache.matches(matcher, "b"));
+        assertEquals(1, cache.size());
+    }
+}
@@ -0,0 +1,96 @@
+/* Copyright 2021 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.norconex.importer.util.MemoryBudget.Reservation;
+
+public class MemoryBudgetTest {
+
+    @Test
+    public void testReserveAndRelease() throws InterruptedException {
+        MemoryBudget budget = new MemoryBudget(100);
+        Reservation r1 = budget.reserve(60, 0);
+        assertNotNull(r1);
+        assertNull(budget.tryReserve(60));
+        assertNull(budget.reserve(60, 10));
+        assertEquals(1, budget.getTimeoutCount());
+
+        // acquiring never fails, even over budget
+        Reservation r2 = budget.acquire(60);
+        assertEquals(120, budget.getUsedBytes());
+        assertEquals(0, budget.getAvailableBytes());
+
+        r1.close();
+        r1.close(); // no effect
+        r2.close();
+        assertEquals(0, budget.getUsedBytes());
+        assertEquals(120, budget.getPeakBytes());
+
+        // larger than budget is granted when nothing else is reserved
+        try (Reservation r = budget.tryReserve(500)) {
+            assertNotNull(r);
+        }
+    }
+
+    @Test
+    public void testWaitForRelease() throws Exception {
+        MemoryBudget budget = new MemoryBudget(100);
+        Reservation r1 = budget.reserve(100, 0);
+        CompletableFuture<Reservation> waiting = CompletableFuture.supplyAsync(
+                () -> {
+            try {
+                return budget.reserve(50, 10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        });
+        while (budget.getWaitingCount() == 0) {
+            Thread.sleep(5);
+        }
+        r1.close();
+        Reservation r2 = waiting.get(10, TimeUnit.SECONDS);
+        assertNotNull(r2);
+        assertEquals(50, budget.getUsedBytes());
+        assertEquals(1, budget.getWaitCount());
+        r2.close();
+    }
+
+    @Test
+    public void testUnlimitedAndCurrent() throws InterruptedException {
+        MemoryBudget budget = new MemoryBudget(0);
+        assertTrue(budget.isUnlimited());
+        assertNotNull(budget.reserve(Long.MAX_VALUE / 2, 0));
+
+        MemoryBudget previous = MemoryBudget.bind(budget);
+        try {
+            assertSame(budget, MemoryBudget.current());
+        } finally {
+            MemoryBudget.bind(previous);
+        }
+        assertNotNull(MemoryBudget.current());
+    }
+}